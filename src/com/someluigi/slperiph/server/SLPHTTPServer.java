@@ -15,6 +15,7 @@ import org.simpleframework.http.Request;
 import org.simpleframework.http.Response;
 import org.simpleframework.http.core.Container;
 import org.simpleframework.http.core.ContainerServer;
+import org.simpleframework.http.parse.DateClock;
 import org.simpleframework.transport.Server;
 import org.simpleframework.transport.connect.Connection;
 import org.simpleframework.transport.connect.SocketConnection;
@@ -69,7 +70,7 @@ public class SLPHTTPServer implements Container {
             Path p = req.getPath();
             Query qry = req.getQuery();
             PrintStream ps = res.getPrintStream();
-            long time = System.currentTimeMillis();
+            long time = DateClock.getInstance().getTime();
             String service;
 
             if (p.getSegments().length >= 1) {
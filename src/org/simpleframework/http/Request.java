@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -161,6 +162,16 @@ public interface Request extends RequestHeader {
      */
     List<Part> getParts();
 
+    /**
+     * This method is used to iterate over the <code>Part</code> objects that
+     * are associated with the request. If the body is streamed then each part
+     * is consumed only as the iterator advances, so an upload can be processed
+     * one part at a time. Otherwise this iterates over the consumed parts.
+     * 
+     * @return this returns an iterator for the parts of the request
+     */
+    Iterator<Part> getPartIterator();
+
     /**
      * This is used to get the content body. This will essentially get the
      * content from the body and present it as a single string. The encoding of
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.nio.channels.ReadableByteChannel;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -528,6 +529,19 @@ public class RequestWrapper implements Request {
         return this.request.getParts();
     }
 
+    /**
+     * This method is used to iterate over the <code>Part</code> objects that
+     * are associated with the request. If the body is streamed then each part
+     * is consumed only as the iterator advances, so an upload can be processed
+     * one part at a time. Otherwise this iterates over the consumed parts.
+     * 
+     * @return this returns an iterator for the parts of the request
+     */
+    @Override
+    public Iterator<Part> getPartIterator() {
+        return this.request.getPartIterator();
+    }
+
     /**
      * This method returns a string representing the header that was consumed
      * for this request. For performance reasons it is better to acquire the
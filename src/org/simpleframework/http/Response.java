@@ -23,6 +23,8 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.nio.channels.WritableByteChannel;
 
+import org.simpleframework.transport.FlushListener;
+
 /**
  * This is used to represent the HTTP response. This provides methods that can
  * be used to set various characteristics of the response. An
@@ -211,6 +213,36 @@ public interface Response extends ResponseHeader {
      */
     boolean isCommitted();
 
+    /**
+     * This is used to determine if the response can be written to without
+     * queueing more bytes than the client is able to take. Writing never
+     * blocks, so once the bytes queued for the connection exceed the high
+     * watermark this returns false, and it remains false until the queued
+     * bytes have drained to the low watermark. A writer producing a large
+     * body should stop once this returns false and register a listener with
+     * the <code>flush</code> method to be told when to resume.
+     * 
+     * @return this returns true if the response can be written to
+     */
+    boolean isWritable();
+
+    /**
+     * This is used to register a listener that is notified of the progress
+     * of the bytes written from this response. The listener is told when
+     * all of the bytes sent so far have been written to the client, when the
+     * response becomes writable again, or if the bytes could not be written.
+     * Only bytes that have left the output stream are covered, so any bytes
+     * buffered by the stream should be flushed before this is invoked. The
+     * calling thread never waits for the bytes to be written.
+     * 
+     * @param listener
+     *            this is the listener to notify of the flush progress
+     * 
+     * @throws IOException
+     *             thrown if the connection has already been closed
+     */
+    void flush(FlushListener listener) throws IOException;
+
     /**
      * This is used to write the headers that where given to the
      * <code>Response</code>. Any further attempts to give headers to the
@@ -19,7 +19,9 @@
 package org.simpleframework.http.core;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.simpleframework.http.core.ContainerEvent.ERROR;
 import static org.simpleframework.http.core.ContainerEvent.REQUEST_READY;
+import static org.simpleframework.transport.TransportEvent.READ_IDLE;
 import static org.simpleframework.transport.TransportEvent.READ_WAIT;
 
 import java.io.IOException;
@@ -33,6 +35,8 @@ import org.simpleframework.transport.Channel;
 import org.simpleframework.transport.Cursor;
 import org.simpleframework.transport.trace.Trace;
 import org.simpleframework.util.buffer.Allocator;
+import org.simpleframework.util.buffer.DirectAllocator;
+import org.simpleframework.util.buffer.PoolAllocator;
 
 /**
  * The <code>Collector</code> object is used to collect all of the data used to
@@ -41,25 +45,68 @@ import org.simpleframework.util.buffer.Allocator;
  * created and then it is sent to the <code>Selector</code> object for
  * processing. If the request has completed the next request can be collected
  * from the underlying transport using a new collector object.
+ * <p>
+ * A connection waiting for a new request holds as little memory as possible.
+ * The consumer used to parse the request is only created once the first bytes
+ * of the request arrive, and the buffers held by the cursor are released
+ * while the collector waits for the connection to become readable.
+ * <p>
+ * Once the response to the request has been sent the collector is used to
+ * start collecting the next request from the connection. This gives the
+ * collector the opportunity to complete the request, if required, before
+ * the next request is consumed.
+ * <p>
+ * If the request is refused by the filter once its header has been consumed
+ * the response has already been sent. The output of the connection is shut
+ * down once the response is written, and what the client has sent of the
+ * body is read and discarded until the client closes the connection or too
+ * many bytes have been read, at which point the connection is closed.
  * 
  * @author Niall Gallagher
  */
-class Collector implements Entity {
+class Collector implements Entity, Initiator {
+
+    /**
+     * This is the property used to hold request bodies off the heap.
+     */
+    private static final String DIRECT = "org.simpleframework.http.direct";
+
+    /**
+     * This is the most that is discarded from a refused request.
+     */
+    private static final int LIMIT = 65536;
 
     /**
      * This is used to consume the request entity from the channel.
      */
-    private final EntityConsumer entity;
+    private EntityConsumer entity;
+
+    /**
+     * This is the allocator used to buffer the body of the request.
+     * It is created for each request so that the buffers it allocates
+     * can be returned to the pool once the response has finished.
+     */
+    protected final Allocator allocator;
 
     /**
      * This is the channel used to acquire the underlying data.
      */
-    private final Channel channel;
+    protected final Channel channel;
 
     /**
      * This is the cursor used to read and reset the data.
      */
-    private final Cursor cursor;
+    protected final Cursor cursor;
+
+    /**
+     * This is used to refuse requests before the body is consumed.
+     */
+    protected final HeaderFilter filter;
+
+    /**
+     * This is the selector that this collector was queued with.
+     */
+    protected Selector selector;
 
     /**
      * This is the trace used to listen for various collect events.
@@ -71,6 +118,21 @@ class Collector implements Entity {
      */
     private final Timer timer;
 
+    /**
+     * This determines if any bytes of the request have been consumed.
+     */
+    private boolean started;
+
+    /**
+     * This determines if the output has been scheduled to shut down.
+     */
+    private boolean shutdown;
+
+    /**
+     * This is the number of bytes discarded from a refused request.
+     */
+    private int discarded;
+
     /**
      * The <code>Collector</code> object used to collect the data from the
      * underlying transport. In order to collect a body this must be given an
@@ -79,17 +141,37 @@ class Collector implements Entity {
      * 
      * @param allocator
      *            this is the allocator used to buffer data
-     * @param tracker
-     *            this is the tracker used to create sessions
      * @param channel
      *            this is the channel used to read the data
+     * @param filter
+     *            this is used to refuse requests, this may be null
      */
-    public Collector(Allocator allocator, Channel channel) {
-        this.entity = new EntityConsumer(allocator, channel);
+    public Collector(Allocator allocator, Channel channel,
+            HeaderFilter filter) {
         this.timer = new Timer(MILLISECONDS);
         this.cursor = channel.getCursor();
         this.trace = channel.getTrace();
+        this.allocator = Collector.create(allocator);
         this.channel = channel;
+        this.filter = filter;
+    }
+
+    /**
+     * This is used to create the allocator used to buffer the body of a
+     * single request. By default bodies are held in arrays taken from a
+     * pool, however if the <code>org.simpleframework.http.direct</code>
+     * property is set they are held in direct buffers off the heap.
+     * 
+     * @param allocator
+     *            this is the allocator used for bodies beyond the limit
+     * 
+     * @return this returns the allocator used for a single request
+     */
+    private static Allocator create(Allocator allocator) {
+        if (Boolean.getBoolean(DIRECT)) {
+            return new DirectAllocator(allocator);
+        }
+        return new PoolAllocator(allocator);
     }
 
     /**
@@ -98,29 +180,182 @@ class Collector implements Entity {
      * the socket the selector provided can be used to queue the collector until
      * such time as the socket is ready to read. Also, should the entity have
      * completed reading all required content it is handed to the selector as
-     * ready, which processes the entity as a new client HTTP request.
+     * ready, which processes the entity as a new client HTTP request. The
+     * cursor is not read once the entity is finished, so a complete request
+     * is dispatched without a further read on the socket.
      * 
      * @param selector
      *            this is the selector used to queue this
      */
     public void collect(Selector selector) throws IOException {
-        while (this.cursor.isReady()) {
-            if (this.entity.isFinished()) {
-                break;
-            } else {
-                this.timer.set();
-                this.entity.consume(this.cursor);
-            }
+        this.selector = selector;
+
+        while (!this.isFinished() && !this.isRejected()
+                && this.cursor.isReady()) {
+            this.timer.set();
+            this.consume(this.cursor);
+            this.started = true;
         }
-        if (this.cursor.isOpen()) {
-            if (this.entity.isFinished()) {
+        if (this.isRejected()) {
+            this.discard(selector);
+        } else if (this.cursor.isOpen()) {
+            if (this.isFinished()) {
                 this.trace.trace(REQUEST_READY);
                 selector.ready(this);
             } else {
-                this.trace.trace(READ_WAIT);
-                selector.select(this);
+                this.select(selector);
+            }
+        }
+    }
+
+    /**
+     * This is used to consume the bytes from the cursor. If this is the first
+     * time bytes have been consumed then the entity consumer is created. The
+     * consumer is created lazily so that idle connections do not hold the
+     * buffers used to parse the request.
+     * 
+     * @param cursor
+     *            this is the cursor to consume the bytes from
+     */
+    private void consume(Cursor cursor) throws IOException {
+        if (this.entity == null) {
+            this.entity = this.create();
+        }
+        this.entity.consume(cursor);
+    }
+
+    /**
+     * This is used to create the consumer used to consume the entity. By
+     * default the entity consumer will consume both the header and the body
+     * before the entity is considered finished.
+     * 
+     * @return this returns the consumer used to consume the entity
+     */
+    protected EntityConsumer create() {
+        return new EntityConsumer(this.allocator, this.channel, this.filter);
+    }
+
+    /**
+     * This is used to determine if the entity has been fully consumed. If
+     * the entity consumer has not yet been created then no bytes have been
+     * consumed and so the entity can not be finished.
+     * 
+     * @return true if the entity has been fully consumed
+     */
+    protected boolean isFinished() {
+        if (this.entity != null) {
+            return this.entity.isFinished();
+        }
+        return false;
+    }
+
+    /**
+     * This is used to determine if the request was refused by the filter.
+     * A refused request is never finished, instead the bytes that follow
+     * its header are discarded until the connection can be closed.
+     * 
+     * @return true if the request has been refused by the filter
+     */
+    protected boolean isRejected() {
+        if (this.entity != null) {
+            return this.entity.isRejected();
+        }
+        return false;
+    }
+
+    /**
+     * This is used to discard the bytes sent after a refused request. The
+     * first time this is invoked the response is flushed, and the output
+     * is shut down once it has been written. Bytes are then read and thrown
+     * away until the client closes the connection, which is seen as the
+     * end of the stream, or the limit is reached, at which point the
+     * connection is closed. If the client sends nothing for too long the
+     * reactor cancels the read, which closes it also.
+     * 
+     * @param selector
+     *            this is the selector used to queue this
+     */
+    private void discard(Selector selector) throws IOException {
+        byte[] data = new byte[1024];
+        int count = 0;
+
+        if (!this.shutdown) {
+            this.channel.getSender().flush(new Shutdown(this.channel));
+            this.shutdown = true;
+        }
+        while (count >= 0 && this.cursor.isReady()
+                && this.discarded < LIMIT) {
+            count = this.cursor.read(data);
+
+            if (count > 0) {
+                this.discarded += count;
             }
         }
+        if (count < 0 || !this.cursor.isOpen() || this.discarded >= LIMIT) {
+            this.channel.close();
+            this.cancel();
+        } else {
+            selector.select(this);
+        }
+    }
+
+    /**
+     * This is used to wait for more bytes to arrive on the channel. If none
+     * of the bytes for the request have been consumed then the connection is
+     * idle, which is traced so that idle connections can be identified. Idle
+     * connections are those waiting for the start of a new request, and so
+     * the buffers held by the cursor are released while it waits.
+     * 
+     * @param selector
+     *            this is the selector used to queue this
+     */
+    private void select(Selector selector) throws IOException {
+        if (this.started) {
+            this.trace.trace(READ_WAIT);
+        } else {
+            this.trace.trace(READ_IDLE);
+            this.cursor.release();
+        }
+        selector.select(this);
+    }
+
+    /**
+     * This is used to start collecting the next request from the channel.
+     * This is invoked once the response to the request has been sent, as
+     * the request has been fully consumed the next request is collected
+     * immediately using the selector this was collected with.
+     * 
+     * @param channel
+     *            this is the channel to collect the next request from
+     */
+    @Override
+    public void start(Channel channel) throws IOException {
+        this.selector.start(channel);
+    }
+
+    /**
+     * This is used to cancel the collection of the request. This is invoked
+     * if the channel is closed while the collector is waiting for it to
+     * become readable. As the request will never be dispatched the buffers
+     * allocated for its body are released here rather than by the monitor.
+     */
+    public void cancel() {
+        try {
+            this.allocator.close();
+        } catch (Exception cause) {
+            this.trace.trace(ERROR, cause);
+        }
+    }
+
+    /**
+     * This is used to acquire the allocator used to buffer the body of
+     * the request. Once the response has finished the allocator is closed
+     * so that the pooled buffers it allocated can be used again.
+     * 
+     * @return this returns the allocator used to buffer the body
+     */
+    public Allocator getAllocator() {
+        return this.allocator;
     }
 
     /**
@@ -66,6 +66,11 @@ public enum ContainerEvent {
      */
     EXPECT_CONTINUE,
 
+    /**
+     * This event indicates that the request was refused by a filter.
+     */
+    REQUEST_REJECTED,
+
     /**
      * This event indicates that the request is ready for processing.
      */
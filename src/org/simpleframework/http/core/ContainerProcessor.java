@@ -81,8 +81,57 @@ public class ContainerProcessor implements Processor {
      */
     public ContainerProcessor(Container container, Allocator allocator,
             int count, int select) throws IOException {
-        this.selector = new ContainerSelector(container, allocator, count,
-                select);
+        this(container, allocator, count, select, false);
+    }
+
+    /**
+     * Constructor for the <code>ContainerProcessor</code> object. This is used
+     * to create a processor which will convert the provided transport objects
+     * to channels. If bodies are streamed then requests are dispatched to the
+     * container as soon as the header has been read, and the body is read
+     * from the channel as the container reads it.
+     * 
+     * @param container
+     *            the container to dispatch requests to
+     * @param allocator
+     *            this is the allocator used to buffer data
+     * @param count
+     *            this is the number of threads to be used
+     * @param select
+     *            this is the number of selector threads to use
+     * @param stream
+     *            this determines if request bodies are streamed
+     */
+    public ContainerProcessor(Container container, Allocator allocator,
+            int count, int select, boolean stream) throws IOException {
+        this(container, null, allocator, count, select, stream);
+    }
+
+    /**
+     * Constructor for the <code>ContainerProcessor</code> object. This is used
+     * to create a processor which will convert the provided transport objects
+     * to channels. Each request header is examined by the filter as soon as
+     * it is read, which allows a request to be refused with an immediate
+     * response, after which the connection is closed without reading the body.
+     * 
+     * @param container
+     *            the container to dispatch requests to
+     * @param filter
+     *            this is used to refuse requests, this may be null
+     * @param allocator
+     *            this is the allocator used to buffer data
+     * @param count
+     *            this is the number of threads to be used
+     * @param select
+     *            this is the number of selector threads to use
+     * @param stream
+     *            this determines if request bodies are streamed
+     */
+    public ContainerProcessor(Container container, HeaderFilter filter,
+            Allocator allocator, int count, int select, boolean stream)
+            throws IOException {
+        this.selector = new ContainerSelector(container, filter, allocator,
+                count, select, stream);
         this.allocator = allocator;
     }
 
@@ -61,11 +61,21 @@ class ContainerSelector implements Selector {
      */
     private final Container handler;
 
+    /**
+     * This is used to refuse requests before the body is read.
+     */
+    private final HeaderFilter filter;
+
     /**
      * This is the reactor used to schedule the collectors.
      */
     private final Reactor reactor;
 
+    /**
+     * This determines if request bodies are streamed to the container.
+     */
+    private final boolean stream;
+
     /**
      * Constructor for the <code>ContainerSelector</code> object. This is used
      * to create a selector which will collect and dispatch requests using two
@@ -83,11 +93,62 @@ class ContainerSelector implements Selector {
      */
     public ContainerSelector(Container handler, Allocator allocator, int count,
             int select) throws IOException {
+        this(handler, allocator, count, select, false);
+    }
+
+    /**
+     * Constructor for the <code>ContainerSelector</code> object. This is used
+     * to create a selector which will collect and dispatch requests using two
+     * thread pools. If the bodies are streamed then a request is dispatched
+     * once its header has been collected, and the body is read by the thread
+     * servicing the request as it reads the body input stream.
+     * 
+     * @param handler
+     *            this is the container used to service requests
+     * @param allocator
+     *            this is used to allocate any buffers needed
+     * @param count
+     *            this is the number of threads per thread pool
+     * @param select
+     *            this is the number of selector threads to use
+     * @param stream
+     *            this determines if request bodies are streamed
+     */
+    public ContainerSelector(Container handler, Allocator allocator, int count,
+            int select, boolean stream) throws IOException {
+        this(handler, null, allocator, count, select, stream);
+    }
+
+    /**
+     * Constructor for the <code>ContainerSelector</code> object. This is used
+     * to create a selector which will collect and dispatch requests using two
+     * thread pools. The filter provided examines the header of each request
+     * once it has been collected, and can refuse the request before the body
+     * is read from the connection.
+     * 
+     * @param handler
+     *            this is the container used to service requests
+     * @param filter
+     *            this is used to refuse requests, this may be null
+     * @param allocator
+     *            this is used to allocate any buffers needed
+     * @param count
+     *            this is the number of threads per thread pool
+     * @param select
+     *            this is the number of selector threads to use
+     * @param stream
+     *            this determines if request bodies are streamed
+     */
+    public ContainerSelector(Container handler, HeaderFilter filter,
+            Allocator allocator, int count, int select, boolean stream)
+            throws IOException {
         this.executor = new PoolExecutor(Dispatcher.class, count);
         this.collect = new PoolExecutor(Reader.class, count);
         this.reactor = new ExecutorReactor(this.collect, select);
         this.allocator = allocator;
         this.handler = handler;
+        this.stream = stream;
+        this.filter = filter;
     }
 
     /**
@@ -103,7 +164,12 @@ class ContainerSelector implements Selector {
      */
     @Override
     public void start(Channel channel) throws IOException {
-        this.start(new Collector(this.allocator, channel));
+        if (this.stream) {
+            this.start(new StreamCollector(this.allocator, channel,
+                    this.filter));
+        } else {
+            this.start(new Collector(this.allocator, channel, this.filter));
+        }
     }
 
     /**
@@ -136,14 +202,18 @@ class ContainerSelector implements Selector {
     /**
      * The ready event is used when a full HTTP entity has been collected from
      * the underlying transport. On such an event the request and response can
-     * be handled by a container.
+     * be handled by a container. The collector is used to initiate the
+     * next request, which allows it to finish with the channel first.
      * 
      * @param collector
      *            this is the collector used to collect data
      */
     @Override
     public void ready(Collector collector) throws IOException {
-        this.executor.execute(new Dispatcher(this.handler, this, collector));
+        Allocator allocator = collector.getAllocator();
+
+        this.executor.execute(new Dispatcher(this.handler, collector,
+                collector, allocator));
     }
 
     /**
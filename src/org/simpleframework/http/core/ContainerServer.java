@@ -109,7 +109,51 @@ public class ContainerServer implements Server {
      */
     public ContainerServer(Container container, Allocator allocator, int count)
             throws IOException {
-        this.processor = new ContainerProcessor(container, allocator, count);
+        this(container, allocator, count, false);
+    }
+
+    /**
+     * Constructor for the <code>ContainerServer</code> object. If bodies are
+     * streamed then each request is dispatched to the container as soon as
+     * its header has been read, the body is read from the socket only as the
+     * container reads it, so large bodies are not buffered by the server.
+     * 
+     * @param container
+     *            this is the container used to service requests
+     * @param allocator
+     *            this is the allocator used to create buffers
+     * @param count
+     *            this is the number of threads used for each pool
+     * @param stream
+     *            this determines if request bodies are streamed
+     */
+    public ContainerServer(Container container, Allocator allocator,
+            int count, boolean stream) throws IOException {
+        this(container, null, allocator, count, stream);
+    }
+
+    /**
+     * Constructor for the <code>ContainerServer</code> object. The filter is
+     * given the header of each request before the body is read, and it can
+     * refuse the request, for example if the body is too large, so that the
+     * body is never transferred or buffered by the server.
+     * 
+     * @param container
+     *            this is the container used to service requests
+     * @param filter
+     *            this is used to refuse requests, this may be null
+     * @param allocator
+     *            this is the allocator used to create buffers
+     * @param count
+     *            this is the number of threads used for each pool
+     * @param stream
+     *            this determines if request bodies are streamed
+     */
+    public ContainerServer(Container container, HeaderFilter filter,
+            Allocator allocator, int count, boolean stream)
+            throws IOException {
+        this.processor = new ContainerProcessor(container, filter, allocator,
+                count, 1, stream);
         this.server = new ProcessorServer(this.processor, count);
     }
 
@@ -27,6 +27,7 @@ import org.simpleframework.http.Response;
 import org.simpleframework.http.message.Entity;
 import org.simpleframework.transport.Channel;
 import org.simpleframework.transport.trace.Trace;
+import org.simpleframework.util.buffer.Allocator;
 
 /**
  * The <code>Dispatcher</code> object is used to dispatch a request and response
@@ -84,9 +85,12 @@ class Dispatcher implements Runnable {
      *            the reactor used to handle the next request
      * @param entity
      *            this contains the current request entity
+     * @param allocator
+     *            this is the allocator used to buffer the request body
      */
-    public Dispatcher(Container container, Initiator reactor, Entity entity) {
-        this.monitor = new FlushMonitor(reactor, entity);
+    public Dispatcher(Container container, Initiator reactor, Entity entity,
+            Allocator allocator) {
+        this.monitor = new FlushMonitor(reactor, entity, allocator);
         this.request = new RequestEntity(entity, this.monitor);
         this.response = new ResponseEntity(this.request, entity, this.monitor);
         this.channel = entity.getChannel();
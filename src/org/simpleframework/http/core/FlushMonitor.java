@@ -26,6 +26,7 @@ import org.simpleframework.http.message.Entity;
 import org.simpleframework.transport.Channel;
 import org.simpleframework.transport.Sender;
 import org.simpleframework.transport.trace.Trace;
+import org.simpleframework.util.buffer.Allocator;
 
 /**
  * The <code>FlushMonitor</code> object is used to monitor response streams. If
@@ -43,6 +44,11 @@ class FlushMonitor implements Monitor {
      */
     private Initiator reactor;
 
+    /**
+     * This is the allocator used to buffer the request body.
+     */
+    private Allocator allocator;
+
     /**
      * This is the channel associated with the client connection.
      */
@@ -78,9 +84,12 @@ class FlushMonitor implements Monitor {
      *            this is the reactor used to process channels
      * @param entity
      *            this is the entity associated with the channel
+     * @param allocator
+     *            this is the allocator used to buffer the request body
      */
-    public FlushMonitor(Initiator reactor, Entity entity) {
+    public FlushMonitor(Initiator reactor, Entity entity, Allocator allocator) {
         this.timer = new Timer(MILLISECONDS);
+        this.allocator = allocator;
         this.channel = entity.getChannel();
         this.trace = this.channel.getTrace();
         this.reactor = reactor;
@@ -104,6 +113,7 @@ class FlushMonitor implements Monitor {
                 this.timer.set();
                 this.trace.trace(RESPONSE_FINISHED);
                 sender.close();
+                this.release();
             }
         } catch (Exception cause) {
             this.trace.trace(ERROR, cause);
@@ -129,6 +139,7 @@ class FlushMonitor implements Monitor {
                 this.timer.set();
                 this.trace.trace(RESPONSE_FINISHED);
                 sender.close();
+                this.release();
             }
         } catch (Exception cause) {
             this.trace.trace(ERROR, cause);
@@ -154,6 +165,7 @@ class FlushMonitor implements Monitor {
                 this.timer.set();
                 this.trace.trace(RESPONSE_FINISHED);
                 this.reactor.start(this.channel);
+                this.release();
             }
         } catch (Exception cause) {
             this.trace.trace(ERROR, cause);
@@ -174,6 +186,23 @@ class FlushMonitor implements Monitor {
             sender.close();
         } catch (Exception cause) {
             this.trace.trace(ERROR, cause);
+        } finally {
+            this.release();
+        }
+    }
+
+    /**
+     * This is used to release the buffers used to hold the request body.
+     * The buffers are returned to the pool they were taken from, so the
+     * body of the request can not be read once the response has finished.
+     * This is done only once the next request has been started, as any
+     * body that was not read must first be drained from the channel.
+     */
+    private void release() {
+        try {
+            this.allocator.close();
+        } catch (Exception cause) {
+            this.trace.trace(ERROR, cause);
         }
     }
 
@@ -0,0 +1,411 @@
+/*
+ * HeaderEncoder.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import static org.simpleframework.http.Protocol.ACCEPT_RANGES;
+import static org.simpleframework.http.Protocol.AGE;
+import static org.simpleframework.http.Protocol.ALLOW;
+import static org.simpleframework.http.Protocol.CACHE_CONTROL;
+import static org.simpleframework.http.Protocol.CONNECTION;
+import static org.simpleframework.http.Protocol.CONTENT_DISPOSITION;
+import static org.simpleframework.http.Protocol.CONTENT_ENCODING;
+import static org.simpleframework.http.Protocol.CONTENT_LANGUAGE;
+import static org.simpleframework.http.Protocol.CONTENT_LENGTH;
+import static org.simpleframework.http.Protocol.CONTENT_LOCATION;
+import static org.simpleframework.http.Protocol.CONTENT_RANGE;
+import static org.simpleframework.http.Protocol.CONTENT_TYPE;
+import static org.simpleframework.http.Protocol.DATE;
+import static org.simpleframework.http.Protocol.ETAG;
+import static org.simpleframework.http.Protocol.EXPIRES;
+import static org.simpleframework.http.Protocol.LAST_MODIFIED;
+import static org.simpleframework.http.Protocol.LOCATION;
+import static org.simpleframework.http.Protocol.PRAGMA;
+import static org.simpleframework.http.Protocol.PROXY_AUTHENTICATE;
+import static org.simpleframework.http.Protocol.RETRY_AFTER;
+import static org.simpleframework.http.Protocol.SERVER;
+import static org.simpleframework.http.Protocol.SET_COOKIE;
+import static org.simpleframework.http.Protocol.TRAILER;
+import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
+import static org.simpleframework.http.Protocol.UPGRADE;
+import static org.simpleframework.http.Protocol.VARY;
+import static org.simpleframework.http.Protocol.VIA;
+import static org.simpleframework.http.Protocol.WARNING;
+import static org.simpleframework.http.Protocol.WWW_AUTHENTICATE;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.simpleframework.http.Cookie;
+import org.simpleframework.http.Status;
+
+/**
+ * The <code>HeaderEncoder</code> object is used to encode the parts of a
+ * response header directly in to a byte array. Rather than composing the
+ * header as a string and then encoding that string, each part is written as
+ * bytes to the array provided. The status lines for each known status are
+ * encoded in advance, as are the names of the common HTTP headers, so that
+ * for most responses these are simply copied in to the array.
+ * <p>
+ * Every method accepts a null array, in which case nothing is written and
+ * only the position after the part is returned. This allows the size of a
+ * header to be determined with the same code used to encode it, so that an
+ * array of exactly the right size can be taken from a pool. Characters are
+ * encoded as UTF-8, which for the ASCII text of a typical header is a single
+ * byte for each character. This object holds no state other than the tables
+ * created when it is constructed, so it can be shared by all responses.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.core.ResponseMessage
+ */
+class HeaderEncoder {
+
+    /**
+     * This contains the names of the headers that are encoded in advance.
+     */
+    private static final String[] NAMES = { ACCEPT_RANGES, AGE, ALLOW,
+            CACHE_CONTROL, CONNECTION, CONTENT_DISPOSITION, CONTENT_ENCODING,
+            CONTENT_LANGUAGE, CONTENT_LENGTH, CONTENT_LOCATION, CONTENT_RANGE,
+            CONTENT_TYPE, DATE, ETAG, EXPIRES, LAST_MODIFIED, LOCATION, PRAGMA,
+            PROXY_AUTHENTICATE, RETRY_AFTER, SERVER, SET_COOKIE, TRAILER,
+            TRANSFER_ENCODING, UPGRADE, VARY, VIA, WARNING, WWW_AUTHENTICATE };
+
+    /**
+     * This contains the encoded names of the common HTTP headers.
+     */
+    private final Map<String, byte[]> names;
+
+    /**
+     * This contains the encoded HTTP/1.1 status lines by code.
+     */
+    private final byte[][] lines;
+
+    /**
+     * This contains the description of each status line by code.
+     */
+    private final String[] texts;
+
+    /**
+     * Constructor for the <code>HeaderEncoder</code> object. This will
+     * encode the HTTP/1.1 status line for each of the known status codes,
+     * and the name of each common header followed by its separator.
+     */
+    public HeaderEncoder() {
+        this.names = new HashMap<String, byte[]>();
+        this.lines = new byte[600][];
+        this.texts = new String[600];
+
+        for (Status status : Status.values()) {
+            String line = "HTTP/1.1 " + status.code + " " + status.description;
+
+            this.lines[status.code] = this.create(line + "\r\n");
+            this.texts[status.code] = status.description;
+        }
+        for (String name : NAMES) {
+            this.names.put(name, this.create(name + ": "));
+        }
+    }
+
+    /**
+     * This is used to create the encoded form of the specified text. This
+     * is used only when the tables are created, the text encoded in advance
+     * is always ASCII, so each character is a single byte.
+     * 
+     * @param text
+     *            this is the text that is to be encoded
+     * 
+     * @return this returns the bytes of the encoded text
+     */
+    private byte[] create(String text) {
+        byte[] array = new byte[this.encode(text, null, 0)];
+
+        this.encode(text, array, 0);
+        return array;
+    }
+
+    /**
+     * This is used to encode the status line of the response. If the
+     * version is HTTP/1.1 and the description is the one specified for the
+     * status code then the line encoded in advance is used. Otherwise the
+     * line is encoded from its parts.
+     * 
+     * @param major
+     *            this is the major version of the protocol used
+     * @param minor
+     *            this is the minor version of the protocol used
+     * @param code
+     *            this is the status code of the response
+     * @param text
+     *            this is the description of the status code
+     * @param array
+     *            this is the array to encode to, which may be null
+     * @param off
+     *            this is the position to begin encoding at
+     * 
+     * @return this returns the position after the status line
+     */
+    public int encode(int major, int minor, int code, String text,
+            byte[] array, int off) {
+        if (major == 1 && minor == 1 && code >= 0 && code < this.lines.length) {
+            byte[] line = this.lines[code];
+
+            if (line != null && this.texts[code].equals(text)) {
+                return this.encode(line, array, off);
+            }
+        }
+        off = this.encode("HTTP/", array, off);
+        off = this.encode(major, array, off);
+        off = this.encode(".", array, off);
+        off = this.encode(minor, array, off);
+        off = this.encode(" ", array, off);
+        off = this.encode(code, array, off);
+        off = this.encode(" ", array, off);
+        off = this.encode(text, array, off);
+        return this.encode("\r\n", array, off);
+    }
+
+    /**
+     * This is used to encode a single header line. The name of the header
+     * is taken from the table if it is a common header, otherwise it is
+     * encoded along with its separator. The line is terminated with a
+     * carriage return and line feed.
+     * 
+     * @param name
+     *            this is the name of the header to be encoded
+     * @param value
+     *            this is the value of the header to be encoded
+     * @param array
+     *            this is the array to encode to, which may be null
+     * @param off
+     *            this is the position to begin encoding at
+     * 
+     * @return this returns the position after the header line
+     */
+    public int encode(String name, String value, byte[] array, int off) {
+        byte[] prefix = this.names.get(name);
+
+        if (prefix == null) {
+            off = this.encode(name, array, off);
+            off = this.encode(": ", array, off);
+        } else {
+            off = this.encode(prefix, array, off);
+        }
+        off = this.encode(value, array, off);
+        return this.encode("\r\n", array, off);
+    }
+
+    /**
+     * This is used to encode a <code>Set-Cookie</code> header line for the
+     * cookie provided. The attributes are written in the same format as the
+     * <code>toString</code> method of the cookie. If the cookie is a subclass
+     * then its own text is used, as it may have a different format.
+     * 
+     * @param cookie
+     *            this is the cookie that is to be encoded
+     * @param array
+     *            this is the array to encode to, which may be null
+     * @param off
+     *            this is the position to begin encoding at
+     * 
+     * @return this returns the position after the header line
+     */
+    public int encode(Cookie cookie, byte[] array, int off) {
+        if (cookie.getClass() != Cookie.class) {
+            return this.encode(SET_COOKIE, cookie.toString(), array, off);
+        }
+        String path = cookie.getPath();
+        String domain = cookie.getDomain();
+        int expiry = cookie.getExpiry();
+
+        off = this.encode(this.names.get(SET_COOKIE), array, off);
+        off = this.encode(cookie.getName(), array, off);
+        off = this.encode("=", array, off);
+        off = this.encode(cookie.getValue(), array, off);
+        off = this.encode("; version=", array, off);
+        off = this.encode(cookie.getVersion(), array, off);
+
+        if (path != null) {
+            off = this.encode("; path=", array, off);
+            off = this.encode(path, array, off);
+        }
+        if (domain != null) {
+            off = this.encode("; domain=", array, off);
+            off = this.encode(domain, array, off);
+        }
+        if (expiry >= 0) {
+            off = this.encode("; max-age=", array, off);
+            off = this.encode(expiry, array, off);
+        }
+        if (cookie.getSecure()) {
+            off = this.encode("; secure", array, off);
+        }
+        return this.encode(";\r\n", array, off);
+    }
+
+    /**
+     * This is used to encode the empty line that terminates the header.
+     * This must be encoded after the status line and all of the header
+     * lines, once encoded the header is complete.
+     * 
+     * @param array
+     *            this is the array to encode to, which may be null
+     * @param off
+     *            this is the position to begin encoding at
+     * 
+     * @return this returns the position after the header
+     */
+    public int encode(byte[] array, int off) {
+        return this.encode("\r\n", array, off);
+    }
+
+    /**
+     * This is used to copy bytes that have already been encoded in to the
+     * array. If the array is null then this simply returns the position
+     * after the bytes, so that the size of the header can be determined.
+     * 
+     * @param bytes
+     *            this is the bytes that have already been encoded
+     * @param array
+     *            this is the array to encode to, which may be null
+     * @param off
+     *            this is the position to begin encoding at
+     * 
+     * @return this returns the position after the bytes
+     */
+    private int encode(byte[] bytes, byte[] array, int off) {
+        if (array != null) {
+            System.arraycopy(bytes, 0, array, off, bytes.length);
+        }
+        return off + bytes.length;
+    }
+
+    /**
+     * This is used to encode a decimal integer in to the array. The digits
+     * are written directly from the value, so no string is created for
+     * the integer. A negative value is written with a leading minus sign.
+     * 
+     * @param value
+     *            this is the integer value that is to be encoded
+     * @param array
+     *            this is the array to encode to, which may be null
+     * @param off
+     *            this is the position to begin encoding at
+     * 
+     * @return this returns the position after the digits
+     */
+    private int encode(int value, byte[] array, int off) {
+        long number = value;
+        int size = 1;
+
+        if (number < 0) {
+            if (array != null) {
+                array[off] = '-';
+            }
+            number = -number;
+            off++;
+        }
+        for (long i = number; i >= 10; i /= 10) {
+            size++;
+        }
+        if (array != null) {
+            for (int i = off + size - 1; i >= off; i--) {
+                array[i] = (byte) ('0' + number % 10);
+                number /= 10;
+            }
+        }
+        return off + size;
+    }
+
+    /**
+     * This is used to encode the text in to the array as UTF-8. ASCII
+     * characters, which make up almost all header text, are written as a
+     * single byte. Other characters are written as two or three bytes, and
+     * a surrogate pair is written as a single four byte sequence.
+     * 
+     * @param text
+     *            this is the text that is to be encoded
+     * @param array
+     *            this is the array to encode to, which may be null
+     * @param off
+     *            this is the position to begin encoding at
+     * 
+     * @return this returns the position after the encoded text
+     */
+    private int encode(String text, byte[] array, int off) {
+        int length = text.length();
+
+        for (int i = 0; i < length; i++) {
+            int code = text.charAt(i);
+
+            if (code < 0x80) {
+                if (array != null) {
+                    array[off] = (byte) code;
+                }
+                off++;
+            } else {
+                if (Character.isHighSurrogate((char) code) && i + 1 < length) {
+                    char next = text.charAt(i + 1);
+
+                    if (Character.isLowSurrogate(next)) {
+                        code = Character.toCodePoint((char) code, next);
+                        i++;
+                    }
+                }
+                off = this.convert(code, array, off);
+            }
+        }
+        return off;
+    }
+
+    /**
+     * This is used to encode a character that is not ASCII as a sequence
+     * of UTF-8 bytes. A lone surrogate can not be encoded, so like the
+     * charset encoder used by the string class it is replaced with a
+     * question mark.
+     * 
+     * @param code
+     *            this is the code point that is to be encoded
+     * @param array
+     *            this is the array to encode to, which may be null
+     * @param off
+     *            this is the position to begin encoding at
+     * 
+     * @return this returns the position after the encoded bytes
+     */
+    private int convert(int code, byte[] array, int off) {
+        int size = 4;
+
+        if (code >= 0xd800 && code <= 0xdfff) {
+            return this.encode("?", array, off);
+        }
+        if (code < 0x800) {
+            size = 2;
+        } else if (code < 0x10000) {
+            size = 3;
+        }
+        if (array != null) {
+            for (int i = off + size - 1; i > off; i--) {
+                array[i] = (byte) (0x80 | (code & 0x3f));
+                code >>= 6;
+            }
+            array[off] = (byte) ((0xf00 >> size) | code);
+        }
+        return off + size;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * HeaderFilter.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import org.simpleframework.http.Status;
+import org.simpleframework.http.message.Header;
+
+/**
+ * The <code>HeaderFilter</code> object is used to examine the header of a
+ * request before its body is read. This is invoked by the thread collecting
+ * the request as soon as the header has been consumed, and before the client
+ * is sent any <code>100 Continue</code> reply it asked for. If the filter
+ * rejects the request a response with the status given is sent immediately
+ * and the connection is closed without the body being read.
+ * <p>
+ * This allows requests that will not be serviced, such as uploads that are
+ * too large or that are not authorized, to be refused before the body is
+ * transferred and buffered. As this runs on the thread collecting requests
+ * an implementation must not block, and it must be thread safe as it will
+ * examine the headers of many concurrent requests.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.core.ContainerProcessor
+ */
+public interface HeaderFilter {
+
+    /**
+     * This is used to determine if the request with the specified header is
+     * to be admitted. If the request is admitted then its body is read and
+     * it is dispatched to the container as normal. If a status is returned
+     * then the request is refused with that status.
+     * 
+     * @param header
+     *            this is the header of the request to be examined
+     * 
+     * @return this returns null to admit or the status to refuse with
+     */
+    Status filter(Header header);
+}
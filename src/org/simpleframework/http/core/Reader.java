@@ -100,7 +100,8 @@ class Reader implements Operation {
      * This is used to cancel the operation if it has timed out. If the retry is
      * waiting too long to read content from the socket then the retry is
      * canceled and the underlying transport is closed. This helps to clean up
-     * occupied resources.
+     * occupied resources. The collector is then canceled so that anything
+     * waiting for the socket to become readable is released.
      */
     @Override
     public void cancel() {
@@ -108,6 +109,8 @@ class Reader implements Operation {
             this.channel.close();
         } catch (Throwable e) {
             return;
+        } finally {
+            this.task.cancel();
         }
     }
 }
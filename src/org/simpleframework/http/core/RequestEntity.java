@@ -30,6 +30,7 @@ import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SocketChannel;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -384,4 +385,17 @@ class RequestEntity extends RequestMessage implements Request {
     public List<Part> getParts() {
         return this.body.getParts();
     }
+
+    /**
+     * This method is used to iterate over the <code>Part</code> objects that
+     * are associated with the request. If the body is streamed then each part
+     * is consumed only as the iterator advances, so an upload can be processed
+     * one part at a time. Otherwise this iterates over the consumed parts.
+     * 
+     * @return this returns an iterator for the parts of the request
+     */
+    @Override
+    public Iterator<Part> getPartIterator() {
+        return this.body.getPartIterator();
+    }
 }
@@ -28,6 +28,7 @@ import org.simpleframework.http.Path;
 import org.simpleframework.http.Query;
 import org.simpleframework.http.RequestHeader;
 import org.simpleframework.http.message.Header;
+import org.simpleframework.http.parse.ContentTypeParser;
 
 /**
  * The <code>RequestMessage</code> object is used to create a HTTP request
@@ -333,13 +334,17 @@ class RequestMessage implements RequestHeader {
      * type of the message body. This will determine whether there is a
      * <code>Content-Type</code> header, if there is then this will parse that
      * header and represent it as a typed object which will expose the various
-     * parts of the HTTP header.
+     * parts of the HTTP header. The type of the header is shared with other
+     * requests, so the type returned is a copy that can be changed.
      * 
      * @return this returns the content type value if it exists
      */
     @Override
     public ContentType getContentType() {
-        return this.header.getContentType();
+        ContentType type = this.header.getContentType();
+
+        if (type == null) return null;
+        return new ContentTypeParser(type.toString());
     }
 
     /**
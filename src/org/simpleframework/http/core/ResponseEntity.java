@@ -19,6 +19,7 @@
 package org.simpleframework.http.core;
 
 import static org.simpleframework.http.Protocol.CONTENT_LENGTH;
+import static org.simpleframework.http.Protocol.CONTENT_TYPE;
 import static org.simpleframework.http.core.ContainerEvent.WRITE_HEADER;
 
 import java.io.IOException;
@@ -31,9 +32,12 @@ import org.simpleframework.http.ContentType;
 import org.simpleframework.http.Request;
 import org.simpleframework.http.Response;
 import org.simpleframework.http.message.Entity;
+import org.simpleframework.http.parse.HeaderCache;
 import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.FlushListener;
 import org.simpleframework.transport.Sender;
 import org.simpleframework.transport.trace.Trace;
+import org.simpleframework.util.buffer.ArrayPool;
 
 /**
  * This is used to represent the HTTP response. This provides methods that can
@@ -198,11 +202,17 @@ class ResponseEntity extends ResponseMessage implements Response {
      * @return returns the charset used by this response object
      */
     private String getCharset() {
-        ContentType type = this.getContentType();
+        String value = this.getValue(CONTENT_TYPE);
 
-        if (type == null) return "ISO-8859-1";
-        if (type.getCharset() == null) return "ISO-8859-1";
-        return type.getCharset();
+        if (value != null) {
+            ContentType type = HeaderCache.getInstance().getContentType(value);
+            String charset = type.getCharset();
+
+            if (charset != null) {
+                return charset;
+            }
+        }
+        return "ISO-8859-1";
     }
 
     /**
@@ -386,6 +396,42 @@ class ResponseEntity extends ResponseMessage implements Response {
         return this.committed;
     }
 
+    /**
+     * This is used to determine if the response can be written to without
+     * queueing more bytes than the client is able to take. Writing never
+     * blocks, so once the bytes queued for the connection exceed the high
+     * watermark this returns false, and it remains false until the queued
+     * bytes have drained to the low watermark. A writer producing a large
+     * body should stop once this returns false and register a listener with
+     * the <code>flush</code> method to be told when to resume.
+     * 
+     * @return this returns true if the response can be written to
+     */
+    @Override
+    public boolean isWritable() {
+        return this.sender.isWritable();
+    }
+
+    /**
+     * This is used to register a listener that is notified of the progress
+     * of the bytes written from this response. The listener is told when
+     * all of the bytes sent so far have been written to the client, when the
+     * response becomes writable again, or if the bytes could not be written.
+     * Only bytes that have left the output stream are covered, so any bytes
+     * buffered by the stream should be flushed before this is invoked. The
+     * calling thread never waits for the bytes to be written.
+     * 
+     * @param listener
+     *            this is the listener to notify of the flush progress
+     * 
+     * @throws IOException
+     *             thrown if the connection has already been closed
+     */
+    @Override
+    public void flush(FlushListener listener) throws IOException {
+        this.sender.flush(listener);
+    }
+
     /**
      * This is used to write the headers that where given to the
      * <code>Response</code>. Any further attempts to give headers to the
@@ -396,6 +442,9 @@ class ResponseEntity extends ResponseMessage implements Response {
      * done to determine the optimal performance of the output. If no specific
      * Connection header has been specified this will set the connection so that
      * HTTP/1.0 closes by default.
+     * <p>
+     * The header is encoded as bytes directly in to an array taken from the
+     * pool, which is returned once the sender has taken the bytes.
      * 
      * @exception IOException
      *                thrown if there was a problem writing
@@ -403,11 +452,17 @@ class ResponseEntity extends ResponseMessage implements Response {
     @Override
     public void commit() throws IOException {
         if (!this.committed) {
-            String header = this.toString();
-            byte[] message = header.getBytes("UTF-8");
-
-            this.trace.trace(WRITE_HEADER, header);
-            this.sender.send(message);
+            ArrayPool pool = ArrayPool.getInstance();
+            int length = this.encode(null);
+            byte[] message = pool.allocate(length);
+
+            try {
+                this.encode(message);
+                this.trace.trace(WRITE_HEADER, this);
+                this.sender.send(message, 0, length);
+            } finally {
+                pool.recycle(message);
+            }
             this.committed = true;
         }
     }
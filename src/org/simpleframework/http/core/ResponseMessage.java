@@ -23,6 +23,8 @@ import static org.simpleframework.http.Protocol.CONTENT_TYPE;
 import static org.simpleframework.http.Protocol.SET_COOKIE;
 import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
 
+import java.util.List;
+
 import org.simpleframework.http.ContentType;
 import org.simpleframework.http.Cookie;
 import org.simpleframework.http.ResponseHeader;
@@ -40,6 +42,11 @@ import org.simpleframework.http.parse.ContentTypeParser;
  */
 class ResponseMessage extends MessageHeader implements ResponseHeader {
 
+    /**
+     * This is the encoder used to write the header as bytes.
+     */
+    private static final HeaderEncoder ENCODER = new HeaderEncoder();
+
     /**
      * This is the text description used for the response status.
      */
@@ -234,6 +241,40 @@ class ResponseMessage extends MessageHeader implements ResponseHeader {
         return this.toString();
     }
 
+    /**
+     * This is used to encode the HTTP response header in to the array. The
+     * header is written directly as bytes, so no string is composed for it.
+     * If the array provided is null then nothing is written, instead this
+     * returns the number of bytes required, so that an array of the right
+     * size can be acquired before the header is encoded.
+     * 
+     * @param array
+     *            this is the array to encode the header in to, or null
+     * 
+     * @return this returns the number of bytes in the encoded header
+     */
+    public int encode(byte[] array) {
+        int off = ENCODER.encode(this.major, this.minor, this.code, this.text,
+                array, 0);
+        int count = this.getCount();
+
+        for (int i = 0; i < count; i++) {
+            List<String> values = this.getAll(i);
+            String name = this.getName(i);
+            int size = values.size();
+
+            for (int j = 0; j < size; j++) {
+                off = ENCODER.encode(name, values.get(j), array, off);
+            }
+        }
+        if (!this.getCookieValues().isEmpty()) {
+            for (Cookie cookie : this.getCookieValues()) {
+                off = ENCODER.encode(cookie, array, off);
+            }
+        }
+        return ENCODER.encode(array, off);
+    }
+
     /**
      * This is used to compose the HTTP response header. All of the headers
      * added to the response are added, as well as the cookies to form the
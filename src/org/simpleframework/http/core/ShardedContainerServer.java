@@ -0,0 +1,316 @@
+/*
+ * ShardedContainerServer.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.simpleframework.transport.Server;
+import org.simpleframework.transport.Socket;
+import org.simpleframework.transport.TerminateException;
+import org.simpleframework.util.buffer.Allocator;
+import org.simpleframework.util.buffer.Buffer;
+import org.simpleframework.util.buffer.FileAllocator;
+
+/**
+ * The <code>ShardedContainerServer</code> object provides a processor that
+ * partitions the server in to a number of independent shards. Each shard owns
+ * its own selector, its own collector and dispatcher thread pools and its own
+ * negotiation reactor. When a socket is accepted it is assigned to exactly one
+ * shard, and all of the work for that connection is performed by that shard
+ * for the lifetime of the connection.
+ * <p>
+ * Pinning a connection to a shard means the threads servicing it never contend
+ * with the threads of another shard on the hot path. With a shard per core and
+ * a small number of threads in each shard this gives much better locality than
+ * the single set of global pools used by the <code>ContainerServer</code>.
+ * <p>
+ * The allocator is the only thing shared by the shards, and it is owned by
+ * this server rather than by any one shard. Each shard is handed a view of
+ * the allocator that it can not close, and the allocator itself is closed
+ * only once every shard has stopped, so a shard that stops early can never
+ * release the buffers of a shard that is still serving requests.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.core.ContainerServer
+ */
+public class ShardedContainerServer implements Server {
+
+    /**
+     * This is the list of shards that sockets are distributed to.
+     */
+    private final Server[] shards;
+
+    /**
+     * This is the allocator that is shared by all of the shards.
+     */
+    private final Allocator allocator;
+
+    /**
+     * This is used to select the next shard a socket is pinned to.
+     */
+    private final AtomicInteger next;
+
+    /**
+     * Constructor for the <code>ShardedContainerServer</code> object. This
+     * will create a shard for each available processor, where each shard uses
+     * a single thread for collecting and a single thread for dispatching.
+     * 
+     * @param container
+     *            this is the container used to service requests
+     */
+    public ShardedContainerServer(Container container) throws IOException {
+        this(container, new FileAllocator());
+    }
+
+    /**
+     * Constructor for the <code>ShardedContainerServer</code> object. This
+     * will create a shard for each available processor, where each shard uses
+     * a single thread for collecting and a single thread for dispatching.
+     * 
+     * @param container
+     *            this is the container used to service requests
+     * @param allocator
+     *            this is the allocator used to create buffers
+     */
+    public ShardedContainerServer(Container container, Allocator allocator)
+            throws IOException {
+        this(container, allocator, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for the <code>ShardedContainerServer</code> object. This
+     * will create the specified number of shards, where each shard uses a
+     * single thread for collecting and a single thread for dispatching.
+     * 
+     * @param container
+     *            this is the container used to service requests
+     * @param allocator
+     *            this is the allocator used to create buffers
+     * @param shards
+     *            this is the number of shards to distribute to
+     */
+    public ShardedContainerServer(Container container, Allocator allocator,
+            int shards) throws IOException {
+        this(container, allocator, shards, 1);
+    }
+
+    /**
+     * Constructor for the <code>ShardedContainerServer</code> object. This
+     * will create the specified number of shards. Each shard is a complete
+     * server with its own thread pools and selector, so no state other than
+     * the allocator is shared between the shards.
+     * 
+     * @param container
+     *            this is the container used to service requests
+     * @param allocator
+     *            this is the allocator used to create buffers
+     * @param shards
+     *            this is the number of shards to distribute to
+     * @param count
+     *            this is the number of threads used for each shard pool
+     */
+    public ShardedContainerServer(Container container, Allocator allocator,
+            int shards, int count) throws IOException {
+        this(container, null, allocator, shards, count, false);
+    }
+
+    /**
+     * Constructor for the <code>ShardedContainerServer</code> object. This
+     * will create a shard for each available processor. The filter and the
+     * streaming mode are given to every shard, so each request is treated
+     * in the same way regardless of the shard its socket is pinned to.
+     * 
+     * @param container
+     *            this is the container used to service requests
+     * @param filter
+     *            this is used to refuse requests, this may be null
+     * @param allocator
+     *            this is the allocator used to create buffers
+     * @param count
+     *            this is the number of threads used for each shard pool
+     * @param stream
+     *            this determines if request bodies are streamed
+     */
+    public ShardedContainerServer(Container container, HeaderFilter filter,
+            Allocator allocator, int count, boolean stream)
+            throws IOException {
+        this(container, filter, allocator,
+                Runtime.getRuntime().availableProcessors(), count, stream);
+    }
+
+    /**
+     * Constructor for the <code>ShardedContainerServer</code> object. This
+     * will create the specified number of shards. Each shard is a complete
+     * server with its own thread pools and selector, so no state other than
+     * the allocator is shared between the shards.
+     * 
+     * @param container
+     *            this is the container used to service requests
+     * @param filter
+     *            this is used to refuse requests, this may be null
+     * @param allocator
+     *            this is the allocator used to create buffers
+     * @param shards
+     *            this is the number of shards to distribute to
+     * @param count
+     *            this is the number of threads used for each shard pool
+     * @param stream
+     *            this determines if request bodies are streamed
+     */
+    public ShardedContainerServer(Container container, HeaderFilter filter,
+            Allocator allocator, int shards, int count, boolean stream)
+            throws IOException {
+        this.shards = new Server[Math.max(shards, 1)];
+        this.next = new AtomicInteger();
+        this.allocator = allocator;
+        this.start(container, filter, count, stream);
+    }
+
+    /**
+     * This is used to create the shards that the sockets are pinned to. Each
+     * of the shards is a <code>ContainerServer</code> which has been given
+     * its own selector and thread pools. Creating the shards up front ensures
+     * there is no contention when the sockets are distributed.
+     * 
+     * @param container
+     *            this is the container used to service requests
+     * @param filter
+     *            this is used to refuse requests, this may be null
+     * @param count
+     *            this is the number of threads used for each shard pool
+     * @param stream
+     *            this determines if request bodies are streamed
+     */
+    private void start(Container container, HeaderFilter filter, int count,
+            boolean stream) throws IOException {
+        Allocator shared = new SharedAllocator(this.allocator);
+
+        for (int i = 0; i < this.shards.length; i++) {
+            this.shards[i] = new ContainerServer(container, filter, shared,
+                    count, stream);
+        }
+    }
+
+    /**
+     * Used to process the <code>Socket</code> which is a full duplex
+     * communication link that may contain several HTTP requests. The socket
+     * is assigned to a single shard in a round robin fashion, from there all
+     * reads, writes and dispatches for the socket are done by that shard.
+     * 
+     * @param socket
+     *            this is the connected HTTP pipeline to process
+     */
+    @Override
+    public void process(Socket socket) throws IOException {
+        int sequence = this.next.getAndIncrement();
+        int index = (sequence & Integer.MAX_VALUE) % this.shards.length;
+
+        this.shards[index].process(socket);
+    }
+
+    /**
+     * This method is used to stop the <code>Processor</code> such that it will
+     * accept no more pipelines. Stopping this will stop each of the shards in
+     * turn, which ensures that all threads and selectors are released. If any
+     * shard fails to stop the remaining shards are still stopped. Only once
+     * all of the shards have stopped is the shared allocator closed.
+     */
+    @Override
+    public void stop() throws IOException {
+        Exception error = null;
+
+        for (Server shard : this.shards) {
+            try {
+                shard.stop();
+            } catch (Exception cause) {
+                error = cause;
+            }
+        }
+        try {
+            this.allocator.close();
+        } catch (Exception cause) {
+            error = cause;
+        }
+        if (error != null) {
+            throw new TerminateException("Error stopping", error);
+        }
+    }
+
+    /**
+     * The <code>SharedAllocator</code> is the view of the allocator that is
+     * handed to each of the shards. It allocates buffers from the allocator
+     * owned by the server, but closing it does nothing, as the shards stop
+     * one at a time and the allocator must outlive all of them.
+     */
+    private static class SharedAllocator implements Allocator {
+
+        /**
+         * This is the allocator owned by the sharded server.
+         */
+        private final Allocator allocator;
+
+        /**
+         * Constructor for the <code>SharedAllocator</code> object. This is
+         * used to create a view of the allocator that can be handed to each
+         * of the shards without allowing any of them to close it.
+         * 
+         * @param allocator
+         *            this is the allocator owned by the sharded server
+         */
+        public SharedAllocator(Allocator allocator) {
+            this.allocator = allocator;
+        }
+
+        /**
+         * This is used to allocate a default buffer from the allocator
+         * owned by the server.
+         * 
+         * @return this returns an allocated buffer with a default size
+         */
+        @Override
+        public Buffer allocate() throws IOException {
+            return this.allocator.allocate();
+        }
+
+        /**
+         * This is used to allocate a buffer of the specified size from the
+         * allocator owned by the server.
+         * 
+         * @param size
+         *            this is the initial capacity the buffer should have
+         * 
+         * @return this returns an allocated buffer with a specified size
+         */
+        @Override
+        public Buffer allocate(long size) throws IOException {
+            return this.allocator.allocate(size);
+        }
+
+        /**
+         * This does nothing, as the allocator is closed by the sharded
+         * server once all of the shards have been stopped.
+         */
+        @Override
+        public void close() {
+            return;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Shutdown.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.FlushListener;
+
+/**
+ * The <code>Shutdown</code> object is used to shut down the output of a
+ * connection once the response to a refused request has been written. When
+ * the output is shut down the client sees the end of the response, while the
+ * input remains open so that any part of the body already sent can be read
+ * and discarded before the connection is closed. Closing a connection with
+ * unread bytes would reset it, and the client may then lose the response.
+ * <p>
+ * For secure connections the output is not shut down, as that would end
+ * the connection without the closure alert expected by the client. The
+ * response is instead ended when the connection is finally closed.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.core.Collector
+ */
+class Shutdown implements FlushListener {
+
+    /**
+     * This is the channel that is to have its output shut down.
+     */
+    private final Channel channel;
+
+    /**
+     * Constructor for the <code>Shutdown</code> object. This is used to
+     * create a listener that will shut down the output of the channel once
+     * the response that has been sent on it has been fully written.
+     * 
+     * @param channel
+     *            this is the channel that is to be shut down
+     */
+    public Shutdown(Channel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * This is invoked when the writability of the transport changes. As
+     * the response for a refused request is very small this is ignored,
+     * the output is shut down only once the response has been written.
+     * 
+     * @param writable
+     *            this determines if the transport is now writable
+     */
+    @Override
+    public void writable(boolean writable) {
+        return;
+    }
+
+    /**
+     * This is invoked once the response has been written to the socket.
+     * The output of the socket is shut down so the client sees the end of
+     * the response. If this fails the connection is simply closed.
+     */
+    @Override
+    public void flushed() {
+        try {
+            if (!this.channel.isSecure()) {
+                this.channel.getSocket().shutdownOutput();
+            }
+        } catch (Exception cause) {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * This is invoked if the response could not be written. Typically this
+     * occurs when the client has closed the connection, so there is nothing
+     * to be read from it and the connection is closed immediately.
+     * 
+     * @param cause
+     *            this is the cause of the failure
+     */
+    @Override
+    public void failed(Exception cause) {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * StreamCollector.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.simpleframework.http.message.EntityConsumer;
+import org.simpleframework.http.message.StreamConsumer;
+import org.simpleframework.http.message.Throttle;
+import org.simpleframework.transport.Channel;
+import org.simpleframework.util.buffer.Allocator;
+
+/**
+ * The <code>StreamCollector</code> object is used to collect a request whose
+ * body is streamed to the container. The request is dispatched as soon as the
+ * header has been consumed, the body is then read from the socket by the
+ * container thread as it reads the input stream of the request. This allows
+ * large bodies to be processed with a constant amount of memory.
+ * <p>
+ * When the container has read all of the bytes ready on the socket it waits
+ * on this collector, which registers an interest in reading with the reactor.
+ * When the socket becomes readable the reactor runs this collector, which
+ * wakes the container thread rather than consuming the bytes itself. Before
+ * the next request on the connection is collected any small part of the body
+ * the container did not read is read and discarded, if a larger part is left
+ * unread the connection is closed rather than reading it.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.StreamConsumer
+ */
+class StreamCollector extends Collector implements Throttle {
+
+    /**
+     * This is the consumer used to consume the streamed entity.
+     */
+    private StreamConsumer consumer;
+
+    /**
+     * This determines if a reader is waiting for the socket.
+     */
+    private boolean waiting;
+
+    /**
+     * Constructor for the <code>StreamCollector</code> object. This is used
+     * to collect a request from the channel that is dispatched once the
+     * header has been consumed. The allocator is used to buffer the header.
+     * 
+     * @param allocator
+     *            this is the allocator used to buffer data
+     * @param channel
+     *            this is the channel used to read the data
+     * @param filter
+     *            this is used to refuse requests, this may be null
+     */
+    public StreamCollector(Allocator allocator, Channel channel,
+            HeaderFilter filter) {
+        super(allocator, channel, filter);
+    }
+
+    /**
+     * This is used to collect the data from a <code>Channel</code> which is
+     * used to compose the entity. If the header has already been consumed
+     * then the request has been dispatched, and this is being run because
+     * the socket has become readable for a waiting container thread.
+     * 
+     * @param selector
+     *            this is the selector used to queue this
+     */
+    @Override
+    public void collect(Selector selector) throws IOException {
+        if (this.isFinished()) {
+            this.signal();
+        } else {
+            super.collect(selector);
+        }
+    }
+
+    /**
+     * This is used to create the consumer used to consume the entity. The
+     * consumer created will only consume the header, the body is consumed
+     * as it is read from the input stream of the request.
+     * 
+     * @return this returns the consumer used to consume the entity
+     */
+    @Override
+    protected EntityConsumer create() {
+        this.consumer = new StreamConsumer(this.allocator, this.channel,
+                this.filter, this);
+        return this.consumer;
+    }
+
+    /**
+     * This is used to determine if the entity is ready to be dispatched. As
+     * the body is streamed the entity is ready once the header has been
+     * consumed, regardless of whether there is a body to follow. A request
+     * refused by the filter is never ready, as it is never dispatched.
+     * 
+     * @return true if the header of the entity has been consumed
+     */
+    @Override
+    protected boolean isFinished() {
+        if (this.consumer != null) {
+            if (!this.consumer.isRejected()) {
+                return this.consumer.isHeaderFinished();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This is used to wait until the socket has bytes that can be read. The
+     * collector is registered with the selector so that it is run when the
+     * socket becomes readable, at which point the waiting thread is woken.
+     */
+    @Override
+    public synchronized void await() throws IOException {
+        this.waiting = true;
+        this.selector.select(this);
+
+        try {
+            while (this.waiting) {
+                this.wait();
+            }
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException("Interrupted reading body");
+        }
+    }
+
+    /**
+     * This is used to wake the thread waiting for the socket to become
+     * readable. This is done when the socket is readable and also if the
+     * wait has been canceled, in which case the socket will be closed.
+     */
+    private synchronized void signal() {
+        this.waiting = false;
+        this.notifyAll();
+    }
+
+    /**
+     * This is used to start collecting the next request from the channel.
+     * Any part of the body that the container did not read is read and
+     * discarded first, as it would otherwise be taken as the start of the
+     * next request. If too much of the body is unread the channel is closed
+     * instead, as the next request can not be read until it is discarded.
+     * 
+     * @param channel
+     *            this is the channel to collect the next request from
+     */
+    @Override
+    public void start(Channel channel) throws IOException {
+        if (this.consumer != null) {
+            if (!this.consumer.finish()) {
+                channel.close();
+                return;
+            }
+        }
+        super.start(channel);
+    }
+
+    /**
+     * This is used to cancel the collection of the request. If a thread is
+     * waiting for the socket to become readable it is woken, it will then
+     * find that the channel has been closed.
+     */
+    @Override
+    public void cancel() {
+        this.signal();
+    }
+}
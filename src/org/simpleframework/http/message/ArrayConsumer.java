@@ -136,17 +136,18 @@ public abstract class ArrayConsumer implements Consumer {
     }
 
     /**
-     * This method is used to add an additional chunk size to the internal
-     * array. Resizing of the internal array is required as the consumed bytes
-     * may exceed the initial size of the array. In such a scenario the array is
-     * expanded the chunk size.
+     * This method is used to expand the internal array. Resizing of the
+     * internal array is required as the consumed bytes may exceed the initial
+     * size of the array. In such a scenario the capacity of the array is at
+     * least doubled, so that a large message is copied a bounded number of
+     * times rather than once for every chunk read.
      * 
      * @param size
      *            this is the minimum size to expand the array to
      */
     protected void resize(int size) throws IOException {
         if (this.array.length < size) {
-            int expand = this.array.length + this.chunk;
+            int expand = this.array.length << 1;
             int max = Math.max(expand, size);
             byte[] temp = new byte[max];
 
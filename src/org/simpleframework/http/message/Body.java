@@ -20,6 +20,7 @@ package org.simpleframework.http.message;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Iterator;
 import java.util.List;
 
 import org.simpleframework.http.Part;
@@ -89,4 +90,14 @@ public interface Body {
      * @return the list of parts associated with this request
      */
     List<Part> getParts();
+
+    /**
+     * This method is used to iterate over the <code>Part</code> objects that
+     * are associated with the request. If the body is streamed then each part
+     * is consumed only as the iterator advances, so an upload can be processed
+     * one part at a time. Otherwise this iterates over the consumed parts.
+     * 
+     * @return this returns an iterator for the parts of the request
+     */
+    Iterator<Part> getPartIterator();
 }
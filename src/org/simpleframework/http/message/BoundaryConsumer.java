@@ -88,10 +88,14 @@ class BoundaryConsumer extends ArrayConsumer {
      * This does not perform any processing after the boundary has been
      * consumed. Because the boundary consumer is used only as a means to remove
      * the boundary from the underlying stream there is no need to perform any
-     * processing of the value consumed.
+     * processing of the value consumed. Unless each part has its own buffer
+     * the boundary is appended so that the whole upload is retained.
      */
     @Override
     protected void process() throws IOException {
+        if (this.allocator instanceof PartAllocator) {
+            return;
+        }
         this.buffer = this.allocator.allocate(this.chunk);
 
         this.buffer.append(TOKEN);
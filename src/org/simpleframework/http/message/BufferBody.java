@@ -21,6 +21,7 @@ package org.simpleframework.http.message;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import org.simpleframework.http.Part;
@@ -118,6 +119,18 @@ class BufferBody implements Body {
         return Collections.emptyList();
     }
 
+    /**
+     * This method is used to iterate over the <code>Part</code> objects that
+     * are associated with the request. As the body has been fully consumed
+     * this simply iterates over the list of parts that were consumed.
+     * 
+     * @return this returns an iterator for the parts of the request
+     */
+    @Override
+    public Iterator<Part> getPartIterator() {
+        return this.getParts().iterator();
+    }
+
     /**
      * This will acquire the contents of the body in UTF-8. If there is no
      * content encoding and the user of the request wants to deal with the body
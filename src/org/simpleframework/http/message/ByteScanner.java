@@ -0,0 +1,168 @@
+/*
+ * ByteScanner.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The <code>ByteScanner</code> object is used to search a range of bytes for
+ * a delimiter byte. Rather than examining each byte in turn the bytes are
+ * read eight at a time as a long, and every byte of the long is compared with
+ * the delimiter using a small number of arithmetic operations. Only the bytes
+ * that remain after the last whole long are examined individually.
+ * <p>
+ * This is used by the consumers to find line feeds, which end the lines of a
+ * header and the size lines of a chunked body. Typically a header line is
+ * several tens of bytes long, so most of the bytes of a header are skipped a
+ * word at a time. Any terminal token that spans two reads is tracked by the
+ * consumers, this only finds the next occurrence of a byte within a range.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.SegmentConsumer
+ */
+final class ByteScanner {
+
+    /**
+     * This is a long with the low seven bits of each byte set.
+     */
+    private static final long LOW = 0x7f7f7f7f7f7f7f7fL;
+
+    /**
+     * This is a long with the lowest bit of each byte set.
+     */
+    private static final long ONES = 0x0101010101010101L;
+
+    /**
+     * Constructor for the <code>ByteScanner</code> object. This is private
+     * as the scanner contains only static methods and keeps no state, any
+     * state required to track partial matches is kept by the caller.
+     */
+    private ByteScanner() {
+    }
+
+    /**
+     * This is used to find the first occurrence of the specified byte within
+     * the range of the array provided. The array is wrapped in a buffer in
+     * the native byte order so that each long can be read directly from the
+     * array by the runtime without assembling it from individual bytes.
+     * 
+     * @param array
+     *            this is the array containing the bytes to search
+     * @param off
+     *            this is the offset of the first byte to search
+     * @param limit
+     *            this is the offset after the last byte to search
+     * @param value
+     *            this is the byte value that is to be found
+     * 
+     * @return this returns the offset of the byte, or minus one
+     */
+    public static int indexOf(byte[] array, int off, int limit, byte value) {
+        ByteBuffer buffer = ByteBuffer.wrap(array);
+
+        if (limit - off >= 8) {
+            buffer.order(ByteOrder.nativeOrder());
+        }
+        return indexOf(buffer, off, limit, value);
+    }
+
+    /**
+     * This is used to find the first occurrence of the specified byte within
+     * the range of the buffer provided. The absolute methods of the buffer
+     * are used, so its position and limit are not changed. The byte order
+     * of the buffer determines which byte of a long is the first byte.
+     * 
+     * @param buffer
+     *            this is the buffer containing the bytes to search
+     * @param off
+     *            this is the index of the first byte to search
+     * @param limit
+     *            this is the index after the last byte to search
+     * @param value
+     *            this is the byte value that is to be found
+     * 
+     * @return this returns the index of the byte, or minus one
+     */
+    public static int indexOf(ByteBuffer buffer, int off, int limit,
+            byte value) {
+        boolean big = buffer.order() == ByteOrder.BIG_ENDIAN;
+        long pattern = (value & 0xffL) * ONES;
+        int last = limit - 8;
+        int pos = off;
+
+        while (pos <= last) {
+            long word = buffer.getLong(pos) ^ pattern;
+            long found = match(word);
+
+            if (found != 0) {
+                if (big) {
+                    return pos + (Long.numberOfLeadingZeros(found) >>> 3);
+                }
+                return pos + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+            pos += 8;
+        }
+        return remain(buffer, pos, limit, value);
+    }
+
+    /**
+     * This is used to examine the bytes at the end of a range that do not
+     * fill a long. Each of these bytes is compared individually, which is
+     * also done for ranges that are too short to contain a single long.
+     * 
+     * @param buffer
+     *            this is the buffer containing the bytes to search
+     * @param pos
+     *            this is the index of the first byte to compare
+     * @param limit
+     *            this is the index after the last byte to search
+     * @param value
+     *            this is the byte value that is to be found
+     * 
+     * @return this returns the index of the byte, or minus one
+     */
+    private static int remain(ByteBuffer buffer, int pos, int limit,
+            byte value) {
+        for (int i = pos; i < limit; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This is used to determine which bytes of a long are zero. The high bit
+     * of each zero byte is set in the result and all other bits are clear.
+     * Unlike the shorter subtraction based test this can not report a false
+     * match, as no carry can pass from one byte to the next.
+     * 
+     * @param word
+     *            this is the long that is to be examined
+     * 
+     * @return this returns the high bit of each of the zero bytes
+     */
+    private static long match(long word) {
+        long value = (word & LOW) + LOW;
+
+        return ~(value | word | LOW);
+    }
+}
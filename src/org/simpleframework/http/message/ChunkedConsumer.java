@@ -134,6 +134,26 @@ public class ChunkedConsumer extends UpdateConsumer {
         return new BufferBody(this.buffer);
     }
 
+    /**
+     * This is used to append bytes of the chunk size line to the line that
+     * is to be parsed. A size line can be split over several reads, so the
+     * bytes are accumulated until the line feed ending the line is found.
+     * 
+     * @param array
+     *            this is the array containing bytes of the size line
+     * @param off
+     *            this is the offset of the first byte of the line
+     * @param len
+     *            this is the number of bytes of the line to append
+     */
+    private void line(byte[] array, int off, int len) throws IOException {
+        if (this.count + len > this.line.length) {
+            throw new IOException("Chunk size line is too long");
+        }
+        System.arraycopy(array, off, this.line, this.count, len);
+        this.count += len;
+    }
+
     /**
      * This method is used to append the contents of the array to the internal
      * buffer. The appended bytes can be acquired from the internal buffer using
@@ -176,29 +196,32 @@ public class ChunkedConsumer extends UpdateConsumer {
 
         while (off < mark) {
             if (this.terminal || this.last) {
-                while (off < mark) {
-                    if (array[off++] == '\n') { // CR[LF]
-                        if (this.last) { // 0; CRLFCR[LF]
-                            this.finished = true;
-                            return mark - off;
-                        }
-                        this.terminal = false;
-                        break;
+                int line = ByteScanner.indexOf(array, off, mark, (byte) '\n');
+
+                if (line < 0) {
+                    off = mark;
+                } else { // CR[LF]
+                    off = line + 1;
+
+                    if (this.last) { // 0; CRLFCR[LF]
+                        this.finished = true;
+                        return mark - off;
                     }
+                    this.terminal = false;
                 }
             } else if (this.chunk == 0) {
-                while (this.chunk == 0) {
-                    if (off >= mark) {
-                        break;
-                    } else if (array[off++] == '\n') { // CR[LF]
-                        this.parse();
+                int line = ByteScanner.indexOf(array, off, mark, (byte) '\n');
+                int end = line < 0 ? mark : line;
+
+                this.line(array, off, end - off);
+                off = end;
+
+                if (line >= 0) { // CR[LF]
+                    this.parse();
+                    off++;
 
-                        if (this.chunk == 0) { // 0; CR[LF]CRLF
-                            this.last = true;
-                            break;
-                        }
-                    } else {
-                        this.line[this.count++] = array[off - 1];
+                    if (this.chunk == 0) { // 0; CR[LF]CRLF
+                        this.last = true;
                     }
                 }
             } else {
@@ -31,11 +31,34 @@ import org.simpleframework.util.buffer.Allocator;
  * sent and allows consumption of the request body in a the manner specified by
  * the HTTP header. This will allow multipart and chunked content to be consumed
  * from the pipeline.
+ * <p>
+ * By default each part of a multipart body is held in its own buffer, which
+ * moves to a buffer from the allocator once it exceeds one megabyte, so a
+ * large upload does not hold every part in memory. The body as a whole is not
+ * retained in that case. The part limit can be changed with the following
+ * system property, and if it is set to zero the body is held in a single
+ * buffer instead, with each part a segment of that buffer, so that the whole
+ * body can still be read.
+ * 
+ * <pre>
+ * -Dorg.simpleframework.http.part.limit=65536
+ * </pre>
  * 
  * @author Niall Gallagher
  */
 class ConsumerFactory {
 
+    /**
+     * This is the property used to specify the in memory part limit.
+     */
+    private static final String PROPERTY =
+            "org.simpleframework.http.part.limit";
+
+    /**
+     * This is the number of bytes each part holds before it spills.
+     */
+    protected static final int LIMIT = getLimit(1048576);
+
     /**
      * This is used to allocate the memory associated with the body.
      */
@@ -91,7 +114,7 @@ class ConsumerFactory {
         byte[] boundary = this.getBoundary(this.segment);
 
         if (this.isPart(this.segment))
-            return new PartSeriesConsumer(this.allocator, boundary, length);
+            return new PartSeriesConsumer(this.getAllocator(), boundary, length);
         if (this.isChunked(this.segment))
             return new ChunkedConsumer(this.allocator);
         if (this.isFixed(this.segment))
@@ -192,4 +215,57 @@ class ConsumerFactory {
     protected long getContentLength() {
         return this.segment.getContentLength();
     }
+
+    /**
+     * This is used to acquire the allocator used for a multipart body. If
+     * the part limit is greater than zero then a part allocator is returned
+     * so that each part is held in its own buffer. Otherwise the allocator
+     * for the body is returned, and the whole body is held in one buffer.
+     * 
+     * @return this returns the allocator used for a multipart body
+     */
+    protected Allocator getAllocator() {
+        if (LIMIT > 0) {
+            return new PartAllocator(this.allocator, LIMIT);
+        }
+        return this.allocator;
+    }
+
+    /**
+     * This is used to determine if the body is a multipart body whose parts
+     * are each held in their own buffer. Only such a body is parsed as it is
+     * streamed, as its parts can be released while the rest of the body is
+     * read, otherwise the body is streamed without being parsed.
+     * 
+     * @param segment
+     *            this is the header associated with the body
+     * 
+     * @return true if the body is multipart with parts held separately
+     */
+    protected boolean isSeries(Segment segment) {
+        if (LIMIT > 0) {
+            return this.isPart(segment);
+        }
+        return false;
+    }
+
+    /**
+     * This is used to determine the number of bytes each part of a multipart
+     * body can hold in memory. Parts larger than this are moved to a buffer
+     * created by the allocator, which is typically a file. The limit can be
+     * specified with a system property, and if it is zero then each part is
+     * not held in its own buffer.
+     * 
+     * @param value
+     *            this is the default limit used if none is specified
+     * 
+     * @return this returns the number of bytes a part holds in memory
+     */
+    private static int getLimit(int value) {
+        try {
+            return Integer.getInteger(PROPERTY, value);
+        } catch (Exception e) {
+            return value;
+        }
+    }
 }
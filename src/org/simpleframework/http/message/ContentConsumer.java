@@ -32,12 +32,19 @@ import org.simpleframework.util.buffer.Buffer;
  * the boundary token has been read this will add itself as a part to a part
  * list. This part list can then be used with the HTTP request to examine and
  * use the part.
+ * <p>
+ * The terminal token is found using the Boyer-Moore-Horspool search. Rather
+ * than comparing every byte of the content with the token, the last byte of
+ * each position examined determines how far the search can skip ahead. As a
+ * boundary is typically several tens of bytes long most of the content is
+ * never examined. Bytes at the end of a read that could begin the token are
+ * held back and searched again along with the bytes of the next read.
  * 
  * @author Niall Gallagher
  * 
  * @see org.simpleframework.http.message.PartConsumer
  */
-class ContentConsumer extends UpdateConsumer {
+class ContentConsumer implements BodyConsumer {
 
     /**
      * This represents the start of the boundary token for the body.
@@ -65,19 +72,29 @@ class ContentConsumer extends UpdateConsumer {
     private Buffer buffer;
 
     /**
-     * Represents the message boundary that terminates the part body.
+     * This is the full token that terminates the part body.
      */
-    private byte[] boundary;
+    private byte[] terminal;
 
     /**
-     * This is used to determine if the start token had been read.
+     * This is the distance to skip for each value of the last byte.
      */
-    private int start;
+    private int[] skip;
 
     /**
-     * This is used to determine how many boundary tokens are read.
+     * This is the array that the bytes are read in to and searched.
      */
-    private int seek;
+    private byte[] array;
+
+    /**
+     * This is the number of bytes held back from the last read.
+     */
+    private int carry;
+
+    /**
+     * This determines if the terminal token has been consumed.
+     */
+    private boolean finished;
 
     /**
      * Constructor for the <code>ContentConsumer</code> object. This is used to
@@ -96,10 +113,37 @@ class ContentConsumer extends UpdateConsumer {
      */
     public ContentConsumer(Allocator allocator, Segment segment,
             PartSeries series, byte[] boundary) {
+        this.terminal = new byte[START.length + boundary.length];
         this.allocator = allocator;
-        this.boundary = boundary;
         this.segment = segment;
         this.series = series;
+        this.prepare(boundary);
+    }
+
+    /**
+     * This is used to create the terminal token and the skip table used to
+     * search for it. For each byte value the skip table contains the distance
+     * from the last occurrence of that byte in the token, excluding the last
+     * byte of the token, to the end of the token.
+     * 
+     * @param boundary
+     *            this is the message boundary for the body part
+     */
+    private void prepare(byte[] boundary) {
+        int length = this.terminal.length;
+
+        System.arraycopy(START, 0, this.terminal, 0, START.length);
+        System.arraycopy(boundary, 0, this.terminal, START.length,
+                boundary.length);
+        this.skip = new int[256];
+        this.array = new byte[4096 + length];
+
+        for (int i = 0; i < 256; i++) {
+            this.skip[i] = length;
+        }
+        for (int i = 0; i < length - 1; i++) {
+            this.skip[this.terminal[i] & 0xff] = length - 1 - i;
+        }
     }
 
     /**
@@ -119,8 +163,8 @@ class ContentConsumer extends UpdateConsumer {
     /**
      * This is used to acquire the part for this HTTP entity. This will return a
      * part which can be used to read the content of the message, the part
-     * created contains the contents of the body and the headers associated with
-     * it.
+     * created contains the contents of the body and the headers associated
+     * with it.
      * 
      * @return the part provided by the HTTP request message
      */
@@ -128,11 +172,24 @@ class ContentConsumer extends UpdateConsumer {
         return new BufferPart(this.segment, this.buffer);
     }
 
+    /**
+     * This is used to determine whether the part body has been read from the
+     * cursor successfully. In order to determine if all of the bytes have been
+     * read successfully this will check to see of the terminal token had been
+     * consumed.
+     * 
+     * @return true if the part body and terminal have been read
+     */
+    @Override
+    public boolean isFinished() {
+        return this.finished;
+    }
+
     /**
      * This method is used to append the contents of the array to the internal
-     * buffer. The appended bytes can be acquired from the internal buffer using
-     * an <code>InputStream</code>, or the text of the appended bytes can be
-     * acquired by encoding the bytes.
+     * buffer. The appended bytes can be acquired from the internal buffer
+     * using an <code>InputStream</code>, or the text of the appended bytes can
+     * be acquired by encoding the bytes.
      * 
      * @param array
      *            this is the array of bytes to be appended
@@ -149,94 +206,104 @@ class ContentConsumer extends UpdateConsumer {
     }
 
     /**
-     * This is used to push the start and boundary back on to the cursor.
-     * Pushing the boundary back on to the cursor is required to ensure that the
-     * next consumer will have valid data to read from it. Simply resetting the
-     * boundary is not enough as this can cause an infinite loop if the
-     * connection is bad.
+     * This is used to consume the part body from the cursor. Bytes are read
+     * after any bytes held back from the previous read and the whole range
+     * is searched for the terminal token. Once the token is found the bytes
+     * following it are returned to the cursor, as is the token itself so
+     * that the boundary can be consumed by the boundary consumer.
      * 
      * @param cursor
-     *            this is the cursor used by this consumer
+     *            this is the cursor to consume the body from
      */
     @Override
-    protected void commit(Cursor cursor) throws IOException {
-        cursor.push(this.boundary);
-        cursor.push(START);
+    public void consume(Cursor cursor) throws IOException {
+        int ready = cursor.ready();
+
+        while (ready > 0 && !this.finished) {
+            int size = Math.min(ready, this.array.length - this.carry);
+            int count = cursor.read(this.array, this.carry, size);
+
+            if (count > 0) {
+                int reset = this.update(this.carry + count);
+
+                if (reset > 0) {
+                    cursor.reset(reset);
+                }
+            }
+            if (this.finished) {
+                cursor.push(this.terminal);
+                this.array = null;
+                break;
+            }
+            ready = cursor.ready();
+        }
     }
 
     /**
-     * This is used to process the bytes that have been read from the cursor.
-     * This will search for the boundary token within the body of the message
-     * part, when it is found this will returns the number of bytes that
-     * represent the overflow.
+     * This is used to search the bytes within the array for the terminal
+     * token. If the token is found the bytes before it are appended to the
+     * part body and the number of bytes that follow it is returned. If it
+     * is not found the bytes that could start the token are held back.
      * 
-     * @param array
-     *            this is a chunk read from the cursor
-     * @param off
-     *            this is the offset within the array the chunk starts
-     * @param size
+     * @param count
      *            this is the number of bytes within the array
      * 
-     * @return this returns the number of bytes overflow that is read
+     * @return this returns the number of bytes read past the token
      */
-    @Override
-    protected int update(byte[] array, int off, int size) throws IOException {
-        int skip = this.start + this.seek; // did we skip previously
-        int last = off + size;
-        int next = this.start;
-        int mark = off;
-
-        while (off < last) {
-            if (this.start == START.length) { // search for boundary
-                if (array[off++] != this.boundary[this.seek++]) { // boundary
-                                                                  // not found
-                    if (skip > 0) {
-                        this.append(START, 0, next); // write skipped start
-                        this.append(this.boundary, 0, skip - next); // write
-                                                                    // skipped
-                                                                    // boundary
-                    }
-                    skip = this.start = this.seek = 0; // reset scan position
-                }
-                if (this.seek == this.boundary.length) { // boundary found
-                    int excess = this.seek + this.start; // boundary bytes read
-                    int total = off - mark; // total bytes read
-                    int valid = total - excess; // body bytes read
-
-                    this.finished = true;
-
-                    if (valid > 0) {
-                        this.append(array, mark, valid);
-                    }
-                    Part part = this.getPart();
-
-                    if (part != null) {
-                        this.series.addPart(part);
-                    }
-                    return size - total; // remaining excluding boundary
-                }
-            } else {
-                byte octet = array[off++]; // current
-
-                if (octet != START[this.start++]) {
-                    if (skip > 0) {
-                        this.append(START, 0, next); // write skipped start
-                    }
-                    skip = this.start = 0; // reset
-
-                    if (octet == START[0]) { // is previous byte the start
-                        this.start++;
-                    }
+    private int update(int count) throws IOException {
+        int length = this.terminal.length;
+        int last = length - 1;
+        int pos = 0;
+
+        while (pos + length <= count) {
+            int index = last;
+
+            while (this.array[pos + index] == this.terminal[index]) {
+                if (index-- == 0) {
+                    return this.found(pos, count);
                 }
             }
+            pos += this.skip[this.array[pos + last] & 0xff];
         }
-        int excess = this.seek + this.start; // boundary bytes read
-        int total = off - mark; // total bytes read
-        int valid = total - excess; // body bytes read
+        int keep = Math.max(0, count - pos);
+        int valid = count - keep;
 
-        if (valid > 0) { // can we append processed data
-            this.append(array, mark, valid);
+        if (valid > 0) {
+            this.append(this.array, 0, valid);
         }
+        System.arraycopy(this.array, valid, this.array, 0, keep);
+        this.carry = keep;
         return 0;
     }
+
+    /**
+     * This is used to complete the part once the terminal token has been
+     * found. The bytes before the token are appended to the body and the
+     * part is added to the part list. As the search always starts before
+     * the end of any bytes held back, the token always ends within the
+     * bytes of the last read, so only those bytes are returned.
+     * 
+     * @param pos
+     *            this is the offset of the terminal token in the array
+     * @param count
+     *            this is the number of bytes within the array
+     * 
+     * @return this returns the number of bytes read past the token
+     */
+    private int found(int pos, int count) throws IOException {
+        if (pos > 0) {
+            this.append(this.array, 0, pos);
+        }
+        if (this.buffer != null) {
+            this.buffer.close();
+        }
+        Part part = this.getPart();
+
+        this.finished = true;
+
+        if (part != null) {
+            this.series.addPart(part);
+        }
+        return count - pos - this.terminal.length;
+    }
 }
@@ -25,6 +25,8 @@ import static org.simpleframework.http.core.ContainerEvent.READ_HEADER;
 
 import java.io.IOException;
 
+import org.simpleframework.http.Status;
+import org.simpleframework.http.core.HeaderFilter;
 import org.simpleframework.transport.Channel;
 import org.simpleframework.transport.Cursor;
 import org.simpleframework.transport.trace.Trace;
@@ -66,11 +68,21 @@ public class EntityConsumer implements Consumer {
      */
     protected Expectation expect;
 
+    /**
+     * This is used to refuse requests before the body is read.
+     */
+    protected HeaderFilter filter;
+
     /**
      * This is used to trace the progress of the request consumption.
      */
     protected Trace trace;
 
+    /**
+     * This determines if the request was refused by the filter.
+     */
+    protected boolean rejected;
+
     /**
      * Constructor for the <code>EntityConsumer</code> object. This is used to
      * build an entity from the constituent parts. Once all of the parts have
@@ -83,11 +95,30 @@ public class EntityConsumer implements Consumer {
      *            this is the channel used to send a response
      */
     public EntityConsumer(Allocator allocator, Channel channel) {
+        this(allocator, channel, null);
+    }
+
+    /**
+     * Constructor for the <code>EntityConsumer</code> object. This is used to
+     * build an entity from the constituent parts. Once the header has been
+     * consumed it is examined by the filter, which can refuse the request
+     * before any continue is sent and before the body is consumed.
+     * 
+     * @param allocator
+     *            this is used to allocate the memory used
+     * @param channel
+     *            this is the channel used to send a response
+     * @param filter
+     *            this is used to refuse requests, this may be null
+     */
+    public EntityConsumer(Allocator allocator, Channel channel,
+            HeaderFilter filter) {
         this.header = new RequestConsumer();
         this.expect = new Expectation(channel);
         this.factory = new ConsumerFactory(allocator, this.header);
         this.sequence = this.header.getHeader();
         this.trace = channel.getTrace();
+        this.filter = filter;
     }
 
     /**
@@ -120,35 +151,92 @@ public class EntityConsumer implements Consumer {
      * first followed by the body if there is any. There is a body of there is a
      * Content-Length or a Transfer-Encoding header present. If there is no body
      * then a substitute body is given which has an empty input stream.
+     * <p>
+     * The cursor is only asked for more bytes while the header or body still
+     * requires them. Once the body is complete no further read is performed,
+     * which avoids a read on the socket that would return nothing. If the
+     * request has been refused then the body is never consumed.
      * 
      * @param cursor
      *            used to consumed the bytes for the entity
      */
     @Override
     public void consume(Cursor cursor) throws IOException {
-        while (cursor.isReady()) {
-            if (this.header.isFinished()) {
-                if (this.body == null) {
-                    this.trace.trace(HEADER_FINISHED, this.sequence);
+        this.header(cursor);
+
+        if (this.header.isFinished() && !this.rejected) {
+            this.body(cursor);
+        }
+    }
+
+    /**
+     * This consumes the header from the cursor. Once the header has been
+     * fully consumed it is examined by the filter, then any expectation the
+     * client has is executed and the body consumer is created. The body
+     * consumer is determined from the headers, such as the Content-Length
+     * and Transfer-Encoding headers. If the request is refused then no body
+     * consumer is created, as the body will never be consumed.
+     * 
+     * @param cursor
+     *            used to consumed the bytes for the header
+     */
+    protected void header(Cursor cursor) throws IOException {
+        while (!this.header.isFinished() && cursor.isReady()) {
+            this.trace.trace(READ_HEADER);
+            this.header.consume(cursor);
+        }
+        if (this.header.isFinished()) {
+            if (this.body == null && !this.rejected) {
+                this.trace.trace(HEADER_FINISHED, this.sequence);
+                this.rejected = this.reject(this.header);
+
+                if (!this.rejected) {
+                    this.expect.execute(this.header);
                     this.body = this.factory.getInstance();
                 }
-                this.trace.trace(READ_BODY);
-                this.body.consume(cursor);
+            }
+        }
+    }
 
-                if (this.body.isFinished()) {
-                    this.trace.trace(BODY_FINISHED);
-                    break;
-                }
-            } else {
-                this.trace.trace(READ_HEADER);
-                this.header.consume(cursor);
+    /**
+     * This is used to determine if the request is to be refused. If the
+     * filter refuses the request then the response is sent and this returns
+     * true. The collector is then responsible for closing the connection
+     * without the body of the request being consumed.
+     * 
+     * @param header
+     *            this is the header that has been consumed
+     * 
+     * @return this returns true if the request has been refused
+     */
+    private boolean reject(Header header) throws IOException {
+        if (this.filter != null) {
+            Status status = this.filter.filter(header);
+
+            if (status != null) {
+                this.expect.reject(status);
+                return true;
             }
         }
-        if (this.header.isFinished()) {
-            if (this.body == null) {
-                this.trace.trace(HEADER_FINISHED, this.sequence);
-                this.expect.execute(this.header);
-                this.body = this.factory.getInstance();
+        return false;
+    }
+
+    /**
+     * This consumes the body from the cursor. This must only be invoked once
+     * the header has been consumed, as the body consumer is created from the
+     * header. The body is consumed for as long as the cursor has bytes that
+     * can be read without blocking.
+     * 
+     * @param cursor
+     *            used to consumed the bytes for the body
+     */
+    protected void body(Cursor cursor) throws IOException {
+        while (!this.body.isFinished() && cursor.isReady()) {
+            this.trace.trace(READ_BODY);
+            this.body.consume(cursor);
+
+            if (this.body.isFinished()) {
+                this.trace.trace(BODY_FINISHED);
             }
         }
     }
@@ -157,12 +245,16 @@ public class EntityConsumer implements Consumer {
      * This is determined finished when the body has been consumed. If only the
      * header has been consumed then the body will be created using the header
      * information, the body is then read from the cursor, which may read
-     * nothing for an empty body.
+     * nothing for an empty body. A request that was refused is never
+     * finished, as its body is not consumed.
      * 
      * @return this returns true if the entity has been built
      */
     @Override
     public boolean isFinished() {
+        if (this.rejected) {
+            return false;
+        }
         if (this.header.isFinished()) {
             if (this.body == null) {
                 this.trace.trace(HEADER_FINISHED, this.sequence);
@@ -185,4 +277,16 @@ public class EntityConsumer implements Consumer {
     public boolean isHeaderFinished() {
         return this.header.isFinished();
     }
+
+    /**
+     * This is used to determine if the request was refused by the filter.
+     * If the request was refused then a response has already been sent and
+     * the body will not be consumed, the connection must instead be closed
+     * once the response has been written.
+     * 
+     * @return this returns true if the request has been refused
+     */
+    public boolean isRejected() {
+        return this.rejected;
+    }
 }
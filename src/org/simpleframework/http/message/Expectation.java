@@ -19,9 +19,11 @@
 package org.simpleframework.http.message;
 
 import static org.simpleframework.http.core.ContainerEvent.EXPECT_CONTINUE;
+import static org.simpleframework.http.core.ContainerEvent.REQUEST_REJECTED;
 
 import java.io.IOException;
 
+import org.simpleframework.http.Status;
 import org.simpleframework.transport.Channel;
 import org.simpleframework.transport.Sender;
 import org.simpleframework.transport.trace.Trace;
@@ -48,6 +50,12 @@ class Expectation {
     private static final byte[] MESSAGE = { 'C', 'o', 'n', 't', 'i', 'n', 'u',
             'e', '\r', '\n', '\r', '\n' };
 
+    /**
+     * This is used to end the header of a refused request.
+     */
+    private static final String CLOSE = "\r\nContent-Length: 0\r\n"
+            + "Connection: close\r\n\r\n";
+
     /**
      * This is the sender that is used to deliver the continue.
      */
@@ -88,4 +96,22 @@ class Expectation {
             this.sender.flush();
         }
     }
+
+    /**
+     * This is used to refuse the request with the specified status. The
+     * response sent has no body and tells the client that the connection
+     * will be closed, as the body of the request is not going to be read.
+     * This is sent instead of any continue the client is expecting.
+     * 
+     * @param status
+     *            this is the status the request is refused with
+     */
+    public void reject(Status status) throws IOException {
+        String text = "HTTP/1.1 " + status.code + " " + status.description;
+        byte[] data = (text + CLOSE).getBytes("ISO-8859-1");
+
+        this.trace.trace(REQUEST_REJECTED, status);
+        this.sender.send(data);
+        this.sender.flush();
+    }
 }
@@ -0,0 +1,417 @@
+/*
+ * HeaderIndex.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import static org.simpleframework.http.Protocol.ACCEPT;
+import static org.simpleframework.http.Protocol.ACCEPT_CHARSET;
+import static org.simpleframework.http.Protocol.ACCEPT_ENCODING;
+import static org.simpleframework.http.Protocol.ACCEPT_LANGUAGE;
+import static org.simpleframework.http.Protocol.ACCEPT_RANGES;
+import static org.simpleframework.http.Protocol.AUTHORIZATION;
+import static org.simpleframework.http.Protocol.CACHE_CONTROL;
+import static org.simpleframework.http.Protocol.CONNECTION;
+import static org.simpleframework.http.Protocol.CONTENT_DISPOSITION;
+import static org.simpleframework.http.Protocol.CONTENT_ENCODING;
+import static org.simpleframework.http.Protocol.CONTENT_LANGUAGE;
+import static org.simpleframework.http.Protocol.CONTENT_LENGTH;
+import static org.simpleframework.http.Protocol.CONTENT_LOCATION;
+import static org.simpleframework.http.Protocol.CONTENT_RANGE;
+import static org.simpleframework.http.Protocol.CONTENT_TYPE;
+import static org.simpleframework.http.Protocol.COOKIE;
+import static org.simpleframework.http.Protocol.DATE;
+import static org.simpleframework.http.Protocol.EXPECT;
+import static org.simpleframework.http.Protocol.FROM;
+import static org.simpleframework.http.Protocol.HOST;
+import static org.simpleframework.http.Protocol.IF_MATCH;
+import static org.simpleframework.http.Protocol.IF_MODIFIED_SINCE;
+import static org.simpleframework.http.Protocol.IF_NONE_MATCH;
+import static org.simpleframework.http.Protocol.IF_RANGE;
+import static org.simpleframework.http.Protocol.IF_UNMODIFIED_SINCE;
+import static org.simpleframework.http.Protocol.MAX_FORWARDS;
+import static org.simpleframework.http.Protocol.PRAGMA;
+import static org.simpleframework.http.Protocol.PROXY_AUTHORIZATION;
+import static org.simpleframework.http.Protocol.RANGE;
+import static org.simpleframework.http.Protocol.REFERER;
+import static org.simpleframework.http.Protocol.TE;
+import static org.simpleframework.http.Protocol.TRAILER;
+import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
+import static org.simpleframework.http.Protocol.UPGRADE;
+import static org.simpleframework.http.Protocol.USER_AGENT;
+import static org.simpleframework.http.Protocol.VIA;
+import static org.simpleframework.http.Protocol.WARNING;
+
+/**
+ * The <code>HeaderIndex</code> object is used to classify the names of the
+ * well known request headers. Each well known name is given a small integer
+ * identifier, and a name consumed from a request can be classified by its
+ * bytes with a single probe of a perfect hash table. Names that are not well
+ * known are given the <code>UNKNOWN</code> identifier.
+ * <p>
+ * The hash is taken from the length of the name and from only four of its
+ * characters, folded to lower case, so it is cheap to compute regardless of
+ * the length of the name. A multiplier that places every well known name in
+ * its own slot is found when the class is loaded, after which each lookup is
+ * a hash, a single slot and a comparison of the bytes with the name in that
+ * slot. The identifiers can be recorded with each header so that later
+ * lookups can compare identifiers rather than names.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.SegmentConsumer
+ */
+final class HeaderIndex {
+
+    /**
+     * This is the identifier given to names that are not well known.
+     */
+    public static final int UNKNOWN = 0;
+
+    /**
+     * This is the identifier for the <code>Accept-Language</code> header.
+     */
+    public static final int LANGUAGE = 1;
+
+    /**
+     * This is the identifier for the <code>Content-Length</code> header.
+     */
+    public static final int LENGTH = 2;
+
+    /**
+     * This is the identifier for the <code>Content-Type</code> header.
+     */
+    public static final int TYPE = 3;
+
+    /**
+     * This is the identifier for the <code>Content-Disposition</code> header.
+     */
+    public static final int DISPOSITION = 4;
+
+    /**
+     * This is the identifier for the <code>Transfer-Encoding</code> header.
+     */
+    public static final int ENCODING = 5;
+
+    /**
+     * This is the identifier for the <code>Expect</code> header.
+     */
+    public static final int CONTINUE = 6;
+
+    /**
+     * This is the identifier for the <code>Cookie</code> header.
+     */
+    public static final int COOKIES = 7;
+
+    /**
+     * These are the well known names, each identified by its position.
+     */
+    private static final String[] NAMES = {
+        null, ACCEPT_LANGUAGE, CONTENT_LENGTH, CONTENT_TYPE,
+        CONTENT_DISPOSITION, TRANSFER_ENCODING, EXPECT, COOKIE, ACCEPT,
+        ACCEPT_CHARSET, ACCEPT_ENCODING, ACCEPT_RANGES, AUTHORIZATION,
+        CACHE_CONTROL, CONNECTION, CONTENT_ENCODING, CONTENT_LANGUAGE,
+        CONTENT_LOCATION, CONTENT_RANGE, DATE, FROM, HOST, IF_MATCH,
+        IF_MODIFIED_SINCE, IF_NONE_MATCH, IF_RANGE, IF_UNMODIFIED_SINCE,
+        MAX_FORWARDS, PRAGMA, PROXY_AUTHORIZATION, RANGE, REFERER, TE,
+        TRAILER, UPGRADE, USER_AGENT, VIA, WARNING, "Origin",
+        "Keep-Alive", "DNT", "X-Forwarded-For", "X-Forwarded-Proto",
+        "X-Requested-With", "Sec-Fetch-Mode", "Sec-Fetch-Site",
+        "Sec-Fetch-Dest", "Upgrade-Insecure-Requests" };
+
+    /**
+     * This is the shared table used to classify the header names.
+     */
+    private static final HeaderIndex INSTANCE = new HeaderIndex(NAMES);
+
+    /**
+     * This contains the lower case bytes of the name in each slot.
+     */
+    private final byte[][] table;
+
+    /**
+     * This contains the identifier of the name in each slot.
+     */
+    private final int[] index;
+
+    /**
+     * This is the multiplier that places each name in its own slot.
+     */
+    private final int multiplier;
+
+    /**
+     * This is the shift used to take the slot from the hash.
+     */
+    private final int shift;
+
+    /**
+     * This is the length of the longest name within the table.
+     */
+    private final int limit;
+
+    /**
+     * Constructor for the <code>HeaderIndex</code> object. This is used
+     * to build a perfect hash table for the names provided. The smallest
+     * table that is at least twice the number of names, and for which a
+     * multiplier can be found that gives every name its own slot, is used.
+     * 
+     * @param names
+     *            these are the names to be placed in the table
+     */
+    private HeaderIndex(String[] names) {
+        int[] keys = new int[names.length];
+
+        for (int i = 1; i < names.length; i++) {
+            byte[] name = names[i].getBytes();
+
+            keys[i] = key(name, 0, name.length);
+        }
+        int bits = 7;
+        int found = this.search(keys, bits);
+
+        while (found == 0) {
+            if (++bits > 16) {
+                throw new IllegalStateException("No perfect hash for names");
+            }
+            found = this.search(keys, bits);
+        }
+        this.table = new byte[1 << bits][];
+        this.index = new int[1 << bits];
+        this.multiplier = found;
+        this.shift = 32 - bits;
+        this.limit = this.fill(names, keys);
+    }
+
+    /**
+     * This is used to search for a multiplier that places each of the keys
+     * in its own slot of a table of the specified size. If no multiplier can
+     * be found within a bounded number of attempts this returns zero.
+     * 
+     * @param keys
+     *            these are the keys of the names to be placed
+     * @param bits
+     *            this is the number of bits in the slot number
+     * 
+     * @return this returns the multiplier found, or zero if none
+     */
+    private int search(int[] keys, int bits) {
+        boolean[] used = new boolean[1 << bits];
+        int multiplier = 0x9e3779b1;
+
+        for (int attempt = 0; attempt < 100000; attempt++) {
+            int count = 1;
+
+            for (; count < keys.length; count++) {
+                int slot = (keys[count] * multiplier) >>> (32 - bits);
+
+                if (used[slot]) {
+                    break;
+                }
+                used[slot] = true;
+            }
+            if (count == keys.length) {
+                return multiplier;
+            }
+            for (int i = 0; i < used.length; i++) {
+                used[i] = false;
+            }
+            multiplier += 0x6a09e668;
+            multiplier |= 1;
+        }
+        return 0;
+    }
+
+    /**
+     * This is used to place the names in their slots once the multiplier
+     * has been found. The names are stored as lower case bytes so that the
+     * bytes of a consumed name only need to be folded when they differ.
+     * 
+     * @param names
+     *            these are the names to be placed in the table
+     * @param keys
+     *            these are the keys of the names to be placed
+     * 
+     * @return this returns the length of the longest name placed
+     */
+    private int fill(String[] names, int[] keys) {
+        int limit = 0;
+
+        for (int i = 1; i < names.length; i++) {
+            int slot = (keys[i] * this.multiplier) >>> this.shift;
+            String name = names[i].toLowerCase();
+
+            this.table[slot] = name.getBytes();
+            this.index[slot] = i;
+            limit = Math.max(limit, name.length());
+        }
+        return limit;
+    }
+
+    /**
+     * This is used to classify the header name within the specified range
+     * of bytes. If the name is one of the well known names, regardless of
+     * its case, then the identifier of that name is returned, otherwise this
+     * will return the <code>UNKNOWN</code> identifier.
+     * 
+     * @param array
+     *            this is the array that contains the header name
+     * @param off
+     *            this is the offset of the header name
+     * @param size
+     *            this is the length of the header name
+     * 
+     * @return this returns the identifier for the header name
+     */
+    public static int index(byte[] array, int off, int size) {
+        return INSTANCE.find(array, off, size);
+    }
+
+    /**
+     * This is used to classify the specified header name. If the name is
+     * one of the well known names, regardless of its case, then the
+     * identifier of that name is returned, otherwise this will return the
+     * <code>UNKNOWN</code> identifier.
+     * 
+     * @param name
+     *            this is the header name to be classified
+     * 
+     * @return this returns the identifier for the header name
+     */
+    public static int index(String name) {
+        return INSTANCE.find(name);
+    }
+
+    /**
+     * This is used to find the identifier for the name within the range of
+     * bytes. Only the slot selected by the hash of the name is examined, if
+     * the name within that slot is not equal to the bytes, ignoring case,
+     * then the name is not well known.
+     * 
+     * @param array
+     *            this is the array that contains the header name
+     * @param off
+     *            this is the offset of the header name
+     * @param size
+     *            this is the length of the header name
+     * 
+     * @return this returns the identifier for the header name
+     */
+    private int find(byte[] array, int off, int size) {
+        if (size >= 2) {
+            int key = key(array, off, size);
+            int slot = (key * this.multiplier) >>> this.shift;
+            byte[] name = this.table[slot];
+
+            if (name != null && name.length == size) {
+                for (int i = 0; i < size; i++) {
+                    byte octet = array[off + i];
+
+                    if (octet != name[i]) {
+                        if (octet < 'A' || octet > 'Z' || octet + 32 != name[i]) {
+                            return UNKNOWN;
+                        }
+                    }
+                }
+                return this.index[slot];
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * This is used to find the identifier for the specified name. This
+     * works on the characters of the name directly, so that classifying a
+     * name held as a string does not require it to be encoded. A name with
+     * characters that are not ASCII can never match a well known name.
+     * 
+     * @param name
+     *            this is the header name to be classified
+     * 
+     * @return this returns the identifier for the header name
+     */
+    private int find(String name) {
+        int size = name.length();
+
+        if (size >= 2 && size <= this.limit) {
+            int key = key(name);
+            int slot = (key * this.multiplier) >>> this.shift;
+            byte[] text = this.table[slot];
+
+            if (text != null && text.length == size) {
+                for (int i = 0; i < size; i++) {
+                    char value = name.charAt(i);
+
+                    if (value != text[i]) {
+                        if (value < 'A' || value > 'Z' || value + 32 != text[i]) {
+                            return UNKNOWN;
+                        }
+                    }
+                }
+                return this.index[slot];
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * This is used to compute the key for a header name. The key is taken
+     * from the length of the name and the first, middle and last two of
+     * its characters. Setting the lower case bit folds the letters, any
+     * other bytes this alters are rejected when the name is compared.
+     * 
+     * @param array
+     *            this is the array that contains the header name
+     * @param off
+     *            this is the offset of the header name
+     * @param size
+     *            this is the length of the header name
+     * 
+     * @return this returns the key used to hash the header name
+     */
+    private static int key(byte[] array, int off, int size) {
+        int key = size;
+
+        key = key * 31 + (array[off] | 0x20);
+        key = key * 31 + (array[off + (size >> 1)] | 0x20);
+        key = key * 31 + (array[off + size - 2] | 0x20);
+        key = key * 31 + (array[off + size - 1] | 0x20);
+
+        return key;
+    }
+
+    /**
+     * This is used to compute the key for a header name held as a string.
+     * The key is computed from the same characters as for a name held as
+     * bytes, so a name has the same key regardless of how it is held.
+     * 
+     * @param name
+     *            this is the header name to compute the key for
+     * 
+     * @return this returns the key used to hash the header name
+     */
+    private static int key(String name) {
+        int size = name.length();
+        int key = size;
+
+        key = key * 31 + (name.charAt(0) | 0x20);
+        key = key * 31 + (name.charAt(size >> 1) | 0x20);
+        key = key * 31 + (name.charAt(size - 2) | 0x20);
+        key = key * 31 + (name.charAt(size - 1) | 0x20);
+
+        return key;
+    }
+}
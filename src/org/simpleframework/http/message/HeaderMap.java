@@ -0,0 +1,491 @@
+/*
+ * HeaderMap.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The <code>HeaderMap</code> object is used to store the values of HTTP
+ * headers by name without regard for the case of the name. Rather than
+ * converting each name to lower case before it is used as a key, which
+ * creates a new string for every lookup, names are hashed and compared with
+ * their ASCII letters folded to lower case. A lookup for a header that is
+ * present therefore does not create any objects.
+ * <p>
+ * Entries are held in an open addressing table with linear probing, and in
+ * an array that records the order they were added. The values of each header
+ * are held in a small array within the entry, which is also the list that is
+ * returned for the header.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.MessageHeader
+ */
+class HeaderMap {
+
+    /**
+     * This is the table of entries indexed by the hash of their name.
+     */
+    private Entry[] table;
+
+    /**
+     * This contains the entries in the order they were added.
+     */
+    private Entry[] order;
+
+    /**
+     * This is the number of entries currently within the map.
+     */
+    private int size;
+
+    /**
+     * Constructor for the <code>HeaderMap</code> object. This creates a map
+     * that is large enough to hold the headers of a typical message without
+     * having to be expanded.
+     */
+    public HeaderMap() {
+        this(16);
+    }
+
+    /**
+     * Constructor for the <code>HeaderMap</code> object. This creates a map
+     * that can hold the specified number of headers before it must expand.
+     * The table is kept at no more than half full to keep probes short.
+     * 
+     * @param capacity
+     *            this is the number of headers the map can hold
+     */
+    public HeaderMap(int capacity) {
+        this.table = new Entry[Integer.highestOneBit(capacity * 2 - 1) << 1];
+        this.order = new Entry[capacity];
+    }
+
+    /**
+     * This is used to acquire the names of the headers within the map. The
+     * list returned is a copy of the names in the order they were added, so
+     * it can be modified by the caller without affecting the map.
+     * 
+     * @return this returns the names of the headers in the map
+     */
+    public List<String> getNames() {
+        List<String> names = new ArrayList<String>(this.size);
+
+        for (int i = 0; i < this.size; i++) {
+            names.add(this.order[i].name);
+        }
+        return names;
+    }
+
+    /**
+     * This is used to determine the number of headers within the map. This
+     * can be used with the <code>get</code> method taking an index to visit
+     * each of the headers in the order they were added.
+     * 
+     * @return this returns the number of headers in the map
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * This is used to acquire the name of the header at the specified index.
+     * The name is in the case it was given when the header was first added,
+     * which is the case it is expected to be sent in.
+     * 
+     * @param index
+     *            this is the index of the header to acquire the name of
+     * 
+     * @return this returns the name of the header at the index
+     */
+    public String getName(int index) {
+        return this.get(index).name;
+    }
+
+    /**
+     * This is used to acquire the header at the specified index. Headers
+     * are indexed in the order they were added, so visiting the headers by
+     * index gives the same order as the names without copying the names.
+     * 
+     * @param index
+     *            this is the index of the header to acquire
+     * 
+     * @return this returns the values of the header at the index
+     */
+    public Entry get(int index) {
+        if (index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index);
+        }
+        return this.order[index];
+    }
+
+    /**
+     * This is used to acquire the values for the named header. If there is
+     * no header with the specified name then this will return null. This
+     * does not create any objects, regardless of the case of the name.
+     * 
+     * @param name
+     *            this is the name of the header to acquire
+     * 
+     * @return this returns the values of the header, or null
+     */
+    public Entry get(String name) {
+        int hash = hash(name);
+        int mask = this.table.length - 1;
+
+        for (int i = hash & mask; this.table[i] != null; i = (i + 1) & mask) {
+            Entry entry = this.table[i];
+
+            if (entry.hash == hash && equal(entry.name, name)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This is used to acquire the values for the named header. If there is
+     * no header with the specified name then an empty entry is created for
+     * the name, so that values can be added to the list returned.
+     * 
+     * @param name
+     *            this is the name of the header to acquire
+     * 
+     * @return this returns the values of the header
+     */
+    public Entry put(String name) {
+        Entry entry = this.get(name);
+
+        if (entry == null) {
+            entry = new Entry(name, hash(name));
+
+            if (this.size == this.order.length) {
+                this.expand(this.size + 1);
+            }
+            if ((this.size + 1) * 2 > this.table.length) {
+                this.table = new Entry[this.table.length << 1];
+                this.rehash();
+            }
+            this.order[this.size++] = entry;
+            this.insert(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * This is used to remove the named header from the map. If there is no
+     * header with the specified name then this does nothing. As removal is
+     * rare for headers the table is rebuilt rather than using tombstones.
+     * 
+     * @param name
+     *            this is the name of the header to remove
+     */
+    public void remove(String name) {
+        Entry entry = this.get(name);
+
+        if (entry != null) {
+            for (int i = 0, j = 0; i < this.size; i++) {
+                if (this.order[i] != entry) {
+                    this.order[j++] = this.order[i];
+                }
+            }
+            this.order[--this.size] = null;
+            this.rehash();
+        }
+    }
+
+    /**
+     * This is used to expand the order array so that it can hold the number
+     * of entries required. The array is at least doubled in size each time
+     * it is expanded so that adding headers is performed in constant time.
+     * 
+     * @param require
+     *            this is the number of entries the array must hold
+     */
+    private void expand(int require) {
+        int length = Math.max(this.order.length << 1, require);
+        Entry[] temp = new Entry[length];
+
+        System.arraycopy(this.order, 0, temp, 0, this.size);
+        this.order = temp;
+    }
+
+    /**
+     * This is used to rebuild the hash table from the order array. This is
+     * done when the table is expanded and when an entry is removed, as the
+     * probe sequence of the remaining entries may have been broken.
+     */
+    private void rehash() {
+        for (int i = 0; i < this.table.length; i++) {
+            this.table[i] = null;
+        }
+        for (int i = 0; i < this.size; i++) {
+            this.insert(this.order[i]);
+        }
+    }
+
+    /**
+     * This is used to insert the entry in to the first free slot of the
+     * hash table from the position determined by its hash. The table must
+     * always contain at least one free slot.
+     * 
+     * @param entry
+     *            this is the entry to be inserted in to the table
+     */
+    private void insert(Entry entry) {
+        int mask = this.table.length - 1;
+        int index = entry.hash & mask;
+
+        while (this.table[index] != null) {
+            index = (index + 1) & mask;
+        }
+        this.table[index] = entry;
+    }
+
+    /**
+     * This is used to fold a character to lower case. ASCII letters, which
+     * make up almost every header name, are folded without a table lookup.
+     * Other characters are folded using the character data of the runtime.
+     * 
+     * @param value
+     *            this is the character to be folded
+     * 
+     * @return this returns the lower case form of the character
+     */
+    private static char fold(char value) {
+        if (value < 128) {
+            if (value >= 'A' && value <= 'Z') {
+                return (char) (value + 32);
+            }
+            return value;
+        }
+        return Character.toLowerCase(value);
+    }
+
+    /**
+     * This is used to hash a header name without regard for case. Each of
+     * the characters is folded to lower case before it is hashed, so that
+     * names that differ only in case have the same hash.
+     * 
+     * @param name
+     *            this is the header name to be hashed
+     * 
+     * @return this returns the case insensitive hash of the name
+     */
+    private static int hash(String name) {
+        int length = name.length();
+        int hash = 0;
+
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + fold(name.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * This is used to compare two header names without regard for case.
+     * Characters are only folded if they differ, so names that have the
+     * same case are compared as quickly as with a normal comparison.
+     * 
+     * @param left
+     *            this is the first header name to compare
+     * @param right
+     *            this is the second header name to compare
+     * 
+     * @return this returns true if the names are equal ignoring case
+     */
+    private static boolean equal(String left, String right) {
+        int length = left.length();
+
+        if (length != right.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char first = left.charAt(i);
+            char second = right.charAt(i);
+
+            if (first != second) {
+                if (fold(first) != fold(second)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The <code>Entry</code> object represents the values of a header. The
+     * values are held in a small array that grows as required, which avoids
+     * the nodes of a linked list. This is the list that is returned for the
+     * header, so changes to it change the values of the header.
+     */
+    static class Entry extends AbstractList<String> implements RandomAccess {
+
+        /**
+         * This is the name of the header as it was first added.
+         */
+        private final String name;
+
+        /**
+         * This is the case insensitive hash of the header name.
+         */
+        private final int hash;
+
+        /**
+         * This contains the values that have been added for the header.
+         */
+        private String[] values;
+
+        /**
+         * This is the number of values that have been added.
+         */
+        private int count;
+
+        /**
+         * Constructor for the <code>Entry</code> object. This creates an
+         * entry with no values. The array for the values is created when
+         * the first value is added to the entry.
+         * 
+         * @param name
+         *            this is the name of the header as it was added
+         * @param hash
+         *            this is the case insensitive hash of the name
+         */
+        public Entry(String name, int hash) {
+            this.name = name;
+            this.hash = hash;
+        }
+
+        /**
+         * This is used to acquire the value at the specified index. If the
+         * index is not within the values of the header then an exception is
+         * thrown as with any other list.
+         * 
+         * @param index
+         *            this is the index of the value to acquire
+         * 
+         * @return this returns the value at the specified index
+         */
+        @Override
+        public String get(int index) {
+            if (index >= this.count) {
+                throw new IndexOutOfBoundsException("Index " + index);
+            }
+            return this.values[index];
+        }
+
+        /**
+         * This is used to replace the value at the specified index. The
+         * previous value is returned, as with any other list.
+         * 
+         * @param index
+         *            this is the index of the value to replace
+         * @param value
+         *            this is the value to be placed at the index
+         * 
+         * @return this returns the value that was replaced
+         */
+        @Override
+        public String set(int index, String value) {
+            String previous = this.get(index);
+
+            this.values[index] = value;
+            return previous;
+        }
+
+        /**
+         * This is used to insert a value at the specified index. If the
+         * array of values is full then it is doubled in size. Typically
+         * a header will have only a single value.
+         * 
+         * @param index
+         *            this is the index to insert the value at
+         * @param value
+         *            this is the value to be inserted
+         */
+        @Override
+        public void add(int index, String value) {
+            if (index > this.count || index < 0) {
+                throw new IndexOutOfBoundsException("Index " + index);
+            }
+            if (this.values == null) {
+                this.values = new String[2];
+            }
+            if (this.count == this.values.length) {
+                String[] temp = new String[this.count << 1];
+
+                System.arraycopy(this.values, 0, temp, 0, this.count);
+                this.values = temp;
+            }
+            System.arraycopy(this.values, index, this.values, index + 1,
+                    this.count - index);
+            this.values[index] = value;
+            this.count++;
+            this.modCount++;
+        }
+
+        /**
+         * This is used to remove the value at the specified index. The
+         * values following the index are moved down to fill the gap.
+         * 
+         * @param index
+         *            this is the index of the value to remove
+         * 
+         * @return this returns the value that was removed
+         */
+        @Override
+        public String remove(int index) {
+            String value = this.get(index);
+
+            System.arraycopy(this.values, index + 1, this.values, index,
+                    this.count - index - 1);
+            this.values[--this.count] = null;
+            this.modCount++;
+            return value;
+        }
+
+        /**
+         * This is used to remove all of the values from the header. The
+         * array holding the values is retained so that values set after
+         * the header is cleared do not need a new array.
+         */
+        @Override
+        public void clear() {
+            for (int i = 0; i < this.count; i++) {
+                this.values[i] = null;
+            }
+            this.count = 0;
+            this.modCount++;
+        }
+
+        /**
+         * This returns the number of values that have been added for the
+         * header. A header that has been cleared is still within the map
+         * but has no values.
+         * 
+         * @return this returns the number of values for the header
+         */
+        @Override
+        public int size() {
+            return this.count;
+        }
+    }
+}
@@ -0,0 +1,442 @@
+/*
+ * IndexedHeader.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The <code>IndexedHeader</code> object is used to store the headers of a
+ * consumed HTTP message without creating a string for each header name and
+ * value. Each header is recorded as the offset and length of its name and
+ * value within the array the message was consumed in to. Strings are only
+ * created for a header when that header is first requested, at which point
+ * they are stored in the message and are not created again.
+ * <p>
+ * Typically a client will send many headers that are never examined, such
+ * as those sent by a browser with every request. Recording the offsets of
+ * these headers rather than decoding them avoids creating strings that are
+ * never used. Headers consisting of only ASCII characters, which is almost
+ * all headers, are decoded without the use of a charset decoder.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.SegmentConsumer
+ */
+class IndexedHeader extends MessageHeader {
+
+    /**
+     * This is the charset used to decode headers that are not ASCII.
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /**
+     * This is the charset used to decode headers that are ASCII.
+     */
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /**
+     * This contains the identifier and offsets for each header.
+     */
+    private int[] index;
+
+    /**
+     * This is the array that contains the bytes of the headers.
+     */
+    private byte[] source;
+
+    /**
+     * This is the number of headers that have been recorded.
+     */
+    private int count;
+
+    /**
+     * This is the number of headers that have not been decoded.
+     */
+    private int pending;
+
+    /**
+     * This determines if headers have been decoded out of order.
+     */
+    private boolean sorted;
+
+    /**
+     * Constructor for the <code>IndexedHeader</code> object. This is used to
+     * create a message header that can record headers as offsets within the
+     * array they were consumed in to. Headers can also be added as strings in
+     * the same way as with any other message header.
+     */
+    public IndexedHeader() {
+        this.index = new int[80];
+        this.sorted = true;
+    }
+
+    /**
+     * This is used to record a header as offsets within the array provided.
+     * The header is not decoded until it is requested. All headers recorded
+     * must be within the same array, which should not be modified once the
+     * headers have been recorded. The identifier of the name, if it is well
+     * known, is recorded so that lookups can avoid comparing names.
+     * 
+     * @param source
+     *            this is the array that contains the header
+     * @param id
+     *            this is the identifier of the well known name
+     * @param name
+     *            this is the offset of the header name
+     * @param size
+     *            this is the length of the header name
+     * @param value
+     *            this is the offset of the header value
+     * @param length
+     *            this is the length of the header value
+     */
+    public void addValue(byte[] source, int id, int name, int size,
+            int value, int length) {
+        int mark = this.count * 5;
+
+        if (mark + 5 > this.index.length) {
+            this.expand(mark + 5);
+        }
+        this.index[mark] = name;
+        this.index[mark + 1] = size;
+        this.index[mark + 2] = value;
+        this.index[mark + 3] = length;
+        this.index[mark + 4] = id;
+        this.source = source;
+        this.pending++;
+        this.count++;
+    }
+
+    /**
+     * This is used to expand the array used to store the header offsets. The
+     * array is doubled in size each time it is expanded so that adding the
+     * headers is performed in constant time.
+     * 
+     * @param size
+     *            this is the minimum size of the expanded array
+     */
+    private void expand(int size) {
+        int capacity = Math.max(this.index.length << 1, size);
+        int[] temp = new int[capacity];
+
+        System.arraycopy(this.index, 0, temp, 0, this.count * 5);
+        this.index = temp;
+    }
+
+    /**
+     * This is used to acquire the names of the of the headers that have been
+     * added to the message. All of the recorded headers are decoded before
+     * the names are returned. The names are returned in the order in which
+     * they were consumed, even if some were decoded out of order.
+     * 
+     * @return a list of strings representing the header names
+     */
+    @Override
+    public List<String> getNames() {
+        if (this.pending > 0) {
+            this.resolve();
+        }
+        List<String> names = super.getNames();
+
+        if (!this.sorted) {
+            Collections.sort(names, new Order());
+        }
+        return names;
+    }
+
+    /**
+     * This returns all of the values for the named header. If there are any
+     * recorded headers with the name provided that have not been decoded then
+     * they are decoded and stored in the message before the values are
+     * returned. Once decoded a header is not decoded again.
+     * 
+     * @param name
+     *            the name of the header whose values are to be returned
+     * 
+     * @return this returns all of the values for the named header
+     */
+    @Override
+    public List<String> getAll(String name) {
+        if (this.pending > 0) {
+            this.resolve(name, HeaderIndex.index(name));
+            this.sorted = false;
+        }
+        return super.getAll(name);
+    }
+
+    /**
+     * This is used to find the values for the named header without creating
+     * the header if it does not exist. If there are any recorded headers with
+     * the name provided that have not been decoded then they are decoded and
+     * stored in the message before the values are returned.
+     * 
+     * @param name
+     *            the name of the header whose values are to be returned
+     * 
+     * @return this returns the values for the named header, or null
+     */
+    @Override
+    protected List<String> find(String name) {
+        if (this.pending > 0) {
+            this.resolve(name, HeaderIndex.index(name));
+            this.sorted = false;
+        }
+        return super.find(name);
+    }
+
+    /**
+     * This is used to remove the named header from the message. Any recorded
+     * headers with the name that have not been decoded are discarded, so that
+     * they can not be decoded later and appear to have not been removed.
+     * 
+     * @param name
+     *            the HTTP message header to remove from the message
+     */
+    @Override
+    public void remove(String name) {
+        if (this.pending > 0) {
+            this.discard(name, HeaderIndex.index(name));
+        }
+        super.remove(name);
+    }
+
+    /**
+     * This is used to discard the recorded headers that have the specified
+     * name without decoding them. Each matching header is marked as decoded
+     * in the same way as a header that has been added to the message.
+     * 
+     * @param name
+     *            this is the name of the headers to be discarded
+     * @param id
+     *            this is the identifier of the name to be discarded
+     */
+    private void discard(String name, int id) {
+        for (int i = 0; i < this.count && this.pending > 0; i++) {
+            int mark = i * 5;
+            int size = this.index[mark + 1];
+
+            if (size >= 0 && this.match(mark, name, id)) {
+                this.index[mark + 1] = -size - 1;
+                this.pending--;
+            }
+        }
+    }
+
+    /**
+     * This is used to decode all of the recorded headers that have not yet
+     * been decoded. Headers are decoded in the order they were recorded so
+     * that the values of a header are in the order they were consumed.
+     */
+    private void resolve() {
+        for (int i = 0; i < this.count && this.pending > 0; i++) {
+            int mark = i * 5;
+
+            if (this.index[mark + 1] >= 0) {
+                String name = this.text(mark);
+
+                this.resolve(name, this.index[mark + 4]);
+            }
+        }
+    }
+
+    /**
+     * This is used to decode the recorded headers that have the specified
+     * name. Each matching header is added to the message and marked as
+     * decoded. A decoded header has its name length stored as a negative
+     * value so that the name can still be compared when sorting.
+     * 
+     * @param name
+     *            this is the name of the headers to be decoded
+     * @param id
+     *            this is the identifier of the name to be decoded
+     */
+    private void resolve(String name, int id) {
+        List<String> list = null;
+
+        for (int i = 0; i < this.count && this.pending > 0; i++) {
+            int mark = i * 5;
+            int size = this.index[mark + 1];
+
+            if (size >= 0 && this.match(mark, name, id)) {
+                if (list == null) {
+                    list = super.getAll(this.text(mark));
+                }
+                list.add(this.text(mark + 2));
+                this.index[mark + 1] = -size - 1;
+                this.pending--;
+            }
+        }
+    }
+
+    /**
+     * This is used to determine if the recorded header at the specified
+     * offset has the name provided. Names are compared without regard for
+     * case, as is required for HTTP header names. If the name is well known
+     * only the identifiers need to be compared.
+     * 
+     * @param mark
+     *            this is the offset of the recorded header name
+     * @param name
+     *            this is the name to compare the header name with
+     * @param id
+     *            this is the identifier of the name to compare with
+     * 
+     * @return this returns true if the header has the specified name
+     */
+    private boolean match(int mark, String name, int id) {
+        if (this.index[mark + 4] != id) {
+            return false;
+        }
+        if (id != HeaderIndex.UNKNOWN) {
+            return true;
+        }
+        int off = this.index[mark];
+        int size = this.length(mark);
+
+        if (size != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            char left = (char) (this.source[off + i] & 0xff);
+            char right = name.charAt(i);
+
+            if (left != right) {
+                if (Character.toLowerCase(left) != Character.toLowerCase(right)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This is used to find the first recorded header with the specified name.
+     * If there is no recorded header with the name then this returns the
+     * number of headers recorded, which places names that were not consumed
+     * after those that were.
+     * 
+     * @param name
+     *            this is the name of the header to find
+     * 
+     * @return this returns the position of the first matching header
+     */
+    private int position(String name) {
+        int id = HeaderIndex.index(name);
+
+        for (int i = 0; i < this.count; i++) {
+            if (this.match(i * 5, name, id)) {
+                return i;
+            }
+        }
+        return this.count;
+    }
+
+    /**
+     * This is used to acquire the length at the specified position. If the
+     * header has been decoded the length of the name is stored as a negative
+     * value, in which case the original length is recovered from it.
+     * 
+     * @param mark
+     *            this is the position of the offset and length
+     * 
+     * @return this returns the length stored at the position
+     */
+    private int length(int mark) {
+        int size = this.index[mark + 1];
+
+        if (size < 0) {
+            return -size - 1;
+        }
+        return size;
+    }
+
+    /**
+     * This is used to decode the offsets at the specified position in to a
+     * string. If all of the bytes are ASCII then they are copied directly in
+     * to the string, otherwise the bytes are decoded as UTF-8, which is
+     * compatible with the ISO-8859-1 encoding of HTTP headers for ASCII.
+     * 
+     * @param mark
+     *            this is the position of the offset and length to decode
+     * 
+     * @return this returns the decoded string for the offsets
+     */
+    private String text(int mark) {
+        int off = this.index[mark];
+        int size = this.length(mark);
+
+        return decode(this.source, off, size);
+    }
+
+    /**
+     * This is used to decode the specified range of bytes in to a string. If
+     * all of the bytes are ASCII then they are copied directly in to the
+     * string, otherwise the bytes are decoded as UTF-8. Checking for ASCII is
+     * much cheaper than decoding, and almost all headers are ASCII.
+     * 
+     * @param source
+     *            this is the array containing the bytes to decode
+     * @param off
+     *            this is the offset of the first byte to decode
+     * @param size
+     *            this is the number of bytes to decode
+     * 
+     * @return this returns the decoded string for the range
+     */
+    static String decode(byte[] source, int off, int size) {
+        for (int i = off; i < off + size; i++) {
+            if (source[i] < 0) {
+                return new String(source, off, size, UTF_8);
+            }
+        }
+        return new String(source, off, size, ISO_8859_1);
+    }
+
+    /**
+     * The <code>Order</code> object is used to sort the header names in the
+     * order that they were consumed. This is required only if some headers
+     * were requested before others, as the names are stored as each header
+     * is decoded. Names that were not consumed are sorted last.
+     */
+    private class Order implements Comparator<String> {
+
+        /**
+         * This is used to compare two header names by the position of the
+         * first header consumed with that name. The sort used is stable so
+         * names that were not consumed retain the order they were added.
+         * 
+         * @param left
+         *            this is the first header name to compare
+         * @param right
+         *            this is the second header name to compare
+         * 
+         * @return this returns the order of the two header names
+         */
+        @Override
+        public int compare(String left, String right) {
+            int first = IndexedHeader.this.position(left);
+            int second = IndexedHeader.this.position(right);
+
+            return first - second;
+        }
+    }
+}
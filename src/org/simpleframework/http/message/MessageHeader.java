@@ -18,11 +18,14 @@
 
 package org.simpleframework.http.message;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.simpleframework.http.Cookie;
 import org.simpleframework.http.parse.DateParser;
+import org.simpleframework.http.parse.HeaderCache;
 import org.simpleframework.http.parse.ValueParser;
 import org.simpleframework.util.KeyMap;
 
@@ -45,12 +48,7 @@ public class MessageHeader implements Message {
     /**
      * This is used to store multiple header values for a name.
      */
-    private final KeyMap<Series> values;
-
-    /**
-     * This is used to store the individual names for the header.
-     */
-    private final KeyMap<String> names;
+    private final HeaderMap values;
 
     /**
      * This is used to parse all date headers added to the message.
@@ -65,8 +63,7 @@ public class MessageHeader implements Message {
      */
     public MessageHeader() {
         this.cookies = new KeyMap<Cookie>();
-        this.values = new KeyMap<Series>();
-        this.names = new KeyMap<String>();
+        this.values = new HeaderMap();
         this.parser = new DateParser();
     }
 
@@ -80,7 +77,7 @@ public class MessageHeader implements Message {
      */
     @Override
     public List<String> getNames() {
-        return this.names.getValues();
+        return this.values.getNames();
     }
 
     /**
@@ -98,9 +95,9 @@ public class MessageHeader implements Message {
      */
     @Override
     public void setValue(String name, String value) {
-        List<String> list = this.getAll(name);
-
         if (value != null) {
+            List<String> list = this.getAll(name);
+
             list.clear();
             list.add(value);
         }
@@ -171,9 +168,9 @@ public class MessageHeader implements Message {
      */
     @Override
     public void addValue(String name, String value) {
-        List<String> list = this.getAll(name);
-
         if (value != null) {
+            List<String> list = this.getAll(name);
+
             list.add(value);
         }
     }
@@ -222,8 +219,9 @@ public class MessageHeader implements Message {
      */
     @Override
     public String getValue(String name) {
-        List<String> list = this.getAll(name);
+        List<String> list = this.find(name);
 
+        if (list == null) return null;
         if (list.size() > 0) return list.get(0);
         return null;
     }
@@ -281,7 +279,7 @@ public class MessageHeader implements Message {
         String value = this.getValue(name);
 
         if (value == null) return -1;
-        return this.parser.convert(value);
+        return HeaderCache.getInstance().getDate(value);
     }
 
     /**
@@ -378,7 +376,12 @@ public class MessageHeader implements Message {
      */
     @Override
     public List<String> getValues(String name) {
-        return this.getValues(this.getAll(name));
+        List<String> list = this.find(name);
+
+        if (list == null) {
+            list = Collections.emptyList();
+        }
+        return this.getValues(list);
     }
 
     /**
@@ -398,6 +401,10 @@ public class MessageHeader implements Message {
      * header value with no leading or trailing whitespace or an array of
      * trimmed tokens ordered with the most preferred in the lower indexes, so
      * index 0 is has highest preference.
+     * <p>
+     * If there is a single header value, which is almost always the case,
+     * the tokens are copied from the shared cache rather than parsed, so in
+     * either case the list returned belongs to the caller.
      * 
      * @param list
      *            this is the list of individual header values
@@ -406,6 +413,12 @@ public class MessageHeader implements Message {
      */
     @Override
     public List<String> getValues(List<String> list) {
+        if (list.size() == 1) {
+            HeaderCache cache = HeaderCache.getInstance();
+            List<String> tokens = cache.getValues(list.get(0));
+
+            return new ArrayList<String>(tokens);
+        }
         return new ValueParser(list).list();
     }
 
@@ -413,7 +426,8 @@ public class MessageHeader implements Message {
      * This is used to acquire all the individual header values from the
      * message. The header values provided by this are unparsed and represent
      * the actual string values that have been added to the message keyed by a
-     * given header name.
+     * given header name. If the header does not exist it is created so that
+     * values can be added to the list returned.
      * 
      * @param name
      *            the name of the header to get the values for
@@ -422,36 +436,74 @@ public class MessageHeader implements Message {
      */
     @Override
     public List<String> getAll(String name) {
-        String token = name.toLowerCase();
-        Series series = this.values.get(token);
-
-        if (series == null) return this.getAll(name, token);
-        return series.getValues();
+        return this.values.put(name);
     }
 
     /**
-     * This is used to acquire all the individual header values from the
-     * message. The header values provided by this are unparsed and represent
-     * the actual string values that have been added to the message keyed by a
-     * given header name.
+     * This is used to find the individual header values for the specified
+     * name. Unlike <code>getAll</code> this does not create the header if
+     * it does not exist, which means querying a message for headers it does
+     * not contain does not create any objects or change the message.
      * 
      * @param name
-     *            the name of the header to get the values for
-     * @param token
-     *            this provides a lower case version of the header
+     *            the name of the header to find the values for
      * 
-     * @return this returns a list of the values for the header name
+     * @return this returns the values for the header name, or null
      */
-    private List<String> getAll(String name, String token) {
-        Series series = new Series();
-        String value = this.names.get(token);
+    protected List<String> find(String name) {
+        return this.values.get(name);
+    }
 
-        if (value == null) {
-            this.names.put(token, name);
-        }
-        this.values.put(token, series);
+    /**
+     * This is used to determine the number of headers within the message.
+     * Along with the methods that take an index this allows the headers to
+     * be visited in the order they were added without creating any objects,
+     * which is useful when the message is encoded.
+     * 
+     * @return this returns the number of headers in the message
+     */
+    protected int getCount() {
+        return this.values.size();
+    }
 
-        return series.getValues();
+    /**
+     * This is used to acquire the name of the header at the index. Headers
+     * are indexed in the order they were added, and the name is in the case
+     * it was given when the header was first added.
+     * 
+     * @param index
+     *            this is the index of the header to acquire the name of
+     * 
+     * @return this returns the name of the header at the index
+     */
+    protected String getName(int index) {
+        return this.values.getName(index);
+    }
+
+    /**
+     * This is used to acquire the values of the header at the index. Unlike
+     * <code>getValues</code> the list returned is the list held by the
+     * message, so it is not copied or parsed in to tokens.
+     * 
+     * @param index
+     *            this is the index of the header to acquire the values of
+     * 
+     * @return this returns the values of the header at the index
+     */
+    protected List<String> getAll(int index) {
+        return this.values.get(index);
+    }
+
+    /**
+     * This is used to acquire the cookies that have been set within the
+     * message. Unlike <code>getCookies</code> this does not copy the cookies
+     * in to a new list, the collection returned is a view of the cookies
+     * and so must not be modified.
+     * 
+     * @return this returns a view of the cookies within the message
+     */
+    protected Collection<Cookie> getCookieValues() {
+        return this.cookies.values();
     }
 
     /**
@@ -465,13 +517,7 @@ public class MessageHeader implements Message {
      */
     @Override
     public void remove(String name) {
-        String token = name.toLowerCase();
-        String value = this.names.get(token);
-
-        if (value != null) {
-            this.names.remove(token);
-        }
-        this.values.remove(token);
+        this.values.remove(name);
     }
 
     /**
@@ -486,40 +532,9 @@ public class MessageHeader implements Message {
      */
     @Override
     public boolean contains(String name) {
-        return !this.getAll(name).isEmpty();
-    }
-
-    /**
-     * The <code>Series</code> object is used to represent a list of HTTP header
-     * value for a given name. It allows multiple values to exist for a given
-     * header, such as the Cookie header. Most entries will contain a single
-     * value.
-     */
-    private class Series {
-
-        /**
-         * Contains the header values that belong to the entry name.
-         */
-        private List<String> value;
-
-        /**
-         * Constructor for the <code>Entry</code> object. The entry is created
-         * using the name of the HTTP header. Values can be added to the entry
-         * list in order to build up the header.
-         */
-        public Series() {
-            this.value = new LinkedList<String>();
-        }
+        List<String> list = this.find(name);
 
-        /**
-         * This returns the list of header values associated with the header
-         * name. Each value is added as an individual header prefixed by the
-         * header name and a semicolon character.
-         * 
-         * @return this returns the list of values for the header
-         */
-        public List<String> getValues() {
-            return this.value;
-        }
+        if (list == null) return false;
+        return !list.isEmpty();
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * PartAllocator.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.io.IOException;
+
+import org.simpleframework.util.buffer.Allocator;
+import org.simpleframework.util.buffer.Buffer;
+
+/**
+ * The <code>PartAllocator</code> object is used to allocate the buffers for
+ * the parts of a multipart body. Each buffer allocated holds the body of its
+ * part in memory up to a limit, beyond which the body is moved to a buffer
+ * from the source allocator. This gives each part its own buffer, so a part
+ * can be released or read independently of the other parts.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.PartBuffer
+ */
+class PartAllocator implements Allocator {
+
+    /**
+     * This is the allocator used to create the spill buffers.
+     */
+    private final Allocator source;
+
+    /**
+     * This is the maximum number of bytes a part holds in memory.
+     */
+    private final int limit;
+
+    /**
+     * Constructor for the <code>PartAllocator</code> object. This creates an
+     * allocator for part buffers that each hold up to the limit in memory,
+     * after which they are moved to a buffer from the source allocator.
+     * 
+     * @param source
+     *            this is the allocator used to create spill buffers
+     * @param limit
+     *            this is the maximum number of bytes held in memory
+     */
+    public PartAllocator(Allocator source, int limit) {
+        this.source = source;
+        this.limit = limit;
+    }
+
+    /**
+     * This will allocate a buffer for the body of a part. The buffer will
+     * hold the bytes in memory until the limit is exceeded, after which the
+     * bytes are appended to a buffer created by the source allocator.
+     * 
+     * @return a buffer used to hold the body of a part
+     */
+    @Override
+    public Buffer allocate() throws IOException {
+        return new PartBuffer(this.source, this.limit);
+    }
+
+    /**
+     * This will allocate a buffer for the body of a part. If the size is
+     * known to be greater than the limit then the buffer is created by the
+     * source allocator, otherwise the bytes will be held in memory until the
+     * limit has been exceeded.
+     * 
+     * @param size
+     *            this is the expected size of the part body
+     * 
+     * @return a buffer used to hold the body of a part
+     */
+    @Override
+    public Buffer allocate(long size) throws IOException {
+        if (size > this.limit) {
+            return this.source.allocate(size);
+        }
+        return this.allocate();
+    }
+
+    /**
+     * This does nothing as the source allocator is shared with the rest of
+     * the request. Closing the source allocator is left to its owner, as it
+     * may be used for many requests.
+     */
+    @Override
+    public void close() throws IOException {
+        return;
+    }
+}
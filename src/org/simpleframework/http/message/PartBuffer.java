@@ -0,0 +1,248 @@
+/*
+ * PartBuffer.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.simpleframework.util.buffer.Allocator;
+import org.simpleframework.util.buffer.Buffer;
+
+/**
+ * The <code>PartBuffer</code> object is used to hold the body of a single part
+ * of a multipart body. Bytes are held in memory until the part grows beyond a
+ * limit, at which point the bytes are moved to a buffer created by the source
+ * allocator, and all further bytes are appended directly to it. With a file
+ * allocator this means large uploads are written straight to a spill file.
+ * <p>
+ * This ensures the memory used by an upload is bounded by the limit of each
+ * part, regardless of the size of the upload, while small form fields, which
+ * are by far the most common parts, never touch the disk.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.PartAllocator
+ */
+class PartBuffer implements Buffer {
+
+    /**
+     * This is the allocator used to create the spill buffer.
+     */
+    private final Allocator source;
+
+    /**
+     * This is the buffer used once the limit has been exceeded.
+     */
+    private Buffer spill;
+
+    /**
+     * This is the array used to hold the bytes in memory.
+     */
+    private byte[] array;
+
+    /**
+     * This is the maximum number of bytes to hold in memory.
+     */
+    private int limit;
+
+    /**
+     * This is the number of bytes that are held in memory.
+     */
+    private int count;
+
+    /**
+     * Constructor for the <code>PartBuffer</code> object. This creates a
+     * buffer that will hold bytes in memory up to the limit provided, after
+     * which the bytes are moved to a buffer from the source allocator.
+     * 
+     * @param source
+     *            this is the allocator used to create the spill buffer
+     * @param limit
+     *            this is the maximum number of bytes held in memory
+     */
+    public PartBuffer(Allocator source, int limit) {
+        this.array = new byte[Math.min(limit, 512)];
+        this.source = source;
+        this.limit = limit;
+    }
+
+    /**
+     * This method is used to allocate a segment of this buffer as a separate
+     * buffer object. As the bytes must be managed by a single buffer for the
+     * segment to be valid the bytes are first moved to the spill buffer.
+     * 
+     * @return this returns a buffer which is a segment of this buffer
+     */
+    @Override
+    public Buffer allocate() throws IOException {
+        if (this.spill == null) {
+            this.spill();
+        }
+        return this.spill.allocate();
+    }
+
+    /**
+     * This method is used to append bytes to the end of the buffer. If the
+     * bytes would take the buffer beyond its limit then the bytes held in
+     * memory are moved to the spill buffer before the bytes are appended.
+     * 
+     * @param data
+     *            this is the byte array to append to this buffer
+     * 
+     * @return this returns this buffer for another operation
+     */
+    @Override
+    public Buffer append(byte[] data) throws IOException {
+        return this.append(data, 0, data.length);
+    }
+
+    /**
+     * This method is used to append bytes to the end of the buffer. If the
+     * bytes would take the buffer beyond its limit then the bytes held in
+     * memory are moved to the spill buffer before the bytes are appended.
+     * 
+     * @param data
+     *            this is the byte array to append to this buffer
+     * @param off
+     *            this is the offset to begin reading the bytes from
+     * @param len
+     *            the number of bytes to be read from the array
+     * 
+     * @return this returns this buffer for another operation
+     */
+    @Override
+    public Buffer append(byte[] data, int off, int len) throws IOException {
+        if (this.spill == null) {
+            if (this.count + len > this.limit) {
+                this.spill();
+            } else {
+                if (this.count + len > this.array.length) {
+                    this.expand(this.count + len);
+                }
+                System.arraycopy(data, off, this.array, this.count, len);
+                this.count += len;
+                return this;
+            }
+        }
+        this.spill.append(data, off, len);
+        return this;
+    }
+
+    /**
+     * This is used to expand the array used to hold the bytes in memory. The
+     * array is doubled in size each time, however it is never expanded to a
+     * size greater than the limit of the buffer.
+     * 
+     * @param size
+     *            this is the minimum size of the expanded array
+     */
+    private void expand(int size) {
+        int capacity = Math.max(this.array.length << 1, size);
+        byte[] temp = new byte[Math.min(capacity, this.limit)];
+
+        System.arraycopy(this.array, 0, temp, 0, this.count);
+        this.array = temp;
+    }
+
+    /**
+     * This is used to move the bytes held in memory to the spill buffer. The
+     * spill buffer is created by the source allocator without a size, which
+     * for a file allocator will create a file for the bytes.
+     */
+    private void spill() throws IOException {
+        this.spill = this.source.allocate();
+
+        if (this.count > 0) {
+            this.spill.append(this.array, 0, this.count);
+        }
+        this.array = null;
+        this.count = 0;
+    }
+
+    /**
+     * This method is used to acquire the buffered bytes as a string. This is
+     * useful if the contents need to be manipulated as a string or
+     * transferred into another encoding.
+     * 
+     * @return this returns a UTF-8 encoding of the buffer contents
+     */
+    @Override
+    public String encode() throws IOException {
+        return this.encode("UTF-8");
+    }
+
+    /**
+     * This method is used to acquire the buffered bytes as a string. This is
+     * useful if the contents need to be manipulated as a string or
+     * transferred into another encoding.
+     * 
+     * @param charset
+     *            this is the charset to encode the data with
+     * 
+     * @return this returns the encoding of the buffer contents
+     */
+    @Override
+    public String encode(String charset) throws IOException {
+        if (this.spill != null) {
+            return this.spill.encode(charset);
+        }
+        return new String(this.array, 0, this.count, charset);
+    }
+
+    /**
+     * This method is used so that the buffer can be represented as a stream
+     * of bytes. This provides a quick means to access the data that has been
+     * written to the buffer, either from memory or from the spill buffer.
+     * 
+     * @return this returns a stream containing the buffer contents
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if (this.spill != null) {
+            return this.spill.getInputStream();
+        }
+        return new ByteArrayInputStream(this.array, 0, this.count);
+    }
+
+    /**
+     * This will clear all data from the buffer. This simply sets the count
+     * to be zero, or if the bytes have been moved to the spill buffer then
+     * the spill buffer is cleared.
+     */
+    @Override
+    public void clear() throws IOException {
+        if (this.spill != null) {
+            this.spill.clear();
+        }
+        this.count = 0;
+    }
+
+    /**
+     * This method is used to ensure the buffer can be closed. Once closed the
+     * spill buffer, if any, releases the resources it uses to append bytes,
+     * such as the file descriptor of the spill file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.spill != null) {
+            this.spill.close();
+        }
+    }
+}
@@ -61,12 +61,16 @@ class PartHeaderConsumer extends SegmentConsumer {
      * been read. This will simply parse all of the headers and append the
      * consumed bytes to the internal buffer. Appending the bytes ensures that
      * the whole upload can be put back together as a single byte stream if
-     * required.
+     * required. If each part has its own buffer then the whole upload is not
+     * retained and so the headers are only parsed.
      */
     @Override
     protected void process() throws IOException {
         this.headers();
-        this.append();
+
+        if (!(this.allocator instanceof PartAllocator)) {
+            this.append();
+        }
     }
 
     /**
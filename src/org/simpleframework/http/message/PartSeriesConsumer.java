@@ -31,6 +31,13 @@ import org.simpleframework.util.buffer.BufferAllocator;
  * used to acquire the contents of the upload and inspect the headers provided
  * for each uploaded part. To ensure that only a fixed number of bytes are
  * consumed this uses a content length for an internal buffer.
+ * <p>
+ * By default the parts are segments of a single buffer that holds the whole
+ * upload, so the content of the body remains available. If a part allocator
+ * is provided then each part is instead given its own buffer, which holds
+ * the part in memory up to a limit, after which the part is written to a
+ * buffer from the allocator, typically a file. Only the parts are retained
+ * in that case, so the content of the body as a whole is not available.
  * 
  * @author Niall Gallagher
  */
@@ -51,6 +58,11 @@ public class PartSeriesConsumer implements BodyConsumer {
      */
     private BufferAllocator buffer;
 
+    /**
+     * This is used to allocate the buffers for each of the parts.
+     */
+    private Allocator allocator;
+
     /**
      * This is used to accumulate all the parts of the upload.
      */
@@ -123,12 +135,34 @@ public class PartSeriesConsumer implements BodyConsumer {
      */
     public PartSeriesConsumer(Allocator allocator, PartSeries series,
             byte[] boundary, long length) {
-        this.buffer = new BufferAllocator(allocator, length);
-        this.consumer = new PartEntryConsumer(this.buffer, series, boundary);
-        this.factory = new PartEntryFactory(this.buffer, series, boundary);
+        this.allocator = this.getAllocator(allocator, length);
+        this.consumer = new PartEntryConsumer(this.allocator, series, boundary);
+        this.factory = new PartEntryFactory(this.allocator, series, boundary);
         this.series = series;
     }
 
+    /**
+     * This is used to acquire the allocator used to create the buffers for
+     * the parts. If a part allocator is provided each part is buffered on
+     * its own, and nested multipart bodies are buffered in the same way as
+     * the enclosing parts. Otherwise a buffer for the whole upload is
+     * created and each part is allocated as a segment of that buffer.
+     * 
+     * @param allocator
+     *            this is the allocator provided to this consumer
+     * @param length
+     *            this is the number of bytes the upload should be
+     * 
+     * @return this returns the allocator used for the part buffers
+     */
+    private Allocator getAllocator(Allocator allocator, long length) {
+        if (!(allocator instanceof PartAllocator)) {
+            this.buffer = new BufferAllocator(allocator, length);
+            return this.buffer;
+        }
+        return allocator;
+    }
+
     /**
      * This is used to acquire the body that has been consumed. This will return
      * a body which can be used to read the content of the message, also if the
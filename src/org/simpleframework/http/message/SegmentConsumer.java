@@ -18,15 +18,8 @@
 
 package org.simpleframework.http.message;
 
-import static org.simpleframework.http.Protocol.ACCEPT_LANGUAGE;
-import static org.simpleframework.http.Protocol.CONTENT_DISPOSITION;
-import static org.simpleframework.http.Protocol.CONTENT_LENGTH;
-import static org.simpleframework.http.Protocol.CONTENT_TYPE;
-import static org.simpleframework.http.Protocol.COOKIE;
-import static org.simpleframework.http.Protocol.EXPECT;
-import static org.simpleframework.http.Protocol.TRANSFER_ENCODING;
-
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -34,10 +27,9 @@ import java.util.Locale;
 import org.simpleframework.http.ContentDisposition;
 import org.simpleframework.http.ContentType;
 import org.simpleframework.http.Cookie;
-import org.simpleframework.http.parse.ContentDispositionParser;
-import org.simpleframework.http.parse.ContentTypeParser;
 import org.simpleframework.http.parse.CookieParser;
-import org.simpleframework.http.parse.LanguageParser;
+import org.simpleframework.http.parse.HeaderCache;
+import org.simpleframework.transport.Cursor;
 
 /**
  * The <code>SegmentConsumer</code> object provides a consumer that is used to
@@ -46,6 +38,16 @@ import org.simpleframework.http.parse.LanguageParser;
  * all headers are consumed they are available using the case insensitive header
  * name. This will remove leading and trailing whitespace from the names and
  * values parsed.
+ * <p>
+ * The terminal token is searched for within a view of the bytes buffered by
+ * the cursor, so only the bytes that belong to the header are copied in to
+ * the internal array. The bytes are copied once and are never reset back in
+ * to the cursor, which is what happens when more bytes are read than needed.
+ * <p>
+ * Headers are not decoded as they are parsed, instead the offsets of each
+ * name and value are recorded and are only decoded when the header is first
+ * requested. Only those headers that the segment itself requires, such as
+ * the <code>Content-Length</code> header, are decoded as they are parsed.
  * 
  * @author Niall Gallagher
  */
@@ -62,9 +64,14 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     protected ContentDisposition disposition;
 
     /**
-     * This is used to parse the languages accepted in the request.
+     * This contains the languages accepted in the request.
+     */
+    protected List<Locale> language;
+
+    /**
+     * This is used to acquire the parsed values of common headers.
      */
-    protected LanguageParser language;
+    protected HeaderCache cache;
 
     /**
      * This is used to parse the cookie headers that are consumed.
@@ -84,17 +91,17 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     /**
      * This is used to store all consumed headers by the header name.
      */
-    protected MessageHeader header;
+    protected IndexedHeader header;
 
     /**
      * During parsing this is used to store the parsed header name,
      */
-    protected String name;
+    private Token name;
 
     /**
      * During parsing this is used to store the parsed header value.
      */
-    protected String value;
+    private Token value;
 
     /**
      * This is used to determine if there is a continue expected.
@@ -121,6 +128,11 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
      */
     protected int scan;
 
+    /**
+     * This contains the last three bytes that have been searched.
+     */
+    private int tail;
+
     /**
      * Constructor for the <code>SegmentConsumer</code> object. This is used to
      * create a segment consumer used to consume and parse a HTTP message
@@ -141,9 +153,11 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
      *            this is the length limit for a HTTP header
      */
     public SegmentConsumer(int limit) {
-        this.language = new LanguageParser();
+        this.cache = HeaderCache.getInstance();
         this.cookies = new CookieParser();
-        this.header = new MessageHeader();
+        this.header = new IndexedHeader();
+        this.name = new Token();
+        this.value = new Token();
         this.limit = limit;
         this.length = -1;
     }
@@ -251,7 +265,7 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
      * @return this returns the locales preferred by the client
      */
     public List<Locale> getLocales() {
-        if (this.language != null) return this.language.list();
+        if (this.language != null) return this.language;
         return Collections.emptyList();
     }
 
@@ -313,10 +327,10 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
     }
 
     /**
-     * This method is used to add an additional chunk size to the internal
-     * array. Resizing of the internal array is required as the consumed bytes
-     * may exceed the initial size of the array. In such a scenario the array is
-     * expanded the chunk size.
+     * This method is used to expand the internal array. Resizing of the
+     * internal array is required as the consumed bytes may exceed the initial
+     * size of the array. If the size requested exceeds the maximum size of a
+     * header then an exception is thrown.
      * 
      * @param size
      *            this is the minimum size to expand the array to
@@ -328,6 +342,132 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
         super.resize(size);
     }
 
+    /**
+     * This method is used to consume the header from the provided cursor. The
+     * readable bytes are scanned in place for the terminal token and only the
+     * bytes up to and including the terminal token are copied in to the array.
+     * This ensures bytes belonging to the next message are left untouched
+     * within the cursor and do not need to be reset.
+     * 
+     * @param cursor
+     *            this is the cursor to consume the bytes from
+     */
+    @Override
+    public void consume(Cursor cursor) throws IOException {
+        int ready = cursor.ready();
+
+        while (ready > 0 && !this.done) {
+            ByteBuffer view = cursor.view();
+            int size = this.seek(view);
+
+            if ((this.count + size) > this.array.length) {
+                this.resize(this.count + size);
+            }
+            size = cursor.read(this.array, this.count, size);
+            this.count += size;
+            this.pos = this.count;
+
+            if (this.scan == TERMINAL.length) {
+                this.done = true;
+                this.pos = 0;
+                this.process();
+                break;
+            }
+            ready = cursor.ready();
+        }
+    }
+
+    /**
+     * This is used to search the view for the terminal token. The search
+     * continues from where the previous search ended, so a terminal token
+     * that spans two views is found. This returns the number of bytes from
+     * the view that belong to the header.
+     * 
+     * @param view
+     *            this is the view of the bytes to be searched
+     * 
+     * @return this returns the number of bytes that belong to the header
+     */
+    private int seek(ByteBuffer view) {
+        int start = view.position();
+        int limit = view.limit();
+        int end = this.search(view, start, limit);
+
+        if (end < 0) {
+            return limit - start;
+        }
+        return end - start;
+    }
+
+    /**
+     * This is used to search a range of bytes for the terminal token. Only
+     * the line feeds within the range are located, which is done a word at
+     * a time, and the three bytes before each line feed are then compared
+     * with the terminal. Bytes before the range are taken from those kept
+     * from the previous search, so a terminal spanning two reads is found.
+     * 
+     * @param buffer
+     *            this is the buffer containing the bytes to search
+     * @param start
+     *            this is the index of the first byte to search
+     * @param limit
+     *            this is the index after the last byte to search
+     * 
+     * @return this returns the index after the terminal, or minus one
+     */
+    private int search(ByteBuffer buffer, int start, int limit) {
+        int pos = start;
+
+        while (pos < limit) {
+            int line = ByteScanner.indexOf(buffer, pos, limit, (byte) 10);
+
+            if (line < 0) {
+                break;
+            }
+            if (this.terminal(buffer, start, line)) {
+                this.scan = TERMINAL.length;
+                return line + 1;
+            }
+            pos = line + 1;
+        }
+        for (int i = Math.max(start, limit - 3); i < limit; i++) {
+            this.tail = (this.tail << 8) | (buffer.get(i) & 0xff);
+        }
+        return -1;
+    }
+
+    /**
+     * This is used to determine if the line feed at the specified index is
+     * the end of the terminal token. If any of the three bytes before the
+     * line feed were searched previously they are taken from the bytes that
+     * were kept, as they may no longer be within the buffer.
+     * 
+     * @param buffer
+     *            this is the buffer containing the bytes searched
+     * @param start
+     *            this is the index of the first byte searched
+     * @param line
+     *            this is the index of the line feed found
+     * 
+     * @return true if the line feed ends the terminal token
+     */
+    private boolean terminal(ByteBuffer buffer, int start, int line) {
+        for (int i = 1; i < TERMINAL.length; i++) {
+            int index = line - i;
+            byte octet;
+
+            if (index < start) {
+                octet = (byte) (this.tail >>> ((start - index - 1) << 3));
+            } else {
+                octet = buffer.get(index);
+            }
+            if (octet != TERMINAL[TERMINAL.length - 1 - i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * This is used to process the headers when the terminal token has been
      * fully read from the consumed bytes. Processing will extract all headers
@@ -372,30 +512,47 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
      * within the segment. Special headers are those where there are values of
      * interest to the segment. For instance the Content-Length, Content-Type,
      * and Cookie headers are parsed using an external parser to extract the
-     * values.
+     * values. Only the values of special headers are decoded here, all other
+     * headers are recorded as offsets and decoded when requested.
+     * <p>
+     * The name is classified with a single probe of a perfect hash table of
+     * the well known header names, so names that are not special are not
+     * compared with each of the special names. The identifier found is then
+     * recorded with the header so lookups can compare identifiers.
      * 
      * @param name
-     *            this is the name of the header to be added
+     *            this is the token for the name of the header
      * @param value
-     *            this is the value of the header to be added
-     */
-    protected void add(String name, String value) {
-        if (this.equal(ACCEPT_LANGUAGE, name)) {
-            this.language(value);
-        } else if (this.equal(CONTENT_LENGTH, name)) {
-            this.length(value);
-        } else if (this.equal(CONTENT_TYPE, name)) {
-            this.type(value);
-        } else if (this.equal(CONTENT_DISPOSITION, name)) {
-            this.disposition(value);
-        } else if (this.equal(TRANSFER_ENCODING, name)) {
-            this.encoding(value);
-        } else if (this.equal(EXPECT, name)) {
-            this.expect(value);
-        } else if (this.equal(COOKIE, name)) {
-            this.cookie(value);
+     *            this is the token for the value of the header
+     */
+    private void add(Token name, Token value) {
+        int id = HeaderIndex.index(this.array, name.off, name.size);
+
+        switch (id) {
+            case HeaderIndex.LANGUAGE:
+                this.language(value.text());
+                break;
+            case HeaderIndex.LENGTH:
+                this.length(value.text());
+                break;
+            case HeaderIndex.TYPE:
+                this.type(value.text());
+                break;
+            case HeaderIndex.DISPOSITION:
+                this.disposition(value.text());
+                break;
+            case HeaderIndex.ENCODING:
+                this.encoding(value.text());
+                break;
+            case HeaderIndex.CONTINUE:
+                this.expect(value.text());
+                break;
+            case HeaderIndex.COOKIES:
+                this.cookie(value.text());
+                break;
         }
-        this.header.addValue(name, value);
+        this.header.addValue(this.array, id, name.off, name.size, value.off,
+                value.size);
     }
 
     /**
@@ -432,26 +589,28 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
      * This is used to parse the <code>Accept-Language</code> header value. This
      * allows the locales the client is interested in to be provided in
      * preference order and allows the client do alter and response based on the
-     * locale the client has provided.
+     * locale the client has provided. As the same value is sent by a client
+     * with every request the locales are taken from the shared cache.
      * 
      * @param value
      *            this is the value that is to be parsed
      */
     protected void language(String value) {
-        this.language = new LanguageParser(value);
+        this.language = this.cache.getLocales(value);
     }
 
     /**
      * This is used to parse the content type header header so that the MIME
      * type is available to the segment. This provides an instance of the
      * <code>ContentType</code> object to represent the content type header,
-     * which exposes the charset value.
+     * which exposes the charset value. The content type is taken from the
+     * shared cache, so it can not be changed.
      * 
      * @param value
      *            this is the content type value to parse
      */
     protected void type(String value) {
-        this.type = new ContentTypeParser(value);
+        this.type = this.cache.getContentType(value);
     }
 
     /**
@@ -464,7 +623,7 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
      *            this is the content type value to parse
      */
     protected void disposition(String value) {
-        this.disposition = new ContentDispositionParser(value);
+        this.disposition = this.cache.getDisposition(value);
     }
 
     /**
@@ -502,7 +661,7 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
      * used to key the value after the colon.
      */
     private void name() {
-        Token token = new Token(this.pos, 0);
+        Token token = this.name.reset(this.pos);
 
         while (this.pos < this.count) {
             if (this.array[this.pos] == ':') {
@@ -512,7 +671,6 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
             token.size++;
             this.pos++;
         }
-        this.name = token.text();
     }
 
     /**
@@ -523,7 +681,7 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
      * following line to indicate that the header flows onto the next line.
      */
     private void value() {
-        Token token = new Token(this.pos, 0);
+        Token token = this.value.reset(this.pos);
 
         scan: for (int mark = 0; this.pos < this.count;) {
             if (this.terminal(this.array[this.pos])) { /* CR or LF */
@@ -547,7 +705,6 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
                 this.pos++;
             }
         }
-        this.value = token.text();
     }
 
     /**
@@ -592,37 +749,19 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
      */
     @Override
     protected int scan() {
+        ByteBuffer buffer = ByteBuffer.wrap(this.array);
+        int end = this.search(buffer, this.pos, this.count);
         int length = this.count;
 
-        while (this.pos < this.count) {
-            if (this.array[this.pos++] != TERMINAL[this.scan++]) {
-                this.scan = 0;
-            }
-            if (this.scan == TERMINAL.length) {
-                this.done = true;
-                this.count = this.pos;
-                this.pos = 0;
-                return length - this.count;
-            }
+        if (end < 0) {
+            this.pos = this.count;
+            return 0;
         }
-        return 0;
-    }
+        this.done = true;
+        this.count = end;
+        this.pos = 0;
 
-    /**
-     * This is used to determine if two header names are equal, this is done to
-     * ensure that the case insensitivity of HTTP header names is observed.
-     * Special headers are processed using this consumer and this is used to
-     * ensure the correct header is always matched.
-     * 
-     * @param name
-     *            this is the name to compare the parsed token with
-     * @param token
-     *            this is the header name token to examine
-     * 
-     * @return true of the header name token is equal to the name
-     */
-    protected boolean equal(String name, String token) {
-        return name.equalsIgnoreCase(token);
+        return length - this.count;
     }
 
     /**
@@ -706,45 +845,33 @@ public class SegmentConsumer extends ArrayConsumer implements Segment {
         public int off;
 
         /**
-         * Constructor for the <code>Token</code> object. This is used to create
-         * a new token to track the range of bytes that will be used to create a
-         * string representing the parsed value.
+         * This is used to reset the token so that it tracks a new range of
+         * bytes. A single token is reused for every header parsed, which
+         * avoids creating a token for every header name and value.
          * 
          * @param off
          *            the starting offset for the token range
-         * @param size
-         *            the number of bytes used for the token
+         * 
+         * @return this returns this token after it has been reset
          */
-        public Token(int off, int size) {
+        public Token reset(int off) {
             this.off = off;
-            this.size = size;
+            this.size = 0;
+            return this;
         }
 
         /**
-         * This is used to convert the byte range to a string. This will use
-         * UTF-8 encoding for the string which is compatible with the HTTP
-         * default header encoding of ISO-8859-1.
+         * This is used to convert the byte range to a string. If all of the
+         * bytes are ASCII then they are copied directly in to the string,
+         * otherwise UTF-8 encoding is used for the string which is compatible
+         * with the HTTP default header encoding of ISO-8859-1.
          * 
          * @return the encoded string representing the token
          */
         public String text() {
-            return this.text("UTF-8");
-        }
+            byte[] array = SegmentConsumer.this.array;
 
-        /**
-         * This is used to convert the byte range to a string. This will use
-         * specified encoding, if that encoding is not supported then this will
-         * return null for the token value.
-         * 
-         * @return the encoded string representing the token
-         */
-        public String text(String charset) {
-            try {
-                return new String(SegmentConsumer.this.array, this.off,
-                        this.size, charset);
-            } catch (IOException e) {
-                return null;
-            }
+            return IndexedHeader.decode(array, this.off, this.size);
         }
     }
 }
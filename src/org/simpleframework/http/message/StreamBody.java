@@ -0,0 +1,313 @@
+/*
+ * StreamBody.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import static org.simpleframework.http.core.ContainerEvent.ERROR;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.simpleframework.http.Part;
+import org.simpleframework.transport.trace.Trace;
+
+/**
+ * The <code>StreamBody</code> object is used to represent a request body that
+ * is read from the socket as it is requested. The input stream provided reads
+ * the body through the <code>StreamConsumer</code>, which reads only as many
+ * bytes from the socket as are ready. If a part limit has been specified a
+ * multipart body is parsed in to its parts as it is consumed, and the parts
+ * can be iterated as they arrive.
+ * <p>
+ * If the content of the body is requested then the remainder of the body is
+ * read and held so that it can be provided again. Once the content has been
+ * requested the input stream will have nothing more to read.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.StreamConsumer
+ */
+class StreamBody implements Body {
+
+    /**
+     * This is the consumer that is used to read the streamed body.
+     */
+    private final StreamConsumer consumer;
+
+    /**
+     * This is the input stream used to read the body.
+     */
+    private final InputStream stream;
+
+    /**
+     * This is used to trace any error reading the parts of the body.
+     */
+    private final Trace trace;
+
+    /**
+     * This contains the bytes read when the content is requested.
+     */
+    private byte[] content;
+
+    /**
+     * Constructor for the <code>StreamBody</code> object. This creates a
+     * body that reads from the provided consumer. Only a single stream is
+     * created for the body, so the body can only be read once.
+     * 
+     * @param consumer
+     *            this is the consumer used to read the body
+     * @param trace
+     *            this is used to trace errors reading the parts
+     */
+    public StreamBody(StreamConsumer consumer, Trace trace) {
+        this.stream = new BodyStream();
+        this.consumer = consumer;
+        this.trace = trace;
+    }
+
+    /**
+     * This is used to acquire the named part of a multipart body. The
+     * remainder of the body is consumed before the part is acquired. If
+     * there is an error reading the body then this will return null.
+     * 
+     * @param name
+     *            this is the name of the part object to acquire
+     * 
+     * @return the named part or null if the part does not exist
+     */
+    @Override
+    public Part getPart(String name) {
+        for (Part part : this.getParts()) {
+            if (name.equals(part.getName())) {
+                return part;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This is used to acquire all of the parts of a multipart body. The
+     * remainder of the body is consumed before the parts are returned. If
+     * there is an error reading the body then the error is traced and an
+     * empty list is returned, as this method can not throw the error.
+     * 
+     * @return the list of parts associated with this request
+     */
+    @Override
+    public List<Part> getParts() {
+        try {
+            return this.consumer.getParts();
+        } catch (Exception cause) {
+            this.trace.trace(ERROR, cause);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * This is used to iterate over the parts of a multipart body. Each part
+     * is consumed only when the iterator is asked for it, so the parts that
+     * precede it can be processed before the rest of the body arrives.
+     * 
+     * @return this returns an iterator for the parts of the request
+     */
+    @Override
+    public Iterator<Part> getPartIterator() {
+        return new PartIterator();
+    }
+
+    /**
+     * This will acquire the contents of the body in UTF-8. If there is no
+     * content encoding and the user of the request wants to deal with the
+     * body as a string then this method can be used. The remainder of the
+     * body is read from the socket, which may block.
+     * 
+     * @return this returns a UTF-8 string of the body contents
+     */
+    @Override
+    public String getContent() throws IOException {
+        return this.getContent("UTF-8");
+    }
+
+    /**
+     * This will acquire the contents of the body in the specified charset.
+     * The remainder of the body is read from the socket, which may block.
+     * Once read the content is held so that it can be requested again.
+     * 
+     * @param charset
+     *            this is the charset to encode the body with
+     * 
+     * @return this returns the string of the body contents
+     */
+    @Override
+    public String getContent(String charset) throws IOException {
+        if (this.content == null) {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            byte[] chunk = new byte[2048];
+            int count = 0;
+
+            while ((count = this.stream.read(chunk)) != -1) {
+                data.write(chunk, 0, count);
+            }
+            this.content = data.toByteArray();
+        }
+        return new String(this.content, charset);
+    }
+
+    /**
+     * This is used to acquire the contents of the body as a stream. The
+     * stream reads the body from the socket as it is read, waiting for the
+     * socket to become readable if no bytes are ready.
+     * 
+     * @return this returns an input stream for the body
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return this.stream;
+    }
+
+    /**
+     * The <code>BodyStream</code> object is used to read the streamed body.
+     * Each read is delegated to the consumer, which will read from the
+     * socket only if it has no bytes that have already been decoded.
+     */
+    private class BodyStream extends InputStream {
+
+        /**
+         * This is used to read a single byte from the body. This reads
+         * in to a single byte array, this method is rarely used as most
+         * readers will read blocks of bytes from the body.
+         * 
+         * @return this returns the byte read or -1 at the end
+         */
+        @Override
+        public int read() throws IOException {
+            byte[] octet = new byte[1];
+            int count = this.read(octet, 0, 1);
+
+            if (count <= 0) {
+                return -1;
+            }
+            return octet[0] & 0xff;
+        }
+
+        /**
+         * This is used to read a block of bytes from the body. This will
+         * block until at least one byte has been read, or until the end
+         * of the body has been reached.
+         * 
+         * @param array
+         *            this is the array to read the bytes in to
+         * @param off
+         *            this is the offset to begin writing the bytes to
+         * @param len
+         *            this is the maximum number of bytes to be read
+         * 
+         * @return this returns the number of bytes read or -1 at the end
+         */
+        @Override
+        public int read(byte[] array, int off, int len) throws IOException {
+            return StreamBody.this.consumer.read(array, off, len);
+        }
+
+        /**
+         * This returns the number of bytes that can be read without the
+         * stream having to read from the socket. These are the bytes that
+         * have been decoded but not yet read.
+         * 
+         * @return this returns the number of bytes ready to be read
+         */
+        @Override
+        public int available() throws IOException {
+            return StreamBody.this.consumer.available();
+        }
+    }
+
+    /**
+     * The <code>PartIterator</code> object is used to iterate over the parts
+     * of a streamed multipart body. The body is consumed only as far as the
+     * next part, so the iterator will block while the part is read. If there
+     * is an error reading the body the error is traced and the iteration ends.
+     */
+    private class PartIterator implements Iterator<Part> {
+
+        /**
+         * This is the next part that is to be returned, if any.
+         */
+        private Part next;
+
+        /**
+         * This is the index of the next part to be consumed.
+         */
+        private int index;
+
+        /**
+         * This is used to determine if there is another part. If the next
+         * part has not yet been consumed then the body is consumed until
+         * the part has been read or the body has finished. If there is an
+         * error reading the body then the error is traced and the iteration
+         * ends, as the iterator can not throw the error.
+         * 
+         * @return this returns true if there is another part
+         */
+        @Override
+        public boolean hasNext() {
+            if (this.next == null) {
+                try {
+                    this.next = StreamBody.this.consumer.getPart(this.index);
+                } catch (Exception cause) {
+                    StreamBody.this.trace.trace(ERROR, cause);
+                }
+            }
+            return this.next != null;
+        }
+
+        /**
+         * This is used to acquire the next part of the body. If the next
+         * part has not yet been consumed then this will block until it
+         * has been read from the socket.
+         * 
+         * @return this returns the next part of the body
+         */
+        @Override
+        public Part next() {
+            Part part = null;
+
+            if (!this.hasNext()) {
+                throw new NoSuchElementException("No more parts");
+            }
+            part = this.next;
+            this.next = null;
+            this.index++;
+            return part;
+        }
+
+        /**
+         * This is not supported as the parts of the body can not be
+         * removed once they have been consumed.
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove not supported");
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * StreamBuffer.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.simpleframework.util.buffer.Allocator;
+import org.simpleframework.util.buffer.Buffer;
+
+/**
+ * The <code>StreamBuffer</code> object is used to pass the bytes of a streamed
+ * body from a body consumer to the reader of the body. Bytes appended by the
+ * consumer are held only until they are read, once read the space they took
+ * is reused. As the body is only consumed when the reader asks for more bytes
+ * the buffer holds no more than the bytes read from the socket at one time.
+ * <p>
+ * The buffer acts as its own allocator, so that the body consumers, which
+ * allocate a buffer for the body they consume, append directly to it. Every
+ * buffer allocated is this buffer, so there is only ever one buffer for the
+ * streamed body regardless of how many times it is allocated.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.StreamConsumer
+ */
+class StreamBuffer implements Buffer, Allocator {
+
+    /**
+     * This is the array used to hold the bytes that have not been read.
+     */
+    private byte[] array;
+
+    /**
+     * This is the offset of the first byte that has not been read.
+     */
+    private int start;
+
+    /**
+     * This is the offset after the last byte that has been appended.
+     */
+    private int count;
+
+    /**
+     * Constructor for the <code>StreamBuffer</code> object. This creates a
+     * buffer with an initial capacity large enough for typical reads. The
+     * capacity is expanded if more bytes are appended before being read.
+     */
+    public StreamBuffer() {
+        this(2048);
+    }
+
+    /**
+     * Constructor for the <code>StreamBuffer</code> object. This creates a
+     * buffer with the specified initial capacity. The capacity is expanded if
+     * more bytes are appended before being read.
+     * 
+     * @param size
+     *            this is the initial capacity of the buffer
+     */
+    public StreamBuffer(int size) {
+        this.array = new byte[size];
+    }
+
+    /**
+     * This is used to read the bytes that have been appended to the buffer.
+     * Bytes read are removed from the buffer. If there are no bytes within
+     * the buffer then this will return zero.
+     * 
+     * @param data
+     *            this is the array to read the bytes in to
+     * @param off
+     *            this is the offset to begin writing the bytes to
+     * @param len
+     *            this is the maximum number of bytes to be read
+     * 
+     * @return this returns the number of bytes that have been read
+     */
+    public int read(byte[] data, int off, int len) {
+        int size = Math.min(len, this.count - this.start);
+
+        if (size > 0) {
+            System.arraycopy(this.array, this.start, data, off, size);
+            this.start += size;
+        }
+        if (this.start == this.count) {
+            this.start = this.count = 0;
+        }
+        return size;
+    }
+
+    /**
+     * This is used to determine the number of bytes that can be read from
+     * the buffer. These are the bytes that have been appended but have not
+     * yet been read.
+     * 
+     * @return this returns the number of bytes ready to be read
+     */
+    public int ready() {
+        return this.count - this.start;
+    }
+
+    /**
+     * This is used to provide an input stream for the bytes that have not
+     * been read. The bytes are copied so that the stream is not affected by
+     * bytes that are read from or appended to this buffer later.
+     * 
+     * @return this returns a stream for the bytes not yet read
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        byte[] data = new byte[this.count - this.start];
+
+        System.arraycopy(this.array, this.start, data, 0, data.length);
+        return new ByteArrayInputStream(data);
+    }
+
+    /**
+     * This is used to allocate a buffer for the body consumer. As the body
+     * is passed to the reader through this buffer the buffer returned is
+     * always this buffer.
+     * 
+     * @return this returns this buffer so that bytes are appended here
+     */
+    @Override
+    public Buffer allocate() throws IOException {
+        return this;
+    }
+
+    /**
+     * This is used to allocate a buffer for the body consumer. As the body
+     * is passed to the reader through this buffer the buffer returned is
+     * always this buffer, the size of the body is ignored.
+     * 
+     * @param size
+     *            this is the expected size of the body
+     * 
+     * @return this returns this buffer so that bytes are appended here
+     */
+    @Override
+    public Buffer allocate(long size) throws IOException {
+        return this;
+    }
+
+    /**
+     * This is used to encode the bytes that have not been read in to a
+     * string using UTF-8. The bytes remain within the buffer, so they can
+     * still be read once they have been encoded.
+     * 
+     * @return this returns the bytes not yet read as a string
+     */
+    @Override
+    public String encode() throws IOException {
+        return this.encode("UTF-8");
+    }
+
+    /**
+     * This is used to encode the bytes that have not been read in to a
+     * string using the specified charset. The bytes remain within the
+     * buffer, so they can still be read once they have been encoded.
+     * 
+     * @param charset
+     *            this is the charset used to encode the bytes
+     * 
+     * @return this returns the bytes not yet read as a string
+     */
+    @Override
+    public String encode(String charset) throws IOException {
+        return new String(this.array, this.start, this.count - this.start,
+                charset);
+    }
+
+    /**
+     * This is used to append the bytes provided to the buffer. These bytes
+     * are held until they are read, once all bytes have been read the space
+     * within the buffer is reused from the start.
+     * 
+     * @param data
+     *            this is the array of bytes to be appended
+     * 
+     * @return this returns this buffer
+     */
+    @Override
+    public Buffer append(byte[] data) throws IOException {
+        return this.append(data, 0, data.length);
+    }
+
+    /**
+     * This is used to append the bytes provided to the buffer. If there is
+     * no space at the end of the buffer then the unread bytes are moved to
+     * the start, and if that does not leave enough space the capacity of
+     * the buffer is doubled.
+     * 
+     * @param data
+     *            this is the array of bytes to be appended
+     * @param off
+     *            this is the offset of the first byte to append
+     * @param len
+     *            this is the number of bytes to append
+     * 
+     * @return this returns this buffer
+     */
+    @Override
+    public Buffer append(byte[] data, int off, int len) throws IOException {
+        if (this.count + len > this.array.length) {
+            this.expand(len);
+        }
+        System.arraycopy(data, off, this.array, this.count, len);
+        this.count += len;
+        return this;
+    }
+
+    /**
+     * This is used to make space for the specified number of bytes. The
+     * unread bytes are moved to the start of the array, which is expanded
+     * if it is still not large enough to hold the bytes.
+     * 
+     * @param len
+     *            this is the number of bytes that are to be appended
+     */
+    private void expand(int len) {
+        int size = this.count - this.start;
+        byte[] data = this.array;
+
+        if (size + len > this.array.length) {
+            data = new byte[Math.max(this.array.length << 1, size + len)];
+        }
+        System.arraycopy(this.array, this.start, data, 0, size);
+        this.array = data;
+        this.count = size;
+        this.start = 0;
+    }
+
+    /**
+     * This is used to discard the bytes that have not been read. The space
+     * within the buffer is retained so that it can be reused by the bytes
+     * that are appended next.
+     */
+    @Override
+    public void clear() throws IOException {
+        this.start = this.count = 0;
+    }
+
+    /**
+     * This does nothing as the buffer holds no resources that need to be
+     * released. The buffer is closed by the body consumer once the body has
+     * been consumed, however the reader may still have bytes to read.
+     */
+    @Override
+    public void close() throws IOException {
+        return;
+    }
+}
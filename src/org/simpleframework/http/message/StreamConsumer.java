@@ -0,0 +1,259 @@
+/*
+ * StreamConsumer.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.simpleframework.http.Part;
+import org.simpleframework.http.core.HeaderFilter;
+import org.simpleframework.transport.Channel;
+import org.simpleframework.transport.Cursor;
+import org.simpleframework.util.buffer.Allocator;
+
+/**
+ * The <code>StreamConsumer</code> object is used to consume a request entity
+ * whose body is streamed to the container. Only the header is consumed before
+ * the request is dispatched, the body is then consumed as the container reads
+ * it from the input stream of the request. This allows large bodies to be
+ * processed or forwarded without holding the whole body in memory or in a
+ * temporary file.
+ * <p>
+ * The body is read from the socket only when the container asks for bytes
+ * and none have been decoded. If the socket has no bytes ready the reader is
+ * suspended with a <code>Throttle</code> until the socket becomes readable.
+ * A container that reads slowly therefore leaves the bytes in the socket,
+ * and the client is slowed by TCP flow control rather than buffering.
+ * <p>
+ * If a part limit has been specified a multipart body is parsed in to its
+ * parts as it is consumed. The parts can be iterated, in which case each
+ * part is consumed only as the iterator advances, allowing an upload to be
+ * processed one part at a time.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.Throttle
+ */
+public class StreamConsumer extends EntityConsumer {
+
+    /**
+     * This is the most of an unread body that will be drained.
+     */
+    private static final int LIMIT = 65536;
+
+    /**
+     * This is used to pass the decoded body on to the reader.
+     */
+    private final StreamBuffer buffer;
+
+    /**
+     * This is used to wait for the socket to become readable.
+     */
+    private final Throttle throttle;
+
+    /**
+     * This is the cursor used to read the body from the socket.
+     */
+    private final Cursor cursor;
+
+    /**
+     * This is the body that is provided to the container.
+     */
+    private final Body stream;
+
+    /**
+     * Constructor for the <code>StreamConsumer</code> object. This is used
+     * to build an entity whose body is read as it is requested. The body is
+     * read from the cursor of the channel provided.
+     * 
+     * @param allocator
+     *            this is used to allocate memory for the header
+     * @param channel
+     *            this is the channel the entity is read from
+     * @param filter
+     *            this is used to refuse requests, this may be null
+     * @param throttle
+     *            this is used to wait for the socket to be readable
+     */
+    public StreamConsumer(Allocator allocator, Channel channel,
+            HeaderFilter filter, Throttle throttle) {
+        super(allocator, channel, filter);
+        this.buffer = new StreamBuffer();
+        this.factory = new StreamFactory(allocator, this.buffer, this.header);
+        this.stream = new StreamBody(this, this.trace);
+        this.cursor = channel.getCursor();
+        this.throttle = throttle;
+    }
+
+    /**
+     * This is used to acquire the body for this HTTP entity. The body
+     * provided reads from the socket as it is read, so it can only be read
+     * once. If a part limit has been specified a multipart body is parsed
+     * in to parts as it is read.
+     * 
+     * @return the body provided by the HTTP request message
+     */
+    @Override
+    public Body getBody() {
+        return this.stream;
+    }
+
+    /**
+     * This consumes the header from the cursor. Unlike the entity consumer
+     * this does not go on to consume the body once the header has finished,
+     * the body is only consumed as it is read from the input stream.
+     * 
+     * @param cursor
+     *            used to consumed the bytes for the header
+     */
+    @Override
+    public void consume(Cursor cursor) throws IOException {
+        this.header(cursor);
+    }
+
+    /**
+     * This is used to read the streamed body. If there are no decoded bytes
+     * then the body is consumed from the socket. If the socket has no bytes
+     * ready then this waits for the socket to become readable, so this will
+     * block until at least one byte has been read or the body has finished.
+     * 
+     * @param array
+     *            this is the array to read the bytes in to
+     * @param off
+     *            this is the offset to begin writing the bytes to
+     * @param len
+     *            this is the maximum number of bytes to be read
+     * 
+     * @return this returns the number of bytes read or -1 at the end
+     */
+    public int read(byte[] array, int off, int len) throws IOException {
+        int count = this.buffer.read(array, off, len);
+
+        while (count <= 0 && len > 0) {
+            if (!this.fill()) {
+                return -1;
+            }
+            count = this.buffer.read(array, off, len);
+        }
+        return count;
+    }
+
+    /**
+     * This is used to acquire the part at the specified index. If the part
+     * has not yet been consumed then the body is consumed until it has, or
+     * until the body has finished. If the body is not parsed in to parts as
+     * it is streamed then this returns null without consuming the body.
+     * 
+     * @param index
+     *            this is the index of the part to be acquired
+     * 
+     * @return this returns the part at the index, or null if none
+     */
+    public Part getPart(int index) throws IOException {
+        if (this.factory.isSeries(this.header)) {
+            List<Part> parts = this.body.getBody().getParts();
+
+            while (parts.size() <= index) {
+                if (!this.fill()) {
+                    return null;
+                }
+            }
+            return parts.get(index);
+        }
+        return null;
+    }
+
+    /**
+     * This is used to acquire all of the parts of the body. If the body is
+     * multipart then the remainder of the body is consumed before the parts
+     * are returned. If the body is not parsed in to parts as it is streamed
+     * an empty list is returned without consuming the body.
+     * 
+     * @return this returns the list of parts for the body
+     */
+    public List<Part> getParts() throws IOException {
+        if (this.factory.isSeries(this.header)) {
+            while (this.fill()) {
+                continue;
+            }
+            return this.body.getBody().getParts();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * This is used to consume more of the body from the socket. If there
+     * are no bytes ready on the socket then this waits for the socket to
+     * become readable before consuming. If the body has finished then
+     * nothing is consumed and this returns false.
+     * 
+     * @return this returns false if the body has finished
+     */
+    private boolean fill() throws IOException {
+        if (this.body.isFinished()) {
+            return false;
+        }
+        if (this.cursor.isReady()) {
+            this.body(this.cursor);
+        } else if (this.cursor.isOpen()) {
+            this.throttle.await();
+        } else {
+            throw new IOException("Connection closed during body");
+        }
+        return true;
+    }
+
+    /**
+     * This returns the number of bytes that can be read without reading
+     * from the socket. These are the bytes of the body that have already
+     * been decoded but have not been read.
+     * 
+     * @return this returns the number of bytes ready to be read
+     */
+    public int available() {
+        return this.buffer.ready();
+    }
+
+    /**
+     * This is used to read and discard any of the body that has not been
+     * read. This must be done before the next request on the connection
+     * can be consumed, as the remainder of the body would otherwise be
+     * taken as the start of the next request. Only a small remainder is
+     * drained, if more than that is unread then draining would tie up the
+     * thread for as long as the client takes to send it, so the caller
+     * should close the connection instead.
+     * 
+     * @return this returns true if the remainder of the body was drained
+     */
+    public boolean finish() throws IOException {
+        byte[] chunk = new byte[2048];
+        int count = 0;
+        int total = 0;
+
+        while (count != -1) {
+            if (total > LIMIT) {
+                return false;
+            }
+            count = this.read(chunk, 0, chunk.length);
+            total += count;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * StreamFactory.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import org.simpleframework.util.buffer.Allocator;
+
+/**
+ * The <code>StreamFactory</code> object is used to create the consumer for a
+ * streamed request body. A body is decoded from its transfer encoding in to
+ * a stream buffer, from which it is read as a stream. If a part limit has
+ * been specified a multipart body is instead parsed in to its parts as it is
+ * read, each part being held in memory up to the limit and in a buffer from
+ * the allocator beyond it.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.StreamConsumer
+ */
+class StreamFactory extends ConsumerFactory {
+
+    /**
+     * This is the buffer that a body that is not multipart is passed to.
+     */
+    private final StreamBuffer buffer;
+
+    /**
+     * Constructor for the <code>StreamFactory</code> object. This will create
+     * a factory that makes use of the HTTP header in order to determine the
+     * transfer encoding of the body that is to be consumed.
+     * 
+     * @param allocator
+     *            this is the allocator used to buffer the parts
+     * @param buffer
+     *            this is the buffer used to pass on the body
+     * @param segment
+     *            this is the HTTP header used to determine type
+     */
+    public StreamFactory(Allocator allocator, StreamBuffer buffer,
+            Segment segment) {
+        super(allocator, segment);
+        this.buffer = buffer;
+    }
+
+    /**
+     * This method is used to create a body consumer to read the body from the
+     * pipeline. This will examine the HTTP header associated with the body to
+     * determine how to consume the data. This will provide an empty consumer if
+     * no specific delimiter was provided.
+     * 
+     * @param length
+     *            this is the length of the body to be consumed
+     * 
+     * @return this returns the consumer used to consume the body
+     */
+    @Override
+    public BodyConsumer getInstance(long length) {
+        byte[] boundary = this.getBoundary(this.segment);
+
+        if (this.isSeries(this.segment))
+            return new PartSeriesConsumer(this.getAllocator(), boundary, length);
+        if (this.isChunked(this.segment))
+            return new ChunkedConsumer(this.buffer);
+        if (this.isFixed(this.segment))
+            return new FixedConsumer(this.buffer, length);
+        return new EmptyConsumer();
+    }
+}
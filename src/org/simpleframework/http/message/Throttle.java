@@ -0,0 +1,48 @@
+/*
+ * Throttle.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.message;
+
+import java.io.IOException;
+
+/**
+ * The <code>Throttle</code> object is used to suspend a thread reading a
+ * streamed request body until more of the body can be read. When a body is
+ * streamed the bytes are only read from the socket when the container asks
+ * for them, so a container that reads slowly leaves the bytes in the socket
+ * and the client is held back by TCP flow control.
+ * <p>
+ * Once the bytes ready on the socket have been consumed the reader must wait
+ * for the socket to become readable again. Rather than blocking on the socket
+ * the throttle registers an interest in reading with the reactor and waits
+ * for the reactor to signal that the socket is readable.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.message.StreamConsumer
+ */
+public interface Throttle {
+
+    /**
+     * This is used to wait until the socket has bytes that can be read. This
+     * will return when the socket becomes readable or when the connection is
+     * closed, so the caller should check that the connection is open before
+     * attempting to wait again.
+     */
+    void await() throws IOException;
+}
@@ -79,10 +79,14 @@ class TokenConsumer extends ArrayConsumer {
     /**
      * This is used to append the consumed bytes to a created buffer so that it
      * can be used when he is finished. This allows the contents to be read from
-     * an input stream or as a string.
+     * an input stream or as a string. If each part has its own buffer then
+     * the whole upload is not retained and so the token is not appended.
      */
     @Override
     protected void process() throws IOException {
+        if (this.allocator instanceof PartAllocator) {
+            return;
+        }
         if (this.buffer == null) {
             this.buffer = this.allocator.allocate(this.length);
         }
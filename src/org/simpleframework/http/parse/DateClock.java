@@ -0,0 +1,246 @@
+/*
+ * DateClock.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.parse;
+
+/**
+ * The <code>DateClock</code> is a low resolution clock shared by the server.
+ * Rather than every request formatting its own HTTP date, a single daemon
+ * thread updates the clock at the start of each second and formats the RFC
+ * 1123 date for that second. The current time and the date for the current
+ * second can then be read by any thread without creating any objects, so
+ * formatting the <code>Date</code> header of a response no longer costs
+ * anything for each request.
+ * <p>
+ * The time published is only as accurate as the resolution of the clock and
+ * the scheduling of its thread. This is adequate for HTTP dates, which have
+ * a resolution of a second, but it is not suitable for measuring elapsed
+ * time, which should be read from the system clock. A clock with a finer
+ * resolution can be created where one is required.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.parse.DateParser
+ */
+public class DateClock implements Runnable {
+
+    /**
+     * This is the clock that is shared by all of the server components.
+     */
+    private static final DateClock INSTANCE = new DateClock(1000);
+
+    /**
+     * This is the thread that is used to update the clock.
+     */
+    private final Thread thread;
+
+    /**
+     * This is the parser used to format the date for each second.
+     */
+    private final DateParser parser;
+
+    /**
+     * This is the number of milliseconds between each update.
+     */
+    private final long resolution;
+
+    /**
+     * This is the date formatted for the current second.
+     */
+    private volatile Stamp stamp;
+
+    /**
+     * This is the time in milliseconds at the last update.
+     */
+    private volatile long time;
+
+    /**
+     * Constructor for the <code>DateClock</code> object. This creates a clock
+     * that is updated at the specified resolution. The clock is set before
+     * this returns, so it can be read as soon as it has been created, and
+     * the thread used to update it is started.
+     * 
+     * @param resolution
+     *            this is the number of milliseconds between updates
+     */
+    public DateClock(long resolution) {
+        this.thread = new Thread(this, "DateClock");
+        this.parser = new DateParser();
+        this.resolution = resolution;
+        this.update();
+        this.start();
+    }
+
+    /**
+     * This is used to acquire the clock that is shared by the server. The
+     * shared clock is updated once each second, and its thread is a daemon
+     * so that it does not prevent the process from exiting.
+     * 
+     * @return this returns the clock shared by the server
+     */
+    public static DateClock getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This is used to start the thread used to update the clock. As the
+     * clock runs for the life of the process the thread is a daemon thread,
+     * so it will not keep the process alive once the server has stopped.
+     */
+    private void start() {
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * This is used to acquire the current time in milliseconds. This is the
+     * time the clock was last updated, so it may lag the system clock by
+     * up to the resolution of the clock.
+     * 
+     * @return this returns the time in milliseconds of the last update
+     */
+    public long getTime() {
+        return this.time;
+    }
+
+    /**
+     * This is used to acquire the current time as an RFC 1123 date. The date
+     * is formatted only once each second, so this returns the same string
+     * until the clock moves in to the next second.
+     * 
+     * @return this returns the current date in RFC 1123 format
+     */
+    public String getDate() {
+        return this.stamp.text;
+    }
+
+    /**
+     * This is used to acquire the current time as an RFC 1123 date encoded
+     * as ASCII bytes. The array returned is shared by everyone that reads the
+     * clock during the second, so it must not be modified.
+     * 
+     * @return this returns the bytes of the current RFC 1123 date
+     */
+    public byte[] getBytes() {
+        return this.stamp.bytes;
+    }
+
+    /**
+     * This is used to acquire the RFC 1123 date for the specified time if
+     * it falls within the current second. If the time is in some other
+     * second then this returns null, and the date must be formatted.
+     * 
+     * @param time
+     *            this is the time in milliseconds to acquire the date for
+     * 
+     * @return this returns the date for the time, or null
+     */
+    public String getDate(long time) {
+        Stamp stamp = this.stamp;
+
+        if (time / 1000 == stamp.second) {
+            return stamp.text;
+        }
+        return null;
+    }
+
+    /**
+     * This is used to update the clock until the process exits. Each update
+     * is scheduled for the next multiple of the resolution, so a clock with
+     * a resolution of a second moves to the new date as the second begins.
+     * If the thread is interrupted while it sleeps it simply updates the
+     * clock early, the clock does not stop.
+     */
+    @Override
+    public void run() {
+        while (true) {
+            long time = System.currentTimeMillis();
+            long delay = this.resolution - time % this.resolution;
+
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.interrupted();
+            }
+            this.update();
+        }
+    }
+
+    /**
+     * This is used to update the time published by the clock. If the time
+     * has moved in to a new second then the date is formatted for the new
+     * second. Only the thread updating the clock formats dates, so the
+     * parser used to format them does not need to be synchronized.
+     */
+    private void update() {
+        long time = System.currentTimeMillis();
+        long second = time / 1000;
+        Stamp stamp = this.stamp;
+
+        if (stamp == null || stamp.second != second) {
+            String text = this.parser.format(second * 1000);
+
+            this.stamp = new Stamp(text, second);
+        }
+        this.time = time;
+    }
+
+    /**
+     * The <code>Stamp</code> object holds the date formatted for a single
+     * second. It is immutable, so a new stamp is published by the clock each
+     * second, which ensures a reader always sees a date with the matching
+     * bytes and second.
+     */
+    private static class Stamp {
+
+        /**
+         * This is the date formatted in RFC 1123 format.
+         */
+        private final String text;
+
+        /**
+         * This is the date encoded as ASCII bytes.
+         */
+        private final byte[] bytes;
+
+        /**
+         * This is the number of seconds since the epoch.
+         */
+        private final long second;
+
+        /**
+         * Constructor for the <code>Stamp</code> object. This creates the
+         * stamp for the specified second, encoding the text of the date as
+         * bytes so that it can be written without being encoded again.
+         * 
+         * @param text
+         *            this is the date formatted in RFC 1123 format
+         * @param second
+         *            this is the number of seconds since the epoch
+         */
+        public Stamp(String text, long second) {
+            this.bytes = new byte[text.length()];
+            this.second = second;
+            this.text = text;
+
+            for (int i = 0; i < this.bytes.length; i++) {
+                this.bytes[i] = (byte) text.charAt(i);
+            }
+        }
+    }
+}
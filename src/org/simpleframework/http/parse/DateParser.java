@@ -119,14 +119,14 @@ public class DateParser extends Parser {
 
     /**
      * The parser contains this method so that the a date does not have to be
-     * parsed from <code>System.currentTimeMillis</code>. This returns a date
-     * using a <code>DataParser.parse(long)</code> method invocation.
+     * parsed from <code>System.currentTimeMillis</code>. This returns the
+     * date published by the shared <code>DateClock</code>, which is formatted
+     * only once each second.
      * 
      * @return this returns a RFC 1123 date for the current time
      */
     public static String getDate() {
-        long time = System.currentTimeMillis();
-        return new DateParser(time).toString();
+        return DateClock.getInstance().getDate();
     }
 
     /**
@@ -219,7 +219,10 @@ public class DateParser extends Parser {
     /**
      * Convenience method used to convert the specified long date in to a HTTP
      * date format. This is used when a single method is required to convert a
-     * long data value in milliseconds to a HTTP date value.
+     * long data value in milliseconds to a HTTP date value. If the date
+     * falls within the current second then the date formatted by the shared
+     * <code>DateClock</code> is returned, in which case the fields of this
+     * parser are not changed.
      * 
      * @param date
      *            the date specified as a long of milliseconds
@@ -227,6 +230,25 @@ public class DateParser extends Parser {
      * @return the date represented in the HTTP date format RFC 1123
      */
     public String convert(long date) {
+        String text = DateClock.getInstance().getDate(date);
+
+        if (text == null) {
+            return this.format(date);
+        }
+        return text;
+    }
+
+    /**
+     * This is used to format the specified long date in to a HTTP date. The
+     * date is always parsed in to the fields of this parser, which are then
+     * used to compose the date, so this does not use the shared clock.
+     * 
+     * @param date
+     *            the date specified as a long of milliseconds
+     * 
+     * @return the date represented in the HTTP date format RFC 1123
+     */
+    public String format(long date) {
         this.parse(date);
         return this.toString();
     }
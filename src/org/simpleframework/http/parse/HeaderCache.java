@@ -0,0 +1,603 @@
+/*
+ * HeaderCache.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.parse;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.simpleframework.http.ContentDisposition;
+import org.simpleframework.http.ContentType;
+
+/**
+ * The <code>HeaderCache</code> holds the parsed results of the header values
+ * that clients repeat on almost every request. The same content types,
+ * language preferences, accept lists and dates are sent by browsers over and
+ * over, so rather than creating a parser for each of them the result for a
+ * value that has been seen before is reused. A request carrying the common
+ * values of a browser can then skip these parsers entirely.
+ * <p>
+ * Each result returned is shared by every request with the same value, so
+ * the results are immutable. Content types returned can not be changed, and
+ * the lists returned can not be modified. Each kind of result is held in its
+ * own bounded cache, so a flood of unique values for one header does not
+ * evict the results for the others.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.parse.ParseCache
+ */
+public class HeaderCache {
+
+    /**
+     * This is the cache that is shared by all of the requests.
+     */
+    private static final HeaderCache INSTANCE = new HeaderCache(512, 256);
+
+    /**
+     * This is used to cache the results of parsing content types.
+     */
+    private final ParseCache<ContentType> types;
+
+    /**
+     * This is used to cache the results of parsing dispositions.
+     */
+    private final ParseCache<ContentDisposition> dispositions;
+
+    /**
+     * This is used to cache the locales parsed from a language list.
+     */
+    private final ParseCache<List<Locale>> locales;
+
+    /**
+     * This is used to cache the tokens parsed from a value list.
+     */
+    private final ParseCache<List<String>> values;
+
+    /**
+     * This is used to cache the times parsed from HTTP dates.
+     */
+    private final ParseCache<Long> dates;
+
+    /**
+     * Constructor for the <code>HeaderCache</code> object. This creates a
+     * cache that holds up to the specified number of results for each kind
+     * of header, for values no longer than the specified length.
+     * 
+     * @param capacity
+     *            this is the maximum number of results of each kind
+     * @param length
+     *            this is the maximum length of a value to cache
+     */
+    public HeaderCache(int capacity, int length) {
+        this.types = new TypeCache(capacity, length);
+        this.dispositions = new DispositionCache(capacity, length);
+        this.locales = new LocaleCache(capacity, length);
+        this.values = new ValueCache(capacity, length);
+        this.dates = new DateCache(capacity, length);
+    }
+
+    /**
+     * This is used to acquire the cache that is shared by all requests.
+     * Sharing the cache ensures that a value parsed for one request can be
+     * used by every other request, regardless of the connection.
+     * 
+     * @return this returns the cache shared by all of the requests
+     */
+    public static HeaderCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This is used to acquire the content type for the specified value of
+     * a <code>Content-Type</code> header. The content type returned can not
+     * be changed, any attempt to set a part of it will fail.
+     * 
+     * @param value
+     *            this is the value of the header to be parsed
+     * 
+     * @return this returns an immutable content type for the value
+     */
+    public ContentType getContentType(String value) {
+        return this.types.get(value);
+    }
+
+    /**
+     * This is used to acquire the content disposition for the specified
+     * value of a <code>Content-Disposition</code> header. The disposition
+     * holds the name and file name parsed from the value.
+     * 
+     * @param value
+     *            this is the value of the header to be parsed
+     * 
+     * @return this returns an immutable disposition for the value
+     */
+    public ContentDisposition getDisposition(String value) {
+        return this.dispositions.get(value);
+    }
+
+    /**
+     * This is used to acquire the locales for the specified value of an
+     * <code>Accept-Language</code> header. The locales are in order of the
+     * preference of the client, and the list returned can not be modified.
+     * 
+     * @param value
+     *            this is the value of the header to be parsed
+     * 
+     * @return this returns the locales in order of preference
+     */
+    public List<Locale> getLocales(String value) {
+        return this.locales.get(value);
+    }
+
+    /**
+     * This is used to acquire the tokens for the specified value of a
+     * header such as <code>Accept</code>. The tokens are ordered by their
+     * quality values with the quality parameters removed, and the list
+     * returned can not be modified.
+     * 
+     * @param value
+     *            this is the value of the header to be parsed
+     * 
+     * @return this returns the tokens in order of preference
+     */
+    public List<String> getValues(String value) {
+        return this.values.get(value);
+    }
+
+    /**
+     * This is used to acquire the time for the specified HTTP date. The
+     * date can be in any of the formats accepted by the date parser, and
+     * the time is returned in milliseconds since the epoch.
+     * 
+     * @param value
+     *            this is the value of the header to be parsed
+     * 
+     * @return this returns the time represented by the date
+     */
+    public long getDate(String value) {
+        return this.dates.get(value);
+    }
+
+    /**
+     * The <code>TypeCache</code> is used to cache the content types that
+     * have been parsed. Each content type is parsed with a new parser, and
+     * is then held in an immutable form so that it can be shared.
+     */
+    private static class TypeCache extends ParseCache<ContentType> {
+
+        /**
+         * Constructor for the <code>TypeCache</code> object. This creates
+         * a cache with the specified capacity and value length.
+         * 
+         * @param capacity
+         *            this is the maximum number of results to hold
+         * @param length
+         *            this is the maximum length of a value to cache
+         */
+        public TypeCache(int capacity, int length) {
+            super(capacity, length);
+        }
+
+        /**
+         * This is used to parse the content type for the specified value.
+         * The parser used is wrapped so that the result can not be changed.
+         * 
+         * @param value
+         *            this is the raw header value that is to be parsed
+         * 
+         * @return this returns an immutable content type
+         */
+        @Override
+        protected ContentType create(String value) {
+            return new FixedType(new ContentTypeParser(value));
+        }
+    }
+
+    /**
+     * The <code>DispositionCache</code> is used to cache the dispositions
+     * that have been parsed. Each disposition is parsed with a new parser,
+     * and is then held in an immutable form so that it can be shared.
+     */
+    private static class DispositionCache extends
+            ParseCache<ContentDisposition> {
+
+        /**
+         * Constructor for the <code>DispositionCache</code> object. This
+         * creates a cache with the specified capacity and value length.
+         * 
+         * @param capacity
+         *            this is the maximum number of results to hold
+         * @param length
+         *            this is the maximum length of a value to cache
+         */
+        public DispositionCache(int capacity, int length) {
+            super(capacity, length);
+        }
+
+        /**
+         * This is used to parse the disposition for the specified value.
+         * The parts of the disposition are taken from the parser so that
+         * the parser itself is not shared.
+         * 
+         * @param value
+         *            this is the raw header value that is to be parsed
+         * 
+         * @return this returns an immutable content disposition
+         */
+        @Override
+        protected ContentDisposition create(String value) {
+            return new FixedDisposition(new ContentDispositionParser(value));
+        }
+    }
+
+    /**
+     * The <code>LocaleCache</code> is used to cache the locales parsed from
+     * the <code>Accept-Language</code> header. The list of locales for each
+     * value is ordered by preference and can not be modified.
+     */
+    private static class LocaleCache extends ParseCache<List<Locale>> {
+
+        /**
+         * Constructor for the <code>LocaleCache</code> object. This creates
+         * a cache with the specified capacity and value length.
+         * 
+         * @param capacity
+         *            this is the maximum number of results to hold
+         * @param length
+         *            this is the maximum length of a value to cache
+         */
+        public LocaleCache(int capacity, int length) {
+            super(capacity, length);
+        }
+
+        /**
+         * This is used to parse the locales for the specified value. The
+         * list produced by the parser is wrapped so it can not be modified.
+         * 
+         * @param value
+         *            this is the raw header value that is to be parsed
+         * 
+         * @return this returns the locales in order of preference
+         */
+        @Override
+        protected List<Locale> create(String value) {
+            List<Locale> list = new LanguageParser(value).list();
+
+            return Collections.unmodifiableList(list);
+        }
+    }
+
+    /**
+     * The <code>ValueCache</code> is used to cache the tokens parsed from a
+     * comma separated header value. The list of tokens for each value is
+     * ordered by quality and can not be modified.
+     */
+    private static class ValueCache extends ParseCache<List<String>> {
+
+        /**
+         * Constructor for the <code>ValueCache</code> object. This creates
+         * a cache with the specified capacity and value length.
+         * 
+         * @param capacity
+         *            this is the maximum number of results to hold
+         * @param length
+         *            this is the maximum length of a value to cache
+         */
+        public ValueCache(int capacity, int length) {
+            super(capacity, length);
+        }
+
+        /**
+         * This is used to parse the tokens for the specified value. The
+         * list produced by the parser is wrapped so it can not be modified.
+         * 
+         * @param value
+         *            this is the raw header value that is to be parsed
+         * 
+         * @return this returns the tokens in order of preference
+         */
+        @Override
+        protected List<String> create(String value) {
+            List<String> list = new ValueParser(value).list();
+
+            return Collections.unmodifiableList(list);
+        }
+    }
+
+    /**
+     * The <code>DateCache</code> is used to cache the times parsed from
+     * HTTP dates. Dates such as those in <code>If-Modified-Since</code> are
+     * repeated by a client for each request for the same resource.
+     */
+    private static class DateCache extends ParseCache<Long> {
+
+        /**
+         * Constructor for the <code>DateCache</code> object. This creates
+         * a cache with the specified capacity and value length.
+         * 
+         * @param capacity
+         *            this is the maximum number of results to hold
+         * @param length
+         *            this is the maximum length of a value to cache
+         */
+        public DateCache(int capacity, int length) {
+            super(capacity, length);
+        }
+
+        /**
+         * This is used to parse the time for the specified date. A new
+         * parser is used for each date, as parsers are not thread safe.
+         * 
+         * @param value
+         *            this is the raw header value that is to be parsed
+         * 
+         * @return this returns the time represented by the date
+         */
+        @Override
+        protected Long create(String value) {
+            return new DateParser().convert(value);
+        }
+    }
+
+    /**
+     * The <code>FixedType</code> is an immutable content type. The parts
+     * of the type are taken from the parser when it is created, and any
+     * attempt to change them will fail, as the type is shared by every
+     * request with the same <code>Content-Type</code> value.
+     */
+    private static class FixedType implements ContentType {
+
+        /**
+         * This is the parser used to acquire the parameters of the type.
+         */
+        private final ContentType parser;
+
+        /**
+         * This is the primary and secondary type joined with a slash.
+         */
+        private final String type;
+
+        /**
+         * This is the primary type, such as text or image.
+         */
+        private final String primary;
+
+        /**
+         * This is the secondary type, such as html or png.
+         */
+        private final String secondary;
+
+        /**
+         * This is the charset parameter of the type, which may be null.
+         */
+        private final String charset;
+
+        /**
+         * This is the text of the type including its parameters.
+         */
+        private final String text;
+
+        /**
+         * Constructor for the <code>FixedType</code> object. This takes
+         * each of the parts of the type from the parser provided, which
+         * is then used only to acquire the named parameters.
+         * 
+         * @param parser
+         *            this is the parser that has parsed the type
+         */
+        public FixedType(ContentType parser) {
+            this.secondary = parser.getSecondary();
+            this.primary = parser.getPrimary();
+            this.charset = parser.getCharset();
+            this.text = parser.toString();
+            this.type = parser.getType();
+            this.parser = parser;
+        }
+
+        /**
+         * This is used to acquire the primary and secondary types joined
+         * with a slash, which is how a content type is typically compared.
+         * 
+         * @return this returns the primary and secondary types
+         */
+        @Override
+        public String getType() {
+            return this.type;
+        }
+
+        /**
+         * This will fail as the content type is shared and so can not be
+         * changed. A content type must be created to change its parts.
+         * 
+         * @param type
+         *            this is the primary type that is ignored
+         */
+        @Override
+        public void setPrimary(String type) {
+            throw new UnsupportedOperationException("Content type is shared");
+        }
+
+        /**
+         * This is used to acquire the primary type of the content type, for
+         * example with <code>text/html</code> this returns text.
+         * 
+         * @return this returns the primary type of the content type
+         */
+        @Override
+        public String getPrimary() {
+            return this.primary;
+        }
+
+        /**
+         * This will fail as the content type is shared and so can not be
+         * changed. A content type must be created to change its parts.
+         * 
+         * @param type
+         *            this is the secondary type that is ignored
+         */
+        @Override
+        public void setSecondary(String type) {
+            throw new UnsupportedOperationException("Content type is shared");
+        }
+
+        /**
+         * This is used to acquire the secondary type of the content type,
+         * for example with <code>text/html</code> this returns html.
+         * 
+         * @return this returns the secondary type of the content type
+         */
+        @Override
+        public String getSecondary() {
+            return this.secondary;
+        }
+
+        /**
+         * This will fail as the content type is shared and so can not be
+         * changed. A content type must be created to change its parts.
+         * 
+         * @param charset
+         *            this is the charset that is ignored
+         */
+        @Override
+        public void setCharset(String charset) {
+            throw new UnsupportedOperationException("Content type is shared");
+        }
+
+        /**
+         * This is used to acquire the charset parameter of the content
+         * type. If there is no charset parameter this returns null.
+         * 
+         * @return this returns the charset of the content type
+         */
+        @Override
+        public String getCharset() {
+            return this.charset;
+        }
+
+        /**
+         * This is used to acquire the value of the named parameter. The
+         * parameters are held by the parser, which is never changed once
+         * it has been wrapped, so it can safely be read by any thread.
+         * 
+         * @param name
+         *            this is the name of the parameter to acquire
+         * 
+         * @return this returns the value of the parameter, or null
+         */
+        @Override
+        public String getParameter(String name) {
+            return this.parser.getParameter(name);
+        }
+
+        /**
+         * This will fail as the content type is shared and so can not be
+         * changed. A content type must be created to change its parts.
+         * 
+         * @param name
+         *            this is the name of the parameter that is ignored
+         * @param value
+         *            this is the value of the parameter that is ignored
+         */
+        @Override
+        public void setParameter(String name, String value) {
+            throw new UnsupportedOperationException("Content type is shared");
+        }
+
+        /**
+         * This is used to acquire the text of the content type, including
+         * its parameters, in the form it would take in a header.
+         * 
+         * @return this returns the text of the content type
+         */
+        @Override
+        public String toString() {
+            return this.text;
+        }
+    }
+
+    /**
+     * The <code>FixedDisposition</code> is an immutable disposition. The
+     * parts of the disposition are taken from the parser when it is created
+     * so that the parser itself is not shared between requests.
+     */
+    private static class FixedDisposition implements ContentDisposition {
+
+        /**
+         * This is the name of the part the disposition describes.
+         */
+        private final String name;
+
+        /**
+         * This is the file name of the part, which may be null.
+         */
+        private final String file;
+
+        /**
+         * This determines if the part described is a file.
+         */
+        private final boolean upload;
+
+        /**
+         * Constructor for the <code>FixedDisposition</code> object. This
+         * takes each of the parts of the disposition from the parser.
+         * 
+         * @param parser
+         *            this is the parser that has parsed the disposition
+         */
+        public FixedDisposition(ContentDisposition parser) {
+            this.file = parser.getFileName();
+            this.upload = parser.isFile();
+            this.name = parser.getName();
+        }
+
+        /**
+         * This is used to acquire the name of the part. This is typically
+         * the name of the form field the part was sent for.
+         * 
+         * @return this returns the name of the part
+         */
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * This is used to acquire the file name of the part. If the part
+         * is not a file then this will typically be null.
+         * 
+         * @return this returns the file name of the part
+         */
+        @Override
+        public String getFileName() {
+            return this.file;
+        }
+
+        /**
+         * This is used to determine if the part is a file. A part is a
+         * file if its disposition specifies a file name.
+         * 
+         * @return this returns true if the part is a file
+         */
+        @Override
+        public boolean isFile() {
+            return this.upload;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * ParseCache.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.parse;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The <code>ParseCache</code> is a concurrent cache of the results of parsing
+ * header values, keyed by the raw text of the value. Clients send the same
+ * few values for headers such as <code>Content-Type</code> and
+ * <code>Accept-Language</code> on almost every request, so rather than
+ * parsing each value again the result for a value seen before is reused.
+ * As results are shared by every request they must never be modified.
+ * <p>
+ * The cache is bounded in two ways. Values longer than the maximum length
+ * are never cached, as long values are rarely repeated. Once the cache holds
+ * its capacity it is cleared before the next result is added, which is
+ * cheaper than tracking the use of each entry and quickly refills with the
+ * values that are actually repeated.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.http.parse.HeaderCache
+ */
+public abstract class ParseCache<T> {
+
+    /**
+     * This contains the parsed results keyed by the raw value.
+     */
+    private final Map<String, T> cache;
+
+    /**
+     * This is the maximum number of results held by the cache.
+     */
+    private final int capacity;
+
+    /**
+     * This is the maximum length of a value that is cached.
+     */
+    private final int length;
+
+    /**
+     * Constructor for the <code>ParseCache</code> object. This creates a
+     * cache that holds up to the specified number of results, for values
+     * that are no longer than the specified length.
+     * 
+     * @param capacity
+     *            this is the maximum number of results to hold
+     * @param length
+     *            this is the maximum length of a value to cache
+     */
+    protected ParseCache(int capacity, int length) {
+        this.cache = new ConcurrentHashMap<String, T>();
+        this.capacity = capacity;
+        this.length = length;
+    }
+
+    /**
+     * This is used to acquire the parsed result for the specified value. If
+     * the value has been parsed before then the cached result is returned,
+     * otherwise the value is parsed and the result is cached. Two threads
+     * parsing the same value at once may both parse it, which is harmless
+     * as the results are equivalent.
+     * 
+     * @param value
+     *            this is the raw header value that is to be parsed
+     * 
+     * @return this returns the result of parsing the value
+     */
+    public T get(String value) {
+        if (value.length() > this.length) {
+            return this.create(value);
+        }
+        T result = this.cache.get(value);
+
+        if (result == null) {
+            result = this.create(value);
+
+            if (this.cache.size() >= this.capacity) {
+                this.cache.clear();
+            }
+            this.cache.put(value, result);
+        }
+        return result;
+    }
+
+    /**
+     * This is used to parse the specified value when there is no result for
+     * it within the cache. The result returned must not be null, and must
+     * not be changed once it has been returned, as it is shared.
+     * 
+     * @param value
+     *            this is the raw header value that is to be parsed
+     * 
+     * @return this returns the result of parsing the value
+     */
+    protected abstract T create(String value);
+}
@@ -367,6 +367,33 @@ class Appender implements Packet {
 
     }
 
+    /**
+     * This is used to acquire a buffer containing the write ready bytes of
+     * the packet. As bytes are appended to the buffer it is flipped so that
+     * the bytes can be written, once written the <code>compact</code> method
+     * will make the buffer ready for appending once again.
+     * 
+     * @return this returns a buffer containing the write ready bytes
+     */
+    @Override
+    public ByteBuffer prepare() throws IOException {
+        if (this.closed) throw new PacketException("Packet has been closed");
+        this.buffer.flip();
+        return this.buffer;
+    }
+
+    /**
+     * This is used to remove the bytes written from the buffer provided by
+     * the <code>prepare</code> method. Compacting the buffer moves any bytes
+     * not written to the start of the buffer so that it can be appended to.
+     */
+    @Override
+    public void compact() throws IOException {
+        if (!this.closed) {
+            this.buffer.compact();
+        }
+    }
+
     /**
      * The <code>close</code> method for the packet is used to ensure that any
      * resources occupied by the packet are released. The resources held by this
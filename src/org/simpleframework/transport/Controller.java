@@ -23,9 +23,9 @@ import java.io.IOException;
 /**
  * The <code>Controller</code> interface is used to represent the means to write
  * packets to an underlying transport. This controls all of the selection
- * required to determine if the socket is write ready. If the packet to be
- * written is to block then this will wait until all queued packets are fully
- * written.
+ * required to determine if the socket is write ready. Packets that can not be
+ * written are queued until the socket is write ready, and if too many bytes
+ * are queued the controller is no longer writable until they drain.
  * 
  * @author Niall Gallagher
  */
@@ -50,6 +50,25 @@ interface Controller {
      */
     void flush() throws IOException;
 
+    /**
+     * This method is used to flush all of the queued packets to the client.
+     * The listener provided is notified when all of the packets currently
+     * queued have been written, or if the packets could not be written.
+     * 
+     * @param listener
+     *            this is the listener to notify of the flush progress
+     */
+    void flush(FlushListener listener) throws IOException;
+
+    /**
+     * This is used to determine if the controller is writable. It is not
+     * writable if the number of bytes queued has exceeded the high watermark,
+     * it remains unwritable until the bytes queued drop below the low mark.
+     * 
+     * @return this returns true if the queued bytes are below the watermark
+     */
+    boolean isWritable();
+
     /**
      * This is used to close the writer and the underlying socket. If a close is
      * performed on the writer then no more bytes can be read from or written to
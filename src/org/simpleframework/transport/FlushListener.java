@@ -0,0 +1,64 @@
+/*
+ * FlushListener.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport;
+
+/**
+ * The <code>FlushListener</code> is used to receive notifications about the
+ * progress of data written to a <code>Transport</code>. Bytes that can not be
+ * written to the socket immediately are queued, and a writing thread is never
+ * held waiting for them. A listener can be used to determine when the queued
+ * bytes have been written, and when the transport is once again writable after
+ * the number of queued bytes exceeded the high watermark. Listeners are
+ * notified without holding any lock of the flusher.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.transport.Transport
+ */
+public interface FlushListener {
+
+    /**
+     * This is invoked when the writability of the transport changes. The
+     * transport becomes unwritable when the number of bytes queued exceeds
+     * the high watermark, and becomes writable once the number of bytes
+     * queued has dropped below the low watermark.
+     * 
+     * @param writable
+     *            this determines if the transport is now writable
+     */
+    void writable(boolean writable);
+
+    /**
+     * This is invoked when all of the bytes queued before the listener was
+     * registered have been written to the socket. Once this has been invoked
+     * the listener will receive no further notifications.
+     */
+    void flushed();
+
+    /**
+     * This is invoked if the transport fails before all of the bytes queued
+     * could be written to the socket. Typically this occurs when the client
+     * closes the connection or the write is canceled because the client has
+     * not read any of the queued bytes for an extended period.
+     * 
+     * @param cause
+     *            this is the cause of the failure
+     */
+    void failed(Exception cause);
+}
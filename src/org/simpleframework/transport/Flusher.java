@@ -34,19 +34,39 @@ import java.io.IOException;
  */
 interface Flusher {
 
+    /**
+     * This is used to determine if the flusher is writable. The flusher is
+     * not writable if the number of bytes queued has exceeded the high
+     * watermark, it remains unwritable until the bytes queued have dropped
+     * below the low watermark.
+     * 
+     * @return this returns true if the queued bytes are below the watermark
+     */
+    boolean isWritable();
+
     /**
      * Here in this method we schedule a flush when the underlying writer is
      * write ready. This allows the writer thread to return without having to
-     * fully flush the content to the underlying transport. This will block if
-     * references are queued.
+     * fully flush the content to the underlying transport. This will not
+     * block the calling thread.
      */
     void flush() throws IOException;
 
+    /**
+     * Here in this method we schedule a flush when the underlying writer is
+     * write ready. The listener provided is notified when all the bytes
+     * currently queued have been written, or if the flush fails.
+     * 
+     * @param listener
+     *            this is the listener to notify of the flush progress
+     */
+    void flush(FlushListener listener) throws IOException;
+
     /**
      * This is used to close the flusher ensuring that all of the data within
      * the writer will be flushed regardless of the amount of data within the
-     * writer that needs to be written. If the writer does not block then this
-     * waits to be finished.
+     * writer that needs to be written. The writer is closed once all of the
+     * data has been written, the calling thread does not wait for this.
      */
     void close() throws IOException;
 }
\ No newline at end of file
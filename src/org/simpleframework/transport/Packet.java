@@ -206,6 +206,25 @@ interface Packet extends Comparable<Packet> {
      */
     int write(ByteChannel channel, int count) throws IOException;
 
+    /**
+     * This is used to acquire a buffer containing the write ready bytes of
+     * the packet. This allows the bytes of several packets to be written to
+     * the channel in a single gathering write. Once the buffer has been
+     * written the <code>compact</code> method must be invoked so that the
+     * bytes written are removed from the packet.
+     * 
+     * @return this returns a buffer containing the write ready bytes
+     */
+    ByteBuffer prepare() throws IOException;
+
+    /**
+     * This is used to remove the bytes written from the buffer provided by
+     * the <code>prepare</code> method. Once compacted the <code>length</code>
+     * of the packet will represent the bytes that remain to be written, if
+     * there are no bytes remaining the packet must be closed.
+     */
+    void compact() throws IOException;
+
     /**
      * The <code>close</code> method for the packet is used to ensure that any
      * resources occupied by the packet are released. These could be anything
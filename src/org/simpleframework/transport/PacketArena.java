@@ -0,0 +1,580 @@
+/*
+ * PacketArena.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <code>PacketArena</code> is a process wide pool of direct buffers that
+ * is shared by all transports. Rather than each connection holding on to its
+ * own direct buffers, buffers are borrowed from the arena when a packet is
+ * built and returned when the packet is closed. This means the amount of off
+ * heap memory used depends on the volume of data being written rather than
+ * the number of connections that are open.
+ * <p>
+ * Buffers are pooled in size classes, each a power of two from 4KB to 64KB.
+ * Recycled buffers are first placed in a cache local to the thread, which
+ * avoids contention, and when that is full they are placed on a free list
+ * shared by all threads. The total number of direct bytes allocated is capped,
+ * once the cap has been reached heap buffers are used instead. The cap can
+ * be specified with the following system property.
+ * 
+ * <pre>
+ * -Dorg.simpleframework.transport.arena=67108864
+ * </pre>
+ * 
+ * Buffers borrowed from the arena are tracked by the <code>PacketManager</code>
+ * that borrowed them. If a manager is garbage collected while it still holds
+ * buffers those buffers have leaked, as their packets were never closed. The
+ * arena detects this, counts the leaked buffers, and reclaims them. Buffers
+ * left in the cache of a thread that has died are likewise moved to the
+ * shared free list whenever another thread starts to use the arena, so that
+ * they are not lost to the count of bytes reserved. Virtual threads, which
+ * typically live for a single task, use the shared free list directly.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.transport.PacketManager
+ */
+public class PacketArena {
+
+    /**
+     * This is the name of the property used to specify the cap.
+     */
+    private static final String PROPERTY = "org.simpleframework.transport.arena";
+
+    /**
+     * This is used to determine if a thread is a virtual thread.
+     */
+    private static final Method VIRTUAL = getVirtual();
+
+    /**
+     * This is the arena that is shared by all of the transports.
+     */
+    private static final PacketArena INSTANCE = new PacketArena();
+
+    /**
+     * This is the size of the smallest class of buffers pooled.
+     */
+    private static final int MINIMUM = 4096;
+
+    /**
+     * This is the number of size classes that are pooled.
+     */
+    private static final int CLASSES = 5;
+
+    /**
+     * This is the number of buffers cached by each thread per class.
+     */
+    private static final int CACHE = 16;
+
+    /**
+     * This is used to receive leases whose managers were collected.
+     */
+    private final ReferenceQueue<PacketManager> queue;
+
+    /**
+     * This contains the leases for each of the managers in use.
+     */
+    private final Set<PacketLease> leases;
+
+    /**
+     * This contains the caches for each thread that has used the arena.
+     */
+    private final Set<Cache> caches;
+
+    /**
+     * This contains the free buffers shared by all of the threads.
+     */
+    private final Queue<ByteBuffer>[] free;
+
+    /**
+     * This contains the buffers cached locally by each thread.
+     */
+    private final ThreadLocal<Cache> cache;
+
+    /**
+     * This is the number of direct bytes that have been allocated.
+     */
+    private final AtomicLong reserved;
+
+    /**
+     * This is the number of buffers that were never recycled.
+     */
+    private final AtomicLong leaked;
+
+    /**
+     * This is the maximum number of direct bytes to allocate.
+     */
+    private final long limit;
+
+    /**
+     * Constructor for the <code>PacketArena</code> object. This creates an
+     * arena with a cap taken from the system property. If the property has
+     * not been specified then the cap is sixty four megabytes.
+     */
+    public PacketArena() {
+        this(getDefault());
+    }
+
+    /**
+     * Constructor for the <code>PacketArena</code> object. This creates an
+     * arena that will allocate no more than the specified number of direct
+     * bytes. Once the cap has been reached heap buffers are used instead.
+     * 
+     * @param limit
+     *            this is the maximum number of direct bytes to allocate
+     */
+    public PacketArena(long limit) {
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Queue<ByteBuffer>[] free = new Queue[CLASSES];
+
+        this.leases = Collections.newSetFromMap(new ConcurrentHashMap<PacketLease, Boolean>());
+        this.caches = Collections.newSetFromMap(new ConcurrentHashMap<Cache, Boolean>());
+        this.queue = new ReferenceQueue<PacketManager>();
+        this.free = free;
+        this.cache = new CacheLocal();
+        this.reserved = new AtomicLong();
+        this.leaked = new AtomicLong();
+        this.limit = limit;
+
+        for (int i = 0; i < CLASSES; i++) {
+            this.free[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+        }
+    }
+
+    /**
+     * This is used to acquire the arena that is shared by all transports.
+     * Sharing a single arena ensures that buffers recycled by one connection
+     * can be used by another, so that memory is not held by idle connections.
+     * 
+     * @return this returns the arena shared by all of the transports
+     */
+    public static PacketArena getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This is used to acquire the maximum number of direct bytes the arena
+     * will allocate. Once this number of bytes has been allocated then any
+     * further buffers required are allocated on the heap.
+     * 
+     * @return this returns the maximum number of direct bytes
+     */
+    public long getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * This is used to acquire the number of direct bytes the arena has
+     * allocated. This includes the buffers that are currently in use as well
+     * as those that are free within the arena.
+     * 
+     * @return this returns the number of direct bytes allocated
+     */
+    public long getReserved() {
+        return this.reserved.get();
+    }
+
+    /**
+     * This is used to acquire the number of buffers that have leaked. A
+     * buffer has leaked if the manager that borrowed it was garbage collected
+     * before the buffer was returned, which means a packet was not closed.
+     * 
+     * @return this returns the number of buffers that have leaked
+     */
+    public long getLeaked() {
+        return this.leaked.get();
+    }
+
+    /**
+     * This is used to create a lease for the specified manager. The lease is
+     * used to track the buffers borrowed by the manager so that they can be
+     * reclaimed if the manager is collected before they are returned.
+     * 
+     * @param manager
+     *            this is the manager that buffers are borrowed by
+     * 
+     * @return this returns a lease used to track the buffers
+     */
+    PacketLease lease(PacketManager manager) {
+        PacketLease lease = new PacketLease(manager, this.queue);
+
+        this.leases.add(lease);
+        this.purge();
+        this.spill();
+
+        return lease;
+    }
+
+    /**
+     * This is used to borrow a buffer of at least the specified size. The
+     * buffer is taken from the thread cache if possible, then from the shared
+     * free list, and if there is no free buffer a new one is allocated. If
+     * the size is larger than the largest class a heap buffer is returned.
+     * 
+     * @param size
+     *            this is the minimum capacity of the buffer required
+     * 
+     * @return this returns a cleared buffer of the required size
+     */
+    ByteBuffer allocate(int size) {
+        int index = this.index(size);
+
+        if (index < CLASSES) {
+            Cache local = this.cache.get();
+            ByteBuffer buffer = null;
+
+            if (local != null) {
+                buffer = local.poll(index);
+            }
+            if (buffer == null) {
+                buffer = this.free[index].poll();
+            }
+            if (buffer == null) {
+                return this.create(MINIMUM << index);
+            }
+            return buffer;
+        }
+        return ByteBuffer.allocate(size);
+    }
+
+    /**
+     * This is used to allocate a new direct buffer of the specified size. If
+     * allocating the buffer would exceed the cap then a heap buffer is used
+     * instead. Heap buffers are not pooled by the arena.
+     * 
+     * @param size
+     *            this is the size of the buffer to be allocated
+     * 
+     * @return this returns a newly allocated byte buffer
+     */
+    private ByteBuffer create(int size) {
+        long total = this.reserved.addAndGet(size);
+
+        if (total <= this.limit) {
+            try {
+                return ByteBuffer.allocateDirect(size);
+            } catch (Throwable e) {
+                this.reserved.addAndGet(-size);
+                return ByteBuffer.allocate(size);
+            }
+        }
+        this.reserved.addAndGet(-size);
+        return ByteBuffer.allocate(size);
+    }
+
+    /**
+     * This is used to return a buffer to the arena so that it can be used
+     * again. Only direct buffers that belong to one of the size classes are
+     * pooled, the buffer is placed in the thread cache unless it is full or
+     * the thread has no cache, in which case it is placed on the shared free
+     * list. Any buffers leaked by
+     * managers that have been collected are also reclaimed at this point.
+     * 
+     * @param buffer
+     *            this is the buffer that is to be returned
+     */
+    void recycle(ByteBuffer buffer) {
+        this.release(buffer);
+        this.purge();
+    }
+
+    /**
+     * This is used to place a buffer back in to the arena. The buffer is
+     * placed in the cache for the current thread unless it is full or the
+     * thread has no cache, in which case it is placed on the shared free
+     * list. Buffers that are
+     * not direct or that do not belong to a size class are discarded.
+     * 
+     * @param buffer
+     *            this is the buffer that is to be placed in the arena
+     */
+    private void release(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        int index = this.index(capacity);
+
+        if (buffer.isDirect() && index < CLASSES) {
+            Cache local = this.cache.get();
+
+            buffer.clear();
+
+            if (local == null || !local.offer(index, buffer)) {
+                this.free[index].offer(buffer);
+            }
+        }
+    }
+
+    /**
+     * This is used to reclaim the buffers held by any manager that has been
+     * garbage collected. Each buffer reclaimed has leaked as it was never
+     * returned, it is counted and then placed back in the arena.
+     */
+    private void purge() {
+        PacketLease lease = (PacketLease) this.queue.poll();
+
+        while (lease != null) {
+            List<ByteBuffer> buffers = lease.release();
+
+            for (ByteBuffer buffer : buffers) {
+                this.leaked.getAndIncrement();
+                this.release(buffer);
+            }
+            this.leases.remove(lease);
+            lease = (PacketLease) this.queue.poll();
+        }
+    }
+
+    /**
+     * This is used to move the buffers cached by threads that have died on
+     * to the shared free list. Without this the buffers would be collected
+     * along with the thread, and the bytes they reserve could never be used
+     * again. A cache is removed from the arena before it is emptied so that
+     * only one thread will ever empty it.
+     */
+    private void spill() {
+        for (Cache cache : this.caches) {
+            if (!cache.isAlive() && this.caches.remove(cache)) {
+                for (int i = 0; i < CLASSES; i++) {
+                    ByteBuffer buffer = cache.poll(i);
+
+                    while (buffer != null) {
+                        this.free[i].offer(buffer);
+                        buffer = cache.poll(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This is used to determine the size class for the specified size. The
+     * classes are powers of two starting at four kilobytes, if the size is
+     * larger than the largest class then the number of classes is returned.
+     * 
+     * @param size
+     *            this is the size to determine the class for
+     * 
+     * @return this returns the index of the size class
+     */
+    private int index(int size) {
+        int blocks = (Math.max(size, 1) - 1) / MINIMUM;
+
+        if (blocks > 0) {
+            return Math.min(32 - Integer.numberOfLeadingZeros(blocks), CLASSES);
+        }
+        return 0;
+    }
+
+    /**
+     * This is used to determine if the specified thread is a virtual thread.
+     * Virtual threads are typically created for a single task, so caching
+     * buffers for them would strand buffers in caches that are soon dead.
+     * 
+     * @param thread
+     *            this is the thread to be examined
+     * 
+     * @return this returns true if the thread is a virtual thread
+     */
+    private static boolean isVirtual(Thread thread) {
+        if (VIRTUAL != null) {
+            try {
+                return Boolean.TRUE.equals(VIRTUAL.invoke(thread));
+            } catch (Exception e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This is used to acquire the method that determines if a thread is a
+     * virtual thread. Virtual threads were only added in Java 21, so the
+     * method is acquired reflectively, and on an older runtime this is null.
+     * 
+     * @return this returns the method used to check for virtual threads
+     */
+    private static Method getVirtual() {
+        try {
+            return Thread.class.getMethod("isVirtual");
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * This is used to acquire the cap for the arena from the system property.
+     * If the property has not been specified or can not be read then the
+     * arena will be capped at sixty four megabytes.
+     * 
+     * @return this returns the maximum number of direct bytes
+     */
+    private static long getDefault() {
+        try {
+            return Long.getLong(PROPERTY, 64 * 1024 * 1024);
+        } catch (Exception e) {
+            return 64 * 1024 * 1024;
+        }
+    }
+
+    /**
+     * The <code>Cache</code> object contains the buffers cached by a single
+     * thread. Each size class is a small stack of buffers, a stack is used
+     * so that the most recently used buffer, which is likely to be hot in
+     * the processor cache, is the first to be reused.
+     */
+    private static class Cache {
+
+        /**
+         * This is a weak reference to the thread that owns the cache.
+         */
+        private final WeakReference<Thread> owner;
+
+        /**
+         * This contains a stack of buffers for each of the classes.
+         */
+        private final ByteBuffer[][] stacks;
+
+        /**
+         * This contains the number of buffers within each stack.
+         */
+        private final int[] counts;
+
+        /**
+         * Constructor for the <code>Cache</code> object. This creates the
+         * stacks for each of the size classes, each stack can hold a fixed
+         * number of buffers before they overflow to the shared free list.
+         * 
+         * @param thread
+         *            this is the thread that the cache belongs to
+         */
+        public Cache(Thread thread) {
+            this.owner = new WeakReference<Thread>(thread);
+            this.stacks = new ByteBuffer[CLASSES][CACHE];
+            this.counts = new int[CLASSES];
+        }
+
+        /**
+         * This is used to determine if the thread that owns the cache is
+         * still alive. Once the thread has died its buffers can be safely
+         * taken from the cache by another thread, as seeing that it has
+         * died ensures all of its changes to the cache are visible.
+         * 
+         * @return this returns true if the owning thread is alive
+         */
+        public boolean isAlive() {
+            Thread thread = this.owner.get();
+
+            if (thread != null) {
+                return thread.isAlive();
+            }
+            return false;
+        }
+
+        /**
+         * This is used to take a buffer from the stack for the size class.
+         * If the stack is empty then this will return null and the buffer
+         * must be taken from the shared free list instead.
+         * 
+         * @param index
+         *            this is the index of the size class
+         * 
+         * @return this returns a buffer from the stack or null
+         */
+        public ByteBuffer poll(int index) {
+            int count = this.counts[index];
+
+            if (count > 0) {
+                ByteBuffer buffer = this.stacks[index][--count];
+
+                this.stacks[index][count] = null;
+                this.counts[index] = count;
+                return buffer;
+            }
+            return null;
+        }
+
+        /**
+         * This is used to place a buffer on the stack for the size class.
+         * If the stack is full then this will return false and the buffer
+         * must be placed on the shared free list instead.
+         * 
+         * @param index
+         *            this is the index of the size class
+         * @param buffer
+         *            this is the buffer to be placed on the stack
+         * 
+         * @return this returns true if the buffer was cached
+         */
+        public boolean offer(int index, ByteBuffer buffer) {
+            int count = this.counts[index];
+
+            if (count < CACHE) {
+                this.stacks[index][count] = buffer;
+                this.counts[index] = count + 1;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The <code>CacheLocal</code> object is used to provide each thread with
+     * its own cache of buffers. The cache is created lazily the first time a
+     * thread borrows or returns a buffer, and is registered with the arena
+     * so that its buffers can be recovered once the thread has died. Virtual
+     * threads are not given a cache.
+     */
+    private class CacheLocal extends ThreadLocal<Cache> {
+
+        /**
+         * This is used to create the initial cache for the thread. Each
+         * cache is initially empty and is filled as buffers are recycled.
+         * As a new thread is using the arena the caches of threads that
+         * have died are spilled, so that threads that come and go do not
+         * strand their buffers. A virtual thread has no cache.
+         * 
+         * @return this returns a new empty cache for the thread, or null
+         */
+        @Override
+        protected Cache initialValue() {
+            Thread thread = Thread.currentThread();
+
+            PacketArena.this.spill();
+
+            if (!isVirtual(thread)) {
+                Cache cache = new Cache(thread);
+
+                PacketArena.this.caches.add(cache);
+                return cache;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * PacketLease.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>PacketLease</code> is used to track the buffers that have been
+ * borrowed from the <code>PacketArena</code> by a manager. The lease only
+ * weakly references the manager, so that if the manager is collected while
+ * it still holds buffers the lease is enqueued and the arena can reclaim the
+ * buffers. Reclaiming the buffers in this way ensures that a packet that was
+ * not closed does not permanently reduce the capacity of the arena.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.transport.PacketArena
+ */
+class PacketLease extends WeakReference<PacketManager> {
+
+    /**
+     * This contains the buffers that are currently borrowed.
+     */
+    private final List<ByteBuffer> buffers;
+
+    /**
+     * Constructor for the <code>PacketLease</code> object. This creates a
+     * lease for the specified manager. When the manager is collected this
+     * lease will be enqueued on the provided queue.
+     * 
+     * @param manager
+     *            this is the manager that buffers are borrowed by
+     * @param queue
+     *            this is the queue to enqueue this lease on
+     */
+    public PacketLease(PacketManager manager,
+            ReferenceQueue<PacketManager> queue) {
+        super(manager, queue);
+        this.buffers = new ArrayList<ByteBuffer>();
+    }
+
+    /**
+     * This is used to determine the number of buffers currently borrowed.
+     * As the manager limits the number of buffers it can borrow this will
+     * typically be a very small number.
+     * 
+     * @return this returns the number of buffers that are borrowed
+     */
+    public synchronized int size() {
+        return this.buffers.size();
+    }
+
+    /**
+     * This is used to record that the buffer has been borrowed. Once the
+     * buffer has been recorded it will be reclaimed should the manager be
+     * collected before it is returned.
+     * 
+     * @param buffer
+     *            this is the buffer that has been borrowed
+     */
+    public synchronized void add(ByteBuffer buffer) {
+        this.buffers.add(buffer);
+    }
+
+    /**
+     * This is used to record that the buffer has been returned. As byte
+     * buffers compare by their contents the buffer is located by identity
+     * rather than by using the <code>equals</code> method.
+     * 
+     * @param buffer
+     *            this is the buffer that has been returned
+     * 
+     * @return this returns true if the buffer was borrowed
+     */
+    public synchronized boolean remove(ByteBuffer buffer) {
+        int size = this.buffers.size();
+
+        for (int i = 0; i < size; i++) {
+            if (this.buffers.get(i) == buffer) {
+                this.buffers.remove(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This is used to release all of the buffers held by the lease. This is
+     * used by the arena to reclaim the buffers when the manager has been
+     * collected without having returned them.
+     * 
+     * @return this returns the buffers that were still borrowed
+     */
+    public synchronized List<ByteBuffer> release() {
+        List<ByteBuffer> list = new ArrayList<ByteBuffer>(this.buffers);
+
+        this.buffers.clear();
+        return list;
+    }
+}
@@ -19,39 +19,46 @@
 package org.simpleframework.transport;
 
 import java.nio.ByteBuffer;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * The <code>PacketManager</code> object is used to create buffers used to
- * buffer output. Buffers are created lazily so that they are allocated only on
- * demand. Typically buffers are only created when small chunks of data are
- * written to the transport and the socket is blocking. This ensures that
+ * buffer output. Buffers are borrowed from the shared <code>PacketArena</code>
+ * on demand and are returned to the arena when they are recycled, so that a
+ * connection only holds buffers while it has data waiting to be written.
+ * Typically buffers are only required when small chunks of data are written
+ * to the transport and the socket is not write ready. This ensures that
  * writing can continue without waiting for the data to be fully drained.
  * 
  * @author Niall Gallagher
+ * 
+ * @see org.simpleframework.transport.PacketArena
  */
 class PacketManager implements Recycler {
 
     /**
-     * This is the queue that is used to recycle the buffers.
+     * This is the arena that the buffers are borrowed from.
+     */
+    private final PacketArena arena;
+
+    /**
+     * This is used to track the buffers borrowed from the arena.
      */
-    private Queue queue;
+    private final PacketLease lease;
 
     /**
-     * Determines how many buffers can be lazily created.
+     * Determines how many buffers can be borrowed at once.
      */
-    private int allow;
+    private final int allow;
 
     /**
-     * Determines the size of the buffers that are created.
+     * Determines the size of the buffers that are borrowed.
      */
-    private int size;
+    private final int size;
 
     /**
      * Constructor for the <code>PacketManager</code> object. This requires the
      * size of the buffers that will be allocated and the number of buffers that
-     * can be lazily created before it will block waiting for the next buffer to
-     * be returned.
+     * can be borrowed from the arena before heap buffers are used.
      */
     public PacketManager() {
         this(3);
@@ -60,11 +67,10 @@ class PacketManager implements Recycler {
     /**
      * Constructor for the <code>PacketManager</code> object. This requires the
      * size of the buffers that will be allocated and the number of buffers that
-     * can be lazily created before it will block waiting for the next buffer to
-     * be returned.
+     * can be borrowed from the arena before heap buffers are used.
      * 
      * @param allow
-     *            this is the size of the buffers to be allocated
+     *            this is the number of buffers to be borrowed
      */
     public PacketManager(int allow) {
         this(allow, 4096);
@@ -73,96 +79,69 @@ class PacketManager implements Recycler {
     /**
      * Constructor for the <code>PacketManager</code> object. This requires the
      * size of the buffers that will be allocated and the number of buffers that
-     * can be lazily created before it will block waiting for the next buffer to
-     * be returned.
+     * can be borrowed from the arena before heap buffers are used.
      * 
      * @param allow
-     *            this is the number of buffers to be created
+     *            this is the number of buffers to be borrowed
      * @param size
      *            this is the size of the buffers to be allocated
      */
     public PacketManager(int allow, int size) {
-        this.queue = new Queue();
-        this.allow = allow;
-        this.size = size;
+        this(allow, size, PacketArena.getInstance());
     }
 
     /**
-     * This checks to see if there is a buffer ready within the queue. If there
-     * is one ready then this returns it, if not then this checks how many
-     * buffers have been created. If we can create one then return a newly
-     * instantiated buffer, otherwise block and wait for one to be recycled.
+     * Constructor for the <code>PacketManager</code> object. This requires the
+     * size of the buffers that will be allocated and the number of buffers that
+     * can be borrowed from the arena before heap buffers are used. All of the
+     * buffers are borrowed from the specified arena.
      * 
-     * @return this returns the next ready buffer within the manager
+     * @param allow
+     *            this is the number of buffers to be borrowed
+     * @param size
+     *            this is the size of the buffers to be allocated
+     * @param arena
+     *            this is the arena to borrow the buffers from
      */
-    public ByteBuffer allocate() throws PacketException {
-        ByteBuffer next = this.queue.poll();
-
-        if (next != null) return next;
-        return this.create();
+    public PacketManager(int allow, int size, PacketArena arena) {
+        this.lease = arena.lease(this);
+        this.arena = arena;
+        this.allow = allow;
+        this.size = size;
     }
 
     /**
-     * This checks to see if there is a buffer ready within the queue. If there
-     * is one ready then this returns it, if not then this checks how many
-     * buffers have been created. If we can create one then return a newly
-     * instantiated buffer, otherwise block and wait for one to be enqueued.
+     * This is used to borrow a buffer from the arena. If the number of
+     * buffers currently borrowed has reached the limit then this will not
+     * wait for a borrowed buffer to be recycled, instead a heap buffer is
+     * created that is not returned to the arena. The number of bytes a
+     * connection can queue is bounded by the watermarks of its flusher.
      * 
-     * @return this returns the next ready buffer within the queue
+     * @return this returns the next ready buffer from the arena
      */
-    private ByteBuffer create() throws PacketException {
-        if (this.allow-- >= 0) return this.build();
-        try {
-            return this.queue.take();
-        } catch (Exception e) {
-            throw new PacketException("Thread interrupt", e);
+    public ByteBuffer allocate() throws PacketException {
+        if (this.lease.size() > this.allow) {
+            return ByteBuffer.allocate(this.size);
         }
+        ByteBuffer buffer = this.arena.allocate(this.size);
+
+        this.lease.add(buffer);
+        return buffer;
     }
 
     /**
      * This method is used to recycle the buffer. Invoking this with a buffer
-     * instance will pass the buffer back in to the pool. Once passed back in to
-     * the pool the buffer should no longer be used as it may affect future uses
-     * of the buffer.
+     * instance will pass the buffer back in to the arena. Once passed back in
+     * to the arena the buffer should no longer be used as it may affect future
+     * uses of the buffer. Buffers that were not borrowed are discarded.
      * 
      * @param buffer
      *            this is the buffer that is to be recycled
      */
     @Override
     public void recycle(ByteBuffer buffer) {
-        buffer.clear();
-        this.queue.offer(buffer);
-    }
-
-    /**
-     * This is used to allocate a buffer if there is no buffer ready within the
-     * queue. The size of the buffer is determined from the size specified when
-     * the buffer queue is created.
-     * 
-     * @return this returns a newly allocated byte buffer
-     */
-    private ByteBuffer build() {
-        try {
-            return ByteBuffer.allocateDirect(this.size);
-        } catch (Throwable e) {
-            return ByteBuffer.allocate(this.size);
-        }
-    }
-
-    /**
-     * The <code>Queue</code> is used to transfer recycled buffers back in to
-     * the main memory store. When recycled they can be allocated again and used
-     * to transfer data to the socket.
-     */
-    private class Queue extends LinkedBlockingQueue<ByteBuffer> {
-
-        /**
-         * Constructor for the <code>Queue</code> object. This is used to create
-         * a queue that will transfer buffers back in to the main memory store
-         * so they can be reused.
-         */
-        public Queue() {
-            super();
+        if (this.lease.remove(buffer)) {
+            this.arena.recycle(buffer);
         }
     }
 }
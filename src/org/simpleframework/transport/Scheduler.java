@@ -19,7 +19,6 @@
 package org.simpleframework.transport;
 
 import static java.nio.channels.SelectionKey.OP_WRITE;
-import static org.simpleframework.transport.TransportEvent.WRITE_BLOCKING;
 import static org.simpleframework.transport.TransportEvent.WRITE_WAIT;
 
 import java.io.IOException;
@@ -31,14 +30,12 @@ import org.simpleframework.transport.trace.Trace;
 /**
  * The <code>Scheduler</code> object is used to schedule a task for execution
  * when it is write ready. This is used by the socket flusher to ensure that the
- * writing thread can be blocked until such time as all the bytes required to be
- * written are written.
+ * bytes queued are written when the socket can accept them. The writing thread
+ * is never blocked, it simply schedules the task and returns.
  * <p>
  * All methods are invoked by a <code>SocketFlusher</code> object which is
  * synchronized. This ensures that the methods of the scheduler are thread safe
- * in that only one thread will access them at any given time. The lock used by
- * the socket flusher can thus be safely as it will be synchronized on by the
- * flusher.
+ * in that only one thread will access them at any given time.
  * 
  * @author Niall Gallagher
  * 
@@ -61,11 +58,6 @@ class Scheduler {
      */
     private Trace trace;
 
-    /**
-     * This is the lock that is used to signal a blocked thread.
-     */
-    private Object lock;
-
     /**
      * This is used to determine if the scheduler is running.
      */
@@ -87,14 +79,11 @@ class Scheduler {
      *            this is the rector used to schedule execution
      * @param task
      *            this is the task that is executed when writable
-     * @param lock
-     *            this is the lock used to signal blocking threads
      */
-    public Scheduler(Socket socket, Reactor reactor, Operation task, Object lock) {
+    public Scheduler(Socket socket, Reactor reactor, Operation task) {
         this.trace = socket.getTrace();
         this.reactor = reactor;
         this.task = task;
-        this.lock = lock;
     }
 
     /**
@@ -112,72 +101,34 @@ class Scheduler {
     }
 
     /**
-     * This is used to schedule the task for execution. If this is given a
-     * boolean true to indicate that it wishes to block then this will block the
-     * calling thread until such time as the <code>ready</code> method is
-     * invoked.
-     * 
-     * @param block
-     *            indicates whether the thread should block
+     * This is used to schedule the task for execution. If the task is already
+     * scheduled then this does nothing, as the task will continue to be
+     * scheduled until it has completed. The calling thread will not block.
      */
-    public void schedule(boolean block) throws IOException {
+    public void schedule() throws IOException {
         if (this.closed) throw new TransportException("Socket closed");
         if (!this.running) {
             this.trace.trace(WRITE_WAIT);
             this.reactor.process(this.task, OP_WRITE);
             this.running = true;
         }
-        if (block) {
-            this.listen();
-        }
-    }
-
-    /**
-     * This is used to listen for a notification from the reactor to tell the
-     * thread that the write operation has completed. If the thread is
-     * interrupted upon this call then this will throw an
-     * <code>IOException</code> with the root cause.
-     */
-    private void listen() throws IOException {
-        try {
-            if (!this.closed) {
-                this.trace.trace(WRITE_BLOCKING);
-                this.lock.wait(120000);
-            }
-        } catch (Exception e) {
-            throw new TransportException("Schedule error", e);
-        }
-        if (this.closed) throw new TransportException("Socket closed");
-    }
-
-    /**
-     * This is used to notify any waiting threads that they no longer need to
-     * wait. This is used when the flusher no longer needs the waiting thread to
-     * block. Such an occurrence happens when all shared data has been written
-     * or has been duplicated.
-     */
-    public void release() {
-        this.lock.notifyAll();
     }
 
     /**
-     * This is used to signal any blocking threads to wake up. When this is
-     * invoked blocking threads are signaled and they can return. This is
-     * typically done when the task has finished.
+     * This is used to mark the task as finished. When this is invoked the
+     * task will no longer be repeated and a subsequent schedule will register
+     * the task with the reactor once again.
      */
     public void ready() {
-        this.lock.notifyAll();
         this.running = false;
     }
 
     /**
      * This is used to close the scheduler when the reactor is closed by the
      * server. An close will happen when the server has been shutdown, it
-     * ensures there are no threads lingering waiting for a notification when
-     * the reactor has closed.
+     * ensures the task will not be scheduled once the reactor has closed.
      */
     public void close() {
-        this.lock.notifyAll();
         this.closed = true;
     }
 }
@@ -402,6 +402,32 @@ class SecureTransport implements Transport {
         this.transport.flush();
     }
 
+    /**
+     * This method is used to flush the contents of the buffer to the client.
+     * The listener provided is notified once all of the encrypted content has
+     * been written, or if the content could not be written.
+     * 
+     * @param listener
+     *            this is the listener to notify of the flush progress
+     */
+    @Override
+    public void flush(FlushListener listener) throws IOException {
+        if (this.closed) throw new TransportException("Transport is closed");
+        this.transport.flush(listener);
+    }
+
+    /**
+     * This is used to determine if the transport is writable. It is not
+     * writable if the number of bytes queued has exceeded the high watermark,
+     * it remains unwritable until the bytes queued drop below the low mark.
+     * 
+     * @return this returns true if the queued bytes are below the watermark
+     */
+    @Override
+    public boolean isWritable() {
+        return this.transport.isWritable();
+    }
+
     /**
      * This is used to close the sender and the underlying transport. If a close
      * is performed on the sender then no more bytes can be read from or written
@@ -244,6 +244,31 @@ class Segment implements Packet {
         return this.packet.write(channel, count);
     }
 
+    /**
+     * This is used to acquire a buffer containing the write ready bytes of
+     * the packet. This allows the bytes of several packets to be written to
+     * the channel in a single gathering write. Once the buffer has been
+     * written the <code>compact</code> method must be invoked so that the
+     * bytes written are removed from the packet.
+     * 
+     * @return this returns a buffer containing the write ready bytes
+     */
+    @Override
+    public ByteBuffer prepare() throws IOException {
+        return this.packet.prepare();
+    }
+
+    /**
+     * This is used to remove the bytes written from the buffer provided by
+     * the <code>prepare</code> method. Once compacted the <code>length</code>
+     * of the packet will represent the bytes that remain to be written, if
+     * there are no bytes remaining the packet must be closed.
+     */
+    @Override
+    public void compact() throws IOException {
+        this.packet.compact();
+    }
+
     /**
      * This method is used to determine if the buffer is shared with another
      * thread or service. It is important to know whether a packet is shared as
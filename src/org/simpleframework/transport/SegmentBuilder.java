@@ -19,7 +19,9 @@
 package org.simpleframework.transport;
 
 import java.io.IOException;
-import java.util.PriorityQueue;
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * The <code>SegmentBuilder</code> object is used to build segments such that
@@ -28,8 +30,13 @@ import java.util.PriorityQueue;
  * can be freed when they are no longer needed. This enables the transport as a
  * whole to perform better as it ensures the packet pool is not exhausted when
  * there is sufficient space in other queued packets. Also this will copy shared
- * packets in to allocated space if requested, ensuring that the writing thread
- * does not need to block.
+ * packets in to allocated space when compacted, ensuring that the writing
+ * thread never needs to block.
+ * <p>
+ * Packets are held in a ring in the order they arrive, which is the order of
+ * their sequence numbers. The total number of bytes queued and the number of
+ * reference packets queued are maintained as packets are added, written and
+ * removed, so that neither requires the queue to be traversed.
  * 
  * @author Niall Gallagher
  * 
@@ -37,21 +44,11 @@ import java.util.PriorityQueue;
  */
 class SegmentBuilder {
 
-    /**
-     * This is a compact queue which contains the compact packets.
-     */
-    private final Queue compact;
-
     /**
      * This is the packet queue that is used to queue packets.
      */
     private final Queue ready;
 
-    /**
-     * This is the maximum size a packet can be duplicated as.
-     */
-    private final int limit;
-
     /**
      * Constructor for the <code>SegmentBuilder</code> object. This is used to
      * create a queue of packets such that each packet is of a minimum size. To
@@ -59,38 +56,19 @@ class SegmentBuilder {
      * between packets.
      */
     public SegmentBuilder() {
-        this(20480);
-    }
-
-    /**
-     * Constructor for the <code>SegmentBuilder</code> object. This is used to
-     * create a queue of packets such that each packet is of a minimum size. To
-     * ensure packets are of a minimum size this aggregates them by moving bytes
-     * between packets.
-     * 
-     * @param limit
-     *            this is the threshold for asynchronous buffers
-     */
-    public SegmentBuilder(int limit) {
-        this.compact = new Queue();
         this.ready = new Queue();
-        this.limit = limit;
     }
 
     /**
      * This is used to determine if the builder contains any references. If the
-     * segment builder contains any reference packets it forces the
-     * <code>Writer</code> to block. Blocking is required so that a race
-     * condition is avoided where the writing thread and the flushing thread to
-     * not confuse each other.
+     * segment builder contains any reference packets they must be duplicated
+     * before the writing thread returns, as the buffers they reference belong
+     * to the caller and may be modified once the write completes.
      * 
      * @return true if there are any referenced buffers in the builder
      */
     public boolean isReference() {
-        for (Packet packet : this.ready) {
-            if (packet.isReference()) return true;
-        }
-        return false;
+        return this.ready.references > 0;
     }
 
     /**
@@ -123,8 +101,8 @@ class SegmentBuilder {
         int length = packet.length();
 
         if (length <= 0) {
-            packet.close();
             this.ready.poll();
+            packet.close();
 
             return this.build();
         }
@@ -152,47 +130,69 @@ class SegmentBuilder {
     }
 
     /**
-     * This method is used to compact the packets within the builder such that
-     * it duplicates any shared packets and closes them. Duplicating and closing
-     * shared packets is done so that the writing thread does not need to block.
-     * Duplication of shared packets only occurs if the remaining length is less
-     * that than the maximum duplication size specified.
+     * This is used to gather the packets that are ready to be written. The
+     * packets are placed in to the provided array in the order they are to
+     * be delivered, which allows them to be written with a single gathering
+     * write. Any packets at the head of the queue that have been fully
+     * written are closed before the packets are gathered.
+     * 
+     * @param list
+     *            this is the array to gather the ready packets in to
+     * 
+     * @return this returns the number of packets that were gathered
      */
-    public void compact() throws IOException {
-        Packet packet = this.ready.peek();
+    public int gather(Packet[] list) throws IOException {
+        Segment segment = this.build();
+        int count = 0;
 
-        while (packet != null) {
-            packet = this.ready.poll();
+        if (segment != null) {
+            int size = this.ready.size();
+
+            for (int i = 0; i < size; i++) {
+                Packet packet = this.ready.get(i);
 
-            if (packet != null) {
-                this.compact.offer(packet);
+                if (count >= list.length) {
+                    break;
+                }
+                if (packet.length() > 0) {
+                    list[count++] = packet;
+                }
             }
         }
-        this.extract();
+        return count;
     }
 
     /**
-     * This is used to take all packets queued in to the compact queue and
-     * determine whether they need to be extracted in to separate private
-     * packets. Extracting shared packets ensures that they do not suffer from
-     * race conditions when the writing thread is released. This increases the
-     * concurrency capability.
+     * This is used to record the number of bytes that have been written
+     * from the gathered packets. Recording the bytes written ensures that
+     * the total length of the queued packets is kept accurate without the
+     * need to traverse the packets each time it is requested.
+     * 
+     * @param count
+     *            this is the number of bytes that have been written
      */
-    private void extract() throws IOException {
-        int count = this.limit;
+    public void consume(long count) {
+        this.ready.length -= count;
+    }
 
-        for (Packet packet : this.compact) {
-            int length = packet.length();
+    /**
+     * This method is used to compact the packets within the builder such that
+     * it duplicates any shared packets and closes them. Duplicating and closing
+     * shared packets is done so that the writing thread does not need to block.
+     * All shared packets are duplicated, the bytes queued are bounded by the
+     * watermarks of the flusher rather than by blocking the writer. Packets are
+     * replaced in place so their order within the queue is not disturbed.
+     */
+    public void compact() throws IOException {
+        int size = this.ready.size();
 
-            if (length <= count) {
-                packet = packet.extract();
-                count -= length;
-            }
-            if (packet != null) {
-                this.ready.offer(packet);
+        for (int i = 0; i < size && this.ready.references > 0; i++) {
+            Packet packet = this.ready.get(i);
+
+            if (packet.isReference() && packet.length() > 0) {
+                this.ready.set(i, packet.extract());
             }
         }
-        this.compact.clear();
     }
 
     /**
@@ -204,12 +204,12 @@ class SegmentBuilder {
      * @return this returns the total length of all queued packets
      */
     public int length() throws IOException {
-        int count = 0;
+        long count = this.ready.length;
 
-        for (Packet packet : this.ready) {
-            count += packet.length();
+        if (count > 0) {
+            return (int) count;
         }
-        return count;
+        return 0;
     }
 
     /**
@@ -219,19 +219,47 @@ class SegmentBuilder {
      * queued packets.
      */
     public void close() throws IOException {
-        for (Packet packet : this.ready) {
+        Packet packet = this.ready.poll();
+
+        while (packet != null) {
             packet.close();
+            packet = this.ready.poll();
         }
-        this.ready.clear();
     }
 
     /**
      * The <code>Queue</code> object is used to create a queue of packets that
      * represent the order the packets have been added to the builder. This
      * order ensures that the packets can be reassembled on the client size as a
-     * complete resource.
+     * complete resource. The packets are held in a ring that grows as needed,
+     * which makes adding and removing packets constant time operations.
      */
-    private class Queue extends PriorityQueue<Packet> {
+    private class Queue extends AbstractQueue<Packet> {
+
+        /**
+         * This is the ring of packets in the order they are delivered.
+         */
+        private Packet[] ring;
+
+        /**
+         * This is the total number of bytes within the queued packets.
+         */
+        private long length;
+
+        /**
+         * This is the number of reference packets within the queue.
+         */
+        private int references;
+
+        /**
+         * This is the index of the packet at the head of the queue.
+         */
+        private int head;
+
+        /**
+         * This is the number of packets that are currently queued.
+         */
+        private int count;
 
         /**
          * Constructor for the <code>SegmentBuilder</code> object. This is used
@@ -239,7 +267,210 @@ class SegmentBuilder {
          * delivered to a client.
          */
         public Queue() {
-            super();
+            this.ring = new Packet[8];
+        }
+
+        /**
+         * This is used to acquire the number of packets that are queued.
+         * The packets queued include those that have been fully written
+         * but have not yet been removed from the head of the queue.
+         * 
+         * @return this returns the number of packets that are queued
+         */
+        @Override
+        public int size() {
+            return this.count;
+        }
+
+        /**
+         * This is used to acquire the packet at the specified index, where
+         * the packet at the head of the queue is at index zero. This allows
+         * the queued packets to be traversed in order of delivery.
+         * 
+         * @param index
+         *            this is the index of the packet to acquire
+         * 
+         * @return this returns the packet at the specified index
+         */
+        public Packet get(int index) {
+            int mask = this.ring.length - 1;
+
+            return this.ring[(this.head + index) & mask];
+        }
+
+        /**
+         * This is used to replace the packet at the specified index. This is
+         * used when a reference packet is extracted in to a copy, which may
+         * change the number of reference packets within the queue. As the
+         * extract drains the bytes of the original in to the copy the number
+         * of bytes queued does not change, so the length is left as it is.
+         * 
+         * @param index
+         *            this is the index of the packet to replace
+         * @param packet
+         *            this is the packet to replace the existing one with
+         */
+        public void set(int index, Packet packet) {
+            int mask = this.ring.length - 1;
+            int slot = (this.head + index) & mask;
+            Packet existing = this.ring[slot];
+
+            if (existing.isReference()) {
+                this.references--;
+            }
+            if (packet.isReference()) {
+                this.references++;
+            }
+            this.ring[slot] = packet;
+        }
+
+        /**
+         * This is used to add a packet to the tail of the queue. Packets
+         * are expected to arrive in order of their sequence numbers, should
+         * a packet arrive out of order it is moved back to its position.
+         * 
+         * @param packet
+         *            this is the packet that is to be queued
+         * 
+         * @return this returns true as the queue is unbounded
+         */
+        @Override
+        public boolean offer(Packet packet) {
+            if (this.count == this.ring.length) {
+                this.expand();
+            }
+            int mask = this.ring.length - 1;
+            int index = this.count++;
+
+            while (index > 0) {
+                int slot = (this.head + index) & mask;
+                int before = (this.head + index - 1) & mask;
+
+                if (this.ring[before].compareTo(packet) <= 0) {
+                    break;
+                }
+                this.ring[slot] = this.ring[before];
+                index--;
+            }
+            if (packet.isReference()) {
+                this.references++;
+            }
+            this.length += packet.length();
+            this.ring[(this.head + index) & mask] = packet;
+            return true;
+        }
+
+        /**
+         * This is used to remove the packet at the head of the queue. Once
+         * removed any bytes remaining within the packet are no longer
+         * counted within the total length of the queue.
+         * 
+         * @return this returns the packet at the head of the queue
+         */
+        @Override
+        public Packet poll() {
+            if (this.count > 0) {
+                Packet packet = this.ring[this.head];
+
+                if (packet.isReference()) {
+                    this.references--;
+                }
+                this.length -= packet.length();
+                this.ring[this.head] = null;
+                this.head = (this.head + 1) & (this.ring.length - 1);
+                this.count--;
+                return packet;
+            }
+            return null;
+        }
+
+        /**
+         * This is used to acquire the packet at the head of the queue. The
+         * packet is not removed, if there are no packets queued then this
+         * will return null.
+         * 
+         * @return this returns the packet at the head of the queue
+         */
+        @Override
+        public Packet peek() {
+            if (this.count > 0) {
+                return this.ring[this.head];
+            }
+            return null;
+        }
+
+        /**
+         * This is used to traverse the packets in order of delivery. The
+         * iterator provided does not support removal of the packets as
+         * packets are only ever removed from the head of the queue.
+         * 
+         * @return this returns an iterator for the queued packets
+         */
+        @Override
+        public Iterator<Packet> iterator() {
+            return new Cursor();
+        }
+
+        /**
+         * This is used to double the size of the ring when it is full. The
+         * packets are copied in to the new ring so that the head of the
+         * queue is at the start of the ring.
+         */
+        private void expand() {
+            Packet[] copy = new Packet[this.ring.length * 2];
+
+            for (int i = 0; i < this.count; i++) {
+                copy[i] = this.get(i);
+            }
+            this.ring = copy;
+            this.head = 0;
+        }
+
+        /**
+         * The <code>Cursor</code> object is used to iterate over the packets
+         * within the queue. Packets are traversed from the head of the queue
+         * to the tail, which is the order the packets are delivered in.
+         */
+        private class Cursor implements Iterator<Packet> {
+
+            /**
+             * This is the index of the next packet to be returned.
+             */
+            private int index;
+
+            /**
+             * This is used to determine if there are more packets to be
+             * traversed by the iterator.
+             * 
+             * @return this returns true if there are more packets
+             */
+            @Override
+            public boolean hasNext() {
+                return this.index < Queue.this.count;
+            }
+
+            /**
+             * This is used to acquire the next packet within the queue. If
+             * there are no more packets then this will throw an exception.
+             * 
+             * @return this returns the next packet within the queue
+             */
+            @Override
+            public Packet next() {
+                if (this.index >= Queue.this.count) {
+                    throw new NoSuchElementException();
+                }
+                return Queue.this.get(this.index++);
+            }
+
+            /**
+             * This is not supported by the iterator as packets can only be
+             * removed from the head of the queue using <code>poll</code>.
+             */
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
         }
     }
 }
@@ -25,9 +25,13 @@ import org.simpleframework.transport.reactor.Reactor;
 /**
  * The <code>SocketController</code> is used to represent the means to write
  * packets to an underlying transport. This manages all of the selection
- * required to determine if the socket is write ready. If the packet to be
- * written is to block then this will wait until all queue packets are fully
- * written.
+ * required to determine if the socket is write ready. Packets that can not be
+ * written are queued until the socket is write ready. The limit provided is
+ * the high watermark for queued bytes, once it has been exceeded the
+ * controller is no longer writable until the queue drains to the low
+ * watermark. A thread writing a packet is never held, it is up to the writer
+ * to check the writability and to register a listener if it wants to know
+ * when the queue has drained.
  * 
  * @author Niall Gallagher
  */
@@ -45,28 +49,44 @@ class SocketController implements Controller {
 
     /**
      * Constructor for the <code>SocketWriter</code> object. This is used to
-     * create a writer that can write packets to the socket in such a way that
-     * it write either asynchronously or block the calling thread until such
-     * time as the packets are written.
+     * create a writer that can write packets to the socket asynchronously.
+     * Once the number of bytes queued exceeds the limit the controller is no
+     * longer writable, it becomes writable again at half the limit.
      * 
      * @param socket
      *            this is the pipeline that this writes to
      * @param reactor
      *            this is the writer used to scheduler writes
      * @param limit
-     *            this is the threshold for asynchronous buffers
+     *            this is the high watermark for queued bytes
      */
     public SocketController(Socket socket, Reactor reactor, int limit)
             throws IOException {
-        this.writer = new SocketWriter(socket, limit);
-        this.flusher = new SocketFlusher(socket, reactor, this.writer);
+        this.writer = new SocketWriter(socket);
+        this.flusher = new SocketFlusher(socket, reactor, this.writer, limit,
+                limit / 2);
+    }
+
+    /**
+     * This is used to determine if the controller is writable. It is not
+     * writable if the number of bytes queued has exceeded the high watermark,
+     * it remains unwritable until the bytes queued drop below the low mark.
+     * 
+     * @return this returns true if the queued bytes are below the watermark
+     */
+    @Override
+    public boolean isWritable() {
+        return this.flusher.isWritable();
     }
 
     /**
      * This method is used to deliver the provided packet of bytes to the
      * underlying transport. This will not modify the data that is to be
      * written, this will simply queue the packets in the order that they are
-     * provided.
+     * provided. This never waits for the packets to be written, even if the
+     * bytes queued exceed the high watermark. If the queue was drained while
+     * the controller was unwritable the flusher is told so that it becomes
+     * writable again and its listeners are notified.
      * 
      * @param packet
      *            this is the array of bytes to send to the client
@@ -75,7 +95,7 @@ class SocketController implements Controller {
     public void write(Packet packet) throws IOException {
         boolean done = this.writer.write(packet);
 
-        if (!done) {
+        if (!done || !this.flusher.isWritable()) {
             this.flusher.flush();
         }
     }
@@ -90,19 +110,34 @@ class SocketController implements Controller {
     public void flush() throws IOException {
         boolean done = this.writer.flush();
 
-        if (!done) {
+        if (!done || !this.flusher.isWritable()) {
             this.flusher.flush();
         }
     }
 
+    /**
+     * This method is used to flush all of the queued packets to the client.
+     * The listener provided is notified when all of the packets currently
+     * queued have been written, or if the packets could not be written.
+     * 
+     * @param listener
+     *            this is the listener to notify of the flush progress
+     */
+    @Override
+    public void flush(FlushListener listener) throws IOException {
+        this.writer.flush();
+        this.flusher.flush(listener);
+    }
+
     /**
      * This is used to close the writer and the underlying socket. If a close is
      * performed on the writer then no more bytes can be read from or written to
      * the writer and the client will receive a connection close on their side.
+     * If there are bytes still queued the writer is closed once they have been
+     * written, the calling thread does not wait for this.
      */
     @Override
     public void close() throws IOException {
         this.flusher.close();
-        this.writer.close();
     }
 }
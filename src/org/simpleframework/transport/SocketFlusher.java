@@ -19,9 +19,14 @@
 package org.simpleframework.transport;
 
 import static org.simpleframework.transport.TransportEvent.ERROR;
+import static org.simpleframework.transport.TransportEvent.WRITE_HIGH_WATER;
+import static org.simpleframework.transport.TransportEvent.WRITE_LOW_WATER;
 
 import java.io.IOException;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.simpleframework.transport.reactor.Operation;
 import org.simpleframework.transport.reactor.Reactor;
@@ -34,6 +39,14 @@ import org.simpleframework.transport.trace.Trace;
  * uses a selector to dispatch flush invocations to the underlying socket when
  * the socket is write ready. This allows the writing thread to continue without
  * having to wait for all the data to be written to the socket.
+ * <p>
+ * The number of bytes queued is compared against a high and low watermark.
+ * When the bytes queued exceed the high watermark the flusher becomes
+ * unwritable, and once they drop below the low watermark it becomes writable
+ * again. A writing thread is never held while the flusher is unwritable,
+ * instead changes in writability and the completion of a flush are signalled
+ * to any registered listeners once the lock has been released, so that the
+ * writer can stop producing until the queue has drained.
  * 
  * @author Niall Gallagher
  * 
@@ -41,13 +54,18 @@ import org.simpleframework.transport.trace.Trace;
  */
 class SocketFlusher implements Flusher {
 
+    /**
+     * This contains the listeners waiting for the flush to complete.
+     */
+    private List<FlushListener> listeners;
+
     /**
      * This is the signaller used to determine when to flush.
      */
     private Signaller signaller;
 
     /**
-     * This is the scheduler used to block and signal the writer.
+     * This is the scheduler used to schedule the writes.
      */
     private Scheduler scheduler;
 
@@ -61,6 +79,21 @@ class SocketFlusher implements Flusher {
      */
     private Trace trace;
 
+    /**
+     * This is the number of queued bytes that makes this unwritable.
+     */
+    private int high;
+
+    /**
+     * This is the number of queued bytes that makes this writable.
+     */
+    private int low;
+
+    /**
+     * This is used to determine if more bytes should be written.
+     */
+    private boolean writable;
+
     /**
      * This is used to determine if the socket flusher is closed.
      */
@@ -69,35 +102,113 @@ class SocketFlusher implements Flusher {
     /**
      * Constructor for the <code>SocketFlusher</code> object. This is used to
      * flush buffers to the underlying socket asynchronously. When finished
-     * flushing all of the buffered data this signals any threads that are
-     * blocking waiting for the write to finish.
+     * flushing all of the buffered data this signals any listeners that are
+     * waiting for the write to finish.
      * 
+     * @param socket
+     *            this is the socket that the bytes are written to
      * @param reactor
      *            this is used to perform asynchronous writes
      * @param writer
      *            this is used to write the buffered packets
+     * @param high
+     *            this is the number of bytes that can be queued
+     * @param low
+     *            this is the number of bytes queued to resume at
      */
-    public SocketFlusher(Socket socket, Reactor reactor, Writer writer)
-            throws IOException {
+    public SocketFlusher(Socket socket, Reactor reactor, Writer writer,
+            int high, int low) throws IOException {
+        this.listeners = new ArrayList<FlushListener>();
         this.signaller = new Signaller(writer);
-        this.scheduler = new Scheduler(socket, reactor, this.signaller, this);
+        this.scheduler = new Scheduler(socket, reactor, this.signaller);
         this.trace = socket.getTrace();
+        this.writable = true;
         this.writer = writer;
+        this.high = high;
+        this.low = low;
+    }
+
+    /**
+     * This is used to determine if the flusher is writable. The flusher is
+     * not writable if the number of bytes queued has exceeded the high
+     * watermark, it remains unwritable until the bytes queued have dropped
+     * below the low watermark.
+     * 
+     * @return this returns true if the queued bytes are below the watermark
+     */
+    @Override
+    public synchronized boolean isWritable() {
+        return this.writable;
     }
 
     /**
      * Here in this method we schedule a flush when the underlying writer is
      * write ready. This allows the writer thread to return without having to
-     * fully flush the content to the underlying transport. If there are
-     * references queued this will block.
+     * fully flush the content to the underlying transport. If the bytes
+     * queued exceed the high watermark the flusher becomes unwritable.
      */
     @Override
-    public synchronized void flush() throws IOException {
-        if (this.closed) throw new TransportException("Flusher is closed");
-        boolean block = this.writer.isBlocking();
+    public void flush() throws IOException {
+        this.schedule(null);
+    }
 
-        if (!this.closed) {
-            this.scheduler.schedule(block);
+    /**
+     * Here in this method we schedule a flush when the underlying writer is
+     * write ready. The listener provided is notified when all the bytes
+     * currently queued have been written. If there are no bytes queued then
+     * the listener is notified immediately.
+     * 
+     * @param listener
+     *            this is the listener to notify of the flush progress
+     */
+    @Override
+    public void flush(FlushListener listener) throws IOException {
+        this.schedule(listener);
+    }
+
+    /**
+     * This is used to schedule the flush with the reactor. If this takes
+     * the bytes queued above the high watermark then the flusher becomes
+     * unwritable. If the writer has already written all of the bytes queued
+     * then the flusher is writable and the flush is complete, which can
+     * happen when the bytes are written without the reactor. Listeners are
+     * notified of these changes once the lock has been released.
+     * 
+     * @param listener
+     *            this is the listener to register, which may be null
+     */
+    private void schedule(FlushListener listener) throws IOException {
+        List<FlushListener> waiting = Collections.emptyList();
+        List<FlushListener> done = Collections.emptyList();
+        boolean writable = true;
+
+        synchronized (this) {
+            if (this.closed) throw new TransportException("Flusher is closed");
+            int length = this.writer.length();
+
+            if (listener != null) {
+                this.listeners.add(listener);
+            }
+            if (length > 0) {
+                this.scheduler.schedule();
+            }
+            if (length > this.high) {
+                if (this.update(false)) {
+                    waiting = new ArrayList<FlushListener>(this.listeners);
+                }
+            } else if (length == 0) {
+                if (this.update(true)) {
+                    waiting = new ArrayList<FlushListener>(this.listeners);
+                }
+                done = this.take();
+            }
+            writable = this.writable;
+        }
+        for (FlushListener waiter : waiting) {
+            waiter.writable(writable);
+        }
+        for (FlushListener waiter : done) {
+            waiter.flushed();
         }
     }
 
@@ -105,50 +216,146 @@ class SocketFlusher implements Flusher {
      * This is executed when the flusher is to write all of the data to the
      * underlying socket. In this situation the writes are attempted in a non
      * blocking way, if the task does not complete then this will simply enqueue
-     * the writing task for OP_WRITE and leave the method. This returns true if
-     * all the buffers are written.
+     * the writing task for OP_WRITE and leave the method. If all of the bytes
+     * have been written the listeners are notified and if the flusher has been
+     * closed the writer is closed. Listeners are notified outside of the lock.
      */
-    private synchronized void execute() throws IOException {
-        boolean ready = this.writer.flush();
+    private void execute() throws IOException {
+        List<FlushListener> waiting = Collections.emptyList();
+        List<FlushListener> done = Collections.emptyList();
+
+        synchronized (this) {
+            boolean ready = this.writer.flush();
+
+            if (!ready) {
+                int length = this.writer.length();
+
+                if (length <= this.low && this.update(true)) {
+                    waiting = new ArrayList<FlushListener>(this.listeners);
+                }
+                this.scheduler.repeat();
+            } else {
+                this.scheduler.ready();
 
-        if (!ready) {
-            boolean block = this.writer.isBlocking();
+                if (this.update(true)) {
+                    waiting = new ArrayList<FlushListener>(this.listeners);
+                }
+                done = this.complete();
+            }
+        }
+        for (FlushListener listener : waiting) {
+            listener.writable(true);
+        }
+        for (FlushListener listener : done) {
+            listener.flushed();
+        }
+    }
+
+    /**
+     * This is used to update the writability of the flusher. If there is a
+     * change in writability then it is traced. The listeners are not
+     * notified here, as this is invoked while holding the lock.
+     * 
+     * @param writable
+     *            this determines if the flusher is now writable
+     * 
+     * @return this returns true if the writability has changed
+     */
+    private boolean update(boolean writable) {
+        if (this.writable != writable) {
+            this.writable = writable;
 
-            if (!block && !this.closed) {
-                this.scheduler.release();
+            if (writable) {
+                this.trace.trace(WRITE_LOW_WATER);
+            } else {
+                this.trace.trace(WRITE_HIGH_WATER);
             }
-            this.scheduler.repeat();
-        } else {
-            this.scheduler.ready();
+            return true;
         }
+        return false;
+    }
+
+    /**
+     * This is used to complete the flush once all of the queued bytes have
+     * been written. The listeners waiting for the flush are taken so that
+     * they can be notified once the lock is released, and if the flusher has
+     * been closed the writer is closed.
+     * 
+     * @return this returns the listeners waiting for the flush
+     */
+    private List<FlushListener> complete() throws IOException {
+        List<FlushListener> done = this.take();
+
+        if (this.closed) {
+            this.writer.close();
+        }
+        return done;
+    }
+
+    /**
+     * This is used to take the listeners that are waiting for the flush to
+     * complete. Typically there are no listeners waiting, in which case an
+     * empty list is returned so that nothing is allocated.
+     * 
+     * @return this returns the listeners waiting for the flush
+     */
+    private List<FlushListener> take() {
+        if (!this.listeners.isEmpty()) {
+            List<FlushListener> done = new ArrayList<FlushListener>(this.listeners);
+
+            this.listeners.clear();
+            return done;
+        }
+        return Collections.emptyList();
     }
 
     /**
      * This is used to abort the flushing process when the reactor has been
-     * stopped. An abort to the flusher typically happens when the server has
-     * been shutdown. It prevents threads lingering waiting for a I/O operation
-     * which prevents the server from shutting down.
+     * stopped or when there is an error writing. Any listeners waiting for
+     * the flush to complete are notified of the failure, so that no writer
+     * is left waiting for an I/O operation that will never complete.
+     * 
+     * @param cause
+     *            this is the cause of the flush being aborted
      */
-    private synchronized void abort() throws IOException {
-        this.scheduler.close();
-        this.writer.close();
+    private void abort(Exception cause) throws IOException {
+        List<FlushListener> failed = null;
+
+        synchronized (this) {
+            failed = this.take();
+            this.closed = true;
+            this.scheduler.close();
+            this.writer.close();
+        }
+        for (FlushListener listener : failed) {
+            listener.failed(cause);
+        }
     }
 
     /**
      * This is used to close the flusher ensuring that all of the data within
      * the writer will be flushed regardless of the amount of data within the
-     * writer that needs to be written. If the writer does not block then this
-     * waits to be finished.
+     * writer that needs to be written. If the data can not be written now the
+     * writer is closed once it has been flushed, the calling thread will not
+     * wait for this.
      */
     @Override
-    public synchronized void close() throws IOException {
-        boolean ready = this.writer.flush();
+    public void close() throws IOException {
+        List<FlushListener> done = Collections.emptyList();
+
+        synchronized (this) {
+            boolean ready = this.writer.flush();
 
-        if (!this.closed) {
             this.closed = true;
+
+            if (!ready) {
+                this.scheduler.schedule();
+            } else {
+                done = this.complete();
+            }
         }
-        if (!ready) {
-            this.scheduler.schedule(true);
+        for (FlushListener listener : done) {
+            listener.flushed();
         }
     }
 
@@ -203,7 +410,7 @@ class SocketFlusher implements Flusher {
                 SocketFlusher.this.execute();
             } catch (Exception cause) {
                 SocketFlusher.this.trace.trace(ERROR, cause);
-                this.cancel();
+                this.cancel(cause);
             }
         }
 
@@ -215,10 +422,22 @@ class SocketFlusher implements Flusher {
          */
         @Override
         public void cancel() {
+            this.cancel(new TransportException("Flush timed out"));
+        }
+
+        /**
+         * This is used to cancel the operation when there is a failure. The
+         * flusher is aborted, which closes the writer and notifies any of
+         * the listeners waiting for the flush that it has failed.
+         * 
+         * @param cause
+         *            this is the cause of the operation being canceled
+         */
+        private void cancel(Exception cause) {
             try {
-                SocketFlusher.this.abort();
-            } catch (Exception cause) {
-                SocketFlusher.this.trace.trace(ERROR, cause);
+                SocketFlusher.this.abort(cause);
+            } catch (Exception error) {
+                SocketFlusher.this.trace.trace(ERROR, error);
             }
         }
     }
@@ -110,7 +110,7 @@ public class SocketTransport implements Transport {
      * @param reactor
      *            this is used to perform asynchronous writes
      * @param limit
-     *            this is the threshold for asynchronous buffers
+     *            this is the high watermark for queued bytes
      */
     public SocketTransport(Socket socket, Reactor reactor, int limit)
             throws IOException {
@@ -128,7 +128,7 @@ public class SocketTransport implements Transport {
      * @param reactor
      *            this is used to perform asynchronous writes
      * @param limit
-     *            this is the threshold for asynchronous buffers
+     *            this is the high watermark for queued bytes
      * @param queue
      *            this is the queue size for asynchronous writes
      */
@@ -259,6 +259,38 @@ public class SocketTransport implements Transport {
         }
     }
 
+    /**
+     * This is used to flush the internal buffer to the underlying socket and
+     * notify the listener once all of the queued bytes have been written. The
+     * calling thread is never blocked, the listener is notified from the
+     * thread that completes the flush.
+     * 
+     * @param listener
+     *            this is the listener to notify of the flush progress
+     */
+    @Override
+    public void flush(FlushListener listener) throws IOException {
+        if (this.closed) throw new TransportException("Transport is closed");
+        Packet packet = this.builder.build();
+
+        if (packet != null) {
+            this.writer.write(packet);
+        }
+        this.writer.flush(listener);
+    }
+
+    /**
+     * This is used to determine if the transport is writable. It is not
+     * writable if the number of bytes queued has exceeded the high watermark,
+     * it remains unwritable until the bytes queued drop below the low mark.
+     * 
+     * @return this returns true if the queued bytes are below the watermark
+     */
+    @Override
+    public boolean isWritable() {
+        return this.writer.isWritable();
+    }
+
     /**
      * This method is used to flush the internal buffer and close the underlying
      * socket. This method will not complete until all buffered data is written
@@ -23,6 +23,7 @@ import static org.simpleframework.transport.TransportEvent.ERROR;
 import static org.simpleframework.transport.TransportEvent.WRITE;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.SocketChannel;
 
 import org.simpleframework.transport.trace.Trace;
@@ -31,7 +32,8 @@ import org.simpleframework.transport.trace.Trace;
  * The <code>SocketWriter</code> object is used to coalesce the packets to be
  * written in to a minimum size. Also this will queue the packets to be written
  * in the order they are provided to that if the contents of the packets can not
- * be fully written they can be flushed in the correct order.
+ * be fully written they can be flushed in the correct order. When flushing,
+ * all of the queued packets are sent with a single gathering write.
  * 
  * @author Niall Gallagher
  * 
@@ -39,6 +41,21 @@ import org.simpleframework.transport.trace.Trace;
  */
 class SocketWriter implements Writer {
 
+    /**
+     * This is the maximum number of packets sent in a single write.
+     */
+    private static final int GATHER = 16;
+
+    /**
+     * This contains the buffers for the packets gathered for a write.
+     */
+    private final ByteBuffer[] buffers;
+
+    /**
+     * This contains the packets that are gathered for a write.
+     */
+    private final Packet[] batch;
+
     /**
      * This is the manager used to build the segments to be written.
      */
@@ -69,22 +86,9 @@ class SocketWriter implements Writer {
      *            this is the pipeline instance this wraps
      */
     public SocketWriter(Socket socket) {
-        this(socket, 20480);
-    }
-
-    /**
-     * Constructor for the <code>SocketWriter</code> object. This is used to
-     * wrap the socket in an object that will queue and coalesce the packets
-     * written. It ensures that the packets that are sent are of a minimum size
-     * for performance.
-     * 
-     * @param socket
-     *            this is the pipeline instance this wraps
-     * @param limit
-     *            this is the threshold for asynchronous buffers
-     */
-    public SocketWriter(Socket socket, int limit) {
-        this.builder = new SegmentBuilder(limit);
+        this.builder = new SegmentBuilder();
+        this.buffers = new ByteBuffer[GATHER];
+        this.batch = new Packet[GATHER];
         this.channel = socket.getChannel();
         this.trace = socket.getTrace();
     }
@@ -103,17 +107,15 @@ class SocketWriter implements Writer {
     }
 
     /**
-     * This is used to determine if the writer should block or not. A writer
-     * will block only if there are shared packets still within the write queue.
-     * When all shared packets have either been written or duplicated then the
-     * writer does not need to block any waiting threads and they can be
-     * released.
+     * This is used to determine the number of bytes that are queued within
+     * the writer. The length is used by the flusher to determine whether the
+     * writer has exceeded its watermarks, and whether a flush is required.
      * 
-     * @return true if any writing thread should be blocked
+     * @return this returns the number of bytes queued for writing
      */
     @Override
-    public synchronized boolean isBlocking() throws IOException {
-        return this.builder.isReference();
+    public synchronized int length() throws IOException {
+        return this.builder.length();
     }
 
     /**
@@ -136,27 +138,40 @@ class SocketWriter implements Writer {
     }
 
     /**
-     * This is used to send the packets to the socket. This attempts to write
-     * the provided packet to the underlying socket, if all of the bytes are
-     * written the the packet is closed. This will return the number of bytes
-     * that have been written.
+     * This is used to send the packets to the socket. This writes all of the
+     * gathered packets to the underlying socket using a single gathering
+     * write, which means a response made up of several packets can be sent
+     * with a single system call. Packets that are fully written are closed
+     * when the next packets are gathered.
      * 
-     * @param segment
-     *            this is the packet that is the be sent
+     * @param list
+     *            this contains the packets that are to be sent
+     * @param count
+     *            this is the number of packets that are to be sent
      * 
      * @return the number of bytes written to the underlying socket
      */
-    private synchronized int write(Segment segment) throws IOException {
-        int size = segment.write(this.channel);
-        int left = segment.length();
+    private synchronized long write(Packet[] list, int count)
+            throws IOException {
+        long size = 0;
 
-        if (left == 0) {
-            segment.close();
+        try {
+            for (int i = 0; i < count; i++) {
+                this.buffers[i] = list[i].prepare();
+            }
+            size = this.channel.write(this.buffers, 0, count);
+        } finally {
+            for (int i = 0; i < count; i++) {
+                list[i].compact();
+                list[i] = null;
+                this.buffers[i] = null;
+            }
         }
         if (this.trace != null) {
-            this.trace.trace(WRITE, size);
+            this.trace.trace(WRITE, (int) size);
         }
         if (size < 0) throw new TransportException("Socket is closed");
+        this.builder.consume(size);
         return size;
     }
 
@@ -169,16 +184,16 @@ class SocketWriter implements Writer {
      */
     @Override
     public synchronized boolean flush() throws IOException {
-        Segment segment = this.builder.build();
+        int count = this.builder.gather(this.batch);
 
-        while (segment != null) {
-            int size = this.write(segment);
+        while (count > 0) {
+            long size = this.write(this.batch, count);
 
             if (size < 0) throw new TransportException("Connection reset");
             if (size == 0) {
                 break;
             }
-            segment = this.builder.build();
+            count = this.builder.gather(this.batch);
         }
         return this.complete();
     }
@@ -19,6 +19,7 @@
 package org.simpleframework.transport;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * The <code>Source</code> object is used to acquire bytes from a given source.
@@ -109,4 +110,25 @@ interface Source {
      * @return this is the number of bytes that have been reset
      */
     int reset(int len) throws IOException;
+
+    /**
+     * This is used to provide a view of the bytes that can be read from the
+     * source without copying them. The view is read only and its position is
+     * that of the next byte to be read. Reading from the view does not move
+     * the source, so once the view has been examined the bytes required are
+     * read in the usual way. This will not read from the transport, so the
+     * <code>ready</code> method should be used to fill the source first.
+     * 
+     * @return this returns a read only view of the readable bytes
+     */
+    ByteBuffer view() throws IOException;
+
+    /**
+     * This is used to release any buffers held by the source. A source is
+     * released when the connection is idle and waiting for the next request
+     * so that it does not hold memory while idle. If there are bytes buffered
+     * that have not been read then nothing is released. Buffers are acquired
+     * again the next time bytes are read.
+     */
+    void release() throws IOException;
 }
@@ -0,0 +1,235 @@
+/*
+ * SourcePool.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The <code>SourcePool</code> object is used to share the buffers used to
+ * read from a transport. A connection only needs a read buffer while it is
+ * reading a request, once the request has been read and the connection is
+ * waiting for the next request the buffer is returned here. This ensures a
+ * large number of idle keep alive connections do not each hold a buffer.
+ * <p>
+ * Buffers are pooled by their capacity and only a bounded number of each
+ * size is retained. The buffers are direct so that a read from a socket does
+ * not require the runtime to read in to a temporary direct buffer and copy
+ * the bytes to the heap. No count of the buffers lent is kept, so a buffer
+ * that is never returned, for example when a connection is closed abruptly,
+ * is simply reclaimed by the garbage collector.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.transport.TransportSource
+ */
+class SourcePool {
+
+    /**
+     * This is the shared pool used by all of the transport sources.
+     */
+    private static final SourcePool INSTANCE = new SourcePool();
+
+    /**
+     * This is the maximum number of buffers retained for each size.
+     */
+    private static final int CAPACITY = 256;
+
+    /**
+     * This contains the pooled buffers keyed by their capacity.
+     */
+    private final ConcurrentMap<Integer, Bucket> buckets;
+
+    /**
+     * This is the number of buffers retained for each size.
+     */
+    private final int capacity;
+
+    /**
+     * Constructor for the <code>SourcePool</code> object. This creates a pool
+     * that will retain no more than a fixed number of buffers of each size.
+     * Buffers returned beyond that are left for the garbage collector.
+     */
+    public SourcePool() {
+        this(CAPACITY);
+    }
+
+    /**
+     * Constructor for the <code>SourcePool</code> object. This creates a pool
+     * that will retain no more than the specified number of buffers of each
+     * size. Buffers returned beyond that are left for the garbage collector.
+     * 
+     * @param capacity
+     *            this is the number of buffers retained for each size
+     */
+    public SourcePool(int capacity) {
+        this.buckets = new ConcurrentHashMap<Integer, Bucket>();
+        this.capacity = capacity;
+    }
+
+    /**
+     * This is used to acquire the pool that is shared by all sources. Sharing
+     * a single pool ensures that a buffer released by an idle connection can
+     * be used by any other connection that becomes readable.
+     * 
+     * @return this returns the pool shared by all transport sources
+     */
+    public static SourcePool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This is used to borrow a buffer of the specified size. If there is a
+     * buffer of that size within the pool then it is cleared and returned,
+     * otherwise a new direct buffer is created. Should the direct memory be
+     * exhausted a heap buffer is returned instead.
+     * 
+     * @param size
+     *            this is the capacity of the buffer to borrow
+     * 
+     * @return this returns a cleared buffer of the specified size
+     */
+    public ByteBuffer allocate(int size) {
+        Bucket bucket = this.buckets.get(size);
+
+        if (bucket != null) {
+            ByteBuffer buffer = bucket.poll();
+
+            if (buffer != null) {
+                buffer.clear();
+                return buffer;
+            }
+        }
+        return this.create(size);
+    }
+
+    /**
+     * This is used to create a new buffer of the specified size. A direct
+     * buffer is created where possible, however if the direct memory limit
+     * of the runtime has been reached a heap buffer is used instead.
+     * 
+     * @param size
+     *            this is the capacity of the buffer to create
+     * 
+     * @return this returns a new buffer of the specified size
+     */
+    private ByteBuffer create(int size) {
+        try {
+            return ByteBuffer.allocateDirect(size);
+        } catch (OutOfMemoryError e) {
+            return ByteBuffer.allocate(size);
+        }
+    }
+
+    /**
+     * This is used to return a buffer to the pool. Once returned the buffer
+     * must no longer be used by the caller. If the pool already retains the
+     * maximum number of buffers of that size the buffer is discarded.
+     * 
+     * @param buffer
+     *            this is the buffer that is to be returned
+     */
+    public void recycle(ByteBuffer buffer) {
+        int size = buffer.capacity();
+        Bucket bucket = this.buckets.get(size);
+
+        if (bucket == null) {
+            Bucket created = new Bucket(this.capacity);
+
+            bucket = this.buckets.putIfAbsent(size, created);
+
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        bucket.offer(buffer);
+    }
+
+    /**
+     * The <code>Bucket</code> object is used to hold the buffers of a single
+     * size. The number of buffers held is counted separately from the queue
+     * so that the bound can be checked without traversing the queue.
+     */
+    private static class Bucket {
+
+        /**
+         * This is the queue of buffers that are ready to be borrowed.
+         */
+        private final Queue<ByteBuffer> queue;
+
+        /**
+         * This is the number of buffers currently within the queue.
+         */
+        private final AtomicInteger count;
+
+        /**
+         * This is the maximum number of buffers the bucket will hold.
+         */
+        private final int capacity;
+
+        /**
+         * Constructor for the <code>Bucket</code> object. This creates a
+         * bucket that will hold no more than the specified number of buffers.
+         * 
+         * @param capacity
+         *            this is the maximum number of buffers to hold
+         */
+        public Bucket(int capacity) {
+            this.queue = new ConcurrentLinkedQueue<ByteBuffer>();
+            this.count = new AtomicInteger();
+            this.capacity = capacity;
+        }
+
+        /**
+         * This is used to take a buffer from the bucket. If the bucket is
+         * empty then this will return null and the caller must create a new
+         * buffer of the required size.
+         * 
+         * @return this returns a buffer from the bucket or null
+         */
+        public ByteBuffer poll() {
+            ByteBuffer buffer = this.queue.poll();
+
+            if (buffer != null) {
+                this.count.decrementAndGet();
+            }
+            return buffer;
+        }
+
+        /**
+         * This is used to place a buffer in to the bucket. If the bucket is
+         * full then the buffer is not retained and will be reclaimed by the
+         * garbage collector once it is no longer referenced.
+         * 
+         * @param buffer
+         *            this is the buffer to be placed in the bucket
+         */
+        public void offer(ByteBuffer buffer) {
+            if (this.count.incrementAndGet() <= this.capacity) {
+                this.queue.offer(buffer);
+            } else {
+                this.count.decrementAndGet();
+            }
+        }
+    }
+}
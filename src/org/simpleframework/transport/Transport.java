@@ -67,6 +67,28 @@ public interface Transport extends Socket {
      */
     void flush() throws IOException;
 
+    /**
+     * This is used to flush the internal buffer to the underlying socket and
+     * register a listener to be notified of the progress of the flush. The
+     * listener is notified when all bytes currently queued have been written
+     * and when the writability of the transport changes before then.
+     * 
+     * @param listener
+     *            this is the listener to notify of the flush progress
+     */
+    void flush(FlushListener listener) throws IOException;
+
+    /**
+     * This is used to determine if the transport is writable. A transport is
+     * not writable if the number of bytes queued for the socket exceeds the
+     * high watermark. Writing to a transport that is not writable does not
+     * block, the bytes are still queued, so a writer should register a
+     * listener with <code>flush</code> to be told when it is writable again.
+     * 
+     * @return this returns true if the queued bytes are below the watermark
+     */
+    boolean isWritable();
+
     /**
      * This is used to close the transport and the underlying socket. If a close
      * is performed on the transport then no more bytes can be read from or
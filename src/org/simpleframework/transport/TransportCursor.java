@@ -19,6 +19,7 @@
 package org.simpleframework.transport;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * The <code>TransportCursor</code> object represents a cursor that can read and
@@ -33,6 +34,11 @@ import java.io.IOException;
  */
 public class TransportCursor implements Cursor {
 
+    /**
+     * This is the empty buffer used when no bytes have been pushed.
+     */
+    private static final byte[] EMPTY = new byte[0];
+
     /**
      * This is the source for the bytes read by this cursor object.
      */
@@ -89,7 +95,7 @@ public class TransportCursor implements Cursor {
      */
     public TransportCursor(Transport transport, int size) {
         this.source = new TransportSource(transport, size);
-        this.buffer = new byte[0];
+        this.buffer = EMPTY;
         this.limit = size;
     }
 
@@ -271,4 +277,41 @@ public class TransportCursor implements Cursor {
         }
         return size;
     }
+
+    /**
+     * This is used to provide a view of the bytes that can be read from the
+     * cursor without copying them. The view is read only and its position is
+     * that of the next byte to be read. Reading from the view does not move
+     * the cursor, so once the view has been examined the bytes required are
+     * read in the usual way. This will not read from the transport, so the
+     * <code>ready</code> method should be used to fill the cursor first.
+     * 
+     * @return this returns a read only view of the readable bytes
+     */
+    @Override
+    public ByteBuffer view() throws IOException {
+        if (this.count > 0) {
+            ByteBuffer view = ByteBuffer.wrap(this.buffer, this.pos, this.count);
+
+            return view.asReadOnlyBuffer();
+        }
+        return this.source.view();
+    }
+
+    /**
+     * This is used to release any buffers held by the cursor. A cursor is
+     * released when the connection is idle and waiting for the next request
+     * so that it does not hold memory while idle. If there are bytes buffered
+     * that have not been read then nothing is released. Buffers are acquired
+     * again the next time bytes are read.
+     */
+    @Override
+    public void release() throws IOException {
+        if (this.count == 0) {
+            this.buffer = EMPTY;
+            this.mark = 0;
+            this.pos = 0;
+        }
+        this.source.release();
+    }
 }
@@ -39,6 +39,11 @@ public enum TransportEvent {
      */
     READ_WAIT,
 
+    /**
+     * This event occurs when waiting for the start of a new request.
+     */
+    READ_IDLE,
+
     /**
      * This event represents a write operation on the underlying socket.
      */
@@ -54,6 +59,16 @@ public enum TransportEvent {
      */
     WRITE_BLOCKING,
 
+    /**
+     * This event occurs when queued bytes exceed the high watermark.
+     */
+    WRITE_HIGH_WATER,
+
+    /**
+     * This event occurs when queued bytes drop below the low watermark.
+     */
+    WRITE_LOW_WATER,
+
     /**
      * This event occurs with HTTPS when a new SSL handshake starts.
      */
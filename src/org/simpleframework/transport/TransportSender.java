@@ -147,6 +147,33 @@ public class TransportSender implements Sender {
         this.transport.flush();
     }
 
+    /**
+     * This method is used to flush the contents of the buffer to the client
+     * without waiting for the bytes to be written. The listener provided is
+     * notified once all of the bytes sent so far have been written to the
+     * client, or if the bytes could not be written.
+     * 
+     * @param listener
+     *            this is notified once the bytes have been written
+     */
+    @Override
+    public void flush(FlushListener listener) throws IOException {
+        this.transport.flush(listener);
+    }
+
+    /**
+     * This is used to determine if the sender is writable. Sending bytes
+     * never blocks, so once the bytes queued for the client exceed the high
+     * watermark the sender is no longer writable, and it remains so until
+     * the bytes queued have drained to the low watermark.
+     * 
+     * @return this returns true if the queued bytes are below the watermark
+     */
+    @Override
+    public boolean isWritable() {
+        return this.transport.isWritable();
+    }
+
     /**
      * This is used to close the sender and the underlying transport. If a close
      * is performed on the sender then no more bytes can be read from or written
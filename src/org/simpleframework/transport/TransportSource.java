@@ -27,6 +27,16 @@ import java.nio.ByteBuffer;
  * the cursor is more than required for the HTTP request then those bytes can be
  * pushed back in to the cursor using the <code>reset</code> method. This will
  * only allow the last read to be reset within the cursor safely.
+ * <p>
+ * The buffer used to read from the transport is borrowed from a shared pool
+ * when bytes are to be read. Once the source has been fully read it can be
+ * released, which returns the buffer to the pool so that an idle connection
+ * does not hold a buffer while it waits for the next request.
+ * <p>
+ * The size of the buffer adapts to the size of the reads performed. If a
+ * read fills the buffer then the next buffer borrowed is larger, so that a
+ * large request requires fewer reads. If consecutive reads would have fit in
+ * a smaller buffer then the next buffer borrowed is smaller.
  * 
  * @author Niall Gallagher
  * 
@@ -34,11 +44,28 @@ import java.nio.ByteBuffer;
  */
 class TransportSource implements Source {
 
+    /**
+     * This is the view returned when there are no bytes buffered.
+     */
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0)
+            .asReadOnlyBuffer();
+
+    /**
+     * These are the buffer sizes the source will adapt between.
+     */
+    private static final int[] SIZES = { 1024, 2048, 4096, 8192, 16384,
+            32768, 65536 };
+
     /**
      * This is the underlying transport to read the bytes from.
      */
     private Transport transport;
 
+    /**
+     * This is the pool that the read buffer is borrowed from.
+     */
+    private SourcePool pool;
+
     /**
      * This is used to store the bytes read from the transport.
      */
@@ -54,6 +81,16 @@ class TransportSource implements Source {
      */
     private int count;
 
+    /**
+     * This is the index of the size of the buffer to be borrowed.
+     */
+    private int index;
+
+    /**
+     * This determines if the last read would fit a smaller buffer.
+     */
+    private boolean shrink;
+
     /**
      * Constructor for the <code>TransportSource</code> object. This requires a
      * transport to read the bytes from. By default this will create a buffer of
@@ -69,9 +106,10 @@ class TransportSource implements Source {
 
     /**
      * Constructor for the <code>TransportSource</code> object. This requires a
-     * transport to read the bytes from. By default this will create a buffer of
+     * transport to read the bytes from. By default this will borrow a buffer
      * of the specified size to read the input in to which enabled bytes to be
-     * buffered internally.
+     * buffered internally. The size is only the initial size, as the size of
+     * the buffer adapts to the size of the reads performed.
      * 
      * @param transport
      *            this is the underlying transport to use
@@ -79,8 +117,28 @@ class TransportSource implements Source {
      *            this is the size of the internal buffer to use
      */
     public TransportSource(Transport transport, int size) {
-        this.buffer = ByteBuffer.allocate(size);
+        this.pool = SourcePool.getInstance();
         this.transport = transport;
+        this.index = this.index(size);
+    }
+
+    /**
+     * This is used to determine the index of the smallest size that is at
+     * least as large as the size requested. If the size requested is larger
+     * than the largest size then the index of the largest size is returned.
+     * 
+     * @param size
+     *            this is the size of the buffer requested
+     * 
+     * @return this returns the index of the buffer size to use
+     */
+    private int index(int size) {
+        for (int i = 0; i < SIZES.length; i++) {
+            if (SIZES[i] >= size) {
+                return i;
+            }
+        }
+        return SIZES.length - 1;
     }
 
     /**
@@ -176,12 +234,19 @@ class TransportSource implements Source {
      */
     private int peek() throws IOException {
         if (this.count <= 0) { // reset the buffer for filling
+            this.acquire();
             this.buffer.clear();
         }
         if (this.count > 0) {
             this.buffer.compact(); // compact the buffer
         }
-        this.count += this.transport.read(this.buffer); // how many were read
+        int space = this.buffer.remaining();
+        int size = this.transport.read(this.buffer); // how many were read
+
+        if (size > 0) {
+            this.update(size, space);
+        }
+        this.count += size;
 
         if (this.count > 0) {
             this.buffer.flip(); // if there is something then flip
@@ -192,6 +257,55 @@ class TransportSource implements Source {
         return this.count;
     }
 
+    /**
+     * This is used to borrow a buffer of the estimated size from the pool.
+     * If the buffer currently held is not of the estimated size then it is
+     * returned to the pool and one of the estimated size is borrowed. This
+     * must only be done when there are no buffered bytes.
+     */
+    private void acquire() throws IOException {
+        int size = SIZES[this.index];
+
+        if (this.buffer != null) {
+            int capacity = this.buffer.capacity();
+
+            if (capacity != size) {
+                this.pool.recycle(this.buffer);
+                this.buffer = null;
+            }
+        }
+        if (this.buffer == null) {
+            this.buffer = this.pool.allocate(size);
+        }
+    }
+
+    /**
+     * This is used to update the estimated size of the buffer required. If
+     * the read filled all of the space available then the size is increased.
+     * If two consecutive reads would have fit within the next smaller size
+     * then the size is decreased.
+     * 
+     * @param size
+     *            this is the number of bytes that were read
+     * @param space
+     *            this is the space that was available for the read
+     */
+    private void update(int size, int space) {
+        if (size >= space) {
+            if (this.index < SIZES.length - 1) {
+                this.index++;
+            }
+            this.shrink = false;
+        } else if (this.index > 0 && size <= SIZES[this.index - 1]) {
+            if (this.shrink) {
+                this.index--;
+            }
+            this.shrink = !this.shrink;
+        } else {
+            this.shrink = false;
+        }
+    }
+
     /**
      * Moves the source backward within the stream. This ensures that any bytes
      * read from the last read can be pushed back in to the stream so that they
@@ -205,6 +319,7 @@ class TransportSource implements Source {
      */
     @Override
     public int reset(int size) throws IOException {
+        if (this.buffer == null) return 0;
         int mark = this.buffer.position();
 
         if (size > mark) {
@@ -217,6 +332,43 @@ class TransportSource implements Source {
         return size;
     }
 
+    /**
+     * This is used to provide a view of the bytes that can be read from the
+     * source without copying them. The view is read only and its position is
+     * that of the next byte to be read. Reading from the view does not move
+     * the source, so once the view has been examined the bytes required are
+     * read in the usual way. This will not read from the transport, so the
+     * <code>ready</code> method should be used to fill the source first.
+     * 
+     * @return this returns a read only view of the readable bytes
+     */
+    @Override
+    public ByteBuffer view() throws IOException {
+        if (this.count <= 0) {
+            return EMPTY;
+        }
+        ByteBuffer view = this.buffer.asReadOnlyBuffer();
+        int start = view.position();
+
+        view.limit(start + this.count);
+        return view;
+    }
+
+    /**
+     * This is used to release any buffers held by the source. A source is
+     * released when the connection is idle and waiting for the next request
+     * so that it does not hold memory while idle. If there are bytes buffered
+     * that have not been read then nothing is released. Buffers are acquired
+     * again the next time bytes are read.
+     */
+    @Override
+    public void release() throws IOException {
+        if (this.count == 0 && this.buffer != null) {
+            this.pool.recycle(this.buffer);
+            this.buffer = null;
+        }
+    }
+
     /**
      * This is used to close the underlying transport. This is used when the
      * transport returns a negative value, indicating that the client has closed
@@ -230,5 +382,9 @@ class TransportSource implements Source {
             this.closed = true;
             this.count = -1;
         }
+        if (this.buffer != null) {
+            this.pool.recycle(this.buffer);
+            this.buffer = null;
+        }
     }
 }
@@ -368,6 +368,30 @@ class Wrapper implements Packet {
 
     }
 
+    /**
+     * This is used to acquire a buffer containing the write ready bytes of
+     * the packet. As the wrapped buffer is already positioned at the bytes
+     * that are to be written it is returned as is, writing the buffer will
+     * consume the bytes from the packet.
+     * 
+     * @return this returns a buffer containing the write ready bytes
+     */
+    @Override
+    public ByteBuffer prepare() throws IOException {
+        if (this.closed) throw new PacketException("Packet is closed");
+        return this.buffer;
+    }
+
+    /**
+     * This is used to remove the bytes written from the buffer provided by
+     * the <code>prepare</code> method. As writing the wrapped buffer has
+     * already advanced its position there is nothing to be done here.
+     */
+    @Override
+    public void compact() throws IOException {
+        return;
+    }
+
     /**
      * This method is used to determine if the buffer is shared with another
      * thread or service. It is important to know whether a packet is shared as
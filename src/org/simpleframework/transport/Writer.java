@@ -35,15 +35,13 @@ import java.nio.channels.SocketChannel;
 interface Writer {
 
     /**
-     * This is used to determine if the writer should block or not. A writer
-     * will block only if there are shared packets still within the write queue.
-     * When all shared packets have either been written or duplicated then the
-     * writer does not need to block any waiting threads and they can be
-     * released.
+     * This is used to determine the number of bytes that are queued within
+     * the writer. The length is used by the flusher to determine whether the
+     * writer has exceeded its watermarks, and whether a flush is required.
      * 
-     * @return true if any writing thread should be blocked
+     * @return this returns the number of bytes queued for writing
      */
-    boolean isBlocking() throws IOException;
+    int length() throws IOException;
 
     /**
      * This is used to write the packets to the writer which will be either
@@ -73,4 +73,40 @@ public interface Connection extends Closeable {
      */
     SocketAddress connect(SocketAddress address, SSLContext context)
             throws IOException;
+
+    /**
+     * This creates a new background task that will listen to the specified
+     * <code>ServerAddress</code> for incoming TCP connect requests. The
+     * profile provided determines the backlog of the listening socket, the
+     * number of acceptors sharing the port and the options used to configure
+     * each of the accepted sockets.
+     * 
+     * @param address
+     *            this is the address used to accept new connections
+     * @param profile
+     *            this is the profile used to configure the sockets
+     * 
+     * @return this returns the actual local address that is used
+     */
+    SocketAddress connect(SocketAddress address, ListenerProfile profile)
+            throws IOException;
+
+    /**
+     * This creates a new background task that will listen to the specified
+     * <code>ServerAddress</code> for incoming TCP connect requests. The
+     * profile provided determines the backlog of the listening socket, the
+     * number of acceptors sharing the port and the options used to configure
+     * each of the accepted sockets.
+     * 
+     * @param address
+     *            this is the address used to accept new connections
+     * @param context
+     *            this is used for secure SSL connections
+     * @param profile
+     *            this is the profile used to configure the sockets
+     * 
+     * @return this returns the actual local address that is used
+     */
+    SocketAddress connect(SocketAddress address, SSLContext context,
+            ListenerProfile profile) throws IOException;
 }
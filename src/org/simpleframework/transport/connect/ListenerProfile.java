@@ -0,0 +1,258 @@
+/*
+ * ListenerProfile.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport.connect;
+
+/**
+ * The <code>ListenerProfile</code> object is used to describe how a listening
+ * socket and the sockets it accepts are configured. This contains the size of
+ * the accept backlog, the number of acceptors that share the listening port
+ * and the socket options applied to each accepted connection. A profile can
+ * be provided to the <code>Connection.connect</code> method.
+ * <p>
+ * If more than one acceptor is requested the listening port is bound with the
+ * <code>SO_REUSEPORT</code> option, each acceptor having its own channel and
+ * its own selector. This allows the operating system to balance the accepts
+ * across the acceptors. If the platform does not support the option then only
+ * a single acceptor is used.
+ * <p>
+ * A limit can be placed on the number of connections open on the listener. If
+ * the limit is reached then the least recently active idle connection is
+ * closed to admit a new connection. If there are no idle connections then the
+ * listener will stop accepting until a connection closes or becomes idle.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.transport.connect.Connection
+ */
+public class ListenerProfile {
+
+    /**
+     * This is the maximum number of pending connections to queue.
+     */
+    private int backlog;
+
+    /**
+     * This is the number of acceptors that will share the port.
+     */
+    private int acceptors;
+
+    /**
+     * This is the receive buffer size for the accepted sockets.
+     */
+    private int receive;
+
+    /**
+     * This is the send buffer size for the accepted sockets.
+     */
+    private int send;
+
+    /**
+     * This determines if TCP keep alive is enabled on the sockets.
+     */
+    private boolean alive;
+
+    /**
+     * This is the maximum number of connections that can be open.
+     */
+    private int limit;
+
+    /**
+     * Constructor for the <code>ListenerProfile</code> object. This creates
+     * a profile with a backlog of one hundred, which is the backlog used when
+     * no profile is specified. The socket buffer sizes are left as the
+     * platform defaults.
+     */
+    public ListenerProfile() {
+        this(100);
+    }
+
+    /**
+     * Constructor for the <code>ListenerProfile</code> object. This creates
+     * a profile with the specified backlog and a single acceptor. The socket
+     * buffer sizes are left as the platform defaults.
+     * 
+     * @param backlog
+     *            this is the maximum number of pending connections
+     */
+    public ListenerProfile(int backlog) {
+        this(backlog, 1);
+    }
+
+    /**
+     * Constructor for the <code>ListenerProfile</code> object. This creates
+     * a profile with the specified backlog and number of acceptors. The
+     * socket buffer sizes are left as the platform defaults.
+     * 
+     * @param backlog
+     *            this is the maximum number of pending connections
+     * @param acceptors
+     *            this is the number of acceptors sharing the port
+     */
+    public ListenerProfile(int backlog, int acceptors) {
+        this.acceptors = acceptors;
+        this.backlog = backlog;
+    }
+
+    /**
+     * This is used to acquire the size of the accept backlog. The backlog is
+     * the number of fully established connections the kernel will queue for
+     * the listener before further connection attempts are refused.
+     * 
+     * @return this returns the backlog for the listening socket
+     */
+    public int getBacklog() {
+        return this.backlog;
+    }
+
+    /**
+     * This is used to specify the size of the accept backlog. The backlog is
+     * the number of fully established connections the kernel will queue for
+     * the listener before further connection attempts are refused.
+     * 
+     * @param backlog
+     *            this is the backlog for the listening socket
+     */
+    public void setBacklog(int backlog) {
+        this.backlog = backlog;
+    }
+
+    /**
+     * This is used to acquire the number of acceptors that are used. If this
+     * is greater than one each acceptor is bound to the same port using the
+     * <code>SO_REUSEPORT</code> option.
+     * 
+     * @return this returns the number of acceptors to be used
+     */
+    public int getAcceptors() {
+        return this.acceptors;
+    }
+
+    /**
+     * This is used to specify the number of acceptors that are used. If this
+     * is greater than one each acceptor is bound to the same port using the
+     * <code>SO_REUSEPORT</code> option.
+     * 
+     * @param acceptors
+     *            this is the number of acceptors to be used
+     */
+    public void setAcceptors(int acceptors) {
+        this.acceptors = acceptors;
+    }
+
+    /**
+     * This is used to determine if the listening port is to be shared by a
+     * number of acceptors. Sharing the port requires that the socket is bound
+     * with the <code>SO_REUSEPORT</code> option.
+     * 
+     * @return true if the port is shared by several acceptors
+     */
+    public boolean isReusePort() {
+        return this.acceptors > 1;
+    }
+
+    /**
+     * This is used to acquire the receive buffer size for the sockets. If
+     * this is zero or less the platform default is used. As the size can
+     * affect the TCP window scale it is also applied to the listener.
+     * 
+     * @return this returns the receive buffer size for the sockets
+     */
+    public int getReceiveBuffer() {
+        return this.receive;
+    }
+
+    /**
+     * This is used to specify the receive buffer size for the sockets. If
+     * this is zero or less the platform default is used. As the size can
+     * affect the TCP window scale it is also applied to the listener.
+     * 
+     * @param receive
+     *            this is the receive buffer size for the sockets
+     */
+    public void setReceiveBuffer(int receive) {
+        this.receive = receive;
+    }
+
+    /**
+     * This is used to acquire the send buffer size for the sockets. If this
+     * is zero or less then the platform default is used.
+     * 
+     * @return this returns the send buffer size for the sockets
+     */
+    public int getSendBuffer() {
+        return this.send;
+    }
+
+    /**
+     * This is used to specify the send buffer size for the sockets. If this
+     * is zero or less then the platform default is used.
+     * 
+     * @param send
+     *            this is the send buffer size for the sockets
+     */
+    public void setSendBuffer(int send) {
+        this.send = send;
+    }
+
+    /**
+     * This is used to determine if TCP keep alive is to be enabled on each of
+     * the accepted sockets. Keep alive allows dead peers to be detected on
+     * connections that are otherwise idle.
+     * 
+     * @return true if TCP keep alive is enabled for the sockets
+     */
+    public boolean isKeepAlive() {
+        return this.alive;
+    }
+
+    /**
+     * This is used to specify if TCP keep alive is to be enabled on each of
+     * the accepted sockets. Keep alive allows dead peers to be detected on
+     * connections that are otherwise idle.
+     * 
+     * @param alive
+     *            true if TCP keep alive is enabled for the sockets
+     */
+    public void setKeepAlive(boolean alive) {
+        this.alive = alive;
+    }
+
+    /**
+     * This is used to acquire the maximum number of connections that can be
+     * open on the listener. If this is zero or less then the number of open
+     * connections is not limited. The limit is shared by all acceptors.
+     * 
+     * @return this returns the maximum number of open connections
+     */
+    public int getMaxConnections() {
+        return this.limit;
+    }
+
+    /**
+     * This is used to specify the maximum number of connections that can be
+     * open on the listener. If this is zero or less then the number of open
+     * connections is not limited. The limit is shared by all acceptors.
+     * 
+     * @param limit
+     *            this is the maximum number of open connections
+     */
+    public void setMaxConnections(int limit) {
+        this.limit = limit;
+    }
+}
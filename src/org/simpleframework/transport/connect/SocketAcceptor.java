@@ -18,12 +18,16 @@
 
 package org.simpleframework.transport.connect;
 
+import static java.nio.channels.SelectionKey.OP_ACCEPT;
+import static org.simpleframework.transport.TransportEvent.CLOSE;
 import static org.simpleframework.transport.connect.ConnectionEvent.ACCEPT;
 import static org.simpleframework.transport.connect.ConnectionEvent.ERROR;
 
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.SocketAddress;
+import java.net.SocketOption;
+import java.net.StandardSocketOptions;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
@@ -35,6 +39,7 @@ import org.simpleframework.transport.Server;
 import org.simpleframework.transport.Socket;
 import org.simpleframework.transport.SocketWrapper;
 import org.simpleframework.transport.reactor.Operation;
+import org.simpleframework.transport.reactor.Reactor;
 import org.simpleframework.transport.trace.Agent;
 import org.simpleframework.transport.trace.Trace;
 
@@ -80,10 +85,31 @@ class SocketAcceptor implements Operation {
      */
     private final Agent agent;
 
+    /**
+     * This is the profile used to configure the accepted sockets.
+     */
+    private final ListenerProfile profile;
+
+    /**
+     * This is used to track and limit the accepted connections.
+     */
+    private final SocketTracker tracker;
+
+    /**
+     * This is the reactor used to notify this of new connections.
+     */
+    private final Reactor reactor;
+
+    /**
+     * This determines if the listening port can be shared.
+     */
+    private boolean shared;
+
     /**
      * Constructor for the <code>SocketAcceptor</code> object. This accepts new
      * TCP connections from the specified server socket. Each of the connections
-     * that is accepted is configured for performance for HTTP applications.
+     * that is accepted is configured using the provided listener profile and
+     * is tracked so that the number of open connections can be limited.
      * 
      * @param address
      *            this is the address to accept connections from
@@ -93,17 +119,39 @@ class SocketAcceptor implements Operation {
      *            this is used to initiate the HTTP processing
      * @param agent
      *            this is the tracing agent associated with this
+     * @param profile
+     *            this is the profile used to configure the sockets
+     * @param tracker
+     *            this is used to track and limit the connections
+     * @param reactor
+     *            this is the reactor that notifies this of connections
      */
     public SocketAcceptor(SocketAddress address, SSLContext context,
-            Server server, Agent agent) throws IOException {
+            Server server, Agent agent, ListenerProfile profile,
+            SocketTracker tracker, Reactor reactor) throws IOException {
         this.listener = ServerSocketChannel.open();
         this.socket = this.listener.socket();
+        this.tracker = tracker;
+        this.reactor = reactor;
+        this.profile = profile;
         this.context = context;
         this.agent = agent;
         this.server = server;
         this.bind(address);
     }
 
+    /**
+     * This is used to determine if the listening port is shared. A shared
+     * port is one that has been bound with the <code>SO_REUSEPORT</code>
+     * option, which allows several acceptors to bind to the same port. If
+     * the platform does not support the option then this returns false.
+     * 
+     * @return this returns true if the listening port can be shared
+     */
+    public boolean isShared() {
+        return this.shared;
+    }
+
     /**
      * This is used to acquire the local socket address that this is listening
      * to. This required in case the socket address that is specified is an
@@ -142,15 +190,34 @@ class SocketAcceptor implements Operation {
         try {
             this.accept();
         } catch (Exception e) {
-            this.pause();
+            this.recover();
+        }
+    }
+
+    /**
+     * This is used to recover when there is an error accepting, such as the
+     * exhaustion of file descriptors. Rather than retrying immediately the
+     * least recently active idle connection is evicted to release a file
+     * descriptor, which is released once the evicted connection has been
+     * closed by its reactor. If there is no idle connection then accepting
+     * is suspended until a connection closes or becomes idle.
+     */
+    private void recover() {
+        if (!this.tracker.reclaim()) {
+            if (this.tracker.getActive() > 0) {
+                this.suspend(this.tracker);
+            } else {
+                this.pause();
+            }
         }
     }
 
     /**
      * This is used to throttle the acceptor when there is an error such as
-     * exhaustion of file descriptors. This will prevent the CPU from being
-     * hogged by the acceptor on such occasions. If the thread can not be put to
-     * sleep then this will freeze.
+     * exhaustion of file descriptors and there are no tracked connections
+     * that can be closed to recover. This will prevent the CPU from being
+     * hogged by the acceptor on such occasions. If the thread can not be put
+     * to sleep then this will freeze.
      */
     private void pause() {
         try {
@@ -160,6 +227,52 @@ class SocketAcceptor implements Operation {
         }
     }
 
+    /**
+     * This is used to suspend the acceptor when the connection limit has
+     * been reached and there are no idle connections to evict. Rather than
+     * putting the thread to sleep the interest in accepting is removed from
+     * the reactor so that pending connections wait in the backlog. If a
+     * connection could be admitted once suspended this resumes at once.
+     */
+    private void suspend() {
+        this.suspend(this.tracker);
+
+        if (this.tracker.isReady()) {
+            this.resume();
+        }
+    }
+
+    /**
+     * This is used to suspend the acceptor with the specified tracker. The
+     * interest in accepting is removed from the reactor and the acceptor will
+     * be resumed by the tracker when a connection closes or becomes idle.
+     * 
+     * @param tracker
+     *            this is the tracker that will resume the acceptor
+     */
+    private void suspend(SocketTracker tracker) {
+        try {
+            this.reactor.process(this, 0);
+            tracker.suspend(this);
+        } catch (Exception e) {
+            this.pause();
+        }
+    }
+
+    /**
+     * This is used to resume the acceptor once it has been suspended. This
+     * registers the interest in accepting connections with the reactor once
+     * again, if connections are pending then the acceptor is run so that it
+     * can determine if the connections can be admitted.
+     */
+    public void resume() {
+        try {
+            this.reactor.process(this, OP_ACCEPT);
+        } catch (Exception e) {
+            return;
+        }
+    }
+
     /**
      * This is used to cancel the operation if the reactor decides to reject it
      * for some reason. Typically this method will never be invoked as this
@@ -178,16 +291,43 @@ class SocketAcceptor implements Operation {
     /**
      * This is used to configure the server socket for non-blocking mode. It
      * will also bind the server socket to the socket port specified in the
-     * <code>SocketAddress</code> object. Once done the acceptor is ready to
-     * accept newly arriving connections.
+     * <code>SocketAddress</code> object using the backlog from the profile.
+     * Once done the acceptor is ready to accept newly arriving connections.
      * 
      * @param address
      *            this is the server socket address to bind to
      */
     private void bind(SocketAddress address) throws IOException {
+        int backlog = this.profile.getBacklog();
+        int receive = this.profile.getReceiveBuffer();
+
+        if (receive > 0) {
+            this.socket.setReceiveBufferSize(receive);
+        }
+        if (this.profile.isReusePort()) {
+            this.shared = this.share();
+        }
         this.listener.configureBlocking(false);
         this.socket.setReuseAddress(true);
-        this.socket.bind(address, 100);
+        this.socket.bind(address, backlog);
+    }
+
+    /**
+     * This is used to enable the <code>SO_REUSEPORT</code> option on the
+     * listening channel. If the platform does not support the option then
+     * this will return false, in which case the port can not be shared by
+     * several acceptors.
+     * 
+     * @return this returns true if the option has been enabled
+     */
+    private boolean share() throws IOException {
+        SocketOption<Boolean> option = StandardSocketOptions.SO_REUSEPORT;
+
+        if (this.listener.supportedOptions().contains(option)) {
+            this.listener.setOption(option, true);
+            return true;
+        }
+        return false;
     }
 
     /**
@@ -195,25 +335,87 @@ class SocketAcceptor implements Operation {
      * the <code>run</code> method. Here the TCP connections are accepted from
      * the <code>ServerSocketChannel</code> which creates the socket objects.
      * Each socket is then encapsulated in to a pipeline and dispatched to the
-     * processor for processing.
+     * processor for processing. If the connection limit has been reached the
+     * least recently active idle connection is evicted, if there is no such
+     * connection then accepting is suspended until there is.
      * 
      * @throws IOException
      *             if there is a problem accepting the socket
      */
     private void accept() throws IOException {
-        SocketChannel channel = this.listener.accept();
+        if (this.tracker.admit()) {
+            SocketChannel channel = this.listener.accept();
+
+            while (channel != null) {
+                this.accept(channel);
 
-        while (channel != null) {
-            Trace trace = this.agent.attach(channel);
+                if (this.tracker.isLimited()) {
+                    return;
+                }
+                channel = this.listener.accept();
+            }
+        } else {
+            this.suspend();
+        }
+    }
 
+    /**
+     * This is used to accept the connection represented by the channel. The
+     * channel is configured and tracked, then it is handed to the server. As
+     * the monitor for the connection is used as its trace the tracker will
+     * be informed when the connection is idle, busy, or closed.
+     * <p>
+     * If the channel can not be configured or handed to the server then only
+     * that channel is closed. The failure is not passed on to the acceptor,
+     * as it would be mistaken for an error accepting and a healthy idle
+     * connection would be evicted to recover from it.
+     * 
+     * @param channel
+     *            this is the channel that has been accepted
+     */
+    private void accept(SocketChannel channel) throws IOException {
+        Trace trace = this.agent.attach(channel);
+        SocketMonitor monitor = new SocketMonitor(this.tracker, channel, trace);
+
+        try {
             this.configure(channel);
+        } catch (Exception cause) {
+            this.close(channel, trace, cause);
+            return;
+        }
+        try {
+            this.tracker.add(monitor);
 
             if (this.context == null) {
-                this.process(channel, trace, null);
+                this.process(channel, monitor, null);
             } else {
-                this.process(channel, trace);
+                this.process(channel, monitor);
             }
-            channel = this.listener.accept();
+        } catch (Exception cause) {
+            this.close(channel, monitor, cause);
+        }
+    }
+
+    /**
+     * This is used to close a channel that could not be accepted. The cause
+     * of the failure is traced before the channel is closed, and if the
+     * trace provided is the monitor of the connection the tracker is told
+     * that the connection has closed.
+     * 
+     * @param channel
+     *            this is the channel that could not be accepted
+     * @param trace
+     *            this is the trace to report the failure to
+     * @param cause
+     *            this is the cause of the failure
+     */
+    private void close(SocketChannel channel, Trace trace, Exception cause) {
+        try {
+            trace.trace(ERROR, cause);
+            trace.trace(CLOSE);
+            channel.close();
+        } catch (Exception e) {
+            return;
         }
     }
 
@@ -221,13 +423,27 @@ class SocketAcceptor implements Operation {
      * This method is used to configure the accepted channel. This will disable
      * Nagles algorithm to improve the performance of the channel, also this
      * will ensure the accepted channel disables blocking to ensure that it
-     * works within the processor object.
+     * works within the processor object. Any buffer sizes and the keep alive
+     * option from the listener profile are also applied here.
      * 
      * @param channel
      *            this is the channel that is to be configured
      */
     private void configure(SocketChannel channel) throws IOException {
-        channel.socket().setTcpNoDelay(true);
+        java.net.Socket socket = channel.socket();
+        int receive = this.profile.getReceiveBuffer();
+        int send = this.profile.getSendBuffer();
+
+        if (receive > 0) {
+            socket.setReceiveBufferSize(receive);
+        }
+        if (send > 0) {
+            socket.setSendBufferSize(send);
+        }
+        if (this.profile.isKeepAlive()) {
+            socket.setKeepAlive(true);
+        }
+        socket.setTcpNoDelay(true);
         channel.configureBlocking(false);
     }
 
@@ -249,6 +465,7 @@ class SocketAcceptor implements Operation {
             this.process(channel, trace, engine);
         } catch (Exception cause) {
             trace.trace(ERROR, cause);
+            trace.trace(CLOSE);
             channel.close();
         }
     }
@@ -275,6 +492,7 @@ class SocketAcceptor implements Operation {
             this.server.process(socket);
         } catch (Exception cause) {
             trace.trace(ERROR, cause);
+            trace.trace(CLOSE);
             channel.close();
         }
     }
@@ -85,10 +85,52 @@ public class SocketConnection implements Connection {
      *            this is used to create a trace for the socket
      */
     public SocketConnection(Server server, Agent agent) throws IOException {
-        this.manager = new SocketListenerManager(server, agent);
+        this(server, agent, 0);
+    }
+
+    /**
+     * Constructor for the <code>SocketConnection</code> object. This will
+     * create a new connection that accepts incoming connections and hands these
+     * connections as <code>Pipeline</code> objects to the specified processor.
+     * The limit provided is the maximum number of connections that can be
+     * open across all addresses connected to, if the limit is reached the
+     * least recently active idle connection is closed to admit another.
+     * 
+     * @param server
+     *            this is the processor that receives requests
+     * @param agent
+     *            this is used to create a trace for the socket
+     * @param limit
+     *            this is the maximum number of open connections
+     */
+    public SocketConnection(Server server, Agent agent, int limit)
+            throws IOException {
+        this.manager = new SocketListenerManager(server, agent, limit);
         this.server = server;
     }
 
+    /**
+     * This is used to acquire the number of connections that are open. This
+     * includes all of the connections accepted from every address that has
+     * been connected to, both those that are idle and those that are busy.
+     * 
+     * @return this returns the number of connections that are open
+     */
+    public int getActiveCount() {
+        return this.manager.getActive();
+    }
+
+    /**
+     * This is used to acquire the number of connections that are idle. An
+     * idle connection is a keep alive connection waiting for a new request,
+     * idle connections are closed first when the limit has been reached.
+     * 
+     * @return this returns the number of connections that are idle
+     */
+    public int getIdleCount() {
+        return this.manager.getIdle();
+    }
+
     /**
      * This creates a new background task that will listen to the specified
      * <code>ServerAddress</code> for incoming TCP connect requests. When an
@@ -130,6 +172,49 @@ public class SocketConnection implements Connection {
         return this.manager.listen(address, context);
     }
 
+    /**
+     * This creates a new background task that will listen to the specified
+     * <code>ServerAddress</code> for incoming TCP connect requests. The
+     * profile provided determines the backlog of the listening socket, the
+     * number of acceptors sharing the port and the options used to configure
+     * each of the accepted sockets.
+     * 
+     * @param address
+     *            this is the address used to accept new connections
+     * @param profile
+     *            this is the profile used to configure the sockets
+     * 
+     * @return this returns the actual local address that is used
+     */
+    @Override
+    public SocketAddress connect(SocketAddress address, ListenerProfile profile)
+            throws IOException {
+        return this.connect(address, null, profile);
+    }
+
+    /**
+     * This creates a new background task that will listen to the specified
+     * <code>ServerAddress</code> for incoming TCP connect requests. The
+     * profile provided determines the backlog of the listening socket, the
+     * number of acceptors sharing the port and the options used to configure
+     * each of the accepted sockets.
+     * 
+     * @param address
+     *            this is the address used to accept new connections
+     * @param context
+     *            this is used for secure SSL connections
+     * @param profile
+     *            this is the profile used to configure the sockets
+     * 
+     * @return this returns the actual local address that is used
+     */
+    @Override
+    public SocketAddress connect(SocketAddress address, SSLContext context,
+            ListenerProfile profile) throws IOException {
+        if (this.closed) throw new ConnectionException("Connection is closed");
+        return this.manager.listen(address, context, profile);
+    }
+
     /**
      * This is used to close the connection and the server socket used to accept
      * connections. This will perform a close of all connected server sockets
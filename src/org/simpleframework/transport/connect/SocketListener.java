@@ -87,11 +87,74 @@ class SocketListener implements Closeable {
      */
     public SocketListener(SocketAddress address, SSLContext context,
             Server server, Agent agent) throws IOException {
-        this.acceptor = new SocketAcceptor(address, context, server, agent);
+        this(address, context, server, agent, new ListenerProfile());
+    }
+
+    /**
+     * Constructor for the <code>Listener</code> object. This needs a socket
+     * address and a processor to hand created sockets to. This creates a
+     * <code>Reactor</code> which will notify the acceptor when there is a new
+     * connection waiting to be accepted. Each listener has its own reactor so
+     * listeners sharing a port each select on their own selector.
+     * 
+     * @param address
+     *            this is the address to listen for new sockets
+     * @param context
+     *            this is the SSL context used for secure HTTPS
+     * @param server
+     *            this is the server that pipelines are handed to
+     * @param agent
+     *            this is used to create a trace to monitor events
+     * @param profile
+     *            this is the profile used to configure the sockets
+     */
+    public SocketListener(SocketAddress address, SSLContext context,
+            Server server, Agent agent, ListenerProfile profile)
+            throws IOException {
+        this(address, context, server, agent, profile, new SocketTracker(
+                profile.getMaxConnections()));
+    }
+
+    /**
+     * Constructor for the <code>Listener</code> object. This needs a socket
+     * address and a processor to hand created sockets to. This creates a
+     * <code>Reactor</code> which will notify the acceptor when there is a new
+     * connection waiting to be accepted. The tracker provided is used to
+     * limit the number of connections that can be open at once.
+     * 
+     * @param address
+     *            this is the address to listen for new sockets
+     * @param context
+     *            this is the SSL context used for secure HTTPS
+     * @param server
+     *            this is the server that pipelines are handed to
+     * @param agent
+     *            this is used to create a trace to monitor events
+     * @param profile
+     *            this is the profile used to configure the sockets
+     * @param tracker
+     *            this is used to track and limit the connections
+     */
+    public SocketListener(SocketAddress address, SSLContext context,
+            Server server, Agent agent, ListenerProfile profile,
+            SocketTracker tracker) throws IOException {
         this.reactor = new DirectReactor();
+        this.acceptor = new SocketAcceptor(address, context, server, agent,
+                profile, tracker, this.reactor);
         this.process();
     }
 
+    /**
+     * This is used to determine if the listening port is shared. A shared
+     * port is one that has been bound with the <code>SO_REUSEPORT</code>
+     * option so that further listeners can be bound to the same port.
+     * 
+     * @return this returns true if the listening port can be shared
+     */
+    public boolean isShared() {
+        return this.acceptor.isShared();
+    }
+
     /**
      * This is used to acquire the local socket address that this is listening
      * to. This required in case the socket address that is specified is an
@@ -52,6 +52,11 @@ class SocketListenerManager extends HashSet<SocketListener> implements
      */
     private final Agent agent;
 
+    /**
+     * This is used to track all of the connections for the listeners.
+     */
+    private final SocketTracker tracker;
+
     /**
      * Constructor for the <code>SocketListenerManager</code> object. This is
      * used to create a manager that will enable listeners to be created to
@@ -64,10 +69,50 @@ class SocketListenerManager extends HashSet<SocketListener> implements
      *            this is the agent used to trace socket events
      */
     public SocketListenerManager(Server server, Agent agent) {
+        this(server, agent, 0);
+    }
+
+    /**
+     * Constructor for the <code>SocketListenerManager</code> object. This is
+     * used to create a manager that will enable listeners to be created to
+     * listen to specified sockets for incoming TCP connections. The limit
+     * provided applies to the connections accepted by all listeners.
+     * 
+     * @param server
+     *            this is the server that sockets are handed to
+     * @param agent
+     *            this is the agent used to trace socket events
+     * @param limit
+     *            this is the maximum number of open connections
+     */
+    public SocketListenerManager(Server server, Agent agent, int limit) {
+        this.tracker = new SocketTracker(limit);
         this.agent = new SocketAgent(agent);
         this.server = server;
     }
 
+    /**
+     * This is used to acquire the number of connections that are open. This
+     * includes the connections accepted by every listener created by this
+     * manager, both those that are idle and those that are busy.
+     * 
+     * @return this returns the number of connections that are open
+     */
+    public int getActive() {
+        return this.tracker.getActive();
+    }
+
+    /**
+     * This is used to acquire the number of connections that are idle. An
+     * idle connection is one that is waiting for a new request to arrive,
+     * these are the connections that can be evicted if required.
+     * 
+     * @return this returns the number of connections that are idle
+     */
+    public int getIdle() {
+        return this.tracker.getIdle();
+    }
+
     /**
      * This creates a new background task that will listen to the specified
      * <code>ServerAddress</code> for incoming TCP connect requests. When an
@@ -102,13 +147,49 @@ class SocketListenerManager extends HashSet<SocketListener> implements
      */
     public SocketAddress listen(SocketAddress address, SSLContext context)
             throws IOException {
+        return this.listen(address, context, new ListenerProfile());
+    }
+
+    /**
+     * This creates a new background task that will listen to the specified
+     * <code>ServerAddress</code> for incoming TCP connect requests. If the
+     * profile requests several acceptors then a listener is created for each
+     * of them, all sharing the same port. Should the port not be shareable
+     * then only a single listener is created. All listeners created share a
+     * single connection limit, which is taken from the profile.
+     * 
+     * @param address
+     *            this is the address used to accept new connections
+     * @param context
+     *            this is used for secure SSL connections
+     * @param profile
+     *            this is the profile used to configure the sockets
+     * 
+     * @return this returns the actual local address that is used
+     */
+    public SocketAddress listen(SocketAddress address, SSLContext context,
+            ListenerProfile profile) throws IOException {
+        int limit = profile.getMaxConnections();
+        SocketTracker tracker = new SocketTracker(limit, this.tracker);
         SocketListener listener = new SocketListener(address, context,
-                this.server, this.agent);
+                this.server, this.agent, profile, tracker);
+        SocketAddress local = listener.getAddress();
+        int count = profile.getAcceptors();
 
         if (this.server != null) {
             this.add(listener);
         }
-        return listener.getAddress();
+        if (listener.isShared()) {
+            for (int i = 1; i < count; i++) {
+                listener = new SocketListener(local, context, this.server,
+                        this.agent, profile, tracker);
+
+                if (this.server != null) {
+                    this.add(listener);
+                }
+            }
+        }
+        return local;
     }
 
     /**
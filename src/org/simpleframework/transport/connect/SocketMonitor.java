@@ -0,0 +1,180 @@
+/*
+ * SocketMonitor.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport.connect;
+
+import static org.simpleframework.transport.TransportEvent.CLOSE;
+import static org.simpleframework.transport.TransportEvent.READ;
+import static org.simpleframework.transport.TransportEvent.READ_IDLE;
+
+import java.nio.channels.SocketChannel;
+
+import org.simpleframework.transport.trace.Trace;
+
+/**
+ * The <code>SocketMonitor</code> is used to monitor the activity of a single
+ * accepted connection. It is inserted as the trace for the connection so that
+ * it can observe the events occurring on it. When the connection is waiting
+ * for a new request it is marked as idle with the <code>SocketTracker</code>,
+ * and when bytes are read it is marked as busy. Once the connection is closed
+ * it is removed from the tracker so that another can be admitted.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.transport.connect.SocketTracker
+ */
+class SocketMonitor implements Trace {
+
+    /**
+     * This is the tracker that is used to track the connection.
+     */
+    private final SocketTracker tracker;
+
+    /**
+     * This is the channel representing the connection monitored.
+     */
+    private final SocketChannel channel;
+
+    /**
+     * This is the trace that all of the events are delegated to.
+     */
+    private final Trace trace;
+
+    /**
+     * This determines if the connection is waiting for a request.
+     */
+    private volatile boolean idle;
+
+    /**
+     * Constructor for the <code>SocketMonitor</code> object. This creates a
+     * monitor for the specified channel that will delegate all the events it
+     * receives to the provided trace. The connection is registered with the
+     * tracker when it is accepted.
+     * 
+     * @param tracker
+     *            this is the tracker used to track the connection
+     * @param channel
+     *            this is the channel that is to be monitored
+     * @param trace
+     *            this is the trace that events are delegated to
+     */
+    public SocketMonitor(SocketTracker tracker, SocketChannel channel,
+            Trace trace) {
+        this.tracker = tracker;
+        this.channel = channel;
+        this.trace = trace;
+    }
+
+    /**
+     * This is used to determine if the monitored connection is open. If the
+     * connection has been closed without a close event being traced then the
+     * tracker can use this to purge the connection.
+     * 
+     * @return this returns true if the monitored channel is open
+     */
+    public boolean isOpen() {
+        return this.channel.isOpen();
+    }
+
+    /**
+     * This method is used to accept an event that occurred on the socket
+     * associated with this trace. Typically the event is a symbolic
+     * description of the event such as an enum or a string.
+     * 
+     * @param event
+     *            this is the event that occurred on the socket
+     */
+    @Override
+    public void trace(Object event) {
+        this.trace(event, null);
+    }
+
+    /**
+     * This method is used to accept an event that occurred on the socket
+     * associated with this trace. Events that indicate the connection is idle
+     * or busy are used to update the tracker before the event is delegated.
+     * 
+     * @param event
+     *            this is the event that occurred on the socket
+     * @param value
+     *            provides additional information such as an exception
+     */
+    @Override
+    public void trace(Object event, Object value) {
+        if (event == READ_IDLE) {
+            this.idle();
+        } else if (event == READ) {
+            this.busy(value);
+        } else if (event == CLOSE) {
+            this.tracker.remove(this);
+        }
+        this.trace.trace(event, value);
+    }
+
+    /**
+     * This is used to mark the connection as idle. An idle connection is one
+     * that has completed its requests and is waiting for another. Idle
+     * connections are candidates for eviction should the limit be reached.
+     */
+    private void idle() {
+        if (!this.idle) {
+            this.idle = true;
+            this.tracker.idle(this);
+        }
+    }
+
+    /**
+     * This is used to mark the connection as busy. A connection becomes busy
+     * when bytes are read from it, as this means a request has started. The
+     * tracker is only updated if the connection was idle.
+     * 
+     * @param value
+     *            this is the number of bytes that were read
+     */
+    private void busy(Object value) {
+        if (this.idle) {
+            Integer count = (Integer) value;
+
+            if (count != null && count > 0) {
+                this.idle = false;
+                this.tracker.busy(this);
+            }
+        }
+    }
+
+    /**
+     * This is used to close the monitored connection. Closing is done when
+     * the connection is evicted from the tracker. Rather than closing the
+     * channel from the thread doing the eviction, the input of the channel
+     * is shut down. The idle connection is waiting in the reactor for a new
+     * request, so it wakes and reads the end of the stream, and closes the
+     * transport in the same way as if the client had closed it. This ensures
+     * the selector, buffers and trace are all released by the usual path.
+     * The connection is removed from the tracker immediately so another can
+     * be admitted.
+     */
+    public void close() {
+        try {
+            this.channel.shutdownInput();
+        } catch (Exception e) {
+            return;
+        } finally {
+            this.tracker.remove(this);
+        }
+    }
+}
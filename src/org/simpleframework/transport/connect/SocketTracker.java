@@ -0,0 +1,391 @@
+/*
+ * SocketTracker.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.transport.connect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The <code>SocketTracker</code> is used to track the connections that have
+ * been accepted and to impose a limit on how many can be open at once. Each
+ * connection is represented by a <code>SocketMonitor</code> which tells the
+ * tracker when the connection becomes idle, that is when it is waiting for a
+ * new request, and when it becomes busy again.
+ * <p>
+ * Idle connections are held in least recently active order. When the limit
+ * has been reached the least recently active idle connection can be evicted
+ * so that a new connection can be admitted. If there are no idle connections
+ * then an acceptor can suspend itself with the tracker, it is resumed when a
+ * connection is removed. A tracker can have a parent, which allows a limit to
+ * be imposed on a listener and also on all listeners collectively.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.transport.connect.SocketMonitor
+ */
+class SocketTracker {
+
+    /**
+     * This contains the acceptors waiting for a connection to close.
+     */
+    private final Set<SocketAcceptor> waiting;
+
+    /**
+     * This contains the idle connections in least recently used order.
+     */
+    private final Set<SocketMonitor> idle;
+
+    /**
+     * This contains all of the connections that are currently open.
+     */
+    private final Set<SocketMonitor> active;
+
+    /**
+     * This is the parent tracker that is also updated by this.
+     */
+    private final SocketTracker parent;
+
+    /**
+     * This is the maximum number of connections that can be open.
+     */
+    private final int limit;
+
+    /**
+     * Constructor for the <code>SocketTracker</code> object. This creates a
+     * tracker with the specified limit. If the limit is zero or less then
+     * the connections are tracked but the number of them is not limited.
+     * 
+     * @param limit
+     *            this is the maximum number of open connections
+     */
+    public SocketTracker(int limit) {
+        this(limit, null);
+    }
+
+    /**
+     * Constructor for the <code>SocketTracker</code> object. This creates a
+     * tracker with the specified limit. If the limit is zero or less then
+     * the connections are tracked but the number of them is not limited. All
+     * updates made to this tracker are also made to the parent.
+     * 
+     * @param limit
+     *            this is the maximum number of open connections
+     * @param parent
+     *            this is the parent tracker, which may be null
+     */
+    public SocketTracker(int limit, SocketTracker parent) {
+        this.waiting = new HashSet<SocketAcceptor>();
+        this.idle = new LinkedHashSet<SocketMonitor>();
+        this.active = new HashSet<SocketMonitor>();
+        this.parent = parent;
+        this.limit = limit;
+    }
+
+    /**
+     * This is used to acquire the number of connections that are open. This
+     * includes the idle connections as well as the busy connections. This
+     * value can be used to monitor the load on the server.
+     * 
+     * @return this returns the number of connections that are open
+     */
+    public synchronized int getActive() {
+        return this.active.size();
+    }
+
+    /**
+     * This is used to acquire the number of connections that are idle. An
+     * idle connection is one that is waiting for a new request to arrive,
+     * these are the connections that can be evicted if required.
+     * 
+     * @return this returns the number of connections that are idle
+     */
+    public synchronized int getIdle() {
+        return this.idle.size();
+    }
+
+    /**
+     * This is used to determine if the tracker can admit a connection. If
+     * the limit has been reached for this tracker, or for any parent tracker,
+     * then the least recently active idle connection is evicted. If there is
+     * no idle connection to evict then the connection can not be admitted.
+     * 
+     * @return this returns true if a new connection can be admitted
+     */
+    public boolean admit() {
+        if (this.isFull()) {
+            if (!this.evict() && !this.purge()) {
+                return false;
+            }
+        }
+        if (this.parent != null) {
+            return this.parent.admit();
+        }
+        return true;
+    }
+
+    /**
+     * This is used to determine if this tracker has reached its limit. If
+     * the limit is zero or less then this tracker is unlimited and so it
+     * will never be considered full.
+     * 
+     * @return this returns true if the limit has been reached
+     */
+    private synchronized boolean isFull() {
+        if (this.limit > 0) {
+            return this.active.size() >= this.limit;
+        }
+        return false;
+    }
+
+    /**
+     * This is used to purge any connections that have been closed but have
+     * not been removed from the tracker. Typically connections are removed
+     * when they close, however this ensures that a connection that failed to
+     * report that it has closed does not hold a place indefinitely.
+     * 
+     * @return this returns true if the tracker is no longer full
+     */
+    private synchronized boolean purge() {
+        Iterator<SocketMonitor> monitors = this.active.iterator();
+
+        while (monitors.hasNext()) {
+            SocketMonitor monitor = monitors.next();
+
+            if (!monitor.isOpen()) {
+                this.idle.remove(monitor);
+                monitors.remove();
+            }
+        }
+        return !this.isFull();
+    }
+
+    /**
+     * This is used to evict the least recently active idle connection. The
+     * connection is removed from the tracker and then closed. If there are
+     * no idle connections then nothing is evicted and this returns false.
+     * 
+     * @return this returns true if a connection was evicted
+     */
+    public boolean evict() {
+        SocketMonitor monitor = this.next();
+
+        if (monitor != null) {
+            monitor.close();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * This is used to reclaim a connection from the root tracker. The root
+     * tracker tracks every connection, so this will evict the least recently
+     * active idle connection from any listener. This is used to release a
+     * file descriptor when the accept fails, for instance when exhausted.
+     * 
+     * @return this returns true if a connection was evicted
+     */
+    public boolean reclaim() {
+        if (this.parent != null) {
+            return this.parent.reclaim();
+        }
+        return this.evict();
+    }
+
+    /**
+     * This is used to take the least recently active idle connection. The
+     * connection taken is removed from the tracker, which ensures that it
+     * is no longer counted towards the limit of this tracker.
+     * 
+     * @return this returns the least recently active idle connection
+     */
+    private synchronized SocketMonitor next() {
+        Iterator<SocketMonitor> monitors = this.idle.iterator();
+
+        if (monitors.hasNext()) {
+            SocketMonitor monitor = monitors.next();
+
+            monitors.remove();
+            this.active.remove(monitor);
+            return monitor;
+        }
+        return null;
+    }
+
+    /**
+     * This is used to add a newly accepted connection to the tracker. The
+     * connection is considered busy until it reports that it is idle. The
+     * connection is also added to the parent tracker if there is one.
+     * 
+     * @param monitor
+     *            this is the monitor for the accepted connection
+     */
+    public void add(SocketMonitor monitor) {
+        synchronized (this) {
+            this.active.add(monitor);
+        }
+        if (this.parent != null) {
+            this.parent.add(monitor);
+        }
+    }
+
+    /**
+     * This is used to mark the connection as idle. The connection is placed
+     * at the end of the idle connections so that the least recently active
+     * connection is always the first to be evicted. As an idle connection
+     * can be evicted any suspended acceptors are resumed.
+     * 
+     * @param monitor
+     *            this is the monitor for the idle connection
+     */
+    public void idle(SocketMonitor monitor) {
+        synchronized (this) {
+            if (this.active.contains(monitor)) {
+                this.idle.add(monitor);
+            }
+        }
+        this.resume();
+
+        if (this.parent != null) {
+            this.parent.idle(monitor);
+        }
+    }
+
+    /**
+     * This is used to mark the connection as busy. A busy connection is not
+     * a candidate for eviction as it is in the process of handling a request
+     * and closing it would cause the request to fail.
+     * 
+     * @param monitor
+     *            this is the monitor for the busy connection
+     */
+    public void busy(SocketMonitor monitor) {
+        synchronized (this) {
+            this.idle.remove(monitor);
+        }
+        if (this.parent != null) {
+            this.parent.busy(monitor);
+        }
+    }
+
+    /**
+     * This is used to remove a connection from the tracker once it has been
+     * closed. If any acceptors have suspended themselves waiting for a place
+     * to become available they are resumed so they can accept again.
+     * 
+     * @param monitor
+     *            this is the monitor for the closed connection
+     */
+    public void remove(SocketMonitor monitor) {
+        synchronized (this) {
+            this.active.remove(monitor);
+            this.idle.remove(monitor);
+        }
+        this.resume();
+
+        if (this.parent != null) {
+            this.parent.remove(monitor);
+        }
+    }
+
+    /**
+     * This is used to resume all of the acceptors that have suspended
+     * themselves with this tracker. The acceptors are resumed outside of
+     * the lock so that the tracker is not locked when the reactor is used.
+     */
+    private void resume() {
+        List<SocketAcceptor> ready = this.take();
+
+        for (SocketAcceptor acceptor : ready) {
+            acceptor.resume();
+        }
+    }
+
+    /**
+     * This is used to take the acceptors that are waiting to be resumed.
+     * Typically there are no acceptors waiting, in which case an empty list
+     * is returned so that nothing is allocated.
+     * 
+     * @return this returns the acceptors that are to be resumed
+     */
+    private synchronized List<SocketAcceptor> take() {
+        if (!this.waiting.isEmpty()) {
+            List<SocketAcceptor> ready = new ArrayList<SocketAcceptor>(this.waiting);
+
+            this.waiting.clear();
+            return ready;
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * This is used to suspend an acceptor until a connection is removed. The
+     * acceptor is registered with this tracker and every parent tracker so
+     * that it is resumed regardless of which limit has been reached.
+     * 
+     * @param acceptor
+     *            this is the acceptor that is to be suspended
+     */
+    public void suspend(SocketAcceptor acceptor) {
+        synchronized (this) {
+            this.waiting.add(acceptor);
+        }
+        if (this.parent != null) {
+            this.parent.suspend(acceptor);
+        }
+    }
+
+    /**
+     * This is used to determine if this tracker or any of its parents has
+     * reached its limit. This does not evict any connections, it is used
+     * to determine if an acceptor should stop accepting connections.
+     * 
+     * @return this returns true if any limit has been reached
+     */
+    public boolean isLimited() {
+        if (this.isFull()) {
+            return true;
+        }
+        if (this.parent != null) {
+            return this.parent.isLimited();
+        }
+        return false;
+    }
+
+    /**
+     * This is used to determine if a suspended acceptor can be resumed. An
+     * acceptor can be resumed if every tracker is either below its limit or
+     * has an idle connection that can be evicted to make room.
+     * 
+     * @return this returns true if a connection could now be admitted
+     */
+    public boolean isReady() {
+        if (this.isFull() && this.getIdle() == 0) {
+            return false;
+        }
+        if (this.parent != null) {
+            return this.parent.isReady();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,364 @@
+/*
+ * ArrayPool.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.buffer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <code>ArrayPool</code> is a process wide pool of byte arrays used to
+ * hold the bytes of request bodies. Rather than creating a new array for each
+ * body, and discarding it once the request has been handled, arrays are taken
+ * from the pool as a body is consumed and returned to it once the response
+ * has finished. This keeps the arrays used by a busy server out of the young
+ * generation, which otherwise fills with the bodies of every POST request.
+ * <p>
+ * Arrays are pooled in size classes, each a power of two from 1KB to 64KB.
+ * The number of bytes held by free arrays is capped, once the cap has been
+ * reached recycled arrays are left for the garbage collector. The cap can be
+ * specified with the following system property.
+ * 
+ * <pre>
+ * -Dorg.simpleframework.util.buffer.pool=33554432
+ * </pre>
+ * 
+ * Arrays are typically taken by one thread as the body is read and returned
+ * by another once the response has been written, so the free arrays are held
+ * on lists shared by all threads rather than cached by each thread.
+ * <p>
+ * The pool also accounts for the bytes of every array that has been taken
+ * and not yet returned, which is the memory held by all of the request
+ * bodies in progress. This is checked against a budget shared by all of the
+ * requests, and once the budget has been spent buffers move their bytes to
+ * disk rather than take more arrays. By default the budget is a quarter of
+ * the maximum heap size, it can be specified with the following property.
+ * 
+ * <pre>
+ * -Dorg.simpleframework.util.buffer.budget=134217728
+ * </pre>
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.buffer.ChunkBuffer
+ */
+public class ArrayPool {
+
+    /**
+     * This is the name of the property used to specify the cap.
+     */
+    private static final String PROPERTY = "org.simpleframework.util.buffer.pool";
+
+    /**
+     * This is the name of the property used to specify the budget.
+     */
+    private static final String BUDGET = "org.simpleframework.util.buffer.budget";
+
+    /**
+     * This is the pool that is shared by all of the allocators.
+     */
+    private static final ArrayPool INSTANCE = new ArrayPool();
+
+    /**
+     * This is the size of the smallest class of arrays pooled.
+     */
+    private static final int MINIMUM = 1024;
+
+    /**
+     * This is the number of size classes that are pooled.
+     */
+    private static final int CLASSES = 7;
+
+    /**
+     * This contains the free arrays for each of the size classes.
+     */
+    private final Queue<byte[]>[] free;
+
+    /**
+     * This is the number of bytes held by the free arrays.
+     */
+    private final AtomicLong pooled;
+
+    /**
+     * This is the number of bytes held by arrays that are in use.
+     */
+    private final AtomicLong used;
+
+    /**
+     * This is the maximum number of bytes to acquire for use.
+     */
+    private final long budget;
+
+    /**
+     * This is the maximum number of bytes to hold in free arrays.
+     */
+    private final long limit;
+
+    /**
+     * Constructor for the <code>ArrayPool</code> object. This creates a pool
+     * with a cap and budget taken from the system properties. If they have
+     * not been specified then the cap is thirty two megabytes and the budget
+     * is a quarter of the maximum heap size.
+     */
+    public ArrayPool() {
+        this(getDefault(), getDefaultBudget());
+    }
+
+    /**
+     * Constructor for the <code>ArrayPool</code> object. This creates a pool
+     * that will hold no more than the specified number of bytes in its free
+     * arrays. Arrays recycled once the cap has been reached are discarded.
+     * 
+     * @param limit
+     *            this is the maximum number of bytes held by free arrays
+     */
+    public ArrayPool(long limit) {
+        this(limit, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructor for the <code>ArrayPool</code> object. This creates a pool
+     * that will hold no more than the specified number of bytes in its free
+     * arrays, and that will acquire no more than the budget for use.
+     * 
+     * @param limit
+     *            this is the maximum number of bytes held by free arrays
+     * @param budget
+     *            this is the maximum number of bytes to acquire for use
+     */
+    public ArrayPool(long limit, long budget) {
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Queue<byte[]>[] free = new Queue[CLASSES];
+
+        this.free = free;
+        this.pooled = new AtomicLong();
+        this.used = new AtomicLong();
+        this.budget = budget;
+        this.limit = limit;
+
+        for (int i = 0; i < CLASSES; i++) {
+            this.free[i] = new ConcurrentLinkedQueue<byte[]>();
+        }
+    }
+
+    /**
+     * This is used to acquire the pool that is shared by all allocators.
+     * Sharing a single pool ensures that arrays recycled by one request can
+     * be used by the next, regardless of which connection it arrives on.
+     * 
+     * @return this returns the pool shared by all of the allocators
+     */
+    public static ArrayPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This is used to acquire the size of the largest class of arrays that
+     * are pooled. Buffers that grow beyond this size should be composed of
+     * several arrays rather than a single larger array.
+     * 
+     * @return this returns the size of the largest pooled array
+     */
+    public int getMaximum() {
+        return MINIMUM << (CLASSES - 1);
+    }
+
+    /**
+     * This is used to acquire the number of bytes held by the free arrays
+     * of the pool. This will never be greater than the cap of the pool.
+     * 
+     * @return this returns the number of bytes held by free arrays
+     */
+    public long getPooled() {
+        return this.pooled.get();
+    }
+
+    /**
+     * This is used to acquire the number of bytes held by arrays that have
+     * been taken from the pool and not yet returned. This is the memory in
+     * use by all of the request bodies that are in progress.
+     * 
+     * @return this returns the number of bytes held by arrays in use
+     */
+    public long getUsed() {
+        return this.used.get();
+    }
+
+    /**
+     * This is used to acquire the maximum number of bytes that can be held
+     * by arrays in use before further arrays are refused. Arrays can still
+     * be taken beyond this by buffers that have no other option.
+     * 
+     * @return this returns the maximum number of bytes to use
+     */
+    public long getBudget() {
+        return this.budget;
+    }
+
+    /**
+     * This is used to take an array of at least the specified size if doing
+     * so would not exceed the budget of the pool. If the budget has been
+     * spent this returns null, and the caller should hold its bytes in some
+     * other way, typically by writing them to a file. The bytes are reserved
+     * against the budget before the array is taken, so that threads taking
+     * arrays at the same time can not together exceed the budget.
+     * 
+     * @param size
+     *            this is the minimum length of the array required
+     * 
+     * @return this returns an array of the required length or null
+     */
+    public byte[] acquire(int size) {
+        int index = this.index(size);
+        int length = index < CLASSES ? MINIMUM << index : size;
+        long count = this.used.get();
+
+        while (count + length <= this.budget) {
+            if (this.used.compareAndSet(count, count + length)) {
+                return this.take(size);
+            }
+            count = this.used.get();
+        }
+        return null;
+    }
+
+    /**
+     * This is used to take an array of at least the specified size. The
+     * array is taken from the free list for its size class, and if there is
+     * no free array a new one is created. If the size is larger than the
+     * largest class an array of exactly the size is created. This does not
+     * check the budget, however the array is counted against it.
+     * 
+     * @param size
+     *            this is the minimum length of the array required
+     * 
+     * @return this returns an array of at least the required length
+     */
+    public byte[] allocate(int size) {
+        byte[] array = this.take(size);
+
+        this.used.addAndGet(array.length);
+        return array;
+    }
+
+    /**
+     * This is used to take an array of at least the specified size without
+     * counting it against the budget, which is done by the caller. The
+     * array is taken from the free list for its size class, and if there is
+     * no free array a new one is created.
+     * 
+     * @param size
+     *            this is the minimum length of the array required
+     * 
+     * @return this returns an array of at least the required length
+     */
+    private byte[] take(int size) {
+        int index = this.index(size);
+
+        if (index < CLASSES) {
+            byte[] array = this.free[index].poll();
+
+            if (array == null) {
+                return new byte[MINIMUM << index];
+            }
+            this.pooled.addAndGet(-array.length);
+            return array;
+        }
+        return new byte[size];
+    }
+
+    /**
+     * This is used to return an array to the pool so that it can be used
+     * again. Only arrays whose length is exactly one of the size classes are
+     * pooled, and only while the free arrays are within the cap. The array
+     * is not cleared, so its previous contents may be seen by the next user.
+     * Every array taken from the pool must be returned, even those that are
+     * not pooled, so that it is no longer counted against the budget.
+     * 
+     * @param array
+     *            this is the array that is to be returned
+     */
+    public void recycle(byte[] array) {
+        int length = array.length;
+        int index = this.index(length);
+
+        this.used.addAndGet(-length);
+
+        if (index < CLASSES && length == MINIMUM << index) {
+            long total = this.pooled.addAndGet(length);
+
+            if (total > this.limit) {
+                this.pooled.addAndGet(-length);
+            } else {
+                this.free[index].offer(array);
+            }
+        }
+    }
+
+    /**
+     * This is used to determine the size class for the specified size. The
+     * classes are powers of two starting at one kilobyte, if the size is
+     * larger than the largest class then the number of classes is returned.
+     * 
+     * @param size
+     *            this is the size to determine the class for
+     * 
+     * @return this returns the index of the size class
+     */
+    private int index(int size) {
+        int blocks = (Math.max(size, 1) - 1) / MINIMUM;
+
+        if (blocks > 0) {
+            return Math.min(32 - Integer.numberOfLeadingZeros(blocks), CLASSES);
+        }
+        return 0;
+    }
+
+    /**
+     * This is used to acquire the cap for the pool from the system property.
+     * If the property has not been specified or can not be read then the
+     * pool will be capped at thirty two megabytes.
+     * 
+     * @return this returns the maximum number of bytes to pool
+     */
+    private static long getDefault() {
+        try {
+            return Long.getLong(PROPERTY, 32 * 1024 * 1024);
+        } catch (Exception e) {
+            return 32 * 1024 * 1024;
+        }
+    }
+
+    /**
+     * This is used to acquire the budget for the pool from the system
+     * property. If the property has not been specified or can not be read
+     * then the budget is a quarter of the maximum heap size.
+     * 
+     * @return this returns the maximum number of bytes to use
+     */
+    private static long getDefaultBudget() {
+        long heap = Runtime.getRuntime().maxMemory() / 4;
+
+        try {
+            return Long.getLong(BUDGET, heap);
+        } catch (Exception e) {
+            return heap;
+        }
+    }
+}
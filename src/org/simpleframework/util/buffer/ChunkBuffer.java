@@ -0,0 +1,202 @@
+/*
+ * ChunkBuffer.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.buffer;
+
+import java.io.IOException;
+
+/**
+ * The <code>ChunkBuffer</code> is a buffer composed of a list of arrays taken
+ * from an <code>ArrayPool</code>. Rather than copying the buffered bytes in to
+ * a larger array each time the buffer grows, another array is added to the
+ * end of the list, so growing the buffer never copies the bytes appended. Each
+ * array added is twice the size of the last up to the largest pooled size.
+ * <p>
+ * Once the buffer is no longer required its arrays can be returned to the
+ * pool with the <code>recycle</code> method. A recycled buffer can no longer
+ * be read, any attempt to do so, even with a stream acquired before it was
+ * recycled, will fail rather than read the bytes of another buffer. If the
+ * buffer has a source allocator then once it grows beyond its limit the bytes
+ * are moved to a buffer from the source, which is typically a file.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.buffer.PoolAllocator
+ */
+public class ChunkBuffer extends PoolBuffer<byte[]> {
+
+    /**
+     * This is the pool that the arrays of this buffer are taken from.
+     */
+    private final ArrayPool pool;
+
+    /**
+     * Constructor for the <code>ChunkBuffer</code> object. This creates a
+     * buffer with a first array large enough for the initial size, and which
+     * can grow up to the limit. Appending beyond the limit will fail.
+     * 
+     * @param pool
+     *            this is the pool that arrays are taken from
+     * @param size
+     *            this is the initial capacity of the buffer
+     * @param limit
+     *            this is the maximum number of bytes to buffer
+     */
+    public ChunkBuffer(ArrayPool pool, int size, int limit)
+            throws IOException {
+        this(pool, null, size, limit);
+    }
+
+    /**
+     * Constructor for the <code>ChunkBuffer</code> object. This creates a
+     * buffer with a first array large enough for the initial size, and which
+     * can grow up to the limit. If a source allocator is provided then bytes
+     * appended beyond the limit are moved to a buffer from the source.
+     * 
+     * @param pool
+     *            this is the pool that arrays are taken from
+     * @param source
+     *            this is the allocator used to create the spill buffer
+     * @param size
+     *            this is the initial capacity of the buffer
+     * @param limit
+     *            this is the maximum number of bytes held in memory
+     */
+    public ChunkBuffer(ArrayPool pool, Allocator source, int size, int limit)
+            throws IOException {
+        super(new byte[8][], source, pool.getMaximum(), limit);
+        this.pool = pool;
+        this.begin(size);
+    }
+
+    /**
+     * This is used to take an array from the pool. If the budget of the
+     * pool has been spent then this returns null, so that the bytes of
+     * the buffer can be moved to a spill buffer.
+     * 
+     * @param length
+     *            this is the minimum length of the array
+     * 
+     * @return this returns a pooled array, or null if there is none
+     */
+    @Override
+    protected byte[] acquire(int length) {
+        return this.pool.acquire(length);
+    }
+
+    /**
+     * This is used to take an array from the pool regardless of its budget.
+     * The array is still counted against the budget, and it is returned to
+     * the pool when the buffer is recycled like any other array.
+     * 
+     * @param length
+     *            this is the minimum length of the array
+     * 
+     * @return this returns an array of at least the specified length
+     */
+    @Override
+    protected byte[] create(int length) {
+        return this.pool.allocate(length);
+    }
+
+    /**
+     * This is used to return an array to the pool once it is no longer
+     * used by this buffer, so that it can be used by another buffer.
+     * 
+     * @param chunk
+     *            this is the array to be returned to the pool
+     */
+    @Override
+    protected void recycle(byte[] chunk) {
+        this.pool.recycle(chunk);
+    }
+
+    /**
+     * This is used to determine the number of bytes an array can hold,
+     * which is simply the length of the array.
+     * 
+     * @param chunk
+     *            this is the array to determine the length of
+     * 
+     * @return this returns the number of bytes the array can hold
+     */
+    @Override
+    protected int length(byte[] chunk) {
+        return chunk.length;
+    }
+
+    /**
+     * This is used to copy bytes from the array provided in to the array
+     * taken from the pool at the specified position.
+     * 
+     * @param chunk
+     *            this is the array that the bytes are copied in to
+     * @param start
+     *            this is the position within the array to copy to
+     * @param array
+     *            this is the array that the bytes are copied from
+     * @param off
+     *            this is the offset within the array to copy from
+     * @param length
+     *            this is the number of bytes to be copied
+     */
+    @Override
+    protected void put(byte[] chunk, int start, byte[] array, int off,
+            int length) {
+        System.arraycopy(array, off, chunk, start, length);
+    }
+
+    /**
+     * This is used to copy bytes from the specified position within the
+     * array taken from the pool in to the array provided.
+     * 
+     * @param chunk
+     *            this is the array that the bytes are copied from
+     * @param start
+     *            this is the position within the array to copy from
+     * @param array
+     *            this is the array that the bytes are copied in to
+     * @param off
+     *            this is the offset within the array to copy to
+     * @param length
+     *            this is the number of bytes to be copied
+     */
+    @Override
+    protected void get(byte[] chunk, int start, byte[] array, int off,
+            int length) {
+        System.arraycopy(chunk, start, array, off, length);
+    }
+
+    /**
+     * This is used to append the bytes at the start of the array to the
+     * spill buffer. As the bytes are already on the heap the array is
+     * appended directly, without being copied first.
+     * 
+     * @param chunk
+     *            this is the array that the bytes are copied from
+     * @param length
+     *            this is the number of bytes to be copied
+     * @param buffer
+     *            this is the spill buffer to append the bytes to
+     */
+    @Override
+    protected void transfer(byte[] chunk, int length, Buffer buffer)
+            throws IOException {
+        buffer.append(chunk, 0, length);
+    }
+}
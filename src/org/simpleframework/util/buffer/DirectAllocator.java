@@ -0,0 +1,167 @@
+/*
+ * DirectAllocator.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.buffer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>DirectAllocator</code> object is used to allocate buffers for
+ * the duration of a single request that hold their bytes off the heap. The
+ * buffers up to the limit are composed of direct byte buffers taken from a
+ * <code>DirectPool</code>, and buffers beyond the limit are allocated by the
+ * source allocator. Each buffer allocated is remembered, and when the
+ * allocator is closed the direct buffers of all of them are returned to the
+ * pool so that they can be used by the next request.
+ * <p>
+ * This is an alternative to the <code>PoolAllocator</code> for servers that
+ * handle many large bodies, where the bodies held in arrays would otherwise
+ * add to the work of the garbage collector. If the direct memory of the pool
+ * has been exhausted the bytes are moved to a buffer from the source
+ * allocator. As the allocator is closed when the request has finished, the
+ * buffers it allocates must not be used after that point.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.buffer.DirectBuffer
+ */
+public class DirectAllocator implements Allocator {
+
+    /**
+     * This contains the direct buffers that have been allocated.
+     */
+    private final List<DirectBuffer> buffers;
+
+    /**
+     * This is the allocator used for buffers beyond the limit.
+     */
+    private final ScopeAllocator source;
+
+    /**
+     * This is the pool that the direct buffers are taken from.
+     */
+    private final DirectPool pool;
+
+    /**
+     * This is the limit up to which buffers are held off the heap.
+     */
+    private final int limit;
+
+    /**
+     * Constructor for the <code>DirectAllocator</code> object. This is used
+     * to create direct buffers up to one megabyte. Buffers required beyond
+     * this size are allocated by the source allocator, typically as files.
+     * 
+     * @param source
+     *            this is the allocator used for buffers beyond the limit
+     */
+    public DirectAllocator(Allocator source) {
+        this(source, 1048576);
+    }
+
+    /**
+     * Constructor for the <code>DirectAllocator</code> object. This is used
+     * to create direct buffers up to the specified limit. Buffers required
+     * beyond this size are allocated by the source allocator.
+     * 
+     * @param source
+     *            this is the allocator used for buffers beyond the limit
+     * @param limit
+     *            this is the maximum size of a direct buffer
+     */
+    public DirectAllocator(Allocator source, int limit) {
+        this(DirectPool.getInstance(), source, limit);
+    }
+
+    /**
+     * Constructor for the <code>DirectAllocator</code> object. This is used
+     * to create buffers up to the specified limit from direct buffers taken
+     * from the pool provided. Buffers required beyond this size are allocated
+     * by the source allocator.
+     * 
+     * @param pool
+     *            this is the pool that the direct buffers are taken from
+     * @param source
+     *            this is the allocator used for buffers beyond the limit
+     * @param limit
+     *            this is the maximum size of a direct buffer
+     */
+    public DirectAllocator(DirectPool pool, Allocator source, int limit) {
+        this.buffers = new ArrayList<DirectBuffer>();
+        this.source = new ScopeAllocator(source);
+        this.limit = limit;
+        this.pool = pool;
+    }
+
+    /**
+     * This will allocate a buffer that can grow to an arbitrary size. The
+     * buffer is held off the heap up to the limit, after which its bytes
+     * are moved to a buffer allocated by the source allocator.
+     * 
+     * @return this returns a buffer that begins in direct memory
+     */
+    @Override
+    public Buffer allocate() throws IOException {
+        DirectBuffer buffer = new DirectBuffer(this.pool, this.source, 0,
+                this.limit);
+
+        this.buffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * This will allocate a buffer of the specified size. If the size is
+     * within the limit then the buffer is held off the heap, unless the
+     * pool has no more direct memory, otherwise the buffer is allocated by
+     * the source allocator.
+     * 
+     * @param size
+     *            this is the size of the buffer to be created
+     * 
+     * @return this returns a buffer of the specified size
+     */
+    @Override
+    public Buffer allocate(long size) throws IOException {
+        if (size > this.limit) {
+            return this.source.allocate(size);
+        }
+        DirectBuffer buffer = new DirectBuffer(this.pool, this.source,
+                (int) size, this.limit);
+
+        this.buffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * This is used to return the direct buffers of all of the buffers that
+     * were allocated to the pool. This should only be done once the buffers
+     * are no longer required, any attempt to read them afterwards will fail.
+     * The source allocator is not closed as it is typically shared, however
+     * any file space taken from it for the buffers is released.
+     */
+    @Override
+    public void close() throws IOException {
+        for (DirectBuffer buffer : this.buffers) {
+            buffer.recycle();
+        }
+        this.buffers.clear();
+        this.source.close();
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * DirectBuffer.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * The <code>DirectBuffer</code> is a buffer that holds its bytes off the heap
+ * in direct byte buffers taken from a <code>DirectPool</code>. Large bodies
+ * held in this buffer do not add to the work of the garbage collector, and
+ * as the bytes are already in direct memory they can be written to a channel
+ * without first being copied out of the heap. As the buffer grows another
+ * direct buffer is added, so the bytes appended are never copied.
+ * <p>
+ * As well as an input stream the bytes can be read with a channel, which
+ * transfers them directly in to another byte buffer. Once the buffer is no
+ * longer required its direct buffers are returned to the pool with the
+ * <code>recycle</code> method, after which it can no longer be read. If the
+ * pool has no more direct memory, or the buffer grows beyond its limit, the
+ * bytes are moved to a buffer from the source allocator.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.buffer.DirectAllocator
+ */
+public class DirectBuffer extends PoolBuffer<ByteBuffer> {
+
+    /**
+     * This is the pool that the direct buffers are taken from.
+     */
+    private final DirectPool pool;
+
+    /**
+     * Constructor for the <code>DirectBuffer</code> object. This creates a
+     * buffer with a first chunk large enough for the initial size, and which
+     * can hold up to the limit in direct memory. Bytes beyond the limit are
+     * moved to a buffer created by the source allocator.
+     * 
+     * @param pool
+     *            this is the pool that direct buffers are taken from
+     * @param source
+     *            this is the allocator used to create the spill buffer
+     * @param size
+     *            this is the initial capacity of the buffer
+     * @param limit
+     *            this is the maximum number of bytes held in memory
+     */
+    public DirectBuffer(DirectPool pool, Allocator source, int size, int limit)
+            throws IOException {
+        super(new ByteBuffer[8], source, pool.getMaximum(), limit);
+        this.pool = pool;
+        this.begin(size);
+    }
+
+    /**
+     * This method is used so that the buffer can be read as a channel. The
+     * channel transfers the bytes from the chunks of this buffer directly
+     * in to the byte buffer provided, so if that is also a direct buffer
+     * the bytes never pass through the heap.
+     * 
+     * @return a channel that can be used to read the buffered bytes
+     */
+    public ReadableByteChannel getChannel() throws IOException {
+        InputStream stream = this.getInputStream();
+
+        if (stream instanceof ReadableByteChannel) {
+            return (ReadableByteChannel) stream;
+        }
+        return Channels.newChannel(stream);
+    }
+
+    /**
+     * This is used to create the stream that reads a range of bytes from
+     * the chunks of this buffer. The stream returned is also a channel, so
+     * the bytes can be transferred directly in to another byte buffer.
+     * 
+     * @param first
+     *            this is the position of the first byte to read
+     * @param last
+     *            this is the position after the last byte to read
+     * 
+     * @return this returns a stream that is also a channel
+     */
+    @Override
+    protected Range range(int first, int last) {
+        return new Channel(first, last);
+    }
+
+    /**
+     * This is used to read the bytes at the specified position within the
+     * buffer in to the byte buffer provided. The chunk holding the position
+     * is found from the offsets of the chunks, and bytes are transferred
+     * from as many chunks as needed to fill the remaining space.
+     * 
+     * @param position
+     *            this is the position of the first byte to read
+     * @param data
+     *            this is the byte buffer to read the bytes in to
+     */
+    private void read(int position, ByteBuffer data) throws IOException {
+        int index = this.index(position);
+
+        while (data.hasRemaining()) {
+            ByteBuffer chunk = this.chunk(index).duplicate();
+            int start = position - this.offset(index++);
+            int length = Math.min(data.remaining(), chunk.capacity() - start);
+
+            chunk.limit(start + length);
+            chunk.position(start);
+            data.put(chunk);
+            position += length;
+        }
+    }
+
+    /**
+     * This is used to take a direct buffer from the pool. If the pool has
+     * no more direct memory then this returns null, so that the bytes of
+     * the buffer can be moved to a spill buffer.
+     * 
+     * @param length
+     *            this is the minimum capacity of the direct buffer
+     * 
+     * @return this returns a pooled direct buffer, or null
+     */
+    @Override
+    protected ByteBuffer acquire(int length) {
+        return this.pool.allocate(length);
+    }
+
+    /**
+     * This is used to create a heap buffer when the pool has no more direct
+     * memory and the bytes can not be moved to a spill buffer. A heap buffer
+     * is not returned to the pool when the buffer is recycled.
+     * 
+     * @param length
+     *            this is the capacity of the heap buffer
+     * 
+     * @return this returns a heap buffer of the specified capacity
+     */
+    @Override
+    protected ByteBuffer create(int length) {
+        return ByteBuffer.allocate(length);
+    }
+
+    /**
+     * This is used to return a direct buffer to the pool once it is no
+     * longer used by this buffer, so that it can be used by another buffer.
+     * 
+     * @param chunk
+     *            this is the direct buffer to be returned to the pool
+     */
+    @Override
+    protected void recycle(ByteBuffer chunk) {
+        this.pool.recycle(chunk);
+    }
+
+    /**
+     * This is used to determine the number of bytes a chunk can hold, which
+     * is the capacity of the byte buffer.
+     * 
+     * @param chunk
+     *            this is the chunk to determine the length of
+     * 
+     * @return this returns the number of bytes the chunk can hold
+     */
+    @Override
+    protected int length(ByteBuffer chunk) {
+        return chunk.capacity();
+    }
+
+    /**
+     * This is used to copy bytes from the array provided in to the chunk at
+     * the specified position. Bytes are only ever written at the end of the
+     * buffer, so the position of the chunk can be moved to write them.
+     * 
+     * @param chunk
+     *            this is the chunk that the bytes are copied in to
+     * @param start
+     *            this is the position within the chunk to copy to
+     * @param array
+     *            this is the array that the bytes are copied from
+     * @param off
+     *            this is the offset within the array to copy from
+     * @param length
+     *            this is the number of bytes to be copied
+     */
+    @Override
+    protected void put(ByteBuffer chunk, int start, byte[] array, int off,
+            int length) {
+        chunk.position(start);
+        chunk.put(array, off, length);
+    }
+
+    /**
+     * This is used to copy bytes from the specified position within the
+     * chunk in to the array provided. The chunk is duplicated so that
+     * several streams can read from the same chunk at once.
+     * 
+     * @param chunk
+     *            this is the chunk that the bytes are copied from
+     * @param start
+     *            this is the position within the chunk to copy from
+     * @param array
+     *            this is the array that the bytes are copied in to
+     * @param off
+     *            this is the offset within the array to copy to
+     * @param length
+     *            this is the number of bytes to be copied
+     */
+    @Override
+    protected void get(ByteBuffer chunk, int start, byte[] array, int off,
+            int length) {
+        ByteBuffer data = chunk.duplicate();
+
+        data.position(start);
+        data.get(array, off, length);
+    }
+
+    /**
+     * This is used to append the bytes at the start of the chunk to the
+     * spill buffer. As the bytes are held off the heap they are copied
+     * through a small array, which is appended for each block of bytes.
+     * 
+     * @param chunk
+     *            this is the chunk that the bytes are copied from
+     * @param length
+     *            this is the number of bytes to be copied
+     * @param buffer
+     *            this is the spill buffer to append the bytes to
+     */
+    @Override
+    protected void transfer(ByteBuffer chunk, int length, Buffer buffer)
+            throws IOException {
+        byte[] array = new byte[Math.min(length, 8192)];
+
+        for (int i = 0; i < length; i += array.length) {
+            int size = Math.min(array.length, length - i);
+
+            this.get(chunk, i, array, 0, size);
+            buffer.append(array, 0, size);
+        }
+    }
+
+    /**
+     * The <code>Channel</code> object is used to read a range of bytes from
+     * the buffer as a channel. The bytes are transferred directly from the
+     * chunks of the buffer in to the byte buffer provided, and if the buffer
+     * is recycled while the channel is being read the next read will fail.
+     * Once the bytes are moved to a spill buffer they are read from it.
+     */
+    private class Channel extends Range implements ReadableByteChannel {
+
+        /**
+         * This is used to determine if the channel has been closed.
+         */
+        private boolean closed;
+
+        /**
+         * Constructor for the <code>Channel</code> object. This is used to
+         * create a channel that reads the bytes between the two positions
+         * within the buffer.
+         * 
+         * @param first
+         *            this is the position of the first byte to read
+         * @param limit
+         *            this is the position after the last byte to read
+         */
+        public Channel(int first, int limit) {
+            super(first, limit);
+        }
+
+        /**
+         * This will transfer bytes from the range in to the byte buffer.
+         * This reads no more bytes than remain within the range, and if the
+         * end of the range has been reached this will return -1.
+         * 
+         * @param data
+         *            this is the byte buffer to read the bytes in to
+         * 
+         * @return this returns the number of bytes read or -1
+         */
+        @Override
+        public int read(ByteBuffer data) throws IOException {
+            int left = Math.min(this.limit - this.position, data.remaining());
+            InputStream stream = this.spill();
+
+            if (left > 0 && stream != null) {
+                byte[] array = new byte[Math.min(left, 8192)];
+                int count = this.read(array, 0, array.length);
+
+                if (count > 0) {
+                    data.put(array, 0, count);
+                }
+                return count;
+            }
+            if (left > 0) {
+                int mark = data.limit();
+
+                data.limit(data.position() + left);
+                DirectBuffer.this.read(this.position, data);
+                data.limit(mark);
+                this.position += left;
+                return left;
+            }
+            return data.hasRemaining() ? -1 : 0;
+        }
+
+        /**
+         * This is used to determine if the channel is open. The channel is
+         * open until it is closed, closing it does not recycle the buffer
+         * it reads from, which may still be read with another channel.
+         * 
+         * @return this returns true if the channel has not been closed
+         */
+        @Override
+        public boolean isOpen() {
+            return !this.closed;
+        }
+
+        /**
+         * This is used to close the channel. Closing the channel simply marks
+         * it as closed, the chunks of the buffer are only returned to the
+         * pool when the buffer itself is recycled.
+         */
+        @Override
+        public void close() throws IOException {
+            this.closed = true;
+        }
+    }
+}
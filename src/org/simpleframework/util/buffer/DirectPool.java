@@ -0,0 +1,251 @@
+/*
+ * DirectPool.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <code>DirectPool</code> is a process wide pool of direct byte buffers
+ * used to hold the bytes of request bodies off the heap. Direct buffers are
+ * expensive to create and are only freed when the garbage collector finds
+ * them unreachable, so rather than creating them for each request they are
+ * taken from the pool as a body is consumed and returned once the response
+ * has finished.
+ * <p>
+ * Buffers are pooled in size classes, each a power of two from 4KB to 64KB.
+ * The total number of direct bytes created by the pool, both in use and
+ * free, is capped. Once the cap has been reached the pool will not create
+ * any more buffers, and a body that needs more memory is written to disk
+ * instead. The cap can be specified with the following system property.
+ * 
+ * <pre>
+ * -Dorg.simpleframework.util.buffer.direct=67108864
+ * </pre>
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.buffer.DirectBuffer
+ */
+public class DirectPool {
+
+    /**
+     * This is the name of the property used to specify the cap.
+     */
+    private static final String PROPERTY = "org.simpleframework.util.buffer.direct";
+
+    /**
+     * This is the pool that is shared by all of the allocators.
+     */
+    private static final DirectPool INSTANCE = new DirectPool();
+
+    /**
+     * This is the size of the smallest class of buffers pooled.
+     */
+    private static final int MINIMUM = 4096;
+
+    /**
+     * This is the number of size classes that are pooled.
+     */
+    private static final int CLASSES = 5;
+
+    /**
+     * This contains the free buffers for each of the size classes.
+     */
+    private final Queue<ByteBuffer>[] free;
+
+    /**
+     * This is the number of direct bytes that have been created.
+     */
+    private final AtomicLong reserved;
+
+    /**
+     * This is the maximum number of direct bytes to create.
+     */
+    private final long limit;
+
+    /**
+     * Constructor for the <code>DirectPool</code> object. This creates a
+     * pool with a cap taken from the system property. If the property has
+     * not been specified then the cap is sixty four megabytes.
+     */
+    public DirectPool() {
+        this(getDefault());
+    }
+
+    /**
+     * Constructor for the <code>DirectPool</code> object. This creates a
+     * pool that will create no more than the specified number of direct
+     * bytes. Once the cap has been reached no more buffers are created.
+     * 
+     * @param limit
+     *            this is the maximum number of direct bytes to create
+     */
+    public DirectPool(long limit) {
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Queue<ByteBuffer>[] free = new Queue[CLASSES];
+
+        this.free = free;
+        this.reserved = new AtomicLong();
+        this.limit = limit;
+
+        for (int i = 0; i < CLASSES; i++) {
+            this.free[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+        }
+    }
+
+    /**
+     * This is used to acquire the pool that is shared by all allocators.
+     * Sharing a single pool ensures that buffers returned by one request
+     * can be used by the next, regardless of which connection it is on.
+     * 
+     * @return this returns the pool shared by all of the allocators
+     */
+    public static DirectPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * This is used to acquire the size of the largest class of buffers
+     * that are pooled. Direct buffers that must hold more bytes than this
+     * are composed of several pooled buffers.
+     * 
+     * @return this returns the size of the largest pooled buffer
+     */
+    public int getMaximum() {
+        return MINIMUM << (CLASSES - 1);
+    }
+
+    /**
+     * This is used to acquire the number of direct bytes the pool has
+     * created. This includes the buffers that are currently in use as well
+     * as those that are free within the pool.
+     * 
+     * @return this returns the number of direct bytes created
+     */
+    public long getReserved() {
+        return this.reserved.get();
+    }
+
+    /**
+     * This is used to take a buffer of at least the specified size. The
+     * buffer is taken from the free list for its size class, and if there
+     * is no free buffer a new one is created. If creating the buffer would
+     * exceed the cap, or the size is beyond the largest class, this will
+     * return null and the caller must hold the bytes in some other way.
+     * 
+     * @param size
+     *            this is the minimum capacity of the buffer required
+     * 
+     * @return this returns a cleared buffer or null if there is none
+     */
+    public ByteBuffer allocate(int size) {
+        int index = this.index(size);
+
+        if (index < CLASSES) {
+            ByteBuffer buffer = this.free[index].poll();
+
+            if (buffer == null) {
+                return this.create(MINIMUM << index);
+            }
+            return buffer;
+        }
+        return null;
+    }
+
+    /**
+     * This is used to create a new direct buffer of the specified size. If
+     * creating the buffer would exceed the cap then this returns null. The
+     * buffer is also not created if the runtime has no direct memory left.
+     * 
+     * @param size
+     *            this is the size of the buffer to be created
+     * 
+     * @return this returns a newly created buffer or null
+     */
+    private ByteBuffer create(int size) {
+        long total = this.reserved.addAndGet(size);
+
+        if (total <= this.limit) {
+            try {
+                return ByteBuffer.allocateDirect(size);
+            } catch (Throwable e) {
+                this.reserved.addAndGet(-size);
+                return null;
+            }
+        }
+        this.reserved.addAndGet(-size);
+        return null;
+    }
+
+    /**
+     * This is used to return a buffer to the pool so that it can be used
+     * again. The buffer is cleared before it is placed on the free list for
+     * its size class. The contents are not erased, so the previous bytes
+     * may be seen by the next user of the buffer.
+     * 
+     * @param buffer
+     *            this is the buffer that is to be returned
+     */
+    public void recycle(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        int index = this.index(capacity);
+
+        if (buffer.isDirect() && index < CLASSES) {
+            buffer.clear();
+            this.free[index].offer(buffer);
+        }
+    }
+
+    /**
+     * This is used to determine the size class for the specified size. The
+     * classes are powers of two starting at four kilobytes, if the size is
+     * larger than the largest class then the number of classes is returned.
+     * 
+     * @param size
+     *            this is the size to determine the class for
+     * 
+     * @return this returns the index of the size class
+     */
+    private int index(int size) {
+        int blocks = (Math.max(size, 1) - 1) / MINIMUM;
+
+        if (blocks > 0) {
+            return Math.min(32 - Integer.numberOfLeadingZeros(blocks), CLASSES);
+        }
+        return 0;
+    }
+
+    /**
+     * This is used to acquire the cap for the pool from the system property.
+     * If the property has not been specified or can not be read then the
+     * pool will be capped at sixty four megabytes.
+     * 
+     * @return this returns the maximum number of direct bytes
+     */
+    private static long getDefault() {
+        try {
+            return Long.getLong(PROPERTY, 64 * 1024 * 1024);
+        } catch (Exception e) {
+            return 64 * 1024 * 1024;
+        }
+    }
+}
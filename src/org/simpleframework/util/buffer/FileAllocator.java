@@ -18,7 +18,6 @@
 
 package org.simpleframework.util.buffer;
 
-import java.io.File;
 import java.io.IOException;
 
 /**
@@ -28,6 +27,11 @@ import java.io.IOException;
  * can be created. All buffer sizes under the limit are created using byte
  * arrays allocated on the executing VM heap. This ensures that optimal
  * performance is maintained for buffers of reasonable size.
+ * <p>
+ * Buffers that are written to the file system share the files of a single
+ * <code>FileArena</code>. Rather than creating a file for each buffer, each
+ * buffer is given fixed size extents within files that are created once and
+ * reused, so a large number of buffers does not create a large number of files.
  * 
  * @author Niall Gallagher
  */
@@ -39,9 +43,9 @@ public class FileAllocator implements Allocator {
     private static final String PREFIX = "temp";
 
     /**
-     * This is the file manager used to create the buffer files.
+     * This is the file arena used to hold the buffer contents.
      */
-    private FileManager manager;
+    private FileArena arena;
 
     /**
      * This is the limit up to which buffers are allocated in memory.
@@ -96,7 +100,7 @@ public class FileAllocator implements Allocator {
      *            this is the maximum size for a heap buffer
      */
     public FileAllocator(String prefix, int limit) {
-        this.manager = new FileManager(prefix);
+        this.arena = new FileArena(prefix);
         this.limit = limit;
     }
 
@@ -110,11 +114,7 @@ public class FileAllocator implements Allocator {
      */
     @Override
     public Buffer allocate() throws IOException {
-        File file = this.manager.create();
-
-        if (!file.exists())
-            throw new BufferException("Could not create file %s", file);
-        return new FileBuffer(file);
+        return new FileBuffer(this.arena);
     }
 
     /**
@@ -145,6 +145,6 @@ public class FileAllocator implements Allocator {
      */
     @Override
     public void close() throws IOException {
-        this.manager.close();
+        this.arena.close();
     }
 }
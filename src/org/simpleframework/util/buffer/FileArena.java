@@ -0,0 +1,639 @@
+/*
+ * FileArena.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.buffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The <code>FileArena</code> object is used to provide the storage for file
+ * buffers. Rather than creating a file for each buffer the arena creates a
+ * small number of large files, each of which is divided in to fixed size
+ * extents. A buffer is given extents as it grows, and the bytes appended are
+ * written to the extents with positional writes on the file channel. Reads
+ * are also positional, so a buffer can be read from any offset without the
+ * stream having to skip to it.
+ * <p>
+ * A buffer returns its extents to the arena when it is released, which is
+ * done once the request it was allocated for has finished. As a backstop
+ * each buffer is also tracked with a phantom reference, so the extents of a
+ * buffer that is collected without being released are also returned. Once
+ * all of the extents within a file are free the file is deleted, unless its
+ * extents are the only free extents left, so that the disk space used
+ * follows the volume of data buffered rather than the most ever buffered.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.buffer.FileBuffer
+ */
+class FileArena {
+
+    /**
+     * This is the queue that collected buffers are placed on.
+     */
+    private final ReferenceQueue<Object> queue;
+
+    /**
+     * This is used to keep the references to the buffers reachable.
+     */
+    private final Map<ExtentList, Lease> leases;
+
+    /**
+     * This is the prefix used for the files created by the arena.
+     */
+    private final String prefix;
+
+    /**
+     * This contains the channel for each of the arena files.
+     */
+    private volatile FileChannel[] channels;
+
+    /**
+     * This contains the file used for each slot within the arena.
+     */
+    private File[] files;
+
+    /**
+     * This contains the number of extents in use within each file.
+     */
+    private int[] used;
+
+    /**
+     * This is the stack of extents that are not in use.
+     */
+    private int[] free;
+
+    /**
+     * This is the number of extents that are on the free stack.
+     */
+    private int ready;
+
+    /**
+     * This is the number of bytes within each of the extents.
+     */
+    private int extent;
+
+    /**
+     * This is the number of extents within each arena file.
+     */
+    private int count;
+
+    /**
+     * This determines if the arena has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * Constructor for the <code>FileArena</code> object. This creates an
+     * arena with sixty four kilobyte extents within sixteen megabyte files.
+     * No files are created until the first extent is allocated.
+     * 
+     * @param prefix
+     *            this is the prefix used for the arena files
+     */
+    public FileArena(String prefix) {
+        this(prefix, 65536, 256);
+    }
+
+    /**
+     * Constructor for the <code>FileArena</code> object. This creates an
+     * arena with extents of the specified size, and with the specified
+     * number of extents in each file. No files are created until the first
+     * extent is allocated.
+     * 
+     * @param prefix
+     *            this is the prefix used for the arena files
+     * @param extent
+     *            this is the number of bytes within each extent
+     * @param count
+     *            this is the number of extents within each file
+     */
+    public FileArena(String prefix, int extent, int count) {
+        this.queue = new ReferenceQueue<Object>();
+        this.leases = new HashMap<ExtentList, Lease>();
+        this.channels = new FileChannel[0];
+        this.files = new File[0];
+        this.used = new int[0];
+        this.free = new int[0];
+        this.prefix = prefix;
+        this.extent = extent;
+        this.count = count;
+    }
+
+    /**
+     * This is used to acquire the number of bytes within each extent. A
+     * buffer uses this to determine which of its extents an offset is in
+     * and where within that extent the offset is.
+     * 
+     * @return this returns the number of bytes within each extent
+     */
+    public int getExtent() {
+        return this.extent;
+    }
+
+    /**
+     * This is used to register a buffer with the arena. If the buffer is
+     * no longer referenced before it is released the extents it has been
+     * given are returned to the arena. The extents are tracked by the list
+     * provided, to which the buffer adds each extent it is given.
+     * 
+     * @param buffer
+     *            this is the buffer that is to be registered
+     * @param list
+     *            this is the list of extents used by the buffer
+     */
+    public synchronized void register(Object buffer, ExtentList list) {
+        Lease lease = new Lease(buffer, list);
+
+        this.leases.put(list, lease);
+    }
+
+    /**
+     * This is used to return the extents of a buffer to the arena. Once the
+     * extents have been returned they can be given to another buffer, so
+     * the buffer must not be read afterwards. The buffer is no longer
+     * tracked, as there is nothing left to reclaim when it is collected.
+     * 
+     * @param list
+     *            this is the list of extents used by the buffer
+     */
+    public synchronized void release(ExtentList list) throws IOException {
+        Lease lease = this.leases.remove(list);
+
+        if (lease != null) {
+            lease.clear();
+        }
+        this.recycle(list);
+    }
+
+    /**
+     * This is used to allocate an extent from the arena and add it to the
+     * list of extents provided. The extent is added while holding the lock
+     * of the arena, so that it can not be lost if the list is released by
+     * another thread at the same time.
+     * 
+     * @param list
+     *            this is the list of extents used by the buffer
+     * 
+     * @return this returns the index of the extent allocated
+     */
+    public synchronized int allocate(ExtentList list) throws IOException {
+        int index = this.allocate();
+
+        list.add(index);
+        return index;
+    }
+
+    /**
+     * This is used to allocate an extent from the arena. Any extents that
+     * belong to buffers that have been collected are reclaimed first. If
+     * there are no free extents a new file is added to the arena.
+     * 
+     * @return this returns the index of the extent allocated
+     */
+    private int allocate() throws IOException {
+        if (this.closed) {
+            throw new BufferException("Arena has been closed");
+        }
+        this.reclaim();
+
+        if (this.ready == 0) {
+            this.expand();
+        }
+        int index = this.free[--this.ready];
+
+        this.used[index / this.count]++;
+        return index;
+    }
+
+    /**
+     * This is used to return the extents of collected buffers to the free
+     * stack. Each reference taken from the queue belongs to a buffer that
+     * can no longer be reached, so its extents can be safely reused.
+     */
+    private void reclaim() throws IOException {
+        Reference<?> reference = this.queue.poll();
+
+        while (reference != null) {
+            Lease lease = (Lease) reference;
+
+            this.leases.remove(lease.list);
+            this.recycle(lease.list);
+            lease.clear();
+            reference = this.queue.poll();
+        }
+    }
+
+    /**
+     * This is used to place the extents within the list on the free stack.
+     * The list is cleared so that its extents can not be returned twice.
+     * If this leaves any file with no extents in use then the file is
+     * deleted, provided there are other free extents left to allocate from.
+     * Keeping one file of free extents avoids creating and deleting a file
+     * each time a single large buffer is allocated and released.
+     * 
+     * @param list
+     *            this is the list of extents to be returned
+     */
+    private void recycle(ExtentList list) throws IOException {
+        if (!this.closed) {
+            int[] extents = list.clear();
+
+            for (int index : extents) {
+                this.free[this.ready++] = index;
+                this.used[index / this.count]--;
+            }
+            for (int i = 0; i < this.files.length; i++) {
+                if (this.channels[i] != null && this.used[i] == 0) {
+                    if (this.ready > this.count) {
+                        this.remove(i);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This is used to delete a file within the arena that has no extents
+     * in use. The extents of the file are taken from the free stack and the
+     * slot of the file is left empty so that it can be used again when the
+     * arena next needs to expand. The path of the file is kept, so that the
+     * file created for the slot later uses the same path.
+     * 
+     * @param file
+     *            this is the index of the file to be deleted
+     */
+    private void remove(int file) throws IOException {
+        FileChannel[] channels = this.channels.clone();
+        FileChannel channel = channels[file];
+        int first = file * this.count;
+        int last = first + this.count;
+        int size = 0;
+
+        for (int i = 0; i < this.ready; i++) {
+            int index = this.free[i];
+
+            if (index < first || index >= last) {
+                this.free[size++] = index;
+            }
+        }
+        channels[file] = null;
+        this.channels = channels;
+        this.ready = size;
+
+        try {
+            channel.close();
+        } finally {
+            this.files[file].delete();
+        }
+    }
+
+    /**
+     * This is used to add a file to the arena. The file is created with its
+     * full length so that the space is reserved up front, and all of its
+     * extents are placed on the free stack in order. If a file has been
+     * deleted from the arena the new file takes its slot and its path.
+     * Only new paths are registered for deletion on exit, as each path
+     * registered is held until the process exits.
+     */
+    private void expand() throws IOException {
+        int index = this.slot();
+        File file = this.create(index);
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        FileChannel channel = access.getChannel();
+
+        access.setLength((long) this.extent * this.count);
+
+        if (index == this.files.length) {
+            this.free = Arrays.copyOf(this.free, (index + 1) * this.count);
+            this.used = Arrays.copyOf(this.used, index + 1);
+            this.files = this.append(this.files, file);
+            this.channels = this.append(this.channels, channel);
+        } else {
+            FileChannel[] channels = this.channels.clone();
+
+            channels[index] = channel;
+            this.channels = channels;
+        }
+        for (int i = this.count - 1; i >= 0; i--) {
+            this.free[this.ready++] = index * this.count + i;
+        }
+    }
+
+    /**
+     * This is used to acquire the path of the file for the specified slot.
+     * If the slot has been used before then the path of its deleted file
+     * is used again, otherwise a new temporary file is created and it is
+     * registered to be deleted when the process exits.
+     * 
+     * @param index
+     *            this is the slot the file is to be placed in
+     * 
+     * @return this returns the path of the file for the slot
+     */
+    private File create(int index) throws IOException {
+        if (index == this.files.length) {
+            File file = File.createTempFile(this.prefix, null);
+
+            file.deleteOnExit();
+            return file;
+        }
+        return this.files[index];
+    }
+
+    /**
+     * This is used to find the slot for a new file. If a file has been
+     * deleted from the arena then its slot is used, which keeps the index
+     * of each extent within the range of the existing files. Otherwise the
+     * new file is added after the existing files.
+     * 
+     * @return this returns the slot the new file is to be placed in
+     */
+    private int slot() {
+        for (int i = 0; i < this.channels.length; i++) {
+            if (this.channels[i] == null) {
+                return i;
+            }
+        }
+        return this.files.length;
+    }
+
+    /**
+     * This is used to write bytes to an extent. The bytes are written with
+     * a positional write so that the arena files can be written by many
+     * buffers concurrently. The write must fit within the extent.
+     * 
+     * @param index
+     *            this is the index of the extent to write to
+     * @param offset
+     *            this is the offset within the extent to write to
+     * @param array
+     *            this is the array containing the bytes to write
+     * @param off
+     *            this is the offset within the array to write from
+     * @param len
+     *            this is the number of bytes to be written
+     */
+    public void write(int index, int offset, byte[] array, int off, int len)
+            throws IOException {
+        FileChannel channel = this.channels[index / this.count];
+        ByteBuffer data = ByteBuffer.wrap(array, off, len);
+        long position = this.position(index, offset);
+
+        while (data.hasRemaining()) {
+            position += channel.write(data, position);
+        }
+    }
+
+    /**
+     * This is used to read bytes from an extent. The bytes are read with a
+     * positional read so that the arena files can be read by many streams
+     * concurrently. The read must be within the extent.
+     * 
+     * @param index
+     *            this is the index of the extent to read from
+     * @param offset
+     *            this is the offset within the extent to read from
+     * @param array
+     *            this is the array to read the bytes in to
+     * @param off
+     *            this is the offset within the array to read to
+     * @param len
+     *            this is the number of bytes to be read
+     */
+    public void read(int index, int offset, byte[] array, int off, int len)
+            throws IOException {
+        FileChannel channel = this.channels[index / this.count];
+        ByteBuffer data = ByteBuffer.wrap(array, off, len);
+        long position = this.position(index, offset);
+
+        while (data.hasRemaining()) {
+            int size = channel.read(data, position);
+
+            if (size < 0) {
+                throw new BufferException("Could not read extent %s", index);
+            }
+            position += size;
+        }
+    }
+
+    /**
+     * This is used to determine the position within an arena file of the
+     * specified offset within an extent. The extents are laid out in order
+     * within each of the files of the arena.
+     * 
+     * @param index
+     *            this is the index of the extent
+     * @param offset
+     *            this is the offset within the extent
+     * 
+     * @return this returns the position within the arena file
+     */
+    private long position(int index, int offset) {
+        long slot = index % this.count;
+
+        return slot * this.extent + offset;
+    }
+
+    /**
+     * This is used to close the arena and delete all of its files. This
+     * should only be done when no buffers allocated from the arena will be
+     * used again, as the files they were written to will no longer exist.
+     */
+    public synchronized void close() throws IOException {
+        if (!this.closed) {
+            for (FileChannel channel : this.channels) {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+            for (File file : this.files) {
+                file.delete();
+            }
+            this.leases.clear();
+            this.closed = true;
+        }
+    }
+
+    /**
+     * This is used to create an array with the specified value appended
+     * to it. Files are added to the arena rarely so the arrays are simply
+     * copied each time, which keeps the channel lookup free of locks.
+     * 
+     * @param list
+     *            this is the array that the value is appended to
+     * @param value
+     *            this is the value to be appended
+     * 
+     * @return this returns a new array with the value appended
+     */
+    private File[] append(File[] list, File value) {
+        File[] copy = new File[list.length + 1];
+
+        System.arraycopy(list, 0, copy, 0, list.length);
+        copy[list.length] = value;
+        return copy;
+    }
+
+    /**
+     * This is used to create an array with the specified value appended
+     * to it. Files are added to the arena rarely so the arrays are simply
+     * copied each time, which keeps the channel lookup free of locks.
+     * 
+     * @param list
+     *            this is the array that the value is appended to
+     * @param value
+     *            this is the value to be appended
+     * 
+     * @return this returns a new array with the value appended
+     */
+    private FileChannel[] append(FileChannel[] list, FileChannel value) {
+        FileChannel[] copy = new FileChannel[list.length + 1];
+
+        System.arraycopy(list, 0, copy, 0, list.length);
+        copy[list.length] = value;
+        return copy;
+    }
+
+    /**
+     * The <code>Lease</code> object is used to track a buffer that has been
+     * given extents. When the buffer is collected the lease is placed on the
+     * queue of the arena, and the extents within its list are reclaimed.
+     */
+    private class Lease extends PhantomReference<Object> {
+
+        /**
+         * This is the list of extents used by the buffer.
+         */
+        private final ExtentList list;
+
+        /**
+         * Constructor for the <code>Lease</code> object. This creates a
+         * reference to the buffer that is queued once the buffer is no
+         * longer reachable.
+         * 
+         * @param buffer
+         *            this is the buffer that is being tracked
+         * @param list
+         *            this is the list of extents used by the buffer
+         */
+        public Lease(Object buffer, ExtentList list) {
+            super(buffer, FileArena.this.queue);
+            this.list = list;
+        }
+    }
+
+    /**
+     * The <code>ExtentList</code> object is used to hold the extents given
+     * to a buffer. This is held separately from the buffer so that it is
+     * still available to the arena after the buffer has been collected. The
+     * list is read by the buffer and cleared by the arena, which may be done
+     * by different threads, so access to the list is synchronized.
+     */
+    static class ExtentList {
+
+        /**
+         * This contains the index of each extent in the list.
+         */
+        private int[] array;
+
+        /**
+         * This is the number of extents within the list.
+         */
+        private int size;
+
+        /**
+         * Constructor for the <code>ExtentList</code> object. This creates
+         * an empty list with space for a small number of extents.
+         */
+        public ExtentList() {
+            this.array = new int[4];
+        }
+
+        /**
+         * This is used to acquire the extent at the specified position
+         * within the list. The position is the offset within the buffer
+         * divided by the size of an extent. If the list has been cleared
+         * then the extent is no longer held and an exception is thrown.
+         * 
+         * @param index
+         *            this is the position within the list
+         * 
+         * @return this returns the index of the extent in the arena
+         */
+        public synchronized int get(int index) throws IOException {
+            if (index >= this.size) {
+                throw new BufferException("Extent %s has been released", index);
+            }
+            return this.array[index];
+        }
+
+        /**
+         * This is used to add an extent to the end of the list. The list
+         * is doubled in size each time it is full, so adding extents is
+         * performed in constant time.
+         * 
+         * @param index
+         *            this is the index of the extent in the arena
+         */
+        public synchronized void add(int index) {
+            if (this.size == this.array.length) {
+                int[] copy = new int[this.size << 1];
+
+                System.arraycopy(this.array, 0, copy, 0, this.size);
+                this.array = copy;
+            }
+            this.array[this.size++] = index;
+        }
+
+        /**
+         * This returns the number of extents within the list. This is
+         * used to determine whether a buffer needs another extent before
+         * it can append at an offset.
+         * 
+         * @return this returns the number of extents in the list
+         */
+        public synchronized int size() {
+            return this.size;
+        }
+
+        /**
+         * This is used to remove all of the extents from the list. The
+         * extents removed are returned so that they can be placed back in
+         * the arena, and as the list is empty they can not be returned again.
+         * 
+         * @return this returns the extents that were within the list
+         */
+        public synchronized int[] clear() {
+            int[] extents = Arrays.copyOf(this.array, this.size);
+
+            this.size = 0;
+            return extents;
+        }
+    }
+}
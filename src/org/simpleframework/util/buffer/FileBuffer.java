@@ -18,22 +18,21 @@
 
 package org.simpleframework.util.buffer;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+
+import org.simpleframework.util.buffer.FileArena.ExtentList;
 
 /**
  * The <code>FileBuffer</code> object is used to create a buffer which will
  * write the appended data to an underlying file. This is typically used for
  * buffers that are too large for to allocate in memory. Data appended to the
  * buffer can be retrieved at a later stage by acquiring the
- * <code>InputStream</code> for the underlying file. To ensure that excessive
- * file system space is not occupied the buffer files are cleaned every five
- * minutes.
+ * <code>InputStream</code> for the underlying file. The bytes are written to
+ * extents within the files of a <code>FileArena</code>, which are returned to
+ * the arena when the buffer is released, or once the buffer is no longer
+ * referenced if it is never released. Both writes and reads are positional,
+ * so a stream can begin at any offset without skipping to it.
  * 
  * @author Niall Gallagher
  * 
@@ -42,43 +41,49 @@ import java.io.OutputStream;
 class FileBuffer implements Buffer {
 
     /**
-     * This is the file output stream used for this buffer object.
+     * This is the list of extents that the bytes are written to.
      */
-    private OutputStream buffer;
+    private final ExtentList list;
 
     /**
-     * This represents the last file segment that has been created.
+     * This is the arena that the extents are allocated from.
      */
-    private Segment segment;
+    private final FileArena arena;
 
     /**
-     * This is the path for the file that this buffer appends to.
+     * This represents the last file segment that has been created.
      */
-    private File file;
+    private Segment segment;
 
     /**
      * This is the number of bytes currently appended to the buffer.
      */
-    private int count;
+    private long count;
 
     /**
      * This is used to determine if this buffer has been closed.
      */
     private boolean closed;
 
+    /**
+     * This is used to determine if the extents have been released.
+     */
+    private volatile boolean released;
+
     /**
      * Constructor for the <code>FileBuffer</code> object. This will create a
-     * buffer using the provided file. All data appended to this buffer will
-     * effectively written to the underlying file. If the appended data needs to
-     * be retrieved at a later stage then it can be acquired using the buffers
-     * input stream.
+     * buffer using the provided arena. All data appended to this buffer will
+     * effectively written to the files of the arena. If the appended data needs
+     * to be retrieved at a later stage then it can be acquired using the
+     * buffers input stream.
      * 
-     * @param file
-     *            this is the file used for the file buffer
+     * @param arena
+     *            this is the arena used for the file buffer
      */
-    public FileBuffer(File file) throws IOException {
-        this.buffer = new FileOutputStream(file);
-        this.file = file;
+    public FileBuffer(FileArena arena) throws IOException {
+        this.list = new ExtentList();
+        this.arena = arena;
+        this.arena.register(this, this.list);
     }
 
     /**
@@ -135,13 +140,56 @@ class FileBuffer implements Buffer {
     @Override
     public Buffer append(byte[] array, int off, int size) throws IOException {
         if (this.closed) throw new BufferException("Buffer has been closed");
-        if (size > 0) {
-            this.buffer.write(array, off, size);
-            this.count += size;
+        int extent = this.arena.getExtent();
+
+        while (size > 0) {
+            int index = (int) (this.count / extent);
+            int offset = (int) (this.count % extent);
+            int length = Math.min(size, extent - offset);
+
+            if (index == this.list.size()) {
+                this.arena.allocate(this.list);
+            }
+            this.arena.write(this.list.get(index), offset, array, off, length);
+            this.count += length;
+            size -= length;
+            off += length;
         }
         return this;
     }
 
+    /**
+     * This is used to read the bytes at the specified position within the
+     * buffer. The extents containing the bytes are read directly, so there
+     * is no need to read or skip the bytes that precede the position.
+     * 
+     * @param position
+     *            this is the position within the buffer to read from
+     * @param array
+     *            this is the array to read the bytes in to
+     * @param off
+     *            this is the offset within the array to read to
+     * @param size
+     *            this is the number of bytes to be read
+     */
+    private void read(long position, byte[] array, int off, int size)
+            throws IOException {
+        if (this.released)
+            throw new BufferException("Buffer has been released");
+        int extent = this.arena.getExtent();
+
+        while (size > 0) {
+            int index = (int) (position / extent);
+            int offset = (int) (position % extent);
+            int length = Math.min(size, extent - offset);
+
+            this.arena.read(this.list.get(index), offset, array, off, length);
+            position += length;
+            size -= length;
+            off += length;
+        }
+    }
+
     /**
      * This method is used to acquire the buffered bytes as a string. This is
      * useful if the contents need to be manipulated as a string or transferred
@@ -169,10 +217,8 @@ class FileBuffer implements Buffer {
      */
     @Override
     public String encode(String charset) throws IOException {
-        InputStream source = this.getInputStream();
-
         if (this.count <= 0) return new String();
-        return this.convert(source, charset, this.count);
+        return this.convert(0, this.count, charset);
     }
 
     /**
@@ -181,26 +227,20 @@ class FileBuffer implements Buffer {
      * into another encoding. This will convert the bytes using the specified
      * character encoding format.
      * 
-     * @param source
-     *            this is the source stream that is to be encoded
+     * @param first
+     *            this is the position of the first byte to encode
+     * @param last
+     *            this is the position after the last byte to encode
      * @param charset
      *            this is the charset to encode the data with
-     * @param count
-     *            this is the number of bytes to be encoded
      * 
      * @return this returns the encoding of the buffer contents
      */
-    private String convert(InputStream source, String charset, int count)
+    private String convert(long first, long last, String charset)
             throws IOException {
-        byte[] buffer = new byte[count];
-        int left = count;
-
-        while (left > 0) {
-            int size = source.read(buffer, 0, left);
+        byte[] buffer = new byte[(int) (last - first)];
 
-            if (size == -1) throw new BufferException("Could not read buffer");
-            left -= count;
-        }
+        this.read(first, buffer, 0, buffer.length);
         return new String(buffer, charset);
     }
 
@@ -217,27 +257,7 @@ class FileBuffer implements Buffer {
         if (!this.closed) {
             this.close();
         }
-        return this.getInputStream(this.file);
-    }
-
-    /**
-     * This method is used so that a buffer can be represented as a stream of
-     * bytes. This provides a quick means to access the data that has been
-     * written to the buffer. It wraps the buffer within an input stream so that
-     * it can be read directly.
-     * 
-     * @param file
-     *            this is the file used to create the input stream
-     * 
-     * @return a stream that can be used to read the buffered bytes
-     */
-    private InputStream getInputStream(File file) throws IOException {
-        InputStream source = new FileInputStream(file);
-
-        if (this.count <= 0) {
-            source.close(); // release file descriptor
-        }
-        return new Range(source, this.count);
+        return new Range(0, this.count);
     }
 
     /**
@@ -260,7 +280,6 @@ class FileBuffer implements Buffer {
     @Override
     public void close() throws IOException {
         if (!this.closed) {
-            this.buffer.close();
             this.closed = true;
         }
         if (this.segment != null) {
@@ -268,6 +287,21 @@ class FileBuffer implements Buffer {
         }
     }
 
+    /**
+     * This is used to return the extents of the buffer to the arena so that
+     * they can be used by other buffers. This is done once the request the
+     * buffer was allocated for has finished, after which the buffer can not
+     * be read. Releasing the buffer explicitly means its extents do not have
+     * to wait for the buffer to be garbage collected.
+     */
+    public void release() throws IOException {
+        if (!this.released) {
+            this.released = true;
+            this.closed = true;
+            this.arena.release(this.list);
+        }
+    }
+
     /**
      * The <code>Segment</code> object is used to create a segment of the parent
      * buffer. The segment will write to the parent however if can be read as a
@@ -290,12 +324,12 @@ class FileBuffer implements Buffer {
         /**
          * This is the offset of the first byte within the sequence.
          */
-        private int first;
+        private long first;
 
         /**
          * This is the last byte within the segment for this segment.
          */
-        private int last;
+        private long last;
 
         /**
          * This determines if the segment is currently open or closed.
@@ -313,7 +347,7 @@ class FileBuffer implements Buffer {
          * @param first
          *            this is the offset for the first byte in this
          */
-        public Segment(Buffer parent, int first) {
+        public Segment(Buffer parent, long first) {
             this.parent = parent;
             this.first = first;
             this.last = first;
@@ -413,11 +447,8 @@ class FileBuffer implements Buffer {
          */
         @Override
         public String encode(String charset) throws IOException {
-            InputStream source = this.getInputStream();
-            int count = this.last - this.first;
-
-            if (count <= 0) return new String();
-            return FileBuffer.this.convert(source, charset, count);
+            if (this.last <= this.first) return new String();
+            return FileBuffer.this.convert(this.first, this.last, charset);
         }
 
         /**
@@ -430,13 +461,7 @@ class FileBuffer implements Buffer {
          */
         @Override
         public InputStream getInputStream() throws IOException {
-            InputStream source = new FileInputStream(FileBuffer.this.file);
-            int length = this.last - this.first;
-
-            if (this.first > 0) {
-                source.skip(this.first);
-            }
-            return new Range(source, length);
+            return new Range(this.first, this.last);
         }
 
         /**
@@ -469,137 +494,110 @@ class FileBuffer implements Buffer {
 
     /**
      * The <code>Range</code> object is used to provide a stream that can read a
-     * range of bytes from a provided input stream. This allows buffer segments
-     * to be allocated from the main buffer. Providing a range in this manner
-     * ensures that only one backing file is needed for the primary buffer
-     * allocated.
+     * range of bytes from the buffer. This allows buffer segments to be
+     * allocated from the main buffer. Each read is a positional read of the
+     * extents of the buffer, so the range can start anywhere in the buffer
+     * without the bytes before it being read.
      */
-    private class Range extends FilterInputStream {
+    private class Range extends InputStream {
 
         /**
-         * This is the length of the bytes that exist in the range.
+         * This is the position of the next byte to be read.
          */
-        private int length;
+        private long position;
 
         /**
-         * This is used to close the stream once it has been read.
+         * This is the position after the last byte in the range.
          */
-        private boolean closed;
+        private long limit;
 
         /**
-         * Constructor for the <code>Range</code> object. This ensures that only
-         * a limited number of bytes can be consumed from a backing input stream
-         * giving the impression of an independent stream of bytes for a
-         * segmented region of the parent buffer.
+         * Constructor for the <code>Range</code> object. This is used to
+         * create a stream that reads the bytes between the two positions
+         * within the buffer.
          * 
-         * @param source
-         *            this is the input stream used to read data
-         * @param length
-         *            this is the number of bytes that can be read
+         * @param first
+         *            this is the position of the first byte to read
+         * @param limit
+         *            this is the position after the last byte to read
          */
-        public Range(InputStream source, int length) {
-            super(source);
-            this.length = length;
+        public Range(long first, long limit) {
+            this.position = first;
+            this.limit = limit;
         }
 
         /**
-         * This will read data from the underlying stream up to the number of
-         * bytes this range is allowed to read. When all of the bytes are
-         * exhausted within the stream this returns -1.
+         * This will read a single byte from the range. If the end of the
+         * range has been reached then this will return -1 to indicate that
+         * there are no more bytes to be read from the stream.
          * 
-         * @return this returns the octet from the underlying stream
+         * @return this returns the byte read or -1 at the end
          */
         @Override
         public int read() throws IOException {
-            if (this.length-- > 0) return this.in.read();
-            if (this.length <= 0) {
-                this.close();
+            byte[] octet = new byte[1];
+            int count = this.read(octet, 0, 1);
+
+            if (count <= 0) {
+                return -1;
             }
-            return -1;
+            return octet[0] & 0xff;
         }
 
         /**
-         * This will read data from the underlying stream up to the number of
-         * bytes this range is allowed to read. When all of the bytes are
-         * exhausted within the stream this returns -1.
+         * This will read a block of bytes from the range. This reads no
+         * more bytes than remain within the range, and if the end of the
+         * range has been reached this will return -1.
          * 
          * @param array
          *            this is the array to read the bytes in to
          * @param off
-         *            this is the start offset to append the bytes to
+         *            this is the offset to begin writing the bytes to
          * @param size
-         *            this is the number of bytes that are required
+         *            this is the maximum number of bytes to be read
          * 
-         * @return this returns the number of bytes that were read
+         * @return this returns the number of bytes read or -1
          */
         @Override
         public int read(byte[] array, int off, int size) throws IOException {
-            int left = Math.min(this.length, size);
+            int left = (int) Math.min(this.limit - this.position, size);
 
             if (left > 0) {
-                int count = this.in.read(array, off, left);
-
-                if (count > 0) {
-                    this.length -= count;
-                }
-                if (this.length <= 0) {
-                    this.close();
-                }
-                return count;
+                FileBuffer.this.read(this.position, array, off, left);
+                this.position += left;
+                return left;
             }
-            return -1;
+            return size > 0 ? -1 : 0;
         }
 
         /**
-         * This returns the number of bytes that can be read from the range.
-         * This will be the actual number of bytes the range contains as the
-         * underlying file will not block reading.
+         * This returns the number of bytes that remain within the range.
+         * As the bytes are within the arena files they can all be read
+         * without the stream blocking for any significant time.
          * 
-         * @return this returns the number of bytes within the range
+         * @return this returns the number of bytes that remain
          */
         @Override
         public int available() throws IOException {
-            return this.length;
+            return (int) Math.min(this.limit - this.position, Integer.MAX_VALUE);
         }
 
         /**
-         * This is the number of bytes to skip from the buffer. This will allow
-         * up to the number of remaining bytes within the range to be read. When
-         * all the bytes have been read this will return zero indicating no
-         * bytes were skipped.
+         * This is used to skip bytes within the range. As reads are made
+         * at a position within the buffer this simply moves the position
+         * forward, no bytes are read in order to skip them.
          * 
          * @param size
-         *            this returns the number of bytes to skip
+         *            this is the number of bytes to be skipped
          * 
          * @return this returns the number of bytes that were skipped
          */
         @Override
         public long skip(long size) throws IOException {
-            long left = Math.min(this.length, size);
-            long skip = this.in.skip(left);
-
-            if (skip > 0) {
-                this.length -= skip;
-            }
-            if (this.length <= 0) {
-                this.close();
-            }
-            return skip;
-        }
+            long left = Math.max(0, Math.min(this.limit - this.position, size));
 
-        /**
-         * This is used to close the range once all of the content has been
-         * fully read. The <code>Range</code> object forces the close of the
-         * stream once all the content has been consumed to ensure that
-         * excessive file descriptors are used. Also this will ensure that the
-         * files can be deleted.
-         */
-        @Override
-        public void close() throws IOException {
-            if (!this.closed) {
-                this.in.close();
-                this.closed = true;
-            }
+            this.position += left;
+            return left;
         }
     }
 }
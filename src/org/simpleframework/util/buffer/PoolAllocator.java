@@ -0,0 +1,166 @@
+/*
+ * PoolAllocator.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.buffer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>PoolAllocator</code> object is used to allocate buffers for the
+ * duration of a single request. Buffers up to the limit are composed of
+ * arrays taken from an <code>ArrayPool</code>, and buffers beyond the limit
+ * are allocated by the source allocator. Each pooled buffer allocated is
+ * remembered, and when the allocator is closed the arrays of all of them are
+ * returned to the pool so that they can be used by the next request.
+ * <p>
+ * Buffers grow by adding arrays rather than by copying, and if they grow
+ * beyond the limit the bytes are moved to a buffer from the source allocator.
+ * The same happens if the memory budget shared by all requests has been
+ * spent, so under a burst of uploads bodies are written to disk early rather
+ * than exhausting the heap. As the allocator is closed when the request has
+ * finished, the buffers it allocates must not be used after that point.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.buffer.ChunkBuffer
+ */
+public class PoolAllocator implements Allocator {
+
+    /**
+     * This contains the pooled buffers that have been allocated.
+     */
+    private final List<ChunkBuffer> buffers;
+
+    /**
+     * This is the allocator used for buffers beyond the limit.
+     */
+    private final ScopeAllocator source;
+
+    /**
+     * This is the pool that the arrays of the buffers are taken from.
+     */
+    private final ArrayPool pool;
+
+    /**
+     * This is the limit up to which buffers are allocated from the pool.
+     */
+    private final int limit;
+
+    /**
+     * Constructor for the <code>PoolAllocator</code> object. This is used to
+     * create pooled buffers up to one megabyte. Buffers required beyond this
+     * size are allocated by the source allocator, typically as files.
+     * 
+     * @param source
+     *            this is the allocator used for buffers beyond the limit
+     */
+    public PoolAllocator(Allocator source) {
+        this(source, 1048576);
+    }
+
+    /**
+     * Constructor for the <code>PoolAllocator</code> object. This is used to
+     * create pooled buffers up to the specified limit. Buffers required
+     * beyond this size are allocated by the source allocator.
+     * 
+     * @param source
+     *            this is the allocator used for buffers beyond the limit
+     * @param limit
+     *            this is the maximum size of a pooled buffer
+     */
+    public PoolAllocator(Allocator source, int limit) {
+        this(ArrayPool.getInstance(), source, limit);
+    }
+
+    /**
+     * Constructor for the <code>PoolAllocator</code> object. This is used to
+     * create buffers up to the specified limit from arrays taken from the
+     * pool provided. Buffers required beyond this size are allocated by the
+     * source allocator.
+     * 
+     * @param pool
+     *            this is the pool that the arrays are taken from
+     * @param source
+     *            this is the allocator used for buffers beyond the limit
+     * @param limit
+     *            this is the maximum size of a pooled buffer
+     */
+    public PoolAllocator(ArrayPool pool, Allocator source, int limit) {
+        this.buffers = new ArrayList<ChunkBuffer>();
+        this.source = new ScopeAllocator(source);
+        this.limit = limit;
+        this.pool = pool;
+    }
+
+    /**
+     * This will allocate a buffer that can grow to an arbitrary size. The
+     * buffer is held in pooled arrays up to the limit, after which its bytes
+     * are moved to a buffer allocated by the source allocator.
+     * 
+     * @return this returns a buffer that begins in pooled arrays
+     */
+    @Override
+    public Buffer allocate() throws IOException {
+        ChunkBuffer buffer = new ChunkBuffer(this.pool, this.source, 0,
+                this.limit);
+
+        this.buffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * This will allocate a buffer of the specified size. If the size is
+     * within the limit then the buffer is held in pooled arrays, unless the
+     * budget of the pool has been spent, otherwise the buffer is allocated
+     * by the source allocator.
+     * 
+     * @param size
+     *            this is the size of the buffer to be created
+     * 
+     * @return this returns a buffer of the specified size
+     */
+    @Override
+    public Buffer allocate(long size) throws IOException {
+        if (size > this.limit) {
+            return this.source.allocate(size);
+        }
+        ChunkBuffer buffer = new ChunkBuffer(this.pool, this.source,
+                (int) size, this.limit);
+
+        this.buffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * This is used to return the arrays of all of the buffers allocated to
+     * the pool. This should only be done once the buffers are no longer
+     * required, any attempt to read them afterwards will fail. The source
+     * allocator is not closed as it is typically shared, however any file
+     * space taken from it for the buffers is released.
+     */
+    @Override
+    public void close() throws IOException {
+        for (ChunkBuffer buffer : this.buffers) {
+            buffer.recycle();
+        }
+        this.buffers.clear();
+        this.source.close();
+    }
+}
@@ -0,0 +1,981 @@
+/*
+ * PoolBuffer.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * The <code>PoolBuffer</code> is a buffer composed of a list of chunks taken
+ * from a pool. Rather than copying the buffered bytes in to a larger chunk
+ * each time the buffer grows, another chunk is added to the end of the list,
+ * so growing the buffer never copies the bytes appended. Each chunk added is
+ * twice the size of the last up to the largest pooled size.
+ * <p>
+ * This contains everything that does not depend on the type of chunk, such
+ * as segments, streams, and moving the bytes to a spill buffer once the
+ * buffer grows beyond its limit. Implementations provide the pool the chunks
+ * are taken from and the means of copying bytes in to and out of a chunk.
+ * Once the buffer is no longer required its chunks can be returned to the
+ * pool with the <code>recycle</code> method, after which any attempt to read
+ * it, even with a stream acquired before it was recycled, will fail rather
+ * than read the bytes of another buffer.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.buffer.ChunkBuffer
+ * @see org.simpleframework.util.buffer.DirectBuffer
+ */
+public abstract class PoolBuffer<T> implements Buffer {
+
+    /**
+     * This is the allocator used to create the spill buffer.
+     */
+    private final Allocator source;
+
+    /**
+     * This contains the chunks used to hold the buffered bytes.
+     */
+    private T[] chunks;
+
+    /**
+     * This contains the position of the first byte of each chunk.
+     */
+    private int[] offsets;
+
+    /**
+     * This is the buffer used once the limit has been exceeded.
+     */
+    private Buffer spill;
+
+    /**
+     * This is used to determine whether this buffer has been closed.
+     */
+    private boolean closed;
+
+    /**
+     * This is the number of chunks that are used by this buffer.
+     */
+    private int size;
+
+    /**
+     * This is the count of the number of bytes buffered.
+     */
+    private int count;
+
+    /**
+     * This is the total capacity of all of the chunks used.
+     */
+    private int capacity;
+
+    /**
+     * This is the size of the largest chunk that is pooled.
+     */
+    private int maximum;
+
+    /**
+     * This is the maximum number of bytes to hold in memory.
+     */
+    private int limit;
+
+    /**
+     * Constructor for the <code>PoolBuffer</code> object. This creates a
+     * buffer without any chunks, the first chunk must be added with the
+     * <code>begin</code> method once the implementation is ready to take
+     * chunks from its pool. If a source allocator is provided then bytes
+     * appended beyond the limit are moved to a buffer from the source.
+     * 
+     * @param chunks
+     *            this is the initial list used to hold the chunks
+     * @param source
+     *            this is the allocator used to create the spill buffer
+     * @param maximum
+     *            this is the size of the largest chunk that is pooled
+     * @param limit
+     *            this is the maximum number of bytes held in memory
+     */
+    protected PoolBuffer(T[] chunks, Allocator source, int maximum, int limit) {
+        this.offsets = new int[chunks.length];
+        this.maximum = maximum;
+        this.chunks = chunks;
+        this.source = source;
+        this.limit = limit;
+    }
+
+    /**
+     * This is used to add the first chunk to the buffer. If the pool has no
+     * more memory and the buffer has a source allocator then no chunk is
+     * added, instead the buffer begins with a spill buffer.
+     * 
+     * @param size
+     *            this is the initial capacity of the buffer
+     */
+    protected void begin(int size) throws IOException {
+        int length = Math.min(Math.max(size, 1), this.maximum);
+
+        if (!this.add(length)) {
+            this.spill = this.source.allocate();
+        }
+    }
+
+    /**
+     * This method is used so that the buffer can be represented as a stream
+     * of bytes. The stream reads the bytes directly from the chunks of this
+     * buffer, so the bytes are not copied in to a single array to be read.
+     * 
+     * @return a stream that can be used to read the buffered bytes
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if (this.spill != null) {
+            return this.spill.getInputStream();
+        }
+        return this.range(0, this.count);
+    }
+
+    /**
+     * This is used to create the stream that reads a range of bytes from
+     * the chunks of this buffer. This is used for the streams of the buffer
+     * and of each of its segments, so an implementation can provide a
+     * stream that offers more than an <code>InputStream</code>.
+     * 
+     * @param first
+     *            this is the position of the first byte to read
+     * @param last
+     *            this is the position after the last byte to read
+     * 
+     * @return this returns a stream that reads the range of bytes
+     */
+    protected Range range(int first, int last) {
+        return new Range(first, last);
+    }
+
+    /**
+     * This method is used to allocate a segment of this buffer as a separate
+     * buffer object. The segment refers to positions within this buffer, so
+     * if the bytes are later moved to a spill buffer the segment reads them
+     * from the spill buffer at the same positions.
+     * 
+     * @return this returns a buffer which is a segment of this buffer
+     */
+    @Override
+    public Buffer allocate() throws IOException {
+        if (this.spill != null) {
+            return this.spill.allocate();
+        }
+        return this.segment(this);
+    }
+
+    /**
+     * This is used to create a segment that begins at the end of the bytes
+     * currently within this buffer. Bytes appended to the segment are
+     * appended to its parent, which in turn appends them to this buffer.
+     * 
+     * @param parent
+     *            this is the buffer that the segment appends to
+     * 
+     * @return this returns a buffer which is a segment of this buffer
+     */
+    private Buffer segment(Buffer parent) {
+        return new Segment(parent, this.count);
+    }
+
+    /**
+     * This method is used to acquire the buffered bytes as a string. This is
+     * useful if the contents need to be manipulated as a string or
+     * transferred into another encoding.
+     * 
+     * @return this returns a UTF-8 encoding of the buffer contents
+     */
+    @Override
+    public String encode() throws IOException {
+        return this.encode("UTF-8");
+    }
+
+    /**
+     * This method is used to acquire the buffered bytes as a string. As the
+     * bytes may span several chunks they are first copied in to a single
+     * array, which is then converted using the specified charset.
+     * 
+     * @param charset
+     *            this is the charset to encode the data with
+     * 
+     * @return this returns the encoding of the buffer contents
+     */
+    @Override
+    public String encode(String charset) throws IOException {
+        if (this.spill != null) {
+            return this.spill.encode(charset);
+        }
+        return this.convert(0, this.count, charset);
+    }
+
+    /**
+     * This is used to convert the specified range of bytes in to a string.
+     * The range may span several chunks, so the bytes are copied in to a
+     * single array before they are converted.
+     * 
+     * @param first
+     *            this is the position of the first byte to convert
+     * @param last
+     *            this is the position after the last byte to convert
+     * @param charset
+     *            this is the charset to encode the data with
+     * 
+     * @return this returns the encoding of the range of bytes
+     */
+    private String convert(int first, int last, String charset)
+            throws IOException {
+        byte[] array = new byte[last - first];
+
+        if (this.spill != null) {
+            this.read(this.open(first), array);
+        } else {
+            this.read(first, array, 0, array.length);
+        }
+        return new String(array, charset);
+    }
+
+    /**
+     * This is used to fill the array with bytes read from the stream. If
+     * the stream ends before the array has been filled then this fails, as
+     * the range of bytes requested was not within the spill buffer.
+     * 
+     * @param stream
+     *            this is the stream to read the bytes from
+     * @param array
+     *            this is the array to read the bytes in to
+     */
+    private void read(InputStream stream, byte[] array) throws IOException {
+        int done = 0;
+
+        try {
+            while (done < array.length) {
+                int count = stream.read(array, done, array.length - done);
+
+                if (count < 0) {
+                    throw new BufferException("Spill buffer ended at %s", done);
+                }
+                done += count;
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * This is used to open a stream that reads the spill buffer from the
+     * specified position. Positions within the spill buffer are the same
+     * as positions within this buffer, as all of the bytes held in memory
+     * were appended to the spill buffer before any other bytes.
+     * 
+     * @param position
+     *            this is the position of the first byte to read
+     * 
+     * @return this returns a stream that reads from the position
+     */
+    private InputStream open(int position) throws IOException {
+        InputStream stream = this.spill.getInputStream();
+        long left = position;
+
+        while (left > 0) {
+            long done = stream.skip(left);
+
+            if (done <= 0) {
+                throw new BufferException("Could not skip to %s", position);
+            }
+            left -= done;
+        }
+        return stream;
+    }
+
+    /**
+     * This method is used to append bytes to the end of the buffer. If there
+     * is not enough space in the last chunk another chunk is added to the
+     * buffer, the bytes already appended are never copied.
+     * 
+     * @param array
+     *            this is the byte array to append to this buffer
+     * 
+     * @return this returns this buffer for another operation
+     */
+    @Override
+    public Buffer append(byte[] array) throws IOException {
+        return this.append(array, 0, array.length);
+    }
+
+    /**
+     * This method is used to append bytes to the end of the buffer. If there
+     * is not enough space in the last chunk another chunk is added to the
+     * buffer. If the bytes would take the buffer beyond its limit, or the
+     * pool has no more memory, they are moved to a spill buffer, if there
+     * is a source for one. The count is kept once the bytes are moved so
+     * that segments allocated later begin at the right position.
+     * 
+     * @param array
+     *            this is the byte array to append to this buffer
+     * @param off
+     *            this is the offset to begin reading the bytes from
+     * @param size
+     *            the number of bytes to be read from the array
+     * 
+     * @return this returns this buffer for another operation
+     */
+    @Override
+    public Buffer append(byte[] array, int off, int size) throws IOException {
+        if (this.closed) throw new BufferException("Buffer is closed");
+        if (this.spill == null) {
+            if (this.chunks == null) throw new BufferException("Buffer is recycled");
+            if (size <= this.limit - this.count) {
+                int done = this.write(array, off, size);
+
+                if (done == size) {
+                    return this;
+                }
+                size -= done;
+                off += done;
+            } else if (this.source == null) {
+                throw new BufferException("Capacity limit %s exceeded", this.limit);
+            }
+            this.spill();
+        }
+        this.spill.append(array, off, size);
+        this.count += size;
+        return this;
+    }
+
+    /**
+     * This is used to write the bytes to the chunks of this buffer. Chunks
+     * are added as they are filled, each twice the size of the last up to
+     * the size of the largest chunk that is pooled. If a chunk can not be
+     * added as the pool has no more memory then this stops, and the
+     * remaining bytes must be written to a spill buffer.
+     * 
+     * @param array
+     *            this is the byte array to append to this buffer
+     * @param off
+     *            this is the offset to begin reading the bytes from
+     * @param size
+     *            the number of bytes to be read from the array
+     * 
+     * @return this returns the number of bytes that were written
+     */
+    private int write(byte[] array, int off, int size) {
+        int done = 0;
+
+        while (done < size) {
+            if (this.count == this.capacity) {
+                int last = this.length(this.chunks[this.size - 1]);
+                int next = Math.min(last << 1, this.maximum);
+
+                if (!this.add(next)) {
+                    return done;
+                }
+            }
+            T chunk = this.chunks[this.size - 1];
+            int start = this.count - this.offsets[this.size - 1];
+            int length = Math.min(size - done, this.length(chunk) - start);
+
+            this.put(chunk, start, array, off + done, length);
+            this.count += length;
+            done += length;
+        }
+        return done;
+    }
+
+    /**
+     * This is used to add a chunk to the end of the buffer. The chunk is
+     * taken from the pool, so it may be larger than the size requested. If
+     * the pool has no more memory then a chunk that is not pooled is used
+     * only if the bytes of this buffer can not be moved to a spill buffer.
+     * 
+     * @param length
+     *            this is the minimum length of the chunk to add
+     * 
+     * @return this returns true if a chunk was added to the buffer
+     */
+    private boolean add(int length) {
+        T chunk = this.acquire(length);
+
+        if (chunk == null) {
+            if (this.source != null) {
+                return false;
+            }
+            chunk = this.create(length);
+        }
+        if (this.size == this.chunks.length) {
+            this.expand(this.size << 1);
+        }
+        this.chunks[this.size] = chunk;
+        this.offsets[this.size++] = this.capacity;
+        this.capacity += this.length(chunk);
+        return true;
+    }
+
+    /**
+     * This is used to expand the list of chunks used by the buffer. Only the
+     * references to the chunks are copied, the chunks themselves and the
+     * bytes they hold are not copied.
+     * 
+     * @param length
+     *            this is the number of chunks the list can hold
+     */
+    private void expand(int length) {
+        this.offsets = Arrays.copyOf(this.offsets, length);
+        this.chunks = Arrays.copyOf(this.chunks, length);
+    }
+
+    /**
+     * This is used to move the bytes held in memory to the spill buffer. The
+     * spill buffer is created by the source allocator without a size, which
+     * for a file allocator will create a file for the bytes. The chunks are
+     * then returned to the pool.
+     */
+    private void spill() throws IOException {
+        Buffer buffer = this.source.allocate();
+
+        for (int i = 0; i < this.size; i++) {
+            T chunk = this.chunks[i];
+            int start = this.offsets[i];
+            int length = Math.min(this.length(chunk), this.count - start);
+
+            if (length > 0) {
+                this.transfer(chunk, length, buffer);
+            }
+        }
+        this.recycle();
+        this.spill = buffer;
+    }
+
+    /**
+     * This is used to find the chunk that holds the specified position.
+     * The chunk is found by searching back from the last chunk, as reads
+     * are typically made near the end of the buffer.
+     * 
+     * @param position
+     *            this is the position within the buffer to find
+     * 
+     * @return this returns the index of the chunk holding the position
+     */
+    protected int index(int position) throws IOException {
+        if (this.chunks == null) throw new BufferException("Buffer is recycled");
+        int index = this.size - 1;
+
+        while (this.offsets[index] > position) {
+            index--;
+        }
+        return index;
+    }
+
+    /**
+     * This is used to acquire the chunk at the specified index. This should
+     * only be used with an index returned from the <code>index</code>
+     * method, or with the indexes that follow it.
+     * 
+     * @param index
+     *            this is the index of the chunk to acquire
+     * 
+     * @return this returns the chunk at the specified index
+     */
+    protected T chunk(int index) {
+        return this.chunks[index];
+    }
+
+    /**
+     * This is used to acquire the position within the buffer of the first
+     * byte held by the chunk at the specified index.
+     * 
+     * @param index
+     *            this is the index of the chunk to acquire the offset of
+     * 
+     * @return this returns the position of the first byte of the chunk
+     */
+    protected int offset(int index) {
+        return this.offsets[index];
+    }
+
+    /**
+     * This is used to read the bytes at the specified position within the
+     * buffer. The chunk holding the position is found from the offsets of
+     * the chunks, and the bytes are copied from as many chunks as needed.
+     * 
+     * @param position
+     *            this is the position of the first byte to read
+     * @param array
+     *            this is the array to read the bytes in to
+     * @param off
+     *            this is the offset within the array to read to
+     * @param length
+     *            this is the number of bytes to be read
+     */
+    protected void read(int position, byte[] array, int off, int length)
+            throws IOException {
+        int index = this.index(position);
+
+        while (length > 0) {
+            T chunk = this.chunks[index];
+            int start = position - this.offsets[index++];
+            int size = Math.min(length, this.length(chunk) - start);
+
+            this.get(chunk, start, array, off, size);
+            position += size;
+            length -= size;
+            off += size;
+        }
+    }
+
+    /**
+     * This will clear all data from the buffer. This sets the count to be
+     * zero and returns all but the first chunk to the pool, the first chunk
+     * is retained so that it can be reused by the bytes appended next.
+     */
+    @Override
+    public void clear() throws IOException {
+        if (this.closed) throw new BufferException("Buffer is closed");
+        if (this.spill != null) {
+            this.spill.clear();
+        }
+        if (this.chunks != null && this.size > 0) {
+            for (int i = 1; i < this.size; i++) {
+                this.recycle(this.chunks[i]);
+                this.chunks[i] = null;
+            }
+            this.capacity = this.length(this.chunks[0]);
+            this.size = 1;
+        }
+        this.count = 0;
+    }
+
+    /**
+     * This method is used to ensure the buffer can be closed. Once the
+     * buffer is closed it is an immutable collection of bytes and can not
+     * longer be modified. The chunks are retained until it is recycled.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.spill != null) {
+            this.spill.close();
+        }
+        this.closed = true;
+    }
+
+    /**
+     * This is used to return the chunks of this buffer to the pool. Once
+     * recycled the buffer can no longer be read or appended to, as its
+     * chunks may be in use by another buffer. Recycling a buffer that has
+     * been moved to a spill buffer has no effect on the spill buffer.
+     */
+    public void recycle() {
+        if (this.chunks != null) {
+            for (int i = 0; i < this.size; i++) {
+                this.recycle(this.chunks[i]);
+            }
+            this.chunks = null;
+            this.offsets = null;
+        }
+    }
+
+    /**
+     * This is used to take a chunk from the pool. The chunk returned may be
+     * larger than the length requested. If the pool has no more memory to
+     * give then this returns null, in which case the buffer will move its
+     * bytes to a spill buffer if it can.
+     * 
+     * @param length
+     *            this is the minimum length of the chunk
+     * 
+     * @return this returns a pooled chunk, or null if there is none
+     */
+    protected abstract T acquire(int length);
+
+    /**
+     * This is used to create a chunk when the pool has refused to give one.
+     * This is only used when the pool has no more memory and the bytes of
+     * the buffer can not be moved to a spill buffer.
+     * 
+     * @param length
+     *            this is the minimum length of the chunk
+     * 
+     * @return this returns a chunk of at least the specified length
+     */
+    protected abstract T create(int length);
+
+    /**
+     * This is used to return a chunk to the pool once it is no longer used
+     * by this buffer. The chunk may then be given to another buffer.
+     * 
+     * @param chunk
+     *            this is the chunk to be returned to the pool
+     */
+    protected abstract void recycle(T chunk);
+
+    /**
+     * This is used to determine the number of bytes a chunk can hold.
+     * 
+     * @param chunk
+     *            this is the chunk to determine the length of
+     * 
+     * @return this returns the number of bytes the chunk can hold
+     */
+    protected abstract int length(T chunk);
+
+    /**
+     * This is used to copy bytes from the array in to the chunk at the
+     * specified position within the chunk.
+     * 
+     * @param chunk
+     *            this is the chunk that the bytes are copied in to
+     * @param start
+     *            this is the position within the chunk to copy to
+     * @param array
+     *            this is the array that the bytes are copied from
+     * @param off
+     *            this is the offset within the array to copy from
+     * @param length
+     *            this is the number of bytes to be copied
+     */
+    protected abstract void put(T chunk, int start, byte[] array, int off,
+            int length);
+
+    /**
+     * This is used to copy bytes from the specified position within the
+     * chunk in to the array.
+     * 
+     * @param chunk
+     *            this is the chunk that the bytes are copied from
+     * @param start
+     *            this is the position within the chunk to copy from
+     * @param array
+     *            this is the array that the bytes are copied in to
+     * @param off
+     *            this is the offset within the array to copy to
+     * @param length
+     *            this is the number of bytes to be copied
+     */
+    protected abstract void get(T chunk, int start, byte[] array, int off,
+            int length);
+
+    /**
+     * This is used to append the bytes at the start of the chunk to the
+     * spill buffer when the bytes of this buffer are moved to it.
+     * 
+     * @param chunk
+     *            this is the chunk that the bytes are copied from
+     * @param length
+     *            this is the number of bytes to be copied
+     * @param buffer
+     *            this is the spill buffer to append the bytes to
+     */
+    protected abstract void transfer(T chunk, int length, Buffer buffer)
+            throws IOException;
+
+    /**
+     * The <code>Range</code> object is used to provide a stream that can
+     * read a range of bytes from the buffer. The bytes are read directly
+     * from the chunks of the buffer, and if the buffer is recycled while
+     * the stream is being read the next read will fail. If the bytes are
+     * moved to a spill buffer then the rest of the range is read from it.
+     */
+    protected class Range extends InputStream {
+
+        /**
+         * This is the stream used to read from the spill buffer.
+         */
+        private InputStream stream;
+
+        /**
+         * This is the position of the next byte to be read.
+         */
+        protected int position;
+
+        /**
+         * This is the position after the last byte in the range.
+         */
+        protected int limit;
+
+        /**
+         * Constructor for the <code>Range</code> object. This is used to
+         * create a stream that reads the bytes between the two positions
+         * within the buffer.
+         * 
+         * @param first
+         *            this is the position of the first byte to read
+         * @param limit
+         *            this is the position after the last byte to read
+         */
+        public Range(int first, int limit) {
+            this.position = first;
+            this.limit = limit;
+        }
+
+        /**
+         * This will read a single byte from the range. If the end of the
+         * range has been reached then this will return -1 to indicate that
+         * there are no more bytes to be read from the stream.
+         * 
+         * @return this returns the byte read or -1 at the end
+         */
+        @Override
+        public int read() throws IOException {
+            byte[] octet = new byte[1];
+            int count = this.read(octet, 0, 1);
+
+            if (count <= 0) {
+                return -1;
+            }
+            return octet[0] & 0xff;
+        }
+
+        /**
+         * This will read a block of bytes from the range. This reads no
+         * more bytes than remain within the range, and if the end of the
+         * range has been reached this will return -1.
+         * 
+         * @param array
+         *            this is the array to read the bytes in to
+         * @param off
+         *            this is the offset to begin writing the bytes to
+         * @param size
+         *            this is the maximum number of bytes to be read
+         * 
+         * @return this returns the number of bytes read or -1
+         */
+        @Override
+        public int read(byte[] array, int off, int size) throws IOException {
+            int left = Math.min(this.limit - this.position, size);
+            InputStream stream = this.spill();
+
+            if (left > 0 && stream != null) {
+                left = stream.read(array, off, left);
+            } else if (left > 0) {
+                PoolBuffer.this.read(this.position, array, off, left);
+            }
+            if (left > 0) {
+                this.position += left;
+                return left;
+            }
+            return size > 0 ? -1 : 0;
+        }
+
+        /**
+         * This returns the number of bytes that remain within the range.
+         * As the bytes are held in memory they can all be read without the
+         * stream blocking.
+         * 
+         * @return this returns the number of bytes that remain
+         */
+        @Override
+        public int available() throws IOException {
+            return this.limit - this.position;
+        }
+
+        /**
+         * This is used to skip bytes within the range. As reads are made
+         * at a position within the buffer this simply moves the position
+         * forward, no bytes are copied in order to skip them.
+         * 
+         * @param size
+         *            this is the number of bytes to be skipped
+         * 
+         * @return this returns the number of bytes that were skipped
+         */
+        @Override
+        public long skip(long size) throws IOException {
+            int left = (int) Math.max(0, Math.min(this.limit - this.position, size));
+            InputStream stream = this.spill();
+
+            if (stream != null) {
+                left = (int) stream.skip(left);
+            }
+            this.position += left;
+            return left;
+        }
+
+        /**
+         * This is used to acquire a stream that reads the rest of the range
+         * from the spill buffer. If the bytes of the buffer are still held
+         * in its chunks then this returns null, and the bytes are read from
+         * the chunks directly.
+         * 
+         * @return this returns a stream for the spill buffer, or null
+         */
+        protected InputStream spill() throws IOException {
+            if (this.stream == null && PoolBuffer.this.spill != null) {
+                this.stream = PoolBuffer.this.open(this.position);
+            }
+            return this.stream;
+        }
+    }
+
+    /**
+     * A <code>Segment</code> represents a segment within a buffer. It is
+     * used to allow a buffer to be split in to several logical parts without
+     * the need to create several separate buffers. The segment reads its
+     * bytes directly from the chunks of the buffer it belongs to, or from
+     * the spill buffer once the bytes have been moved to it.
+     */
+    private class Segment implements Buffer {
+
+        /**
+         * This is the parent buffer which is used for collecting data.
+         */
+        private Buffer parent;
+
+        /**
+         * This is used to determine if the buffer has closed or not.
+         */
+        private boolean closed;
+
+        /**
+         * This represents the start of the segment within the buffer.
+         */
+        private int start;
+
+        /**
+         * This represents the number of bytes this segment contains.
+         */
+        private int length;
+
+        /**
+         * Constructor for the <code>Segment</code> object. This is used to
+         * create a buffer within a buffer. A segment is a region of bytes
+         * within the original buffer. It allows the buffer to be split in
+         * to several logical parts of a single buffer.
+         * 
+         * @param parent
+         *            this is the parent buffer used to append to
+         * @param start
+         *            this is the start within the buffer to read
+         */
+        public Segment(Buffer parent, int start) {
+            this.parent = parent;
+            this.start = start;
+        }
+
+        /**
+         * This method is used so that the buffer can be represented as a
+         * stream of bytes. The stream reads the range of bytes belonging to
+         * this segment directly from the chunks of the buffer.
+         * 
+         * @return a stream that can be used to read the buffered bytes
+         */
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return PoolBuffer.this.range(this.start, this.start + this.length);
+        }
+
+        /**
+         * This method is used to allocate a segment of this buffer as a
+         * separate buffer object. This allows the buffer to be sliced in to
+         * several smaller independent buffers, while still allowing the
+         * parent buffer to manage a single buffer.
+         * 
+         * @return this returns a buffer which is a segment of this buffer
+         */
+        @Override
+        public Buffer allocate() throws IOException {
+            return PoolBuffer.this.segment(this);
+        }
+
+        /**
+         * This method is used to acquire the buffered bytes as a string.
+         * This is useful if the contents need to be manipulated as a string
+         * or transferred into another encoding.
+         * 
+         * @return this returns a UTF-8 encoding of the buffer contents
+         */
+        @Override
+        public String encode() throws IOException {
+            return this.encode("UTF-8");
+        }
+
+        /**
+         * This method is used to acquire the buffered bytes as a string.
+         * This is useful if the contents need to be manipulated as a string
+         * or transferred into another encoding.
+         * 
+         * @param charset
+         *            this is the charset to encode the data with
+         * 
+         * @return this returns the encoding of the buffer contents
+         */
+        @Override
+        public String encode(String charset) throws IOException {
+            int last = this.start + this.length;
+
+            return PoolBuffer.this.convert(this.start, last, charset);
+        }
+
+        /**
+         * This method is used to append bytes to the end of the buffer. The
+         * bytes are appended to the parent, so that the bytes of the segment
+         * are held within the chunks of the buffer it belongs to.
+         * 
+         * @param array
+         *            this is the byte array to append to this buffer
+         */
+        @Override
+        public Buffer append(byte[] array) throws IOException {
+            return this.append(array, 0, array.length);
+        }
+
+        /**
+         * This method is used to append bytes to the end of the buffer. The
+         * bytes are appended to the parent, so that the bytes of the segment
+         * are held within the chunks of the buffer it belongs to.
+         * 
+         * @param array
+         *            this is the byte array to append to this buffer
+         * @param off
+         *            this is the offset to begin reading the bytes from
+         * @param size
+         *            the number of bytes to be read from the array
+         */
+        @Override
+        public Buffer append(byte[] array, int off, int size)
+                throws IOException {
+            if (this.closed) throw new BufferException("Buffer is closed");
+            if (size > 0) {
+                this.parent.append(array, off, size);
+                this.length += size;
+            }
+            return this;
+        }
+
+        /**
+         * This will clear all data from the buffer. This simply sets the
+         * count to be zero, the bytes remain within the parent buffer.
+         */
+        @Override
+        public void clear() throws IOException {
+            this.length = 0;
+        }
+
+        /**
+         * This method is used to ensure the buffer can be closed. Once the
+         * buffer is closed it is an immutable collection of bytes and can
+         * not longer be modified.
+         */
+        @Override
+        public void close() throws IOException {
+            this.closed = true;
+        }
+    }
+}
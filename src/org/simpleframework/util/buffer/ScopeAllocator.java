@@ -0,0 +1,113 @@
+/*
+ * ScopeAllocator.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.buffer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The <code>ScopeAllocator</code> object is used to allocate buffers from a
+ * shared allocator for a limited scope, typically a single request. Each
+ * buffer allocated is remembered, and when the allocator is closed any of
+ * them that hold space within a <code>FileArena</code> are released, so that
+ * the space is returned to the arena as soon as the scope has finished
+ * rather than when the buffers are garbage collected.
+ * <p>
+ * This is used by the pooling allocators for the buffers they take from
+ * their source allocator, as the source is typically shared by many
+ * requests and so can not be closed once a single request has finished.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.buffer.FileArena
+ */
+class ScopeAllocator implements Allocator {
+
+    /**
+     * This contains the buffers allocated within the scope.
+     */
+    private final List<Buffer> buffers;
+
+    /**
+     * This is the shared allocator that buffers are taken from.
+     */
+    private final Allocator source;
+
+    /**
+     * Constructor for the <code>ScopeAllocator</code> object. This creates
+     * an allocator that takes its buffers from the source allocator, which
+     * is not closed when this allocator is closed.
+     * 
+     * @param source
+     *            this is the shared allocator buffers are taken from
+     */
+    public ScopeAllocator(Allocator source) {
+        this.buffers = new ArrayList<Buffer>();
+        this.source = source;
+    }
+
+    /**
+     * This will allocate a buffer from the source allocator. The buffer is
+     * remembered so that it can be released when the scope has finished.
+     * 
+     * @return this returns a buffer from the source allocator
+     */
+    @Override
+    public Buffer allocate() throws IOException {
+        Buffer buffer = this.source.allocate();
+
+        this.buffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * This will allocate a buffer of the specified size from the source
+     * allocator. The buffer is remembered so that it can be released when
+     * the scope has finished.
+     * 
+     * @param size
+     *            this is the size of the buffer to be created
+     * 
+     * @return this returns a buffer from the source allocator
+     */
+    @Override
+    public Buffer allocate(long size) throws IOException {
+        Buffer buffer = this.source.allocate(size);
+
+        this.buffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * This is used to release the buffers allocated within the scope. Only
+     * file buffers need to be released, the space they hold is returned to
+     * the arena, while any other buffer is simply left to be collected. The
+     * source allocator is not closed as it is shared.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Buffer buffer : this.buffers) {
+            if (buffer instanceof FileBuffer) {
+                ((FileBuffer) buffer).release();
+            }
+        }
+        this.buffers.clear();
+    }
+}
@@ -18,22 +18,30 @@
 
 package org.simpleframework.util.thread;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 
 /**
  * The <code>PoolExecutor</code> object is used to execute tasks in a thread
  * pool. This creates a thread pool with an unbounded list of outstanding tasks,
  * which ensures that any system requesting a task to be executed will not block
  * when handing it over.
+ * <p>
+ * The executor backing the pool is created by a <code>PoolStrategy</code>,
+ * which by default is the classic fixed size pool. The strategy used for a
+ * given type of task can be configured with a system property, this allows
+ * work stealing or virtual thread executors to be used instead.
  * 
  * @author Niall Gallagher
  */
 public class PoolExecutor implements Executor {
 
     /**
-     * This is the queue used to enqueue the tasks for execution.
+     * This is the executor used to enqueue the tasks for execution.
      */
-    private final PoolQueue queue;
+    private final ExecutorService queue;
 
     /**
      * Constructor for the <code>PoolExecutor</code> object. This is used to
@@ -77,7 +85,27 @@ public class PoolExecutor implements Executor {
      *            this is the maximum size the pool can grow to
      */
     public PoolExecutor(Class<? extends Runnable> type, int rest, int active) {
-        this.queue = new PoolQueue(type, rest, active);
+        this(type, rest, active, StrategyFactory.getInstance(type));
+    }
+
+    /**
+     * Constructor for the <code>PoolExecutor</code> object. This is used to
+     * create a pool of threads that can be used to execute arbitrary
+     * <code>Runnable</code> tasks. The strategy provided determines how the
+     * threads are created and how the tasks are queued for execution.
+     * 
+     * @param type
+     *            this is the type of runnable that this accepts
+     * @param rest
+     *            this is the number of threads to use in the pool
+     * @param active
+     *            this is the maximum size the pool can grow to
+     * @param strategy
+     *            this is the strategy used to create the executor
+     */
+    public PoolExecutor(Class<? extends Runnable> type, int rest, int active,
+            PoolStrategy strategy) {
+        this.queue = strategy.create(type, rest, active);
     }
 
     /**
@@ -100,6 +128,27 @@ public class PoolExecutor implements Executor {
      * execution.
      */
     public void stop() {
-        this.queue.stop();
+        this.queue.shutdown();
+        this.join();
+    }
+
+    /**
+     * This is used to wait until such time as the pool has terminated. Using a
+     * join such as this allows the user to be sure that there are no further
+     * tasks enqueued for execution and there are no tasks currently executing.
+     * This helps provide graceful shutdown. If the thread is interrupted while
+     * waiting then this returns with the interrupt status restored.
+     */
+    private void join() {
+        boolean dead = this.queue.isTerminated();
+
+        while (!dead) {
+            try {
+                dead = this.queue.awaitTermination(10, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
     }
 }
@@ -18,8 +18,6 @@
 
 package org.simpleframework.util.thread;
 
-import static java.util.concurrent.TimeUnit.SECONDS;
-
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -73,35 +71,6 @@ class PoolQueue extends ThreadPoolExecutor {
         super(rest, active, duration, unit, new Queue(), new PoolFactory(type));
     }
 
-    /**
-     * This is used to wait until such time as the pool has terminated. Using a
-     * join such as this allows the user to be sure that there are no further
-     * tasks enqueued for execution and there are no tasks currently executing.
-     * This helps provide graceful shutdown.
-     */
-    public void join() {
-        boolean dead = this.isTerminated();
-
-        while (!dead) {
-            try {
-                dead = this.awaitTermination(10, SECONDS);
-            } catch (InterruptedException e) {
-                break;
-            }
-        }
-    }
-
-    /**
-     * This is used to stop the executor by interrupting all running tasks and
-     * shutting down the threads within the pool. This will return once it has
-     * been stopped, and no further tasks will be accepted by this pool for
-     * execution.
-     */
-    public void stop() {
-        this.shutdown();
-        this.join();
-    }
-
     /**
      * This is the internal queue used by this implementation. This provides an
      * unlimited number of positions for new tasks to be queued. Having an
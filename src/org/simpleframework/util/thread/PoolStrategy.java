@@ -0,0 +1,52 @@
+/*
+ * PoolStrategy.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.thread;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The <code>PoolStrategy</code> interface is used to create the executor that
+ * backs a <code>PoolExecutor</code>. Implementations of this can provide a
+ * classic fixed size thread pool, a work stealing pool or a thread per task
+ * executor. Regardless of the strategy used all threads created must be named
+ * using the type of task that the pool has been created to execute.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.thread.PoolExecutor
+ */
+public interface PoolStrategy {
+
+    /**
+     * This is used to create the executor service that will execute the tasks
+     * handed to the <code>PoolExecutor</code>. The sizes provided are a hint
+     * to the strategy, some strategies such as a thread per task executor may
+     * ignore them completely.
+     * 
+     * @param type
+     *            this is the type of runnable that this accepts
+     * @param rest
+     *            this is the number of threads to keep alive
+     * @param active
+     *            this is the maximum number of threads to use
+     * 
+     * @return this returns the executor used to execute the tasks
+     */
+    ExecutorService create(Class<?> type, int rest, int active);
+}
@@ -0,0 +1,54 @@
+/*
+ * QueueStrategy.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.thread;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The <code>QueueStrategy</code> object is the classic strategy used by the
+ * <code>PoolExecutor</code>. It creates a thread pool of a fixed size that
+ * is backed by an unbounded queue of outstanding tasks, which ensures that any
+ * system requesting a task to be executed will not block when handing it over.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.thread.PoolQueue
+ */
+public class QueueStrategy implements PoolStrategy {
+
+    /**
+     * This is used to create the executor service that will execute the tasks
+     * handed to the <code>PoolExecutor</code>. This will create a pool that
+     * keeps the resting threads alive and will use no more than the active
+     * number of threads.
+     * 
+     * @param type
+     *            this is the type of runnable that this accepts
+     * @param rest
+     *            this is the number of threads to keep alive
+     * @param active
+     *            this is the maximum number of threads to use
+     * 
+     * @return this returns the executor used to execute the tasks
+     */
+    @Override
+    public ExecutorService create(Class<?> type, int rest, int active) {
+        return new PoolQueue(type, rest, active);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * StealingStrategy.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.thread;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * The <code>StealingStrategy</code> object is used to create a work stealing
+ * executor for a <code>PoolExecutor</code>. Work stealing suits short non
+ * blocking tasks such as those performed when reading from a socket, as idle
+ * threads take work from busy threads rather than contending on a single
+ * shared queue.
+ * 
+ * @author agent
+ * 
+ * @see java.util.concurrent.ForkJoinPool
+ */
+public class StealingStrategy implements PoolStrategy {
+
+    /**
+     * This is used to create the executor service that will execute the tasks
+     * handed to the <code>PoolExecutor</code>. The parallelism of the pool
+     * created is determined by the number of active threads requested. Tasks
+     * are executed in the order they are submitted.
+     * 
+     * @param type
+     *            this is the type of runnable that this accepts
+     * @param rest
+     *            this is the number of threads to keep alive
+     * @param active
+     *            this is the maximum number of threads to use
+     * 
+     * @return this returns the executor used to execute the tasks
+     */
+    @Override
+    public ExecutorService create(Class<?> type, int rest, int active) {
+        int size = Math.max(active, 1);
+        Factory factory = new Factory(type);
+
+        return new ForkJoinPool(size, factory, null, true);
+    }
+
+    /**
+     * The <code>Factory</code> object is used to create the worker threads
+     * for the work stealing pool. Each of the threads created is named using
+     * the type of task the pool has been created to execute.
+     */
+    private static class Factory implements ForkJoinWorkerThreadFactory {
+
+        /**
+         * This is the type of the task this pool will execute.
+         */
+        private final Class<?> type;
+
+        /**
+         * Constructor for the <code>Factory</code> object. This is used to
+         * create a factory that will name the worker threads using the simple
+         * name of the task type provided.
+         * 
+         * @param type
+         *            this is the type of runnable that this accepts
+         */
+        public Factory(Class<?> type) {
+            this.type = type;
+        }
+
+        /**
+         * This is used to create a new worker thread for the pool. The worker
+         * thread created will be given the simple name of the type of task
+         * that the pool executes along with a unique sequence.
+         * 
+         * @param pool
+         *            this is the pool the worker thread belongs to
+         * 
+         * @return this returns the thread that is to be used by this
+         */
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = new Worker(pool);
+
+            return (ForkJoinWorkerThread) ThreadBuilder.name(thread, this.type);
+        }
+    }
+
+    /**
+     * The <code>Worker</code> object is a worker thread used by the work
+     * stealing pool. This is required as the constructor of the worker thread
+     * is not visible outside of a subclass.
+     */
+    private static class Worker extends ForkJoinWorkerThread {
+
+        /**
+         * Constructor for the <code>Worker</code> object. This creates a
+         * worker thread that will execute tasks from the given pool.
+         * 
+         * @param pool
+         *            this is the pool the worker thread belongs to
+         */
+        public Worker(ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * StrategyFactory.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.thread;
+
+/**
+ * The <code>StrategyFactory</code> is used to determine which strategy should
+ * back a <code>PoolExecutor</code>. The strategy is taken from a system
+ * property, which allows the executor used for a given type of task to be
+ * changed without modifying the server. For example the following will use
+ * virtual threads for dispatching and work stealing for everything else.
+ * 
+ * <pre>
+ * -Dorg.simpleframework.util.thread.strategy=stealing
+ * -Dorg.simpleframework.util.thread.strategy.Dispatcher=virtual
+ * </pre>
+ * 
+ * The property value can be <code>classic</code>, <code>stealing</code>,
+ * <code>virtual</code>, or the fully qualified class name of an implementation
+ * of the <code>PoolStrategy</code> interface with a default constructor.
+ * 
+ * @author agent
+ * 
+ * @see org.simpleframework.util.thread.PoolStrategy
+ */
+class StrategyFactory {
+
+    /**
+     * This is the name of the property used to select the strategy.
+     */
+    private static final String PROPERTY = "org.simpleframework.util.thread.strategy";
+
+    /**
+     * This is used to acquire the strategy to use for the given task type.
+     * The property specific to the type is consulted first, if that is not
+     * specified the default property is used. If no property is specified
+     * the classic queue strategy is used.
+     * 
+     * @param type
+     *            this is the type of runnable the pool accepts
+     * 
+     * @return this returns the strategy to be used for the pool
+     */
+    public static PoolStrategy getInstance(Class<?> type) {
+        String name = type.getSimpleName();
+        String value = getProperty(PROPERTY + "." + name);
+
+        if (value == null) {
+            value = getProperty(PROPERTY);
+        }
+        return getInstance(value);
+    }
+
+    /**
+     * This is used to convert the property value to a strategy. If the value
+     * is not one of the known names it is treated as a class name. Should the
+     * class not be loadable, or not be a strategy, then an exception is thrown
+     * so that a misconfigured server fails rather than silently running with
+     * a strategy other than the one that was asked for.
+     * 
+     * @param value
+     *            this is the value of the strategy property
+     * 
+     * @return this returns the strategy to be used for the pool
+     * 
+     * @throws IllegalArgumentException
+     *             if the value does not name a usable strategy
+     */
+    private static PoolStrategy getInstance(String value) {
+        if (value == null) return new QueueStrategy();
+        if (value.equalsIgnoreCase("classic")) return new QueueStrategy();
+        if (value.equalsIgnoreCase("stealing")) return new StealingStrategy();
+        if (value.equalsIgnoreCase("virtual")) return new VirtualStrategy();
+        try {
+            Class<?> type = Class.forName(value);
+            Object strategy = type.getDeclaredConstructor().newInstance();
+
+            return (PoolStrategy) strategy;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid strategy " + value, e);
+        }
+    }
+
+    /**
+     * This is used to acquire a system property. If the property can not be
+     * read, for example if a security manager forbids it, then this returns
+     * null so that the default strategy will be used.
+     * 
+     * @param name
+     *            this is the name of the property to acquire
+     * 
+     * @return this returns the value of the named property
+     */
+    private static String getProperty(String name) {
+        try {
+            return System.getProperty(name);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
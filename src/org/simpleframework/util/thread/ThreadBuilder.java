@@ -72,6 +72,28 @@ class ThreadBuilder {
         return thread;
     }
 
+    /**
+     * This is used to name a thread that has been created elsewhere, such as
+     * a worker thread created by a work stealing pool. The thread will be
+     * given a unique name which is prefixed with the type of task it has been
+     * created to execute.
+     * 
+     * @param thread
+     *            this is the thread that is to be named
+     * @param type
+     *            this is the type of task the thread will execute
+     * 
+     * @return this returns the thread that has been named
+     */
+    public static Thread name(Thread thread, Class<?> type) {
+        String name = getName(type, thread);
+
+        if (!thread.isAlive()) {
+            thread.setName(name);
+        }
+        return thread;
+    }
+
     /**
      * This will create a thread name that is unique. The thread name is a
      * combination of the original thread name with a prefix of the type of the
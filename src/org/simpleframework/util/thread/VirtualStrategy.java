@@ -0,0 +1,88 @@
+/*
+ * VirtualStrategy.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.util.thread;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The <code>VirtualStrategy</code> object is used to create a thread per task
+ * executor for a <code>PoolExecutor</code>. Where the runtime supports virtual
+ * threads each task is given its own virtual thread, which makes it cheap for
+ * a task to block, for example when a container performs blocking I/O. On a
+ * runtime without virtual threads this strategy can not be used, rather than
+ * quietly falling back to an unbounded pool of platform threads the creation
+ * of the executor fails in the same way as an unknown strategy name.
+ * 
+ * @author agent
+ */
+public class VirtualStrategy implements PoolStrategy {
+
+    /**
+     * This is used to create the executor service that will execute the tasks
+     * handed to the <code>PoolExecutor</code>. As a new thread is used for
+     * every task the sizes provided are ignored. All threads created are named
+     * using the type of task provided. If the runtime does not support
+     * virtual threads then an <code>IllegalArgumentException</code> is thrown.
+     * 
+     * @param type
+     *            this is the type of runnable that this accepts
+     * @param rest
+     *            this is the number of threads to keep alive
+     * @param active
+     *            this is the maximum number of threads to use
+     * 
+     * @return this returns the executor used to execute the tasks
+     */
+    @Override
+    public ExecutorService create(Class<?> type, int rest, int active) {
+        try {
+            return this.create(type);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Virtual threads not supported",
+                    e);
+        }
+    }
+
+    /**
+     * This is used to create an executor that starts a new virtual thread for
+     * each task. The server is built for Java 9, and virtual threads were only
+     * added in Java 21, so they are acquired reflectively. On an older runtime
+     * an exception is thrown as the methods required do not exist.
+     * 
+     * @param type
+     *            this is the type of runnable that this accepts
+     * 
+     * @return this returns the executor used to execute the tasks
+     */
+    private ExecutorService create(Class<?> type) throws Exception {
+        String prefix = String.format("%s: VirtualThread-", type.getSimpleName());
+        Class<?> builder = Class.forName("java.lang.Thread$Builder");
+        Method virtual = Thread.class.getMethod("ofVirtual");
+        Method name = builder.getMethod("name", String.class, long.class);
+        Method factory = builder.getMethod("factory");
+        Method executor = Executors.class.getMethod("newThreadPerTaskExecutor",
+                ThreadFactory.class);
+        Object value = name.invoke(virtual.invoke(null), prefix, 0L);
+
+        return (ExecutorService) executor.invoke(null, factory.invoke(value));
+    }
+}
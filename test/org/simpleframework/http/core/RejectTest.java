@@ -0,0 +1,262 @@
+/*
+ * RejectTest.java October 2026
+ *
+ * Copyright (C) 2026, agent <agent@local>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or 
+ * implied. See the License for the specific language governing 
+ * permissions and limitations under the License.
+ */
+
+package org.simpleframework.http.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketAddress;
+
+import org.simpleframework.http.Request;
+import org.simpleframework.http.Response;
+import org.simpleframework.http.Status;
+import org.simpleframework.http.message.Header;
+import org.simpleframework.transport.connect.Connection;
+import org.simpleframework.transport.connect.SocketConnection;
+import org.simpleframework.util.buffer.FileAllocator;
+
+/**
+ * The <code>RejectTest</code> is used to check that a request refused by a
+ * <code>HeaderFilter</code> is closed gracefully. The client sends the body
+ * of the request regardless of the refusal, so the server must read and
+ * discard what it can before closing, otherwise the unread bytes cause the
+ * connection to be reset and the client may never see the response.
+ * <p>
+ * The server is run in the default mode, where the body is consumed before
+ * the request is dispatched, which is the mode the filter is most used with.
+ * 
+ * @author agent
+ */
+public class RejectTest implements Container, HeaderFilter {
+
+    /**
+     * This is the time to wait for the server to respond.
+     */
+    private static final int TIMEOUT = 10000;
+
+    /**
+     * This is used to run the test from the command line. The test fails
+     * with an exception if any of the checks fail.
+     * 
+     * @param list
+     *            this is the list of arguments, which is ignored
+     */
+    public static void main(String[] list) throws Exception {
+        RejectTest test = new RejectTest();
+
+        test.testRefused();
+        System.out.println("RejectTest passed");
+    }
+
+    /**
+     * This is used to refuse every request for the path that begins with
+     * <code>/refuse</code>. All other requests are admitted.
+     * 
+     * @param header
+     *            this is the header of the request to be examined
+     * 
+     * @return this returns the status to refuse with, or null
+     */
+    @Override
+    public Status filter(Header header) {
+        String path = header.getPath().getPath();
+
+        if (path.startsWith("/refuse")) {
+            return Status.REQUEST_ENTITY_TOO_LARGE;
+        }
+        return null;
+    }
+
+    /**
+     * This is used to handle the requests that are admitted. A refused
+     * request must never reach the container.
+     * 
+     * @param request
+     *            this is the request that has been admitted
+     * @param response
+     *            this is the response to the request
+     */
+    @Override
+    public void handle(Request request, Response response) {
+        try {
+            PrintStream out = response.getPrintStream();
+
+            out.print(request.getPath());
+            out.close();
+        } catch (Exception cause) {
+            cause.printStackTrace();
+        }
+    }
+
+    /**
+     * This is used to check that a refused request is answered and that
+     * the connection is then ended without being reset. This is checked
+     * for a small body and for a larger body, in both cases the client is
+     * still sending the body once the response has been received.
+     */
+    public void testRefused() throws Exception {
+        ContainerServer server = new ContainerServer(this, this,
+                new FileAllocator(), 2, false);
+        Connection connection = new SocketConnection(server);
+
+        try {
+            SocketAddress address = new InetSocketAddress("127.0.0.1", 0);
+            InetSocketAddress bound = (InetSocketAddress) connection
+                    .connect(address);
+            int port = bound.getPort();
+
+            this.assertRefused(port, 10);
+            this.assertRefused(port, 20000);
+            this.assertAdmitted(port, 10);
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * This sends a request that is refused. Half of the body is sent with
+     * the header, and the whole response must then be received followed
+     * by the end of the stream. The rest of the body is sent after the
+     * response, which the server must read and discard, so that when the
+     * client finishes the connection ends rather than being reset.
+     * 
+     * @param port
+     *            this is the port the server is listening on
+     * @param length
+     *            this is the length of the body to send
+     */
+    private void assertRefused(int port, int length) throws Exception {
+        Socket socket = new Socket("127.0.0.1", port);
+
+        try {
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+            int half = length / 2;
+
+            socket.setSoTimeout(TIMEOUT);
+            this.send(out, "/refuse", length, half);
+
+            String response = this.read(in);
+
+            if (!response.startsWith("HTTP/1.1 413")) {
+                throw new AssertionError("Expected 413 but got " + response);
+            }
+            try {
+                out.write(new byte[length - half]);
+                out.flush();
+                socket.shutdownOutput();
+
+                if (in.read() != -1) {
+                    throw new AssertionError("Bytes sent after the response");
+                }
+            } catch (IOException cause) {
+                throw new AssertionError("Body was not drained", cause);
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * This sends a request that is admitted to ensure the filter does not
+     * interfere with the requests it does not refuse.
+     * 
+     * @param port
+     *            this is the port the server is listening on
+     * @param length
+     *            this is the length of the body to send
+     */
+    private void assertAdmitted(int port, int length) throws Exception {
+        Socket socket = new Socket("127.0.0.1", port);
+
+        try {
+            socket.setSoTimeout(TIMEOUT);
+            this.send(socket.getOutputStream(), "/admit", length, length);
+
+            String response = this.read(socket.getInputStream());
+
+            if (!response.startsWith("HTTP/1.1 200")) {
+                throw new AssertionError("Expected 200 but got " + response);
+            }
+            if (!response.endsWith("/admit")) {
+                throw new AssertionError("Unexpected body in " + response);
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * This sends the header of a POST request with a body of the specified
+     * length, followed by the first part of the body. The request asks for
+     * the connection to be closed, so the end of the stream marks the end
+     * of the response.
+     * 
+     * @param out
+     *            this is the stream to send the request with
+     * @param path
+     *            this is the path of the request to send
+     * @param length
+     *            this is the length of the body declared
+     * @param count
+     *            this is the number of bytes of the body to send
+     */
+    private void send(OutputStream out, String path, int length, int count)
+            throws Exception {
+        String header = "POST " + path + " HTTP/1.1\r\n"
+                + "Host: localhost\r\n" + "Connection: close\r\n"
+                + "Content-Length: " + length + "\r\n\r\n";
+
+        out.write(header.getBytes("ISO-8859-1"));
+        out.write(new byte[count]);
+        out.flush();
+    }
+
+    /**
+     * This reads the stream until it ends. If the connection is reset
+     * while reading then the exception is reported along with what was
+     * received before the reset.
+     * 
+     * @param in
+     *            this is the stream to read the response from
+     * 
+     * @return this returns the bytes received as a string
+     */
+    private String read(InputStream in) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        byte[] data = new byte[1024];
+
+        try {
+            int count = in.read(data);
+
+            while (count != -1) {
+                buffer.write(data, 0, count);
+                count = in.read(data);
+            }
+        } catch (IOException cause) {
+            throw new AssertionError("Connection was not ended gracefully "
+                    + "after " + buffer.toString("ISO-8859-1"), cause);
+        }
+        return buffer.toString("ISO-8859-1");
+    }
+}